@@ -0,0 +1,38 @@
+package com.laundry.lms.config;
+
+import com.laundry.lms.service.async.ListenerExecutor;
+import com.laundry.lms.service.async.ListenerMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Executor used by @Async methods and the outbox relay to run event listeners.
+ */
+@Configuration
+public class AsyncConfig implements AsyncConfigurer {
+
+    private final ListenerExecutor listenerExecutor;
+
+    public AsyncConfig(ListenerMetrics listenerMetrics,
+            @Value("${async.listener.core-threads:4}") int coreThreads,
+            @Value("${async.listener.max-threads:8}") int maxThreads,
+            @Value("${async.listener.queue-capacity:500}") int queueCapacity,
+            @Value("${async.listener.keep-alive-seconds:60}") long keepAliveSeconds) {
+        this.listenerExecutor = new ListenerExecutor(coreThreads, maxThreads, queueCapacity, keepAliveSeconds,
+                listenerMetrics);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ListenerExecutor listenerExecutor() {
+        return listenerExecutor;
+    }
+
+    @Override
+    public Executor getAsyncExecutor() {
+        return listenerExecutor;
+    }
+}
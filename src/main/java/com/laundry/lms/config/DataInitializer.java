@@ -12,6 +12,7 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 
@@ -126,6 +127,12 @@ public class DataInitializer {
                             UserRole.CUSTOMER),
                     new User("Test Customer", "customer@test.lk", passwordEncoder.encode("pass123"),
                             UserRole.CUSTOMER));
+            // Home locations around Colombo for delivery routing
+            double[][] homes = { { 6.9022, 79.8607 }, { 6.8649, 79.8997 }, { 6.9497, 79.8770 }, { 6.8868, 79.8580 } };
+            for (int i = 0; i < customers.size(); i++) {
+                customers.get(i).setLatitude(homes[i][0]);
+                customers.get(i).setLongitude(homes[i][1]);
+            }
             userRepository.saveAll(customers);
 
             // Laundry Staff
@@ -183,12 +190,13 @@ public class DataInitializer {
             // Seed Tasks
             // ==========================================
             List<Task> tasks = new ArrayList<>();
-            String[] team = { "Saman", "Ishara", "Dilani", "Pasan" };
+            User[] team = { laundryStaff, deliveryStaff, financeStaff, customerService };
             for (int i = 0; i < 12; i++) {
                 Task task = new Task();
                 task.setTitle("Task #" + (i + 1));
-                task.setAssignedTo(team[random.nextInt(team.length)]);
+                task.setAssignee(team[random.nextInt(team.length)]);
                 task.setDueDate(LocalDate.now().plusDays(random.nextInt(7)));
+                task.setPriority(TaskPriority.values()[random.nextInt(TaskPriority.values().length)]);
                 task.setPrice(BigDecimal.valueOf(200 + random.nextInt(1500)));
                 task.setNotes("Demo task generated for showcase");
                 task.setStatus(TaskStatus.values()[random.nextInt(TaskStatus.values().length)]);
@@ -199,9 +207,11 @@ public class DataInitializer {
             // ==========================================
             // Seed Payments
             // ==========================================
+            // One payment per order (uk_payment_order), so pick distinct orders
+            List<LaundryOrder> paidOrders = new ArrayList<>(orders);
+            Collections.shuffle(paidOrders, random);
             List<Payment> payments = new ArrayList<>();
-            for (int i = 0; i < 8; i++) {
-                LaundryOrder order = orders.get(random.nextInt(orders.size()));
+            for (LaundryOrder order : paidOrders.subList(0, Math.min(8, paidOrders.size()))) {
                 Payment payment = new Payment();
                 payment.setOrderId(order.getId());
                 payment.setAmountLkr(order.getPrice());
@@ -246,4 +256,24 @@ public class DataInitializer {
             System.out.println("=".repeat(50));
         };
     }
+
+    // Separate from the demo data so existing databases get a shop floor too
+    @Bean
+    public CommandLineRunner seedMachines(MachineRepository machineRepository) {
+        return args -> {
+            if (machineRepository.count() > 0) {
+                return;
+            }
+            List<Machine> machines = new ArrayList<>();
+            for (int i = 1; i <= 4; i++) {
+                machines.add(new Machine("Washer " + i, MachineType.WASHER, 12));
+                machines.add(new Machine("Dryer " + i, MachineType.DRYER, 14));
+            }
+            machines.add(new Machine("Dry Cleaner 1", MachineType.DRY_CLEANER, 10));
+            for (int i = 1; i <= 3; i++) {
+                machines.add(new Machine("Press " + i, MachineType.PRESS, 4));
+            }
+            machineRepository.saveAll(machines);
+        };
+    }
 }
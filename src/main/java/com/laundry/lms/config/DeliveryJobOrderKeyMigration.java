@@ -0,0 +1,141 @@
+package com.laundry.lms.config;
+
+import com.laundry.lms.service.sync.DeliveryChangeLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adds uk_delivery_job_order to databases created before delivery jobs were
+ * unique per order. ddl-auto=update cannot add it while duplicates exist and
+ * only logs the failure, which would leave DeliveryJobAutoCreator without its
+ * duplicate check. Duplicates are collapsed first: per order the job that got
+ * furthest (not SCHEDULED, then assigned, then oldest) is kept, photos move to
+ * it, and drivers of the deleted jobs get a removal on their next sync. Runs
+ * on every start and does nothing once the key exists.
+ */
+@Component
+public class DeliveryJobOrderKeyMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(DeliveryJobOrderKeyMigration.class);
+
+    private static final String DUPLICATES = "SELECT id, order_id, status, assigned_to_id FROM delivery_jobs "
+            + "WHERE order_id IN (SELECT order_id FROM delivery_jobs GROUP BY order_id HAVING COUNT(*) > 1) "
+            + "ORDER BY order_id, id";
+    private static final String ADD_KEY = "ALTER TABLE delivery_jobs "
+            + "ADD CONSTRAINT uk_delivery_job_order UNIQUE (order_id)";
+
+    private record Row(long id, long orderId, String status, Long driverId) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DeliveryChangeLog changeLog;
+    private final TransactionTemplate transactionTemplate;
+
+    public DeliveryJobOrderKeyMigration(JdbcTemplate jdbcTemplate, DeliveryChangeLog changeLog,
+            PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.changeLog = changeLog;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Before the auto-creator's first flush relies on the key
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void migrate() {
+        if (hasKey()) {
+            return;
+        }
+        Integer removed = transactionTemplate.execute(status -> removeDuplicates());
+        if (removed != null && removed > 0) {
+            log.warn("Removed {} duplicate delivery job(s) before adding uk_delivery_job_order", removed);
+        }
+        try {
+            jdbcTemplate.execute(ADD_KEY);
+            log.info("Added uk_delivery_job_order");
+        } catch (DataAccessException e) {
+            if (!hasKey()) {
+                log.error("Could not add uk_delivery_job_order; READY orders may get duplicate delivery jobs", e);
+            }
+        }
+    }
+
+    private int removeDuplicates() {
+        Map<Long, List<Row>> byOrder = new HashMap<>();
+        jdbcTemplate.query(DUPLICATES, rs -> {
+            long driverId = rs.getLong("assigned_to_id");
+            Row row = new Row(rs.getLong("id"), rs.getLong("order_id"), rs.getString("status"),
+                    rs.wasNull() ? null : driverId);
+            byOrder.computeIfAbsent(row.orderId(), orderId -> new ArrayList<>()).add(row);
+        });
+        if (byOrder.isEmpty()) {
+            return 0;
+        }
+        long changeSeq = changeLog.next();
+        int removed = 0;
+        for (List<Row> rows : byOrder.values()) {
+            Row kept = keep(rows);
+            for (Row row : rows) {
+                if (row == kept) {
+                    continue;
+                }
+                jdbcTemplate.update("UPDATE photos SET delivery_job_id = ? WHERE delivery_job_id = ?",
+                        kept.id(), row.id());
+                jdbcTemplate.update("DELETE FROM delivery_jobs WHERE id = ?", row.id());
+                changeLog.removed(row.id(), row.driverId(), changeSeq);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    // rows are in id order
+    private static Row keep(List<Row> rows) {
+        for (Row row : rows) {
+            if (!"SCHEDULED".equals(row.status())) {
+                return row;
+            }
+        }
+        for (Row row : rows) {
+            if (row.driverId() != null) {
+                return row;
+            }
+        }
+        return rows.get(0);
+    }
+
+    // A unique index on order_id alone, whatever it is called
+    private boolean hasKey() {
+        Boolean found = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String table = metaData.storesUpperCaseIdentifiers() ? "DELIVERY_JOBS" : "delivery_jobs";
+            Map<String, List<String>> columns = new HashMap<>();
+            try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), null, table, true, false)) {
+                while (rs.next()) {
+                    String column = rs.getString("COLUMN_NAME");
+                    if (column != null) {
+                        columns.computeIfAbsent(rs.getString("INDEX_NAME"), name -> new ArrayList<>()).add(column);
+                    }
+                }
+            }
+            return columns.values().stream()
+                    .anyMatch(names -> names.size() == 1 && names.get(0).equalsIgnoreCase("order_id"));
+        });
+        return Boolean.TRUE.equals(found);
+    }
+}
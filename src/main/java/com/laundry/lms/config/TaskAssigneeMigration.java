@@ -0,0 +1,65 @@
+package com.laundry.lms.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Links tasks created before tasks had an assignee_id to their user. The old
+ * free-text assigned_to is matched against staff emails, then exact names;
+ * it is only cleared once a single user matches. Rows left over (unknown or
+ * ambiguous names) keep showing the old text and are logged for an admin to
+ * reassign. Runs on every start and does nothing once all rows are linked.
+ * <p>
+ * Unlinked rows also get NORMAL priority if they hold 0 (URGENT): a database
+ * that gained the priority column before it had a default filled old rows
+ * with 0, and a task's priority is only set when it is created, which old
+ * rows never were.
+ */
+@Component
+public class TaskAssigneeMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskAssigneeMigration.class);
+
+    private static final String PRIORITY = "UPDATE tasks SET priority = 2 "
+            + "WHERE assignee_id IS NULL AND assigned_to IS NOT NULL AND priority = 0";
+    private static final String BY_EMAIL = "UPDATE tasks SET assignee_id = "
+            + "(SELECT MIN(u.id) FROM users u WHERE u.email = tasks.assigned_to AND u.role <> 'CUSTOMER'), "
+            + "assigned_to = NULL "
+            + "WHERE assignee_id IS NULL AND assigned_to IS NOT NULL "
+            + "AND EXISTS (SELECT 1 FROM users u WHERE u.email = tasks.assigned_to AND u.role <> 'CUSTOMER')";
+    private static final String BY_NAME = "UPDATE tasks SET assignee_id = "
+            + "(SELECT MIN(u.id) FROM users u WHERE u.name = tasks.assigned_to AND u.role <> 'CUSTOMER'), "
+            + "assigned_to = NULL "
+            + "WHERE assignee_id IS NULL AND assigned_to IS NOT NULL "
+            + "AND (SELECT COUNT(*) FROM users u WHERE u.name = tasks.assigned_to AND u.role <> 'CUSTOMER') = 1";
+    private static final String UNRESOLVED = "SELECT COUNT(*) FROM tasks "
+            + "WHERE assignee_id IS NULL AND assigned_to IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TaskAssigneeMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        // Before linking, while assigned_to still marks the old rows
+        int reprioritised = jdbcTemplate.update(PRIORITY);
+        if (reprioritised > 0) {
+            log.info("Set {} task(s) from before task priorities to NORMAL", reprioritised);
+        }
+        int linked = jdbcTemplate.update(BY_EMAIL) + jdbcTemplate.update(BY_NAME);
+        Integer unresolved = jdbcTemplate.queryForObject(UNRESOLVED, Integer.class);
+        if (linked > 0) {
+            log.info("Linked {} task(s) to their assignee", linked);
+        }
+        if (unresolved != null && unresolved > 0) {
+            log.warn("{} task(s) have an assignee name that matches no single staff member; reassign them",
+                    unresolved);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.laundry.lms.repository.*;
 import com.laundry.lms.security.CustomUserDetailsService;
 import com.laundry.lms.service.FinanceService;
 import com.laundry.lms.service.OrderService;
+import com.laundry.lms.service.async.ListenerExecutor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -34,6 +35,7 @@ public class AdminController {
     private final FinanceService financeService;
     private final PasswordEncoder passwordEncoder;
     private final CustomUserDetailsService userDetailsService;
+    private final ListenerExecutor listenerExecutor;
 
     public AdminController(UserRepository userRepository,
             ServiceCatalogRepository serviceCatalogRepository,
@@ -42,7 +44,8 @@ public class AdminController {
             OrderService orderService,
             FinanceService financeService,
             PasswordEncoder passwordEncoder,
-            CustomUserDetailsService userDetailsService) {
+            CustomUserDetailsService userDetailsService,
+            ListenerExecutor listenerExecutor) {
         this.userRepository = userRepository;
         this.serviceCatalogRepository = serviceCatalogRepository;
         this.pressingPriceRepository = pressingPriceRepository;
@@ -51,6 +54,7 @@ public class AdminController {
         this.financeService = financeService;
         this.passwordEncoder = passwordEncoder;
         this.userDetailsService = userDetailsService;
+        this.listenerExecutor = listenerExecutor;
     }
 
     // ==================== USER MANAGEMENT ====================
@@ -288,6 +292,15 @@ public class AdminController {
         return ResponseEntity.ok(logs);
     }
 
+    /**
+     * Get event listener executor metrics: pool and queue usage, caller-runs count and per-listener timings.
+     */
+    @GetMapping("/listeners/metrics")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getListenerMetrics() {
+        return ResponseEntity.ok(listenerExecutor.stats());
+    }
+
     private void createAuditLog(User actor, String action, String entityType, Long entityId,
             String before, String after) {
         AuditLog log = AuditLog.create(actor, action, entityType, entityId, before, after);
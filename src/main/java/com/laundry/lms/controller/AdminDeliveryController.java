@@ -1,14 +1,25 @@
 package com.laundry.lms.controller;
 
+import com.laundry.lms.dto.DeliveryUpdate;
 import com.laundry.lms.model.*;
 import com.laundry.lms.security.CustomUserDetailsService;
+import com.laundry.lms.repository.UserRepository;
+import com.laundry.lms.service.DeliveryAssignmentService;
 import com.laundry.lms.service.DeliveryService;
+import com.laundry.lms.service.location.DispatchIndex;
+import com.laundry.lms.service.location.DriverLocationService;
+import com.laundry.lms.service.routing.RouteService;
+import com.laundry.lms.service.stream.DeliveryEventHub;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -22,11 +33,29 @@ public class AdminDeliveryController {
 
     private final DeliveryService deliveryService;
     private final CustomUserDetailsService userDetailsService;
+    private final RouteService routeService;
+    private final DeliveryAssignmentService assignmentService;
+    private final UserRepository userRepository;
+    private final DriverLocationService locationService;
+    private final DispatchIndex dispatchIndex;
+    private final DeliveryEventHub eventHub;
 
     public AdminDeliveryController(DeliveryService deliveryService,
-            CustomUserDetailsService userDetailsService) {
+            CustomUserDetailsService userDetailsService,
+            RouteService routeService,
+            DeliveryAssignmentService assignmentService,
+            UserRepository userRepository,
+            DriverLocationService locationService,
+            DispatchIndex dispatchIndex,
+            DeliveryEventHub eventHub) {
         this.deliveryService = deliveryService;
         this.userDetailsService = userDetailsService;
+        this.routeService = routeService;
+        this.assignmentService = assignmentService;
+        this.userRepository = userRepository;
+        this.locationService = locationService;
+        this.dispatchIndex = dispatchIndex;
+        this.eventHub = eventHub;
     }
 
     /**
@@ -52,6 +81,121 @@ public class AdminDeliveryController {
         }
     }
 
+    /**
+     * Assign all scheduled jobs that have no on-duty driver now.
+     */
+    @PostMapping("/auto-assign")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> autoAssign(Authentication authentication) {
+        User admin = userDetailsService.loadUserEntityByEmail(authentication.getName());
+        int assigned = assignmentService.assignPending(admin);
+        return ResponseEntity.ok(Map.of("assigned", assigned));
+    }
+
+    /**
+     * Put a driver on or off duty; off-duty drivers' scheduled jobs are rebalanced.
+     */
+    @PatchMapping("/drivers/{driverId}/duty")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> setDriverDuty(@PathVariable Long driverId,
+            @RequestBody Map<String, Boolean> body,
+            Authentication authentication) {
+        Boolean onDuty = body.get("onDuty");
+        if (onDuty == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "onDuty is required"));
+        }
+        User driver = userRepository.findById(driverId).orElse(null);
+        if (driver == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Driver not found"));
+        }
+        try {
+            User admin = userDetailsService.loadUserEntityByEmail(authentication.getName());
+            int reassigned = assignmentService.setOnDuty(driver, onDuty, admin);
+            return ResponseEntity.ok(Map.of("onDuty", onDuty, "reassigned", reassigned));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Get optimized routes for every driver for a day (default today).
+     */
+    @GetMapping("/routes")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getRoutes(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        try {
+            return ResponseEntity.ok(routeService.planForAllDrivers(date != null ? date : LocalDate.now()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Latest known position of every driver.
+     */
+    @GetMapping("/drivers/locations")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getDriverLocations() {
+        return ResponseEntity.ok(locationService.latestAll());
+    }
+
+    /**
+     * Recent trail of one driver (default last 30 minutes).
+     */
+    @GetMapping("/drivers/{driverId}/trail")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getDriverTrail(@PathVariable Long driverId,
+            @RequestParam(defaultValue = "30") int minutes) {
+        if (minutes < 1) {
+            return ResponseEntity.badRequest().body(Map.of("error", "minutes must be positive"));
+        }
+        return ResponseEntity.ok(locationService.trail(driverId, minutes));
+    }
+
+    /**
+     * Nearest available drivers to a point (default 5).
+     */
+    @GetMapping("/dispatch/nearest-drivers")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getNearestDrivers(@RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam(defaultValue = "5") int k) {
+        if (k < 1 || k > 100) {
+            return ResponseEntity.badRequest().body(Map.of("error", "k must be between 1 and 100"));
+        }
+        return ResponseEntity.ok(dispatchIndex.nearestDrivers(latitude, longitude, k));
+    }
+
+    /**
+     * Open delivery jobs around a point (default 2 km), optionally of one status.
+     */
+    @GetMapping("/dispatch/nearby-jobs")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getNearbyJobs(@RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam(defaultValue = "2") double radiusKm,
+            @RequestParam(required = false) DeliveryStatus status) {
+        if (radiusKm <= 0 || radiusKm > 50) {
+            return ResponseEntity.badRequest().body(Map.of("error", "radiusKm must be between 0 and 50"));
+        }
+        return ResponseEntity.ok(dispatchIndex.jobsWithin(latitude, longitude, radiusKm, status));
+    }
+
+    /**
+     * Live stream of delivery job changes, optionally for one driver or status.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public SseEmitter streamEvents(@RequestParam(required = false) Long driverId,
+            @RequestParam(required = false) DeliveryStatus status,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return eventHub.subscribe((DeliveryUpdate update) ->
+                (driverId == null || driverId.equals(update.assigneeId())
+                        || driverId.equals(update.previousAssigneeId()))
+                && (status == null || status == update.status()), lastEventId);
+    }
+
     /**
      * Get all deliveries.
      */
@@ -99,6 +243,8 @@ public class AdminDeliveryController {
             return ResponseEntity.ok(Map.of("message", "Delivery deleted"));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
         }
     }
 }
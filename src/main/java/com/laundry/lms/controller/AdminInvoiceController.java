@@ -0,0 +1,57 @@
+package com.laundry.lms.controller;
+
+import com.laundry.lms.dto.InvoiceBatchStatus;
+import com.laundry.lms.model.User;
+import com.laundry.lms.security.CustomUserDetailsService;
+import com.laundry.lms.service.InvoiceBatchService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Admin Invoice Controller - for admin to run and monitor batch invoicing.
+ */
+@RestController
+@RequestMapping("/api/admin/invoices")
+@CrossOrigin(origins = "*")
+public class AdminInvoiceController {
+
+    private final InvoiceBatchService invoiceBatchService;
+    private final CustomUserDetailsService userDetailsService;
+
+    public AdminInvoiceController(InvoiceBatchService invoiceBatchService,
+            CustomUserDetailsService userDetailsService) {
+        this.invoiceBatchService = invoiceBatchService;
+        this.userDetailsService = userDetailsService;
+    }
+
+    /**
+     * Start invoicing all paid orders that have no invoice.
+     */
+    @PostMapping("/batch")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> startBatch(Authentication authentication) {
+        try {
+            User admin = userDetailsService.loadUserEntityByEmail(authentication.getName());
+            InvoiceBatchStatus status = invoiceBatchService.start(admin);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(
+                    "message", "Invoice batch started",
+                    "batch", status));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Get progress of the current or last batch run.
+     */
+    @GetMapping("/batch")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getBatchStatus() {
+        return ResponseEntity.ok(invoiceBatchService.getStatus());
+    }
+}
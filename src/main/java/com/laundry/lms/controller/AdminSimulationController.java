@@ -0,0 +1,38 @@
+package com.laundry.lms.controller;
+
+import com.laundry.lms.dto.SimulationRequest;
+import com.laundry.lms.service.simulation.SimulationService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Admin Simulation Controller - capacity what-ifs on past or synthetic demand.
+ */
+@RestController
+@RequestMapping("/api/admin/simulations")
+@CrossOrigin(origins = "*")
+public class AdminSimulationController {
+
+    private final SimulationService simulationService;
+
+    public AdminSimulationController(SimulationService simulationService) {
+        this.simulationService = simulationService;
+    }
+
+    /**
+     * Run demand through a model of the shop and report turnaround,
+     * utilization and late deliveries.
+     */
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> simulate(@RequestBody SimulationRequest request) {
+        try {
+            return ResponseEntity.ok(simulationService.simulate(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
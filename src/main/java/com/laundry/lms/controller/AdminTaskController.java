@@ -1,6 +1,7 @@
 package com.laundry.lms.controller;
 
 import com.laundry.lms.dto.TaskRequest;
+import com.laundry.lms.dto.TaskResponse;
 import com.laundry.lms.model.*;
 import com.laundry.lms.security.CustomUserDetailsService;
 import com.laundry.lms.service.TaskService;
@@ -43,8 +44,11 @@ public class AdminTaskController {
 
             Task task = new Task();
             task.setTitle(request.getTitle());
-            task.setAssignedTo(request.getAssignedTo());
+            task.setAssignee(taskService.resolveAssignee(request.getAssigneeId(), request.getAssignedTo()));
             task.setDueDate(request.getDueDate());
+            if (request.getPriority() != null && !request.getPriority().isBlank()) {
+                task.setPriority(TaskPriority.valueOf(request.getPriority().toUpperCase()));
+            }
             task.setPrice(request.getPrice());
             task.setNotes(request.getNotes());
             task.setStatus(TaskStatus.PENDING);
@@ -52,7 +56,9 @@ public class AdminTaskController {
             Task created = taskService.createTask(task, admin);
             return ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
                     "message", "Task created successfully",
-                    "task", created));
+                    "task", TaskResponse.from(created)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Failed to create task: " + e.getMessage()));
@@ -73,14 +79,40 @@ public class AdminTaskController {
             } else {
                 tasks = taskService.getAllTasks();
             }
-            return ResponseEntity.ok(tasks);
+            return ResponseEntity.ok(tasks.stream().map(TaskResponse::from).toList());
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(Map.of("error", "Invalid status"));
         }
     }
 
     /**
-     * Reassign a task to another user.
+     * Task board: counts per status and the first page of every column.
+     */
+    @GetMapping("/board")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getBoard(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(taskService.getBoard(limit));
+    }
+
+    /**
+     * Next page of one board column.
+     */
+    @GetMapping("/board/{status}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getBoardColumn(@PathVariable String status,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String after) {
+        try {
+            TaskStatus taskStatus = TaskStatus.valueOf(status.toUpperCase());
+            return ResponseEntity.ok(taskService.getBoardColumn(taskStatus, limit, after));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Reassign a task to another user, given as assigneeId or as assignedTo
+     * (email or name).
      */
     @PatchMapping("/{id}/reassign")
     @PreAuthorize("hasRole('ADMIN')")
@@ -89,16 +121,19 @@ public class AdminTaskController {
             Authentication authentication) {
         try {
             User admin = userDetailsService.loadUserEntityByEmail(authentication.getName());
-            String newAssignee = body.get("assignedTo");
+            String assigneeId = body.get("assigneeId");
+            User newAssignee = taskService.resolveAssignee(
+                    assigneeId != null && !assigneeId.isBlank() ? Long.valueOf(assigneeId) : null,
+                    body.get("assignedTo"));
 
-            if (newAssignee == null || newAssignee.isBlank()) {
+            if (newAssignee == null) {
                 return ResponseEntity.badRequest().body(Map.of("error", "New assignee is required"));
             }
 
             Task updated = taskService.reassignTask(id, newAssignee, admin);
             return ResponseEntity.ok(Map.of(
-                    "message", "Task reassigned to " + newAssignee,
-                    "task", updated));
+                    "message", "Task reassigned to " + newAssignee.getName(),
+                    "task", TaskResponse.from(updated)));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
         }
@@ -1,13 +1,18 @@
 package com.laundry.lms.controller;
 
 import com.laundry.lms.dto.CustomerOrderRequest;
+import com.laundry.lms.dto.DriverPosition;
+import com.laundry.lms.dto.PhotoView;
 import com.laundry.lms.model.*;
 import com.laundry.lms.repository.LaundryOrderRepository;
 import com.laundry.lms.repository.OrderItemRepository;
 import com.laundry.lms.repository.UserRepository;
 import com.laundry.lms.security.CustomUserDetailsService;
 import com.laundry.lms.service.OrderService;
+import com.laundry.lms.service.PhotoService;
 import com.laundry.lms.service.PricingService;
+import com.laundry.lms.service.SlotBookingService;
+import com.laundry.lms.service.location.DriverLocationService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -35,19 +40,28 @@ public class CustomerOrderController {
     private final OrderService orderService;
     private final PricingService pricingService;
     private final CustomUserDetailsService userDetailsService;
+    private final DriverLocationService locationService;
+    private final SlotBookingService slotBookingService;
+    private final PhotoService photoService;
 
     public CustomerOrderController(LaundryOrderRepository orderRepository,
             OrderItemRepository orderItemRepository,
             UserRepository userRepository,
             OrderService orderService,
             PricingService pricingService,
-            CustomUserDetailsService userDetailsService) {
+            CustomUserDetailsService userDetailsService,
+            DriverLocationService locationService,
+            SlotBookingService slotBookingService,
+            PhotoService photoService) {
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
         this.userRepository = userRepository;
         this.orderService = orderService;
         this.pricingService = pricingService;
         this.userDetailsService = userDetailsService;
+        this.locationService = locationService;
+        this.slotBookingService = slotBookingService;
+        this.photoService = photoService;
     }
 
     /**
@@ -113,6 +127,10 @@ public class CustomerOrderController {
                 subtotal = pricingService.applyPremiumCare(subtotal, totalItems);
             }
 
+            // Reserve pickup and delivery slots; released again if the order cannot be saved
+            DeliveryZone zone = slotBookingService.zoneOf(customer);
+            slotBookingService.reserve(zone, request.getPickupAt(), request.getDeliveryAt());
+
             // Create order
             LaundryOrder order = new LaundryOrder();
             order.setCustomer(customer);
@@ -122,16 +140,26 @@ public class CustomerOrderController {
             order.setPrice(subtotal);
             order.setPickupDate(request.getPickupAt().toLocalDate());
             order.setDeliveryDate(request.getDeliveryAt().toLocalDate());
+            order.setPickupHour(request.getPickupAt().getHour());
+            order.setDeliveryHour(request.getDeliveryAt().getHour());
+            order.setSlotZone(zone);
+            order.setExpress(request.isExpressService());
             order.setNotes(request.getNotes());
             order.setStatus(OrderStatus.PENDING);
             order.setPaymentStatus(PaymentStatus.PENDING.name());
 
-            LaundryOrder savedOrder = orderRepository.save(order);
+            LaundryOrder savedOrder;
+            try {
+                savedOrder = orderRepository.save(order);
 
-            // Save order items
-            for (OrderItem item : orderItems) {
-                item.setOrder(savedOrder);
-                orderItemRepository.save(item);
+                // Save order items
+                for (OrderItem item : orderItems) {
+                    item.setOrder(savedOrder);
+                    orderItemRepository.save(item);
+                }
+            } catch (RuntimeException e) {
+                slotBookingService.release(zone, request.getPickupAt(), request.getDeliveryAt());
+                throw e;
             }
 
             return ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
@@ -141,6 +169,8 @@ public class CustomerOrderController {
                     "redirectUrl", "/frontend/pay.html?orderId=" + savedOrder.getId()));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Failed to create order: " + e.getMessage()));
@@ -176,6 +206,47 @@ public class CustomerOrderController {
                         .body(Map.of("error", "Order not found")));
     }
 
+    /**
+     * Where the driver for an order is, while a delivery job for it is active.
+     */
+    @GetMapping("/orders/{id}/driver-location")
+    @PreAuthorize("hasAnyRole('CUSTOMER', 'ADMIN')")
+    public ResponseEntity<?> getDriverLocation(@PathVariable Long id, Authentication authentication) {
+        User customer = userDetailsService.loadUserEntityByEmail(authentication.getName());
+
+        boolean visible = orderService.getOrderById(id)
+                .filter(order -> order.getCustomer().getId().equals(customer.getId()) ||
+                        customer.getRole() == UserRole.ADMIN)
+                .isPresent();
+        if (!visible) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Order not found"));
+        }
+        DriverPosition position = locationService.latestForOrder(id);
+        if (position == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "No driver location available for this order"));
+        }
+        return ResponseEntity.ok(position);
+    }
+
+    /**
+     * Proof-of-delivery and garment condition photos of an order.
+     */
+    @GetMapping("/orders/{id}/photos")
+    @PreAuthorize("hasAnyRole('CUSTOMER', 'ADMIN')")
+    public ResponseEntity<?> getOrderPhotos(@PathVariable Long id, Authentication authentication) {
+        User customer = userDetailsService.loadUserEntityByEmail(authentication.getName());
+
+        boolean visible = orderService.getOrderById(id)
+                .filter(order -> order.getCustomer().getId().equals(customer.getId()) ||
+                        customer.getRole() == UserRole.ADMIN)
+                .isPresent();
+        if (!visible) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Order not found"));
+        }
+        return ResponseEntity.ok(photoService.getOrderPhotos(id).stream().map(PhotoView::from).toList());
+    }
+
     /**
      * Cancel an order (customer can only cancel PENDING orders).
      */
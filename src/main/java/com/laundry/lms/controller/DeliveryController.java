@@ -1,14 +1,31 @@
 package com.laundry.lms.controller;
 
+import com.laundry.lms.dto.DeliverySyncRequest;
+import com.laundry.lms.dto.DeliveryUpdate;
+import com.laundry.lms.dto.LocationPingRequest;
+import com.laundry.lms.dto.PhotoView;
 import com.laundry.lms.model.*;
 import com.laundry.lms.security.CustomUserDetailsService;
+import com.laundry.lms.service.DeliveryAssignmentService;
 import com.laundry.lms.service.DeliveryService;
+import com.laundry.lms.service.PhotoService;
+import com.laundry.lms.service.location.DriverLocationService;
+import com.laundry.lms.service.routing.RouteService;
+import com.laundry.lms.service.stream.DeliveryEventHub;
+import com.laundry.lms.service.sync.DeliverySyncService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -22,11 +39,29 @@ public class DeliveryController {
 
     private final DeliveryService deliveryService;
     private final CustomUserDetailsService userDetailsService;
+    private final RouteService routeService;
+    private final DeliveryAssignmentService assignmentService;
+    private final DriverLocationService locationService;
+    private final DeliveryEventHub eventHub;
+    private final PhotoService photoService;
+    private final DeliverySyncService syncService;
 
     public DeliveryController(DeliveryService deliveryService,
-            CustomUserDetailsService userDetailsService) {
+            CustomUserDetailsService userDetailsService,
+            RouteService routeService,
+            DeliveryAssignmentService assignmentService,
+            DriverLocationService locationService,
+            DeliveryEventHub eventHub,
+            PhotoService photoService,
+            DeliverySyncService syncService) {
         this.deliveryService = deliveryService;
         this.userDetailsService = userDetailsService;
+        this.routeService = routeService;
+        this.assignmentService = assignmentService;
+        this.locationService = locationService;
+        this.eventHub = eventHub;
+        this.photoService = photoService;
+        this.syncService = syncService;
     }
 
     /**
@@ -40,6 +75,79 @@ public class DeliveryController {
         return ResponseEntity.ok(deliveries);
     }
 
+    /**
+     * Live stream of changes to jobs assigned to, or taken from, the current user.
+     */
+    @GetMapping(value = "/my/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('DELIVERY_STAFF', 'ADMIN')")
+    public SseEmitter streamMyEvents(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            Authentication authentication) {
+        Long userId = userDetailsService.loadUserEntityByEmail(authentication.getName()).getId();
+        return eventHub.subscribe((DeliveryUpdate update) -> userId.equals(update.assigneeId())
+                || userId.equals(update.previousAssigneeId()), lastEventId);
+    }
+
+    /**
+     * Get the current user's optimized stop sequence for a day (default today).
+     */
+    @GetMapping("/my/route")
+    @PreAuthorize("hasAnyRole('DELIVERY_STAFF', 'ADMIN')")
+    public ResponseEntity<?> getMyRoute(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            Authentication authentication) {
+        User user = userDetailsService.loadUserEntityByEmail(authentication.getName());
+        return ResponseEntity.ok(routeService.planForDriver(user.getId(), date != null ? date : LocalDate.now()));
+    }
+
+    /**
+     * Go on or off duty. Going off duty hands scheduled jobs to other drivers.
+     */
+    @PatchMapping("/my/duty")
+    @PreAuthorize("hasRole('DELIVERY_STAFF')")
+    public ResponseEntity<?> setMyDuty(@RequestBody Map<String, Boolean> body, Authentication authentication) {
+        Boolean onDuty = body.get("onDuty");
+        if (onDuty == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "onDuty is required"));
+        }
+        User user = userDetailsService.loadUserEntityByEmail(authentication.getName());
+        int reassigned = assignmentService.setOnDuty(user, onDuty, user);
+        return ResponseEntity.ok(Map.of("onDuty", onDuty, "reassigned", reassigned));
+    }
+
+    /**
+     * Report the current user's position. Held in memory and persisted downsampled.
+     */
+    @PostMapping("/my/location")
+    @PreAuthorize("hasRole('DELIVERY_STAFF')")
+    public ResponseEntity<?> reportLocation(@RequestBody LocationPingRequest ping, Authentication authentication) {
+        if (ping.latitude() == null || ping.longitude() == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "latitude and longitude are required"));
+        }
+        try {
+            User user = userDetailsService.loadUserEntityByEmail(authentication.getName());
+            boolean accepted = locationService.record(user.getId(), ping.latitude(), ping.longitude(),
+                    ping.recordedAt());
+            return ResponseEntity.accepted().body(Map.of("accepted", accepted));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Offline-first sync for the driver app: applies queued status updates
+     * once each and returns only the jobs changed since the given token.
+     */
+    @PostMapping("/my/sync")
+    @PreAuthorize("hasRole('DELIVERY_STAFF')")
+    public ResponseEntity<?> sync(@RequestBody DeliverySyncRequest request, Authentication authentication) {
+        try {
+            User user = userDetailsService.loadUserEntityByEmail(authentication.getName());
+            return ResponseEntity.ok(syncService.sync(user, request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * Update delivery status.
      */
@@ -68,6 +176,44 @@ public class DeliveryController {
         }
     }
 
+    /**
+     * Upload a proof-of-delivery photo (multipart field "file", JPEG or PNG).
+     */
+    @PostMapping(value = "/{id}/photos", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasAnyRole('DELIVERY_STAFF', 'ADMIN')")
+    public ResponseEntity<?> uploadDeliveryPhoto(@PathVariable Long id,
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) String caption,
+            Authentication authentication) {
+        try (InputStream content = file.getInputStream()) {
+            User user = userDetailsService.loadUserEntityByEmail(authentication.getName());
+            Photo photo = photoService.addDeliveryPhoto(id, content, caption, user);
+            return ResponseEntity.status(HttpStatus.CREATED).body(PhotoView.from(photo));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Could not read the uploaded file"));
+        }
+    }
+
+    /**
+     * Photos attached to a delivery.
+     */
+    @GetMapping("/{id}/photos")
+    @PreAuthorize("hasAnyRole('DELIVERY_STAFF', 'ADMIN')")
+    public ResponseEntity<?> getDeliveryPhotos(@PathVariable Long id, Authentication authentication) {
+        try {
+            User user = userDetailsService.loadUserEntityByEmail(authentication.getName());
+            return ResponseEntity.ok(photoService.getDeliveryPhotos(id, user).stream().map(PhotoView::from).toList());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * Get a specific delivery.
      */
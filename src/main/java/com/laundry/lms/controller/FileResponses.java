@@ -0,0 +1,163 @@
+package com.laundry.lms.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * Serves immutable stored files with ETag and single-range support.
+ * The body is handed to Tomcat's sendfile when the connector supports it, and
+ * otherwise copied with FileChannel.transferTo, so file bytes never pass
+ * through a heap buffer. Handlers that serve files write their whole
+ * response here and return void; json() covers their error and 202 replies,
+ * written with the application's ObjectMapper like any other JSON response.
+ */
+@Component
+final class FileResponses {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final ObjectMapper objectMapper;
+
+    FileResponses(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Write a file response. The ETag should identify the content (e.g. its hash).
+     */
+    void serve(Path file, String etag, String contentType, String fileName,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long length = Files.size(file);
+        String quotedEtag = "\"" + etag + "\"";
+
+        response.setHeader(HttpHeaders.ETAG, quotedEtag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // Content-addressed files never change
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=31536000, immutable");
+
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (ifNoneMatch.contains(quotedEtag) || ifNoneMatch.trim().equals("*"))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        boolean partial = range != null && (ifRange == null || ifRange.equals(quotedEtag));
+        if (partial) {
+            long[] bounds = parseRange(range, length);
+            if (bounds == null) {
+                // Multiple or malformed ranges: fall back to the full body
+                partial = false;
+            } else if (bounds.length == 0) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            } else {
+                start = bounds[0];
+                end = bounds[1];
+            }
+        }
+
+        long count = length == 0 ? 0 : end - start + 1;
+        response.setContentType(contentType);
+        if (fileName != null) {
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + fileName + "\"");
+        }
+        response.setContentLengthLong(count);
+        if (partial) {
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        } else {
+            response.setStatus(HttpServletResponse.SC_OK);
+        }
+        if (count == 0 || "HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    /**
+     * Write a small JSON reply such as {"error": "..."}.
+     */
+    void json(HttpServletResponse response, int status, Map<String, ?> body) throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(objectMapper.writeValueAsBytes(body));
+    }
+
+    /**
+     * Parse a single "bytes=" range.
+     *
+     * @return {start, end} inclusive, an empty array if unsatisfiable, or null
+     *         if the header should be ignored
+     */
+    static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.contains(",")) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // Suffix range: last N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || length == 0) {
+                    return new long[0];
+                }
+                return new long[] { Math.max(0, length - suffix), length - 1 };
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+            if (start >= length || start > end) {
+                return new long[0];
+            }
+            return new long[] { start, end };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -3,12 +3,22 @@ package com.laundry.lms.controller;
 import com.laundry.lms.model.*;
 import com.laundry.lms.security.CustomUserDetailsService;
 import com.laundry.lms.service.FinanceService;
+import com.laundry.lms.service.InvoicePdfService;
+import com.laundry.lms.service.ReconciliationService;
+import com.laundry.lms.service.RevenueRollupService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -21,12 +31,24 @@ import java.util.Map;
 public class FinanceController {
 
     private final FinanceService financeService;
+    private final RevenueRollupService revenueRollupService;
+    private final InvoicePdfService invoicePdfService;
+    private final ReconciliationService reconciliationService;
     private final CustomUserDetailsService userDetailsService;
+    private final FileResponses fileResponses;
 
     public FinanceController(FinanceService financeService,
-            CustomUserDetailsService userDetailsService) {
+            RevenueRollupService revenueRollupService,
+            InvoicePdfService invoicePdfService,
+            ReconciliationService reconciliationService,
+            CustomUserDetailsService userDetailsService,
+            FileResponses fileResponses) {
         this.financeService = financeService;
+        this.revenueRollupService = revenueRollupService;
+        this.invoicePdfService = invoicePdfService;
+        this.reconciliationService = reconciliationService;
         this.userDetailsService = userDetailsService;
+        this.fileResponses = fileResponses;
     }
 
     /**
@@ -129,4 +151,115 @@ public class FinanceController {
     public ResponseEntity<?> getAllInvoices() {
         return ResponseEntity.ok(financeService.getAllInvoices());
     }
+
+    /**
+     * Download an invoice PDF (supports Range and If-None-Match).
+     * If the PDF has not been rendered yet, rendering is queued and 202 is returned.
+     */
+    @GetMapping("/invoices/{id}/pdf")
+    @PreAuthorize("hasAnyRole('FINANCE_STAFF', 'ADMIN')")
+    public void downloadInvoicePdf(@PathVariable Long id,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        Invoice invoice = financeService.getInvoiceById(id).orElse(null);
+        if (invoice == null) {
+            fileResponses.json(response, HttpServletResponse.SC_NOT_FOUND, Map.of("error", "Invoice not found"));
+            return;
+        }
+
+        Path pdf = invoicePdfService.findPdf(invoice).orElse(null);
+        if (pdf == null) {
+            invoicePdfService.requestRender(id);
+            response.setHeader(HttpHeaders.RETRY_AFTER, "2");
+            fileResponses.json(response, HttpServletResponse.SC_ACCEPTED,
+                    Map.of("message", "Invoice PDF is being generated"));
+            return;
+        }
+
+        fileResponses.serve(pdf, invoice.getPdfHash(), "application/pdf",
+                invoice.getInvoiceNo() + ".pdf", request, response);
+    }
+
+    /**
+     * Get revenue rollups by time bucket (reads only the rollup table).
+     */
+    @GetMapping("/revenue")
+    @PreAuthorize("hasAnyRole('FINANCE_STAFF', 'ADMIN')")
+    public ResponseEntity<?> getRevenue(@RequestParam(defaultValue = "DAILY") String granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        RevenueGranularity bucket;
+        try {
+            bucket = RevenueGranularity.valueOf(granularity.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid granularity"));
+        }
+        try {
+            return ResponseEntity.ok(revenueRollupService.getRevenue(bucket, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Re-aggregate revenue rollups for a date range from the payments table.
+     */
+    @PostMapping("/revenue/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> rebuildRevenue(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            int rows = revenueRollupService.rebuild(from, to);
+            return ResponseEntity.ok(Map.of(
+                    "message", "Revenue rollups rebuilt",
+                    "rows", rows));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Start an order/payment reconciliation run.
+     */
+    @PostMapping("/reconciliation")
+    @PreAuthorize("hasAnyRole('FINANCE_STAFF', 'ADMIN')")
+    public ResponseEntity<?> startReconciliation(@RequestParam(defaultValue = "false") boolean repair) {
+        try {
+            ReconciliationRun run = reconciliationService.start(repair);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(
+                    "message", "Reconciliation started",
+                    "run", run));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Get progress and results of the current or last reconciliation run.
+     */
+    @GetMapping("/reconciliation")
+    @PreAuthorize("hasAnyRole('FINANCE_STAFF', 'ADMIN')")
+    public ResponseEntity<?> getReconciliation() {
+        return reconciliationService.getLatestRun()
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("error", "No reconciliation has run yet")));
+    }
+
+    /**
+     * Get a page of mismatches found by a reconciliation run.
+     */
+    @GetMapping("/reconciliation/{runId}/mismatches")
+    @PreAuthorize("hasAnyRole('FINANCE_STAFF', 'ADMIN')")
+    public ResponseEntity<?> getReconciliationMismatches(@PathVariable Long runId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size) {
+        var mismatches = reconciliationService.getMismatches(runId, Math.max(page, 0), Math.max(size, 1));
+        return ResponseEntity.ok(Map.of(
+                "items", mismatches.getContent(),
+                "page", mismatches.getNumber(),
+                "totalItems", mismatches.getTotalElements(),
+                "totalPages", mismatches.getTotalPages()));
+    }
 }
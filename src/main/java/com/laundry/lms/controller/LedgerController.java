@@ -0,0 +1,130 @@
+package com.laundry.lms.controller;
+
+import com.laundry.lms.model.AuditLog;
+import com.laundry.lms.model.LaundryOrder;
+import com.laundry.lms.model.User;
+import com.laundry.lms.repository.AuditLogRepository;
+import com.laundry.lms.repository.LaundryOrderRepository;
+import com.laundry.lms.security.CustomUserDetailsService;
+import com.laundry.lms.service.LedgerService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Ledger Controller - for finance staff to read balances and post refunds and write-offs.
+ */
+@RestController
+@RequestMapping("/api/finance/ledger")
+@CrossOrigin(origins = "*")
+public class LedgerController {
+
+    private final LedgerService ledgerService;
+    private final LaundryOrderRepository orderRepository;
+    private final AuditLogRepository auditLogRepository;
+    private final CustomUserDetailsService userDetailsService;
+
+    public LedgerController(LedgerService ledgerService,
+            LaundryOrderRepository orderRepository,
+            AuditLogRepository auditLogRepository,
+            CustomUserDetailsService userDetailsService) {
+        this.ledgerService = ledgerService;
+        this.orderRepository = orderRepository;
+        this.auditLogRepository = auditLogRepository;
+        this.userDetailsService = userDetailsService;
+    }
+
+    /**
+     * Get the current balance a customer owes.
+     */
+    @GetMapping("/customers/{customerId}/balance")
+    @PreAuthorize("hasAnyRole('FINANCE_STAFF', 'ADMIN')")
+    public ResponseEntity<?> getCustomerBalance(@PathVariable Long customerId) {
+        return ResponseEntity.ok(Map.of(
+                "customerId", customerId,
+                "balance", ledgerService.getCustomerBalance(customerId)));
+    }
+
+    /**
+     * Get every account's balance at the end of a day.
+     */
+    @GetMapping("/balances/daily")
+    @PreAuthorize("hasAnyRole('FINANCE_STAFF', 'ADMIN')")
+    public ResponseEntity<?> getDailyBalances(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(Map.of(
+                "date", date,
+                "balances", ledgerService.getDailyBalances(date)));
+    }
+
+    /**
+     * Get the journal entries for an order.
+     */
+    @GetMapping("/orders/{orderId}")
+    @PreAuthorize("hasAnyRole('FINANCE_STAFF', 'ADMIN')")
+    public ResponseEntity<?> getOrderEntries(@PathVariable Long orderId) {
+        return ResponseEntity.ok(ledgerService.getOrderEntries(orderId));
+    }
+
+    /**
+     * Refund money to the customer of an order.
+     */
+    @PostMapping("/orders/{orderId}/refund")
+    @PreAuthorize("hasAnyRole('FINANCE_STAFF', 'ADMIN')")
+    public ResponseEntity<?> refund(@PathVariable Long orderId,
+            @RequestBody Map<String, String> body,
+            Authentication authentication) {
+        return postAdjustment(orderId, body, authentication, true);
+    }
+
+    /**
+     * Write off an amount the customer of an order will not pay.
+     */
+    @PostMapping("/orders/{orderId}/write-off")
+    @PreAuthorize("hasAnyRole('FINANCE_STAFF', 'ADMIN')")
+    public ResponseEntity<?> writeOff(@PathVariable Long orderId,
+            @RequestBody Map<String, String> body,
+            Authentication authentication) {
+        return postAdjustment(orderId, body, authentication, false);
+    }
+
+    private ResponseEntity<?> postAdjustment(Long orderId, Map<String, String> body,
+            Authentication authentication, boolean refund) {
+        LaundryOrder order = orderRepository.findById(orderId).orElse(null);
+        if (order == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Order not found"));
+        }
+
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(body.get("amount"));
+        } catch (NullPointerException | NumberFormatException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Valid amount is required"));
+        }
+        if (amount.signum() <= 0) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Amount must be greater than zero"));
+        }
+
+        User user = userDetailsService.loadUserEntityByEmail(authentication.getName());
+        String memo = body.getOrDefault("memo", refund ? "Refund" : "Write-off");
+        Long customerId = order.getCustomer().getId();
+        if (refund) {
+            ledgerService.postRefund(orderId, customerId, amount, memo);
+        } else {
+            ledgerService.postWriteOff(orderId, customerId, amount, memo);
+        }
+        auditLogRepository.save(AuditLog.create(user, refund ? "LEDGER_REFUND" : "LEDGER_WRITE_OFF",
+                "LaundryOrder", orderId, null, amount.toPlainString()));
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
+                "message", refund ? "Refund recorded" : "Write-off recorded",
+                "balance", ledgerService.getCustomerBalance(customerId)));
+    }
+}
@@ -1,8 +1,12 @@
 package com.laundry.lms.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.laundry.lms.dto.*;
+import com.laundry.lms.model.PaymentStatus;
 import com.laundry.lms.repository.LaundryOrderRepository;
 import com.laundry.lms.service.PaymentService;
+import com.laundry.lms.service.WebhookInboxService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -15,16 +19,21 @@ import java.util.Map;
 public class PaymentController {
   private final PaymentService payments;
   private final LaundryOrderRepository orders;
+  private final WebhookInboxService inbox;
+  private final ObjectMapper objectMapper;
 
-  public PaymentController(PaymentService payments, LaundryOrderRepository orders) {
-    this.payments = payments; this.orders = orders;
+  public PaymentController(PaymentService payments, LaundryOrderRepository orders, WebhookInboxService inbox,
+                           ObjectMapper objectMapper) {
+    this.payments = payments; this.orders = orders; this.inbox = inbox; this.objectMapper = objectMapper;
   }
 
   @PostMapping("/cod/confirm")
   public ResponseEntity<?> confirmCod(@RequestBody CodConfirmRequest request) {
     try {
-      var o = payments.confirmCod(request.orderId());
-      return ResponseEntity.ok(new NextUrlResponse("/frontend/dashboard-user.html?cod=1&orderId=" + o.getId()));
+      if (payments.confirmCod(request.orderId()) == PaymentStatus.PAID) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "Order is already paid"));
+      }
+      return ResponseEntity.ok(new NextUrlResponse("/frontend/dashboard-user.html?cod=1&orderId=" + request.orderId()));
     } catch (Exception ex) {
       return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", ex.getMessage()));
     }
@@ -34,21 +43,22 @@ public class PaymentController {
   public ResponseEntity<?> checkout(@RequestBody PaymentCheckoutRequest request) {
     var opt = orders.findById(request.orderId());
     if (opt.isEmpty()) return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error","Order not found"));
+    if (payments.beginCardCheckout(request.orderId()) == PaymentStatus.PAID) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "Order is already paid"));
+    }
     String redirect = payments.makeDemoCheckoutUrl(opt.get());
     return ResponseEntity.ok(new RedirectUrlResponse(redirect));
   }
 
+  /** Store the webhook durably and acknowledge; payment state is applied by the inbox drain. */
   @PostMapping("/demo/webhook")
   public ResponseEntity<?> webhook(@RequestBody DemoWebhookRequest request) {
     try {
-      if ("success".equalsIgnoreCase(request.status())) {
-        payments.markCardPaid(request.orderId(), request.demoRef(), request.amountLkr());
-        return ResponseEntity.ok(Map.of("status","PAID"));
-      } else {
-        payments.markFailed(request.orderId(), "demo-failed");
-        return ResponseEntity.ok(Map.of("status","FAILED"));
-      }
-    } catch (Exception ex) {
+      boolean stored = inbox.accept(request, objectMapper.writeValueAsString(request));
+      return stored
+          ? ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("status","ACCEPTED"))
+          : ResponseEntity.ok(Map.of("status","DUPLICATE"));
+    } catch (IllegalArgumentException | JsonProcessingException ex) {
       return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", ex.getMessage()));
     }
   }
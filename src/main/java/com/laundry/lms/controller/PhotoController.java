@@ -0,0 +1,88 @@
+package com.laundry.lms.controller;
+
+import com.laundry.lms.model.Photo;
+import com.laundry.lms.model.User;
+import com.laundry.lms.security.CustomUserDetailsService;
+import com.laundry.lms.service.PhotoService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Photo Controller - serves stored photos and their thumbnails.
+ */
+@RestController
+@RequestMapping("/api/photos")
+@CrossOrigin(origins = "*")
+public class PhotoController {
+
+    private final PhotoService photoService;
+    private final CustomUserDetailsService userDetailsService;
+    private final FileResponses fileResponses;
+
+    public PhotoController(PhotoService photoService,
+            CustomUserDetailsService userDetailsService,
+            FileResponses fileResponses) {
+        this.photoService = photoService;
+        this.userDetailsService = userDetailsService;
+        this.fileResponses = fileResponses;
+    }
+
+    /**
+     * Full-size photo, with range requests supported.
+     */
+    @GetMapping("/{id}")
+    public void getPhoto(@PathVariable Long id,
+            Authentication authentication,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        Photo photo = findVisible(id, authentication);
+        if (photo == null) {
+            fileResponses.json(response, HttpServletResponse.SC_NOT_FOUND, Map.of("error", "Photo not found"));
+            return;
+        }
+        fileResponses.serve(photoService.resolve(photo.getContentHash()), photo.getContentHash(),
+                photo.getContentType(), fileName(photo, photo.getContentType()), request, response);
+    }
+
+    /**
+     * JPEG thumbnail; 202 while it is still being rendered.
+     */
+    @GetMapping("/{id}/thumbnail")
+    public void getThumbnail(@PathVariable Long id,
+            Authentication authentication,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        Photo photo = findVisible(id, authentication);
+        if (photo == null) {
+            fileResponses.json(response, HttpServletResponse.SC_NOT_FOUND, Map.of("error", "Photo not found"));
+            return;
+        }
+        if (photo.getThumbnailHash() == null) {
+            photoService.requestThumbnail(id);
+            response.setHeader(HttpHeaders.RETRY_AFTER, "2");
+            fileResponses.json(response, HttpServletResponse.SC_ACCEPTED,
+                    Map.of("message", "Thumbnail is being generated"));
+            return;
+        }
+        fileResponses.serve(photoService.resolve(photo.getThumbnailHash()), photo.getThumbnailHash(),
+                "image/jpeg", "thumbnail-" + fileName(photo, "image/jpeg"), request, response);
+    }
+
+    // Not found and not allowed look the same, so ids cannot be probed
+    private Photo findVisible(Long id, Authentication authentication) {
+        User user = userDetailsService.loadUserEntityByEmail(authentication.getName());
+        return photoService.getPhoto(id)
+                .filter(photo -> photoService.canView(photo, user))
+                .orElse(null);
+    }
+
+    private static String fileName(Photo photo, String contentType) {
+        return "photo-" + photo.getId() + ("image/png".equals(contentType) ? ".png" : ".jpg");
+    }
+}
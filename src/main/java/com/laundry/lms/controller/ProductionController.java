@@ -0,0 +1,45 @@
+package com.laundry.lms.controller;
+
+import com.laundry.lms.service.production.ProductionScheduleService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Production Controller - machine schedule for laundry staff.
+ */
+@RestController
+@RequestMapping("/api/staff/production")
+@CrossOrigin(origins = "*")
+public class ProductionController {
+
+    private final ProductionScheduleService scheduleService;
+
+    public ProductionController(ProductionScheduleService scheduleService) {
+        this.scheduleService = scheduleService;
+    }
+
+    /**
+     * Running and upcoming loads per machine, and expected ready times.
+     */
+    @GetMapping("/schedule")
+    @PreAuthorize("hasAnyRole('LAUNDRY_STAFF', 'ADMIN')")
+    public ResponseEntity<?> getSchedule() {
+        return ResponseEntity.ok(scheduleService.getSchedule());
+    }
+
+    /**
+     * Expected ready time of one open order.
+     */
+    @GetMapping("/orders/{orderId}")
+    @PreAuthorize("hasAnyRole('LAUNDRY_STAFF', 'ADMIN')")
+    public ResponseEntity<?> getEstimate(@PathVariable Long orderId) {
+        return scheduleService.getEstimate(orderId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("error", "Order is not in the production schedule")));
+    }
+}
@@ -0,0 +1,53 @@
+package com.laundry.lms.controller;
+
+import com.laundry.lms.model.DeliveryZone;
+import com.laundry.lms.model.User;
+import com.laundry.lms.security.CustomUserDetailsService;
+import com.laundry.lms.service.SlotBookingService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Slot Controller - pickup and delivery slot availability.
+ */
+@RestController
+@RequestMapping("/api/slots")
+@CrossOrigin(origins = "*")
+public class SlotController {
+
+    private final SlotBookingService slotBookingService;
+    private final CustomUserDetailsService userDetailsService;
+
+    public SlotController(SlotBookingService slotBookingService,
+            CustomUserDetailsService userDetailsService) {
+        this.slotBookingService = slotBookingService;
+        this.userDetailsService = userDetailsService;
+    }
+
+    /**
+     * Hourly availability for a day. The zone defaults to the caller's home zone.
+     */
+    @GetMapping
+    public ResponseEntity<?> getAvailability(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) DeliveryZone zone,
+            Authentication authentication) {
+        if (date.isBefore(LocalDate.now())) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Date must not be in the past"));
+        }
+        if (zone == null) {
+            User user = userDetailsService.loadUserEntityByEmail(authentication.getName());
+            zone = slotBookingService.zoneOf(user);
+        }
+        try {
+            return ResponseEntity.ok(slotBookingService.availability(date, zone));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -1,15 +1,21 @@
 package com.laundry.lms.controller;
 
+import com.laundry.lms.dto.PhotoView;
 import com.laundry.lms.dto.StatusUpdateRequest;
 import com.laundry.lms.model.*;
 import com.laundry.lms.security.CustomUserDetailsService;
 import com.laundry.lms.service.OrderService;
+import com.laundry.lms.service.PhotoService;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -23,11 +29,14 @@ public class StaffOrderController {
 
     private final OrderService orderService;
     private final CustomUserDetailsService userDetailsService;
+    private final PhotoService photoService;
 
     public StaffOrderController(OrderService orderService,
-            CustomUserDetailsService userDetailsService) {
+            CustomUserDetailsService userDetailsService,
+            PhotoService photoService) {
         this.orderService = orderService;
         this.userDetailsService = userDetailsService;
+        this.photoService = photoService;
     }
 
     /**
@@ -120,4 +129,33 @@ public class StaffOrderController {
                 "delivered", delivered,
                 "cancelled", cancelled));
     }
+
+    /**
+     * Upload a photo of a garment's condition (multipart field "file", JPEG or PNG).
+     */
+    @PostMapping(value = "/items/{itemId}/photos", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasAnyRole('LAUNDRY_STAFF', 'ADMIN')")
+    public ResponseEntity<?> uploadItemPhoto(@PathVariable Long itemId,
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) String caption,
+            Authentication authentication) {
+        try (InputStream content = file.getInputStream()) {
+            User user = userDetailsService.loadUserEntityByEmail(authentication.getName());
+            Photo photo = photoService.addItemPhoto(itemId, content, caption, user);
+            return ResponseEntity.status(HttpStatus.CREATED).body(PhotoView.from(photo));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Could not read the uploaded file"));
+        }
+    }
+
+    /**
+     * Photos attached to an order item.
+     */
+    @GetMapping("/items/{itemId}/photos")
+    @PreAuthorize("hasAnyRole('LAUNDRY_STAFF', 'ADMIN')")
+    public ResponseEntity<?> getItemPhotos(@PathVariable Long itemId) {
+        return ResponseEntity.ok(photoService.getItemPhotos(itemId).stream().map(PhotoView::from).toList());
+    }
 }
@@ -1,5 +1,6 @@
 package com.laundry.lms.controller;
 
+import com.laundry.lms.dto.TaskResponse;
 import com.laundry.lms.model.*;
 import com.laundry.lms.security.CustomUserDetailsService;
 import com.laundry.lms.service.TaskService;
@@ -36,10 +37,31 @@ public class StaffTaskController {
     @PreAuthorize("hasAnyRole('LAUNDRY_STAFF', 'DELIVERY_STAFF', 'ADMIN')")
     public ResponseEntity<?> getMyTasks(Authentication authentication) {
         User user = userDetailsService.loadUserEntityByEmail(authentication.getName());
-        List<Task> tasks = taskService.getTasksForUser(user.getName());
+        List<TaskResponse> tasks = taskService.getTasksForUser(user.getId()).stream()
+                .map(TaskResponse::from)
+                .toList();
         return ResponseEntity.ok(tasks);
     }
 
+    /**
+     * Next tasks in the current user's queue, by priority then due date.
+     * Pass the returned nextCursor as "after" to read the following page.
+     */
+    @GetMapping("/my/queue")
+    @PreAuthorize("hasAnyRole('LAUNDRY_STAFF', 'DELIVERY_STAFF', 'ADMIN')")
+    public ResponseEntity<?> getMyQueue(@RequestParam(defaultValue = "PENDING") String status,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String after,
+            Authentication authentication) {
+        try {
+            User user = userDetailsService.loadUserEntityByEmail(authentication.getName());
+            TaskStatus taskStatus = TaskStatus.valueOf(status.toUpperCase());
+            return ResponseEntity.ok(taskService.getQueue(user, taskStatus, limit, after));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * Update task status.
      */
@@ -61,7 +83,7 @@ public class StaffTaskController {
 
             return ResponseEntity.ok(Map.of(
                     "message", "Task status updated to " + newStatus,
-                    "task", updated));
+                    "task", TaskResponse.from(updated)));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -74,7 +96,7 @@ public class StaffTaskController {
     @PreAuthorize("hasAnyRole('LAUNDRY_STAFF', 'DELIVERY_STAFF', 'ADMIN')")
     public ResponseEntity<?> getTask(@PathVariable Long id) {
         return taskService.getTaskById(id)
-                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .<ResponseEntity<?>>map(task -> ResponseEntity.ok(TaskResponse.from(task)))
                 .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(Map.of("error", "Task not found")));
     }
@@ -3,8 +3,10 @@ package com.laundry.lms.controller;
 import com.laundry.lms.dto.TaskRequest;
 import com.laundry.lms.dto.TaskResponse;
 import com.laundry.lms.model.Task;
+import com.laundry.lms.model.TaskPriority;
 import com.laundry.lms.model.TaskStatus;
 import com.laundry.lms.repository.TaskRepository;
+import com.laundry.lms.service.TaskService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -22,9 +24,11 @@ import java.util.stream.Collectors;
 public class TaskController {
 
     private final TaskRepository taskRepository;
+    private final TaskService taskService;
 
-    public TaskController(TaskRepository taskRepository) {
+    public TaskController(TaskRepository taskRepository, TaskService taskService) {
         this.taskRepository = taskRepository;
+        this.taskService = taskService;
     }
 
     @GetMapping
@@ -38,11 +42,23 @@ public class TaskController {
     public ResponseEntity<?> createTask(@Valid @RequestBody TaskRequest request) {
         Task task = new Task();
         task.setTitle(request.getTitle());
-        task.setAssignedTo(request.getAssignedTo());
+        try {
+            task.setAssignee(taskService.resolveAssignee(request.getAssigneeId(), request.getAssignedTo()));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(error(ex.getMessage()));
+        }
         task.setDueDate(request.getDueDate());
         task.setPrice(request.getPrice());
         task.setNotes(request.getNotes());
 
+        if (request.getPriority() != null) {
+            try {
+                task.setPriority(TaskPriority.valueOf(request.getPriority()));
+            } catch (IllegalArgumentException ex) {
+                return ResponseEntity.badRequest().body(error("Invalid task priority"));
+            }
+        }
+
         if (request.getStatus() != null) {
             try {
                 task.setStatus(TaskStatus.valueOf(request.getStatus()));
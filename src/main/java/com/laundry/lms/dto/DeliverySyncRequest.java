@@ -0,0 +1,15 @@
+package com.laundry.lms.dto;
+
+import com.laundry.lms.model.DeliveryStatus;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Driver app sync: the token from the previous response (null on first sync)
+ * and status updates queued while offline, in the order they were made.
+ */
+public record DeliverySyncRequest(String syncToken, List<QueuedUpdate> updates) {
+
+    public record QueuedUpdate(String clientUpdateId, Long deliveryId, DeliveryStatus status, Instant recordedAt) {}
+}
@@ -0,0 +1,37 @@
+package com.laundry.lms.dto;
+
+import com.laundry.lms.model.DeliveryJob;
+import com.laundry.lms.model.DeliveryStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Jobs changed since the client's token, ids of jobs that left the driver's
+ * list, and the outcome of each queued update. When full is true the client
+ * must replace its list with jobs instead of merging.
+ */
+public record DeliverySyncResponse(
+        String syncToken,
+        boolean full,
+        List<Job> jobs,
+        List<Long> removed,
+        List<UpdateResult> results) {
+
+    public record Job(Long id, Long orderId, DeliveryStatus status, LocalDateTime pickupAt,
+            LocalDateTime deliveryAt, boolean late, String notes, Double latitude, Double longitude,
+            String customerName, long changeSeq) {
+
+        public static Job from(DeliveryJob job) {
+            return new Job(job.getId(), job.getOrder().getId(), job.getStatus(), job.getPickupAt(),
+                    job.getDeliveryAt(), Boolean.TRUE.equals(job.getLateFlag()), job.getNotes(),
+                    job.getLatitude(), job.getLongitude(), job.getOrder().getCustomer().getName(),
+                    job.getChangeSeq());
+        }
+    }
+
+    /**
+     * @param duplicate true if the update had been received before; the original outcome is repeated
+     */
+    public record UpdateResult(String clientUpdateId, boolean applied, boolean duplicate, String message) {}
+}
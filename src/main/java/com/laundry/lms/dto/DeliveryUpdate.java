@@ -0,0 +1,24 @@
+package com.laundry.lms.dto;
+
+import com.laundry.lms.model.DeliveryStatus;
+
+import java.time.Instant;
+
+public record DeliveryUpdate(
+        Type type,
+        Long deliveryId,
+        Long orderId,
+        DeliveryStatus status,
+        Long assigneeId,
+        Long previousAssigneeId,
+        boolean late,
+        Instant at) {
+
+    public enum Type {
+        CREATED,
+        REASSIGNED,
+        STATUS,
+        LATE,
+        DELETED
+    }
+}
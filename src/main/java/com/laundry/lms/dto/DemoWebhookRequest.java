@@ -2,4 +2,8 @@ package com.laundry.lms.dto;
 
 import java.math.BigDecimal;
 
-public record DemoWebhookRequest(Long orderId, String status, String demoRef, BigDecimal amountLkr) {}
+/**
+ * Demo gateway webhook. demoRef is the payment reference; eventId identifies
+ * the delivery and stays the same when the gateway retries it.
+ */
+public record DemoWebhookRequest(Long orderId, String status, String demoRef, BigDecimal amountLkr, String eventId) {}
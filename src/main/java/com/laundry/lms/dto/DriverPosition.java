@@ -0,0 +1,5 @@
+package com.laundry.lms.dto;
+
+import java.time.Instant;
+
+public record DriverPosition(Long driverId, double latitude, double longitude, Instant recordedAt) {}
@@ -0,0 +1,14 @@
+package com.laundry.lms.dto;
+
+import java.time.LocalDateTime;
+
+public record InvoiceBatchStatus(
+        String state,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt,
+        long chunksCompleted,
+        long chunksFailed,
+        long invoicesCreated,
+        long ordersSkipped,
+        Long lastOrderId,
+        String lastError) {}
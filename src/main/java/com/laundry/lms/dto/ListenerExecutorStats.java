@@ -0,0 +1,21 @@
+package com.laundry.lms.dto;
+
+import java.util.List;
+
+public record ListenerExecutorStats(
+        int poolSize,
+        int activeThreads,
+        int maxThreads,
+        int queueDepth,
+        int queueCapacity,
+        long completedTasks,
+        long callerRuns,
+        List<ListenerTiming> listeners) {
+
+    public record ListenerTiming(
+            String listener,
+            long invocations,
+            long failures,
+            double avgMillis,
+            double maxMillis) {}
+}
@@ -0,0 +1,5 @@
+package com.laundry.lms.dto;
+
+import java.time.Instant;
+
+public record LocationPingRequest(Double latitude, Double longitude, Instant recordedAt) {}
@@ -0,0 +1,24 @@
+package com.laundry.lms.dto;
+
+import com.laundry.lms.model.Photo;
+import com.laundry.lms.model.PhotoKind;
+
+import java.time.LocalDateTime;
+
+/**
+ * Photo metadata. The image is at /api/photos/{id} and the thumbnail at
+ * /api/photos/{id}/thumbnail once thumbnailReady is true.
+ */
+public record PhotoView(Long id, PhotoKind kind, Long deliveryId, Long orderItemId, String contentType,
+        long sizeBytes, Integer width, Integer height, boolean thumbnailReady, String caption,
+        Long uploadedById, LocalDateTime createdAt) {
+
+    public static PhotoView from(Photo photo) {
+        return new PhotoView(photo.getId(), photo.getKind(),
+                photo.getDeliveryJob() != null ? photo.getDeliveryJob().getId() : null,
+                photo.getOrderItem() != null ? photo.getOrderItem().getId() : null,
+                photo.getContentType(), photo.getSizeBytes(), photo.getWidth(), photo.getHeight(),
+                photo.getThumbnailHash() != null, photo.getCaption(),
+                photo.getUploadedBy().getId(), photo.getCreatedAt());
+    }
+}
@@ -0,0 +1,38 @@
+package com.laundry.lms.dto;
+
+import com.laundry.lms.model.MachineType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Current production plan: running and upcoming loads per machine and the
+ * expected ready time of every open order.
+ */
+public record ProductionSchedule(
+        LocalDateTime generatedAt,
+        List<MachineSchedule> machines,
+        List<OrderEstimate> orders,
+        List<Long> unschedulableOrderIds) {
+
+    public record MachineSchedule(
+            Long machineId,
+            String name,
+            MachineType type,
+            double capacityKg,
+            List<MachineLoad> loads) {}
+
+    public record MachineLoad(
+            LocalDateTime start,
+            LocalDateTime end,
+            String program,
+            double kg,
+            List<Long> orderIds) {}
+
+    public record OrderEstimate(
+            Long orderId,
+            boolean express,
+            LocalDateTime readyAt,
+            LocalDateTime dueAt,
+            boolean late) {}
+}
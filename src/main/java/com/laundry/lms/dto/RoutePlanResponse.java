@@ -0,0 +1,27 @@
+package com.laundry.lms.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record RoutePlanResponse(
+        Long driverId,
+        LocalDate date,
+        List<RouteStop> stops,
+        List<Long> unroutedDeliveryIds,
+        double distanceKm,
+        LocalDateTime estimatedFinish,
+        int lateStops) {
+
+    public record RouteStop(
+            int sequence,
+            Long deliveryId,
+            Long orderId,
+            String kind,
+            double latitude,
+            double longitude,
+            LocalDateTime windowStart,
+            LocalDateTime windowEnd,
+            LocalDateTime estimatedArrival,
+            boolean late) {}
+}
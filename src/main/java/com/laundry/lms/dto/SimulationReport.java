@@ -0,0 +1,17 @@
+package com.laundry.lms.dto;
+
+import com.laundry.lms.service.simulation.ShopSimulator;
+
+import java.time.LocalDate;
+
+/**
+ * Result of a simulation run. demand is HISTORY or SYNTHETIC; from is the
+ * first simulated day.
+ */
+public record SimulationReport(
+        String demand,
+        LocalDate from,
+        LocalDate to,
+        int machines,
+        long wallMillis,
+        ShopSimulator.Report result) {}
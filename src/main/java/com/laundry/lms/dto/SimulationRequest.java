@@ -0,0 +1,31 @@
+package com.laundry.lms.dto;
+
+import com.laundry.lms.model.MachineType;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * What to simulate. With from/to, orders created in that date range are
+ * replayed; otherwise synthetic demand is generated for days at ordersPerDay.
+ * Machines default to the active machines table and the other settings to
+ * the simulation.* properties. Shifts are written "6-14x4,14-22x4".
+ */
+public record SimulationRequest(
+        LocalDate from,
+        LocalDate to,
+        Integer days,
+        Double ordersPerDay,
+        Double expressShare,
+        Long seed,
+        List<MachineGroup> machines,
+        String staffShifts,
+        Integer handlingMinutes,
+        String driverShifts,
+        Integer stopsPerTrip,
+        Integer outboundMinutes,
+        Integer stopMinutes,
+        Integer deliveryWindowMinutes) {
+
+    public record MachineGroup(MachineType type, int count, double capacityKg) {}
+}
@@ -0,0 +1,15 @@
+package com.laundry.lms.dto;
+
+import com.laundry.lms.model.DeliveryZone;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record SlotAvailability(
+        LocalDate date,
+        DeliveryZone zone,
+        List<HourSlot> pickup,
+        List<HourSlot> delivery) {
+
+    public record HourSlot(int hour, int capacity, int booked, int available) {}
+}
@@ -0,0 +1,12 @@
+package com.laundry.lms.dto;
+
+import com.laundry.lms.model.TaskStatus;
+
+import java.util.Map;
+
+/**
+ * Kanban view of all tasks: the total per status and the first page of each
+ * column. Further pages come from the column endpoint with that column's
+ * nextCursor.
+ */
+public record TaskBoard(Map<TaskStatus, Long> counts, Map<TaskStatus, TaskQueuePage> columns) {}
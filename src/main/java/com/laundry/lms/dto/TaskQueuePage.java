@@ -0,0 +1,9 @@
+package com.laundry.lms.dto;
+
+import java.util.List;
+
+/**
+ * A page of a user's task queue. Pass nextCursor back as "after" for the
+ * next page; it is null on the last page.
+ */
+public record TaskQueuePage(List<TaskResponse> tasks, String nextCursor) {}
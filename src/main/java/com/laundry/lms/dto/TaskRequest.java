@@ -12,10 +12,15 @@ public class TaskRequest {
     @NotBlank(message = "Title is required")
     private String title;
 
+    // Preferred over assignedTo, which is matched against user email, then name
+    private Long assigneeId;
+
     private String assignedTo;
 
     private LocalDate dueDate;
 
+    private String priority;
+
     @NotNull(message = "Price is required")
     @DecimalMin(value = "0.0", message = "Price cannot be negative")
     private BigDecimal price;
@@ -32,6 +37,14 @@ public class TaskRequest {
         this.title = title;
     }
 
+    public Long getAssigneeId() {
+        return assigneeId;
+    }
+
+    public void setAssigneeId(Long assigneeId) {
+        this.assigneeId = assigneeId;
+    }
+
     public String getAssignedTo() {
         return assignedTo;
     }
@@ -48,6 +61,14 @@ public class TaskRequest {
         this.dueDate = dueDate;
     }
 
+    public String getPriority() {
+        return priority;
+    }
+
+    public void setPriority(String priority) {
+        this.priority = priority;
+    }
+
     public BigDecimal getPrice() {
         return price;
     }
@@ -1,6 +1,7 @@
 package com.laundry.lms.dto;
 
 import com.laundry.lms.model.Task;
+import com.laundry.lms.model.TaskPriority;
 import com.laundry.lms.model.TaskStatus;
 
 import java.math.BigDecimal;
@@ -10,8 +11,10 @@ public class TaskResponse {
 
     private Long id;
     private String title;
+    private Long assigneeId;
     private String assignedTo;
     private LocalDate dueDate;
+    private TaskPriority priority;
     private BigDecimal price;
     private TaskStatus status;
     private String notes;
@@ -20,8 +23,15 @@ public class TaskResponse {
         TaskResponse response = new TaskResponse();
         response.setId(task.getId());
         response.setTitle(task.getTitle());
-        response.setAssignedTo(task.getAssignedTo());
+        if (task.getAssignee() != null) {
+            response.setAssigneeId(task.getAssignee().getId());
+            response.setAssignedTo(task.getAssignee().getName());
+        } else {
+            // Not yet matched to a user by TaskAssigneeMigration
+            response.setAssignedTo(task.getLegacyAssignee());
+        }
         response.setDueDate(task.getDueDate());
+        response.setPriority(task.getPriority());
         response.setPrice(task.getPrice());
         response.setStatus(task.getStatus());
         response.setNotes(task.getNotes());
@@ -44,6 +54,14 @@ public class TaskResponse {
         this.title = title;
     }
 
+    public Long getAssigneeId() {
+        return assigneeId;
+    }
+
+    public void setAssigneeId(Long assigneeId) {
+        this.assigneeId = assigneeId;
+    }
+
     public String getAssignedTo() {
         return assignedTo;
     }
@@ -60,6 +78,14 @@ public class TaskResponse {
         this.dueDate = dueDate;
     }
 
+    public TaskPriority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(TaskPriority priority) {
+        this.priority = priority;
+    }
+
     public BigDecimal getPrice() {
         return price;
     }
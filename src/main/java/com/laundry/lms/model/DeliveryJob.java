@@ -8,7 +8,12 @@ import java.time.LocalDateTime;
  * Delivery job entity for managing deliveries.
  */
 @Entity
-@Table(name = "delivery_jobs")
+@Table(name = "delivery_jobs", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_delivery_job_order", columnNames = "order_id")
+}, indexes = {
+        @Index(name = "idx_delivery_late_scan", columnList = "status, late_flag, delivery_at"),
+        @Index(name = "idx_delivery_driver_sync", columnList = "assigned_to_id, change_seq")
+})
 public class DeliveryJob {
 
     @Id
@@ -26,19 +31,28 @@ public class DeliveryJob {
     @Column(nullable = false)
     private LocalDateTime pickupAt;
 
-    @Column(nullable = false)
+    @Column(name = "delivery_at", nullable = false)
     private LocalDateTime deliveryAt;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private DeliveryStatus status = DeliveryStatus.SCHEDULED;
 
-    @Column(nullable = false)
+    @Column(name = "late_flag", nullable = false)
     private Boolean lateFlag = false;
 
     @Column(length = 500)
     private String notes;
 
+    // Stop location, copied from the customer when the job is created
+    private Double latitude;
+
+    private Double longitude;
+
+    // Value of the delivery change sequence at this job's last change, for driver sync
+    @Column(name = "change_seq", nullable = false)
+    private Long changeSeq = 0L;
+
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
@@ -132,6 +146,22 @@ public class DeliveryJob {
         this.notes = notes;
     }
 
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -147,4 +177,12 @@ public class DeliveryJob {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(Long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
 }
@@ -0,0 +1,84 @@
+package com.laundry.lms.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Tombstone telling a driver's app that a job left their list (reassigned or
+ * deleted) at a given point of the delivery change sequence. Kept for the
+ * sync retention period only.
+ */
+@Entity
+@Table(name = "delivery_job_removals", indexes = {
+        @Index(name = "idx_delivery_removal_driver", columnList = "driver_id, change_seq"),
+        @Index(name = "idx_delivery_removal_age", columnList = "removed_at")
+})
+public class DeliveryJobRemoval {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "driver_id", nullable = false)
+    private Long driverId;
+
+    @Column(name = "delivery_job_id", nullable = false)
+    private Long deliveryJobId;
+
+    @Column(name = "change_seq", nullable = false)
+    private Long changeSeq;
+
+    @Column(name = "removed_at", nullable = false)
+    private LocalDateTime removedAt;
+
+    public DeliveryJobRemoval() {
+    }
+
+    public DeliveryJobRemoval(Long driverId, Long deliveryJobId, Long changeSeq) {
+        this.driverId = driverId;
+        this.deliveryJobId = deliveryJobId;
+        this.changeSeq = changeSeq;
+        this.removedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getDriverId() {
+        return driverId;
+    }
+
+    public void setDriverId(Long driverId) {
+        this.driverId = driverId;
+    }
+
+    public Long getDeliveryJobId() {
+        return deliveryJobId;
+    }
+
+    public void setDeliveryJobId(Long deliveryJobId) {
+        this.deliveryJobId = deliveryJobId;
+    }
+
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(Long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
+    public LocalDateTime getRemovedAt() {
+        return removedAt;
+    }
+
+    public void setRemovedAt(LocalDateTime removedAt) {
+        this.removedAt = removedAt;
+    }
+}
@@ -0,0 +1,96 @@
+package com.laundry.lms.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * One hour of pickup or delivery capacity in a zone on a day. booked is only
+ * changed by conditional UPDATEs that keep it within capacity.
+ */
+@Entity
+@Table(name = "delivery_slots", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_delivery_slot", columnNames = { "slot_date", "zone", "slot_hour", "kind" })
+})
+public class DeliverySlot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "slot_date", nullable = false)
+    private LocalDate slotDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private DeliveryZone zone;
+
+    @Column(name = "slot_hour", nullable = false)
+    private Integer slotHour;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private SlotKind kind;
+
+    @Column(nullable = false)
+    private Integer capacity;
+
+    @Column(nullable = false)
+    private Integer booked = 0;
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDate getSlotDate() {
+        return slotDate;
+    }
+
+    public void setSlotDate(LocalDate slotDate) {
+        this.slotDate = slotDate;
+    }
+
+    public DeliveryZone getZone() {
+        return zone;
+    }
+
+    public void setZone(DeliveryZone zone) {
+        this.zone = zone;
+    }
+
+    public Integer getSlotHour() {
+        return slotHour;
+    }
+
+    public void setSlotHour(Integer slotHour) {
+        this.slotHour = slotHour;
+    }
+
+    public SlotKind getKind() {
+        return kind;
+    }
+
+    public void setKind(SlotKind kind) {
+        this.kind = kind;
+    }
+
+    public Integer getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(Integer capacity) {
+        this.capacity = capacity;
+    }
+
+    public Integer getBooked() {
+        return booked;
+    }
+
+    public void setBooked(Integer booked) {
+        this.booked = booked;
+    }
+}
@@ -0,0 +1,125 @@
+package com.laundry.lms.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of a status update queued offline by a driver's app. The unique
+ * (driver_id, client_update_id) key makes a resent update a no-op that
+ * returns the original outcome.
+ */
+@Entity
+@Table(name = "delivery_sync_receipts", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_delivery_sync_client_update", columnNames = { "driver_id", "client_update_id" })
+}, indexes = {
+        @Index(name = "idx_delivery_sync_receipt_age", columnList = "created_at")
+})
+public class DeliverySyncReceipt {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "driver_id", nullable = false)
+    private Long driverId;
+
+    @Column(name = "client_update_id", nullable = false, length = 64)
+    private String clientUpdateId;
+
+    @Column(name = "delivery_job_id")
+    private Long deliveryJobId;
+
+    @Enumerated(EnumType.STRING)
+    private DeliveryStatus status;
+
+    // When the driver made the change on the device
+    private Instant recordedAt;
+
+    @Column(nullable = false)
+    private boolean applied;
+
+    @Column(length = 255)
+    private String message;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    public void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getDriverId() {
+        return driverId;
+    }
+
+    public void setDriverId(Long driverId) {
+        this.driverId = driverId;
+    }
+
+    public String getClientUpdateId() {
+        return clientUpdateId;
+    }
+
+    public void setClientUpdateId(String clientUpdateId) {
+        this.clientUpdateId = clientUpdateId;
+    }
+
+    public Long getDeliveryJobId() {
+        return deliveryJobId;
+    }
+
+    public void setDeliveryJobId(Long deliveryJobId) {
+        this.deliveryJobId = deliveryJobId;
+    }
+
+    public DeliveryStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(DeliveryStatus status) {
+        this.status = status;
+    }
+
+    public Instant getRecordedAt() {
+        return recordedAt;
+    }
+
+    public void setRecordedAt(Instant recordedAt) {
+        this.recordedAt = recordedAt;
+    }
+
+    public boolean isApplied() {
+        return applied;
+    }
+
+    public void setApplied(boolean applied) {
+        this.applied = applied;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
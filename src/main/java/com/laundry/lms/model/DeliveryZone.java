@@ -0,0 +1,13 @@
+package com.laundry.lms.model;
+
+/**
+ * Service area around the depot: a central circle and four compass sectors
+ * beyond it. Slot capacity is held per zone.
+ */
+public enum DeliveryZone {
+    CENTRAL,
+    NORTH,
+    EAST,
+    SOUTH,
+    WEST
+}
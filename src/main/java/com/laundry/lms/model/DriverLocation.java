@@ -0,0 +1,73 @@
+package com.laundry.lms.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A downsampled driver position. Coordinates are stored as integer
+ * microdegrees to keep rows small; rows are written in batches by
+ * DriverLocationService, never one per ping.
+ */
+@Entity
+@Table(name = "driver_locations", indexes = {
+        @Index(name = "idx_driver_location_trail", columnList = "driver_id, recorded_at")
+})
+public class DriverLocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "driver_id", nullable = false)
+    private Long driverId;
+
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+
+    @Column(name = "lat_e6", nullable = false)
+    private Integer latE6;
+
+    @Column(name = "lon_e6", nullable = false)
+    private Integer lonE6;
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getDriverId() {
+        return driverId;
+    }
+
+    public void setDriverId(Long driverId) {
+        this.driverId = driverId;
+    }
+
+    public LocalDateTime getRecordedAt() {
+        return recordedAt;
+    }
+
+    public void setRecordedAt(LocalDateTime recordedAt) {
+        this.recordedAt = recordedAt;
+    }
+
+    public Integer getLatE6() {
+        return latE6;
+    }
+
+    public void setLatE6(Integer latE6) {
+        this.latE6 = latE6;
+    }
+
+    public Integer getLonE6() {
+        return lonE6;
+    }
+
+    public void setLonE6(Integer lonE6) {
+        this.lonE6 = lonE6;
+    }
+}
@@ -0,0 +1,11 @@
+package com.laundry.lms.model;
+
+/**
+ * Delivery state of a queued email.
+ */
+public enum EmailDeliveryStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    FAILED
+}
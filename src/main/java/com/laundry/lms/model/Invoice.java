@@ -8,7 +8,8 @@ import java.time.LocalDateTime;
  * Invoice entity for billing customers.
  */
 @Entity
-@Table(name = "invoices")
+@Table(name = "invoices", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_invoice_order", columnNames = "order_id") })
 public class Invoice {
 
     @Id
@@ -30,6 +31,10 @@ public class Invoice {
 
     private String pdfUrl;
 
+    // SHA-256 of the rendered PDF in the content store
+    @Column(length = 64)
+    private String pdfHash;
+
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
@@ -92,6 +97,14 @@ public class Invoice {
         this.pdfUrl = pdfUrl;
     }
 
+    public String getPdfHash() {
+        return pdfHash;
+    }
+
+    public void setPdfHash(String pdfHash) {
+        this.pdfHash = pdfHash;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
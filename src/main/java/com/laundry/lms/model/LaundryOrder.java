@@ -55,6 +55,18 @@ public class LaundryOrder {
     private LocalDate pickupDate;
     private LocalDate deliveryDate;
 
+    // Booked slot hours; null for orders placed before slot booking
+    private Integer pickupHour;
+    private Integer deliveryHour;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private DeliveryZone slotZone;
+
+    // Express orders go ahead of others in the production schedule
+    @Column(nullable = false)
+    private Boolean express = false;
+
     @Column(length = 1000)
     private String notes;
 
@@ -171,6 +183,38 @@ public class LaundryOrder {
         this.deliveryDate = deliveryDate;
     }
 
+    public Integer getPickupHour() {
+        return pickupHour;
+    }
+
+    public void setPickupHour(Integer pickupHour) {
+        this.pickupHour = pickupHour;
+    }
+
+    public Integer getDeliveryHour() {
+        return deliveryHour;
+    }
+
+    public void setDeliveryHour(Integer deliveryHour) {
+        this.deliveryHour = deliveryHour;
+    }
+
+    public DeliveryZone getSlotZone() {
+        return slotZone;
+    }
+
+    public void setSlotZone(DeliveryZone slotZone) {
+        this.slotZone = slotZone;
+    }
+
+    public Boolean getExpress() {
+        return express;
+    }
+
+    public void setExpress(Boolean express) {
+        this.express = express;
+    }
+
     public String getNotes() {
         return notes;
     }
@@ -0,0 +1,12 @@
+package com.laundry.lms.model;
+
+/**
+ * Ledger accounts. Debits are stored as positive amounts and credits as
+ * negative amounts, so every journal sums to zero.
+ */
+public enum LedgerAccount {
+    RECEIVABLE, // What customers owe
+    CASH, // Money received
+    REVENUE, // Income from orders
+    BAD_DEBT // Receivables written off
+}
@@ -0,0 +1,124 @@
+package com.laundry.lms.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One leg of a double-entry journal. Entries are append-only: corrections are
+ * posted as new journals (e.g. a refund), never as updates or deletes.
+ */
+@Entity
+@Table(name = "ledger_entries", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_ledger_journal_leg", columnNames = { "journal_key", "account" })
+}, indexes = {
+        @Index(name = "idx_ledger_customer_account", columnList = "customer_id, account, id"),
+        @Index(name = "idx_ledger_account_created", columnList = "account, created_at"),
+        @Index(name = "idx_ledger_order", columnList = "order_id")
+})
+public class LedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "journal_key", nullable = false, updatable = false, length = 64)
+    private String journalKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false, length = 16)
+    private LedgerEntryType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false, length = 16)
+    private LedgerAccount account;
+
+    @Column(name = "customer_id", updatable = false)
+    private Long customerId;
+
+    @Column(name = "order_id", updatable = false)
+    private Long orderId;
+
+    @Column(updatable = false)
+    private Long paymentId;
+
+    // Positive = debit, negative = credit
+    @Column(nullable = false, updatable = false)
+    private BigDecimal amount;
+
+    @Column(length = 500, updatable = false)
+    private String memo;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    protected LedgerEntry() {
+    }
+
+    // Static factory method for one leg of a journal
+    public static LedgerEntry leg(String journalKey, LedgerEntryType type, LedgerAccount account,
+            Long customerId, Long orderId, Long paymentId, BigDecimal amount, String memo) {
+        LedgerEntry entry = new LedgerEntry();
+        entry.journalKey = journalKey;
+        entry.type = type;
+        entry.account = account;
+        entry.customerId = customerId;
+        entry.orderId = orderId;
+        entry.paymentId = paymentId;
+        entry.amount = amount;
+        entry.memo = memo;
+        return entry;
+    }
+
+    @PrePersist
+    public void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    @PreRemove
+    public void rejectChange() {
+        throw new IllegalStateException("Ledger entries are append-only");
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public String getJournalKey() {
+        return journalKey;
+    }
+
+    public LedgerEntryType getType() {
+        return type;
+    }
+
+    public LedgerAccount getAccount() {
+        return account;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public Long getPaymentId() {
+        return paymentId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public String getMemo() {
+        return memo;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
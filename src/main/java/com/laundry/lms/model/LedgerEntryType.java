@@ -0,0 +1,11 @@
+package com.laundry.lms.model;
+
+/**
+ * Journal types posted to the payment ledger.
+ */
+public enum LedgerEntryType {
+    CHARGE, // Dr RECEIVABLE / Cr REVENUE
+    PAYMENT, // Dr CASH / Cr RECEIVABLE
+    REFUND, // Dr RECEIVABLE / Cr CASH
+    WRITE_OFF // Dr BAD_DEBT / Cr RECEIVABLE
+}
@@ -0,0 +1,116 @@
+package com.laundry.lms.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Balance of a ledger account as of a given entry id, either for one customer
+ * or for the whole account (customerId is null). A current balance is the
+ * latest snapshot plus the entries after asOfEntryId.
+ */
+@Entity
+@Table(name = "ledger_snapshots", indexes = {
+        @Index(name = "idx_ledger_snapshot_lookup", columnList = "account, customer_id, snapshot_date")
+})
+public class LedgerSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private LedgerAccount account;
+
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    // Snapshot covers entries created before the end of this day
+    @Column(name = "snapshot_date", nullable = false)
+    private LocalDate snapshotDate;
+
+    @Column(nullable = false)
+    private Long asOfEntryId;
+
+    @Column(nullable = false)
+    private BigDecimal balance;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public LedgerSnapshot() {
+    }
+
+    public LedgerSnapshot(LedgerAccount account, Long customerId, LocalDate snapshotDate, Long asOfEntryId,
+            BigDecimal balance) {
+        this.account = account;
+        this.customerId = customerId;
+        this.snapshotDate = snapshotDate;
+        this.asOfEntryId = asOfEntryId;
+        this.balance = balance;
+    }
+
+    @PrePersist
+    public void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LedgerAccount getAccount() {
+        return account;
+    }
+
+    public void setAccount(LedgerAccount account) {
+        this.account = account;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+
+    public LocalDate getSnapshotDate() {
+        return snapshotDate;
+    }
+
+    public void setSnapshotDate(LocalDate snapshotDate) {
+        this.snapshotDate = snapshotDate;
+    }
+
+    public Long getAsOfEntryId() {
+        return asOfEntryId;
+    }
+
+    public void setAsOfEntryId(Long asOfEntryId) {
+        this.asOfEntryId = asOfEntryId;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
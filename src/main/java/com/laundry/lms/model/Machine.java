@@ -0,0 +1,89 @@
+package com.laundry.lms.model;
+
+import jakarta.persistence.*;
+
+/**
+ * A washer, dryer, dry-cleaning machine or pressing station on the shop
+ * floor. capacityKg is the most one load can hold; cycle times come from the
+ * service routing in ProductionScheduleService. A machine without a
+ * positive capacity could never take a load, so it is refused on save.
+ */
+@Entity
+@Table(name = "machines")
+public class Machine {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private MachineType type;
+
+    @Column(name = "capacity_kg", nullable = false)
+    private Double capacityKg;
+
+    @Column(nullable = false)
+    private Boolean active = true;
+
+    public Machine() {
+    }
+
+    public Machine(String name, MachineType type, double capacityKg) {
+        this.name = name;
+        this.type = type;
+        this.capacityKg = capacityKg;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void checkCapacity() {
+        if (capacityKg == null || capacityKg <= 0) {
+            throw new IllegalArgumentException("Machine capacity must be above 0 kg");
+        }
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public MachineType getType() {
+        return type;
+    }
+
+    public void setType(MachineType type) {
+        this.type = type;
+    }
+
+    public Double getCapacityKg() {
+        return capacityKg;
+    }
+
+    public void setCapacityKg(Double capacityKg) {
+        this.capacityKg = capacityKg;
+    }
+
+    public Boolean getActive() {
+        return active;
+    }
+
+    public void setActive(Boolean active) {
+        this.active = active;
+    }
+}
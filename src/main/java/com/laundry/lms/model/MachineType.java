@@ -0,0 +1,12 @@
+package com.laundry.lms.model;
+
+/**
+ * Kinds of production equipment. Garments pass through them in this order:
+ * washing or dry cleaning, then drying, then pressing.
+ */
+public enum MachineType {
+    WASHER,
+    DRY_CLEANER,
+    DRYER,
+    PRESS
+}
@@ -0,0 +1,147 @@
+package com.laundry.lms.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * A domain event written in the same transaction as the change it describes,
+ * delivered to listeners later by the outbox relay.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_state", columnList = "state, id")
+})
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String eventType;
+
+    @Lob
+    @Column(nullable = false)
+    private String payloadJson;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private OutboxStatus state = OutboxStatus.PENDING;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    // Not delivered before this time; pushed back after a failed attempt
+    @Column(nullable = false)
+    private Instant availableAt;
+
+    private Instant claimedAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    private Instant processedAt;
+
+    public OutboxEvent() {
+    }
+
+    public OutboxEvent(String eventType, String payloadJson) {
+        this.eventType = eventType;
+        this.payloadJson = payloadJson;
+    }
+
+    @PrePersist
+    public void onCreate() {
+        this.createdAt = Instant.now();
+        if (this.availableAt == null) {
+            this.availableAt = this.createdAt;
+        }
+        if (this.state == null) {
+            this.state = OutboxStatus.PENDING;
+        }
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    public String getPayloadJson() {
+        return payloadJson;
+    }
+
+    public void setPayloadJson(String payloadJson) {
+        this.payloadJson = payloadJson;
+    }
+
+    public OutboxStatus getState() {
+        return state;
+    }
+
+    public void setState(OutboxStatus state) {
+        this.state = state;
+    }
+
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+
+    public Instant getAvailableAt() {
+        return availableAt;
+    }
+
+    public void setAvailableAt(Instant availableAt) {
+        this.availableAt = availableAt;
+    }
+
+    public Instant getClaimedAt() {
+        return claimedAt;
+    }
+
+    public void setClaimedAt(Instant claimedAt) {
+        this.claimedAt = claimedAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getProcessedAt() {
+        return processedAt;
+    }
+
+    public void setProcessedAt(Instant processedAt) {
+        this.processedAt = processedAt;
+    }
+}
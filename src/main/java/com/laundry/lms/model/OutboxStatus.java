@@ -0,0 +1,11 @@
+package com.laundry.lms.model;
+
+/**
+ * Delivery state of an outbox event.
+ */
+public enum OutboxStatus {
+    PENDING,
+    PROCESSING,
+    DONE,
+    FAILED
+}
@@ -1,7 +1,39 @@
 package com.laundry.lms.model;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum PaymentStatus {
     PENDING,
     PAID,
-    FAILED
+    FAILED;
+
+    /**
+     * States this payment may move to. PAID is terminal; a FAILED payment can
+     * only be retried by going back to PENDING.
+     */
+    public Set<PaymentStatus> next() {
+        return switch (this) {
+            case PENDING -> EnumSet.of(PAID, FAILED);
+            case FAILED -> EnumSet.of(PENDING);
+            case PAID -> EnumSet.noneOf(PaymentStatus.class);
+        };
+    }
+
+    public boolean canTransitionTo(PaymentStatus target) {
+        return next().contains(target);
+    }
+
+    /**
+     * States from which target may be reached, for use in conditional updates.
+     */
+    public static Set<PaymentStatus> sourcesOf(PaymentStatus target) {
+        Set<PaymentStatus> sources = EnumSet.noneOf(PaymentStatus.class);
+        for (PaymentStatus status : values()) {
+            if (status.canTransitionTo(target)) {
+                sources.add(status);
+            }
+        }
+        return sources;
+    }
 }
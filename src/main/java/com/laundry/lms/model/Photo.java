@@ -0,0 +1,168 @@
+package com.laundry.lms.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * An uploaded photo attached to a delivery job (proof of delivery) or an
+ * order item (garment condition). The image and its thumbnail live in the
+ * content store; this row only holds their hashes.
+ */
+@Entity
+@Table(name = "photos", indexes = {
+        @Index(name = "idx_photo_delivery_job", columnList = "delivery_job_id"),
+        @Index(name = "idx_photo_order_item", columnList = "order_item_id")
+})
+public class Photo {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PhotoKind kind;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "delivery_job_id")
+    private DeliveryJob deliveryJob;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_item_id")
+    private OrderItem orderItem;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "uploaded_by_id", nullable = false)
+    private User uploadedBy;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(name = "content_type", nullable = false)
+    private String contentType;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+
+    // Filled in once the thumbnail has been rendered
+    @Column(name = "thumbnail_hash", length = 64)
+    private String thumbnailHash;
+
+    private Integer width;
+
+    private Integer height;
+
+    private String caption;
+
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    public void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public PhotoKind getKind() {
+        return kind;
+    }
+
+    public void setKind(PhotoKind kind) {
+        this.kind = kind;
+    }
+
+    public DeliveryJob getDeliveryJob() {
+        return deliveryJob;
+    }
+
+    public void setDeliveryJob(DeliveryJob deliveryJob) {
+        this.deliveryJob = deliveryJob;
+    }
+
+    public OrderItem getOrderItem() {
+        return orderItem;
+    }
+
+    public void setOrderItem(OrderItem orderItem) {
+        this.orderItem = orderItem;
+    }
+
+    public User getUploadedBy() {
+        return uploadedBy;
+    }
+
+    public void setUploadedBy(User uploadedBy) {
+        this.uploadedBy = uploadedBy;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public Long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(Long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+
+    public String getThumbnailHash() {
+        return thumbnailHash;
+    }
+
+    public void setThumbnailHash(String thumbnailHash) {
+        this.thumbnailHash = thumbnailHash;
+    }
+
+    public Integer getWidth() {
+        return width;
+    }
+
+    public void setWidth(Integer width) {
+        this.width = width;
+    }
+
+    public Integer getHeight() {
+        return height;
+    }
+
+    public void setHeight(Integer height) {
+        this.height = height;
+    }
+
+    public String getCaption() {
+        return caption;
+    }
+
+    public void setCaption(String caption) {
+        this.caption = caption;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,9 @@
+package com.laundry.lms.model;
+
+/**
+ * What a photo documents.
+ */
+public enum PhotoKind {
+    PROOF_OF_DELIVERY,
+    GARMENT_CONDITION
+}
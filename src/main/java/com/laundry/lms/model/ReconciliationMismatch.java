@@ -0,0 +1,131 @@
+package com.laundry.lms.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A single mismatch found by a reconciliation run.
+ */
+@Entity
+@Table(name = "reconciliation_mismatches", indexes = {
+        @Index(name = "idx_recon_mismatch_run", columnList = "run_id, id")
+})
+public class ReconciliationMismatch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private ReconciliationMismatchType type;
+
+    private Long orderId;
+
+    private Long paymentId;
+
+    // What the order says vs what the payment says (status or amount)
+    private String orderValue;
+
+    private String paymentValue;
+
+    @Column(nullable = false)
+    private Boolean repaired = false;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public ReconciliationMismatch() {
+    }
+
+    public ReconciliationMismatch(Long runId, ReconciliationMismatchType type, Long orderId, Long paymentId,
+            String orderValue, String paymentValue) {
+        this.runId = runId;
+        this.type = type;
+        this.orderId = orderId;
+        this.paymentId = paymentId;
+        this.orderValue = orderValue;
+        this.paymentValue = paymentValue;
+    }
+
+    @PrePersist
+    public void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getRunId() {
+        return runId;
+    }
+
+    public void setRunId(Long runId) {
+        this.runId = runId;
+    }
+
+    public ReconciliationMismatchType getType() {
+        return type;
+    }
+
+    public void setType(ReconciliationMismatchType type) {
+        this.type = type;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public Long getPaymentId() {
+        return paymentId;
+    }
+
+    public void setPaymentId(Long paymentId) {
+        this.paymentId = paymentId;
+    }
+
+    public String getOrderValue() {
+        return orderValue;
+    }
+
+    public void setOrderValue(String orderValue) {
+        this.orderValue = orderValue;
+    }
+
+    public String getPaymentValue() {
+        return paymentValue;
+    }
+
+    public void setPaymentValue(String paymentValue) {
+        this.paymentValue = paymentValue;
+    }
+
+    public Boolean getRepaired() {
+        return repaired;
+    }
+
+    public void setRepaired(Boolean repaired) {
+        this.repaired = repaired;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,13 @@
+package com.laundry.lms.model;
+
+/**
+ * Kinds of drift found between orders and payments.
+ */
+public enum ReconciliationMismatchType {
+    STATUS_MISMATCH, // Order paymentStatus differs from the payment's status
+    AMOUNT_MISMATCH, // Paid amount differs from the order price
+    MISSING_PAYMENT, // Order says PAID/FAILED but has no payment row
+    ORPHAN_PAYMENT, // Payment points at an order that does not exist
+    DUPLICATE_PAYMENT, // Older extra payment rows for the same order
+    MISSING_STATUS // Order has no paymentStatus at all
+}
@@ -0,0 +1,143 @@
+package com.laundry.lms.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One run of the order/payment reconciliation job, updated as it progresses.
+ */
+@Entity
+@Table(name = "reconciliation_runs")
+public class ReconciliationRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 32)
+    private String state = "RUNNING";
+
+    @Column(nullable = false)
+    private Boolean autoRepair = false;
+
+    @Column(nullable = false)
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    @Column(nullable = false)
+    private Long ordersScanned = 0L;
+
+    @Column(nullable = false)
+    private Long paymentsScanned = 0L;
+
+    @Column(nullable = false)
+    private Long lastOrderId = 0L;
+
+    @Column(nullable = false)
+    private Long mismatches = 0L;
+
+    @Column(nullable = false)
+    private Long repaired = 0L;
+
+    @Column(length = 1000)
+    private String error;
+
+    public ReconciliationRun() {
+    }
+
+    @PrePersist
+    public void onCreate() {
+        if (this.startedAt == null)
+            this.startedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public Boolean getAutoRepair() {
+        return autoRepair;
+    }
+
+    public void setAutoRepair(Boolean autoRepair) {
+        this.autoRepair = autoRepair;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public Long getOrdersScanned() {
+        return ordersScanned;
+    }
+
+    public void setOrdersScanned(Long ordersScanned) {
+        this.ordersScanned = ordersScanned;
+    }
+
+    public Long getPaymentsScanned() {
+        return paymentsScanned;
+    }
+
+    public void setPaymentsScanned(Long paymentsScanned) {
+        this.paymentsScanned = paymentsScanned;
+    }
+
+    public Long getLastOrderId() {
+        return lastOrderId;
+    }
+
+    public void setLastOrderId(Long lastOrderId) {
+        this.lastOrderId = lastOrderId;
+    }
+
+    public Long getMismatches() {
+        return mismatches;
+    }
+
+    public void setMismatches(Long mismatches) {
+        this.mismatches = mismatches;
+    }
+
+    public Long getRepaired() {
+        return repaired;
+    }
+
+    public void setRepaired(Long repaired) {
+        this.repaired = repaired;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
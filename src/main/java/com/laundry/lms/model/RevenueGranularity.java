@@ -0,0 +1,25 @@
+package com.laundry.lms.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Bucket sizes for revenue rollups.
+ */
+public enum RevenueGranularity {
+    DAILY,
+    WEEKLY, // Buckets start on Monday
+    MONTHLY;
+
+    /**
+     * First day of the bucket that contains the given day.
+     */
+    public LocalDate bucketStart(LocalDate day) {
+        return switch (this) {
+            case DAILY -> day;
+            case WEEKLY -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTHLY -> day.withDayOfMonth(1);
+        };
+    }
+}
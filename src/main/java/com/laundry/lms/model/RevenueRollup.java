@@ -0,0 +1,143 @@
+package com.laundry.lms.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Pre-aggregated revenue per time bucket, service type, payment method and
+ * payment status. Maintained incrementally from payment events and rebuilt
+ * nightly from the payments table.
+ */
+@Entity
+@Table(name = "revenue_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_revenue_rollup_key", columnNames = {
+                "granularity", "bucket_start", "service_type", "method", "status" })
+}, indexes = {
+        @Index(name = "idx_revenue_rollup_range", columnList = "granularity, bucket_start")
+})
+public class RevenueRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private RevenueGranularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDate bucketStart;
+
+    @Column(name = "service_type", nullable = false)
+    private String serviceType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private PaymentMethod method;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private PaymentStatus status;
+
+    @Column(nullable = false)
+    private Long paymentCount = 0L;
+
+    @Column(nullable = false)
+    private BigDecimal amountLkr = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    public RevenueRollup() {
+    }
+
+    public RevenueRollup(RevenueGranularity granularity, LocalDate bucketStart, String serviceType,
+            PaymentMethod method, PaymentStatus status) {
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+        this.serviceType = serviceType;
+        this.method = method;
+        this.status = status;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void onSave() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public RevenueGranularity getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(RevenueGranularity granularity) {
+        this.granularity = granularity;
+    }
+
+    public LocalDate getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDate bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public String getServiceType() {
+        return serviceType;
+    }
+
+    public void setServiceType(String serviceType) {
+        this.serviceType = serviceType;
+    }
+
+    public PaymentMethod getMethod() {
+        return method;
+    }
+
+    public void setMethod(PaymentMethod method) {
+        this.method = method;
+    }
+
+    public PaymentStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(PaymentStatus status) {
+        this.status = status;
+    }
+
+    public Long getPaymentCount() {
+        return paymentCount;
+    }
+
+    public void setPaymentCount(Long paymentCount) {
+        this.paymentCount = paymentCount;
+    }
+
+    public BigDecimal getAmountLkr() {
+        return amountLkr;
+    }
+
+    public void setAmountLkr(BigDecimal amountLkr) {
+        this.amountLkr = amountLkr;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,157 @@
+package com.laundry.lms.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * The rollup bucket one payment is currently counted in at one granularity.
+ * Applying a payment moves it from the bucket recorded here to the bucket of
+ * its current state, so a redelivered event changes nothing and a payment
+ * that goes FAILED to PAID leaves the FAILED bucket.
+ */
+@Entity
+@Table(name = "revenue_rollup_entries", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_revenue_rollup_entry", columnNames = { "payment_id", "granularity" })
+}, indexes = {
+        @Index(name = "idx_revenue_rollup_entry_bucket", columnList = "granularity, bucket_start")
+})
+public class RevenueRollupEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "payment_id", nullable = false)
+    private Long paymentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private RevenueGranularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDate bucketStart;
+
+    @Column(name = "service_type", nullable = false)
+    private String serviceType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private PaymentMethod method;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private PaymentStatus status;
+
+    @Column(nullable = false)
+    private BigDecimal amountLkr = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    public RevenueRollupEntry() {
+    }
+
+    public RevenueRollupEntry(Long paymentId, RevenueGranularity granularity) {
+        this.paymentId = paymentId;
+        this.granularity = granularity;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void onSave() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Whether the payment is already counted in this bucket with this amount.
+     */
+    public boolean matches(LocalDate bucketStart, String serviceType, PaymentMethod method, PaymentStatus status,
+            BigDecimal amountLkr) {
+        return bucketStart.equals(this.bucketStart) && serviceType.equals(this.serviceType)
+                && method == this.method && status == this.status && amountLkr.compareTo(this.amountLkr) == 0;
+    }
+
+    public void set(LocalDate bucketStart, String serviceType, PaymentMethod method, PaymentStatus status,
+            BigDecimal amountLkr) {
+        this.bucketStart = bucketStart;
+        this.serviceType = serviceType;
+        this.method = method;
+        this.status = status;
+        this.amountLkr = amountLkr;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getPaymentId() {
+        return paymentId;
+    }
+
+    public void setPaymentId(Long paymentId) {
+        this.paymentId = paymentId;
+    }
+
+    public RevenueGranularity getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(RevenueGranularity granularity) {
+        this.granularity = granularity;
+    }
+
+    public LocalDate getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDate bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public String getServiceType() {
+        return serviceType;
+    }
+
+    public void setServiceType(String serviceType) {
+        this.serviceType = serviceType;
+    }
+
+    public PaymentMethod getMethod() {
+        return method;
+    }
+
+    public void setMethod(PaymentMethod method) {
+        this.method = method;
+    }
+
+    public PaymentStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(PaymentStatus status) {
+        this.status = status;
+    }
+
+    public BigDecimal getAmountLkr() {
+        return amountLkr;
+    }
+
+    public void setAmountLkr(BigDecimal amountLkr) {
+        this.amountLkr = amountLkr;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
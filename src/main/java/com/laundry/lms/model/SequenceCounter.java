@@ -0,0 +1,86 @@
+package com.laundry.lms.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Counter row for block-allocated sequences (e.g. invoice numbers per year).
+ * Each node reserves a range of values at a time, so this row is only locked
+ * once per block rather than once per number.
+ */
+@Entity
+@Table(name = "sequence_counters")
+public class SequenceCounter implements Persistable<String> {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    // Next value that has not been handed to any node yet
+    @Column(nullable = false)
+    private Long nextValue = 1L;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    // A new counter is inserted, never merged, so a concurrent create fails on the key
+    // instead of resetting a counter another node already uses
+    @Transient
+    private boolean isNew = true;
+
+    public SequenceCounter() {
+    }
+
+    public SequenceCounter(String name) {
+        this.name = name;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void onSave() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    @PostLoad
+    @PostPersist
+    public void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Override
+    public String getId() {
+        return name;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getNextValue() {
+        return nextValue;
+    }
+
+    public void setNextValue(Long nextValue) {
+        this.nextValue = nextValue;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
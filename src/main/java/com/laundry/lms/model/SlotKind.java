@@ -0,0 +1,9 @@
+package com.laundry.lms.model;
+
+/**
+ * Whether a time slot is for collecting laundry or bringing it back.
+ */
+public enum SlotKind {
+    PICKUP,
+    DELIVERY
+}
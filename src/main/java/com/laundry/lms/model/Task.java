@@ -4,9 +4,13 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
 
@@ -15,7 +19,12 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "tasks")
+@Table(name = "tasks", indexes = {
+        // Per-user queue: one range per (assignee, status), already in queue order
+        @Index(name = "idx_task_queue", columnList = "assignee_id, status, priority, due_date, id"),
+        // Board: grouped counts and each column's pages across all assignees
+        @Index(name = "idx_task_board", columnList = "status, priority, due_date, id")
+})
 public class Task {
 
     @Id
@@ -25,10 +34,22 @@ public class Task {
     @Column(nullable = false)
     private String title;
 
-    private String assignedTo;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "assignee_id")
+    private User assignee;
 
+    // Free-text assignee from before tasks were linked to users; see TaskAssigneeMigration
+    @Column(name = "assigned_to")
+    private String legacyAssignee;
+
+    @Column(name = "due_date")
     private LocalDate dueDate;
 
+    // The default is NORMAL's ordinal, so rows that predate the column are not read as URGENT
+    @Enumerated(EnumType.ORDINAL)
+    @Column(nullable = false, columnDefinition = "smallint default 2")
+    private TaskPriority priority = TaskPriority.NORMAL;
+
     @Column(nullable = false)
     private BigDecimal price = BigDecimal.ZERO;
 
@@ -51,6 +72,9 @@ public class Task {
         if (this.status == null) {
             this.status = TaskStatus.PENDING;
         }
+        if (this.priority == null) {
+            this.priority = TaskPriority.NORMAL;
+        }
     }
 
     public Long getId() {
@@ -69,12 +93,20 @@ public class Task {
         this.title = title;
     }
 
-    public String getAssignedTo() {
-        return assignedTo;
+    public User getAssignee() {
+        return assignee;
     }
 
-    public void setAssignedTo(String assignedTo) {
-        this.assignedTo = assignedTo;
+    public void setAssignee(User assignee) {
+        this.assignee = assignee;
+    }
+
+    public String getLegacyAssignee() {
+        return legacyAssignee;
+    }
+
+    public void setLegacyAssignee(String legacyAssignee) {
+        this.legacyAssignee = legacyAssignee;
     }
 
     public LocalDate getDueDate() {
@@ -85,6 +117,14 @@ public class Task {
         this.dueDate = dueDate;
     }
 
+    public TaskPriority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(TaskPriority priority) {
+        this.priority = priority;
+    }
+
     public BigDecimal getPrice() {
         return price;
     }
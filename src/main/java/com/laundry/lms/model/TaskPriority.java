@@ -0,0 +1,13 @@
+package com.laundry.lms.model;
+
+/**
+ * Task priority, most urgent first. Stored by ordinal so the task queue
+ * index sorts by urgency; do not reorder the values without migrating the
+ * column and its default (NORMAL, 2) in Task.
+ */
+public enum TaskPriority {
+    URGENT,
+    HIGH,
+    NORMAL,
+    LOW
+}
@@ -31,6 +31,14 @@ public class User {
     @Column(nullable = false)
     private UserRole role = UserRole.CUSTOMER;
 
+    // Home location (WGS84), used as the stop location for this customer's deliveries
+    private Double latitude;
+
+    private Double longitude;
+
+    // Delivery staff only: false while the driver is off duty and should get no new jobs
+    private Boolean onDuty = true;
+
     public User() {
     }
 
@@ -80,4 +88,28 @@ public class User {
     public void setRole(UserRole role) {
         this.role = role;
     }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    public Boolean getOnDuty() {
+        return onDuty;
+    }
+
+    public void setOnDuty(Boolean onDuty) {
+        this.onDuty = onDuty;
+    }
 }
@@ -0,0 +1,186 @@
+package com.laundry.lms.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A payment provider webhook, stored as received and applied asynchronously.
+ * The unique (provider, provider_ref) key drops provider retries on insert.
+ */
+@Entity
+@Table(name = "webhook_inbox", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_webhook_provider_ref", columnNames = { "provider", "provider_ref" })
+}, indexes = {
+        @Index(name = "idx_webhook_state", columnList = "state, id"),
+        @Index(name = "idx_webhook_claim", columnList = "claim_token"),
+        // Per-order ordering checks when claiming
+        @Index(name = "idx_webhook_order", columnList = "order_id, id")
+})
+public class WebhookInboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 32)
+    private String provider;
+
+    @Column(name = "provider_ref", nullable = false)
+    private String providerRef;
+
+    @Column(nullable = false)
+    private Long orderId;
+
+    // Provider outcome, e.g. "success" or "failed"
+    @Column(nullable = false, length = 32)
+    private String eventStatus;
+
+    private BigDecimal amountLkr;
+
+    @Lob
+    private String payloadJson;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private WebhookInboxStatus state = WebhookInboxStatus.PENDING;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    private Instant claimedAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(nullable = false, updatable = false)
+    private Instant receivedAt;
+
+    private Instant processedAt;
+
+    public WebhookInboxEntry() {
+    }
+
+    @PrePersist
+    public void onCreate() {
+        this.receivedAt = Instant.now();
+        if (this.state == null) {
+            this.state = WebhookInboxStatus.PENDING;
+        }
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    public void setProvider(String provider) {
+        this.provider = provider;
+    }
+
+    public String getProviderRef() {
+        return providerRef;
+    }
+
+    public void setProviderRef(String providerRef) {
+        this.providerRef = providerRef;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public String getEventStatus() {
+        return eventStatus;
+    }
+
+    public void setEventStatus(String eventStatus) {
+        this.eventStatus = eventStatus;
+    }
+
+    public BigDecimal getAmountLkr() {
+        return amountLkr;
+    }
+
+    public void setAmountLkr(BigDecimal amountLkr) {
+        this.amountLkr = amountLkr;
+    }
+
+    public String getPayloadJson() {
+        return payloadJson;
+    }
+
+    public void setPayloadJson(String payloadJson) {
+        this.payloadJson = payloadJson;
+    }
+
+    public WebhookInboxStatus getState() {
+        return state;
+    }
+
+    public void setState(WebhookInboxStatus state) {
+        this.state = state;
+    }
+
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getClaimToken() {
+        return claimToken;
+    }
+
+    public void setClaimToken(String claimToken) {
+        this.claimToken = claimToken;
+    }
+
+    public Instant getClaimedAt() {
+        return claimedAt;
+    }
+
+    public void setClaimedAt(Instant claimedAt) {
+        this.claimedAt = claimedAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public Instant getReceivedAt() {
+        return receivedAt;
+    }
+
+    public void setReceivedAt(Instant receivedAt) {
+        this.receivedAt = receivedAt;
+    }
+
+    public Instant getProcessedAt() {
+        return processedAt;
+    }
+
+    public void setProcessedAt(Instant processedAt) {
+        this.processedAt = processedAt;
+    }
+}
@@ -0,0 +1,11 @@
+package com.laundry.lms.model;
+
+/**
+ * Processing state of a received payment webhook.
+ */
+public enum WebhookInboxStatus {
+    PENDING,
+    PROCESSING,
+    PROCESSED,
+    FAILED
+}
@@ -1,7 +1,10 @@
 package com.laundry.lms.repository;
 
 import com.laundry.lms.model.AuditLog;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
@@ -11,4 +14,12 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
     List<AuditLog> findByActorId(Long actorId);
 
     List<AuditLog> findAllByOrderByCreatedAtDesc();
+
+    /**
+     * Actors of an entity's audit entries with the given action, latest first.
+     */
+    @Query("select a.actor.id from AuditLog a where a.entityType = :entityType and a.entityId = :entityId " +
+            "and a.action = :action order by a.id desc")
+    List<Long> findActorIds(@Param("entityType") String entityType, @Param("entityId") Long entityId,
+            @Param("action") String action, Pageable pageable);
 }
@@ -0,0 +1,21 @@
+package com.laundry.lms.repository;
+
+import com.laundry.lms.model.DeliveryJobRemoval;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface DeliveryJobRemovalRepository extends JpaRepository<DeliveryJobRemoval, Long> {
+
+    @Query("select distinct r.deliveryJobId from DeliveryJobRemoval r " +
+            "where r.driverId = :driverId and r.changeSeq > :since")
+    List<Long> findJobIdsRemovedSince(@Param("driverId") Long driverId, @Param("since") long since);
+
+    @Modifying
+    @Query("delete from DeliveryJobRemoval r where r.removedAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
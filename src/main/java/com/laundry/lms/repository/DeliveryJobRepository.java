@@ -3,7 +3,12 @@ package com.laundry.lms.repository;
 import com.laundry.lms.model.DeliveryJob;
 import com.laundry.lms.model.DeliveryStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface DeliveryJobRepository extends JpaRepository<DeliveryJob, Long> {
@@ -14,4 +19,125 @@ public interface DeliveryJobRepository extends JpaRepository<DeliveryJob, Long>
     List<DeliveryJob> findByStatus(DeliveryStatus status);
 
     List<DeliveryJob> findByAssignedToIdAndStatus(Long userId, DeliveryStatus status);
+
+    /**
+     * Flag every active job whose delivery time has passed, in one statement.
+     */
+    @Modifying
+    @Query("update DeliveryJob j set j.lateFlag = true, j.updatedAt = :now, j.changeSeq = :changeSeq " +
+            "where j.status in :active and j.deliveryAt < :now and j.lateFlag = false")
+    int markLate(@Param("active") Collection<DeliveryStatus> active, @Param("now") LocalDateTime now,
+            @Param("changeSeq") long changeSeq);
+
+    /**
+     * Whether any active, unflagged job is overdue.
+     */
+    @Query("select count(j) > 0 from DeliveryJob j " +
+            "where j.status in :active and j.deliveryAt < :now and j.lateFlag = false")
+    boolean existsOverdue(@Param("active") Collection<DeliveryStatus> active, @Param("now") LocalDateTime now);
+
+    /**
+     * Flag a single job if it is still active, overdue and not yet flagged.
+     */
+    @Modifying
+    @Query("update DeliveryJob j set j.lateFlag = true, j.updatedAt = :now, j.changeSeq = :changeSeq " +
+            "where j.id = :id and j.status in :active and j.deliveryAt < :now and j.lateFlag = false")
+    int markLateIfDue(@Param("id") Long id, @Param("active") Collection<DeliveryStatus> active,
+            @Param("now") LocalDateTime now, @Param("changeSeq") long changeSeq);
+
+    /**
+     * Whether a single job is still active, overdue and not yet flagged.
+     */
+    @Query("select count(j) > 0 from DeliveryJob j " +
+            "where j.id = :id and j.status in :active and j.deliveryAt < :now and j.lateFlag = false")
+    boolean isDue(@Param("id") Long id, @Param("active") Collection<DeliveryStatus> active,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * (id, deliveryAt) of active, unflagged jobs due before the given time.
+     */
+    @Query("select j.id, j.deliveryAt from DeliveryJob j " +
+            "where j.status in :active and j.lateFlag = false and j.deliveryAt <= :until")
+    List<Object[]> findDeadlinesBefore(@Param("active") Collection<DeliveryStatus> active,
+            @Param("until") LocalDateTime until);
+
+    /**
+     * (id, order id, deliveryAt) of the active jobs flagged late at the given change value.
+     */
+    @Query("select j.id, j.order.id, j.deliveryAt from DeliveryJob j " +
+            "where j.status in :active and j.lateFlag = true and j.changeSeq = :changeSeq")
+    List<Object[]> findFlaggedLateAt(@Param("active") Collection<DeliveryStatus> active,
+            @Param("changeSeq") long changeSeq);
+
+    @Query("select j.order.id, j.deliveryAt from DeliveryJob j where j.id = :id")
+    List<Object[]> findOrderAndDeadline(@Param("id") Long id);
+
+    /**
+     * Jobs with a stop on the given day for the given drivers: pickups still
+     * SCHEDULED, and deliveries already picked up.
+     */
+    @Query("select j from DeliveryJob j join fetch j.order where j.assignedTo.id in :driverIds and (" +
+            "(j.status = :scheduled and j.pickupAt >= :dayStart and j.pickupAt < :dayEnd) or " +
+            "(j.status in :onRoad and j.deliveryAt >= :dayStart and j.deliveryAt < :dayEnd))")
+    List<DeliveryJob> findRouteStops(@Param("driverIds") Collection<Long> driverIds,
+            @Param("scheduled") DeliveryStatus scheduled,
+            @Param("onRoad") Collection<DeliveryStatus> onRoad,
+            @Param("dayStart") LocalDateTime dayStart,
+            @Param("dayEnd") LocalDateTime dayEnd);
+
+    /**
+     * (id, current assignee id or null, latitude, longitude, order id, late flag) of SCHEDULED jobs
+     * that have no on-duty driver, oldest pickup first.
+     */
+    @Query("select j.id, a.id, j.latitude, j.longitude, j.order.id, j.lateFlag from DeliveryJob j " +
+            "left join j.assignedTo a " +
+            "where j.status = :scheduled and (a is null or a.id not in :driverIds) order by j.pickupAt, j.id")
+    List<Object[]> findUnassignedOrOrphaned(@Param("scheduled") DeliveryStatus scheduled,
+            @Param("driverIds") Collection<Long> driverIds);
+
+    /**
+     * Active job count per driver as (driverId, count).
+     */
+    @Query("select j.assignedTo.id, count(j) from DeliveryJob j " +
+            "where j.status in :active and j.assignedTo.id in :driverIds group by j.assignedTo.id")
+    List<Object[]> countActiveByDriver(@Param("active") Collection<DeliveryStatus> active,
+            @Param("driverIds") Collection<Long> driverIds);
+
+    /**
+     * Drivers currently working an active job for the given order.
+     */
+    @Query("select j.assignedTo.id from DeliveryJob j where j.order.id = :orderId and j.status in :active")
+    List<Long> findActiveDriverIds(@Param("orderId") Long orderId,
+            @Param("active") Collection<DeliveryStatus> active);
+
+    /**
+     * (id, status, latitude, longitude) of jobs in the given statuses that have a location.
+     */
+    @Query("select j.id, j.status, j.latitude, j.longitude from DeliveryJob j " +
+            "where j.status in :open and j.latitude is not null and j.longitude is not null")
+    List<Object[]> findOpenJobLocations(@Param("open") Collection<DeliveryStatus> open);
+
+    /**
+     * A driver's jobs changed after the given point of the change sequence, oldest change first.
+     */
+    @Query("select j from DeliveryJob j join fetch j.order o join fetch o.customer " +
+            "where j.assignedTo.id = :driverId and j.changeSeq > :since order by j.changeSeq, j.id")
+    List<DeliveryJob> findChangedForDriver(@Param("driverId") Long driverId, @Param("since") long since);
+
+    /**
+     * A driver's open jobs plus those closed since the given time, for a full sync.
+     */
+    @Query("select j from DeliveryJob j join fetch j.order o join fetch o.customer " +
+            "where j.assignedTo.id = :driverId " +
+            "and (j.status not in :closed or coalesce(j.updatedAt, j.createdAt) >= :closedSince) " +
+            "order by j.changeSeq, j.id")
+    List<DeliveryJob> findCurrentForDriver(@Param("driverId") Long driverId,
+            @Param("closed") Collection<DeliveryStatus> closed, @Param("closedSince") LocalDateTime closedSince);
+
+    /**
+     * The given jobs that are assigned to the driver.
+     */
+    @Query("select j from DeliveryJob j join fetch j.order o join fetch o.customer " +
+            "where j.assignedTo.id = :driverId and j.id in :ids")
+    List<DeliveryJob> findForDriver(@Param("driverId") Long driverId, @Param("ids") Collection<Long> ids);
 }
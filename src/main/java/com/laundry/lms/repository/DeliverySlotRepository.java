@@ -0,0 +1,15 @@
+package com.laundry.lms.repository;
+
+import com.laundry.lms.model.DeliverySlot;
+import com.laundry.lms.model.DeliveryZone;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface DeliverySlotRepository extends JpaRepository<DeliverySlot, Long> {
+    List<DeliverySlot> findBySlotDateAndZoneOrderByKindAscSlotHourAsc(LocalDate slotDate, DeliveryZone zone);
+
+    List<DeliverySlot> findByIdIn(Collection<Long> ids);
+}
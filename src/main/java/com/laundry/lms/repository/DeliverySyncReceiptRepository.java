@@ -0,0 +1,18 @@
+package com.laundry.lms.repository;
+
+import com.laundry.lms.model.DeliverySyncReceipt;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface DeliverySyncReceiptRepository extends JpaRepository<DeliverySyncReceipt, Long> {
+    Optional<DeliverySyncReceipt> findByDriverIdAndClientUpdateId(Long driverId, String clientUpdateId);
+
+    @Modifying
+    @Query("delete from DeliverySyncReceipt r where r.createdAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
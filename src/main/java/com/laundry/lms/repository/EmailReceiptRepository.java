@@ -0,0 +1,44 @@
+package com.laundry.lms.repository;
+
+import com.laundry.lms.model.EmailDeliveryStatus;
+import com.laundry.lms.model.EmailReceipt;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface EmailReceiptRepository extends JpaRepository<EmailReceipt, Long> {
+
+    boolean existsByPaymentId(Long paymentId);
+
+    Optional<EmailReceipt> findByPaymentId(Long paymentId);
+
+    /**
+     * Lock receipts that are due for sending, skipping rows another node holds.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select r from EmailReceipt r where (r.status = :pending and r.nextAttemptAt <= :now) " +
+            "or (r.status = :sending and r.claimedAt < :staleBefore) order by r.nextAttemptAt, r.id")
+    List<EmailReceipt> lockDue(@Param("pending") EmailDeliveryStatus pending,
+            @Param("sending") EmailDeliveryStatus sending,
+            @Param("now") Instant now,
+            @Param("staleBefore") Instant staleBefore,
+            Pageable pageable);
+
+    @Modifying
+    @Query("update EmailReceipt r set r.status = :sent, r.sentAt = :now, r.lastError = null, " +
+            "r.attempts = r.attempts + 1 where r.id in :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sent") EmailDeliveryStatus sent,
+            @Param("now") Instant now);
+}
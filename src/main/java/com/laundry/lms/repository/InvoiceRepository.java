@@ -2,6 +2,9 @@ package com.laundry.lms.repository;
 
 import com.laundry.lms.model.Invoice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
@@ -9,4 +12,8 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     Optional<Invoice> findByOrderId(Long orderId);
 
     Optional<Invoice> findByInvoiceNo(String invoiceNo);
+
+    @Modifying
+    @Query("update Invoice i set i.pdfHash = :hash, i.pdfUrl = :url where i.id = :id")
+    int attachPdf(@Param("id") Long id, @Param("hash") String hash, @Param("url") String url);
 }
@@ -2,8 +2,14 @@ package com.laundry.lms.repository;
 
 import com.laundry.lms.model.LaundryOrder;
 import com.laundry.lms.model.OrderStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 public interface LaundryOrderRepository extends JpaRepository<LaundryOrder, Long> {
@@ -14,4 +20,68 @@ public interface LaundryOrderRepository extends JpaRepository<LaundryOrder, Long
     List<LaundryOrder> findByStatus(OrderStatus status);
 
     List<LaundryOrder> findAllByOrderByCreatedAtDesc();
+
+    /**
+     * Keyset page of (id, price, customerId) for paid orders that have no invoice yet.
+     */
+    @Query("select o.id, o.price, o.customer.id from LaundryOrder o where o.paymentStatus = 'PAID' and o.id > :afterId " +
+            "and not exists (select i.id from Invoice i where i.order.id = o.id) order by o.id")
+    List<Object[]> findUninvoicedPaidAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Keyset page of (id, price, paymentStatus) ordered by id, for reconciliation.
+     */
+    @Query("select o.id, o.price, o.paymentStatus from LaundryOrder o where o.id > :afterId order by o.id")
+    List<Object[]> findPaymentStatePage(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Set the order's payment status only if it still has the expected value.
+     */
+    @Modifying
+    @Query("update LaundryOrder o set o.paymentStatus = :status " +
+            "where o.id = :id and coalesce(o.paymentStatus, '') = :expected")
+    int updatePaymentStatusIf(@Param("id") Long id, @Param("expected") String expected,
+            @Param("status") String status);
+
+    /**
+     * Give an order without a payment status one, unless it got one meanwhile.
+     */
+    @Modifying
+    @Query("update LaundryOrder o set o.paymentStatus = :status where o.id = :id and o.paymentStatus is null")
+    int fillPaymentStatusIfNull(@Param("id") Long id, @Param("status") String status);
+
+    /**
+     * (price, customerId) for payment processing, without loading the order.
+     */
+    @Query("select o.price, o.customer.id from LaundryOrder o where o.id = :id")
+    List<Object[]> findPaymentContext(@Param("id") Long id);
+
+    /**
+     * Mirror a payment state onto the order unless the order is already paid.
+     */
+    @Modifying
+    @Query("update LaundryOrder o set o.paymentStatus = :status, o.paymentMethod = :method " +
+            "where o.id = :id and coalesce(o.paymentStatus, '') <> :paid")
+    int updatePaymentStateUnlessPaid(@Param("id") Long id, @Param("status") String status,
+            @Param("method") String method, @Param("paid") String paid);
+
+    @Modifying
+    @Query("update LaundryOrder o set o.paymentStatus = :paid, o.paymentMethod = :method, o.paidAt = :paidAt " +
+            "where o.id = :id and coalesce(o.paymentStatus, '') <> :paid")
+    int markPaid(@Param("id") Long id, @Param("method") String method, @Param("paidAt") Instant paidAt,
+            @Param("paid") String paid);
+
+    /**
+     * Orders in the given status with their customer, for bulk job creation.
+     */
+    @Query("select o from LaundryOrder o join fetch o.customer where o.id in :ids and o.status = :status")
+    List<LaundryOrder> findWithCustomerByIdInAndStatus(@Param("ids") Collection<Long> ids,
+            @Param("status") OrderStatus status);
+
+    /**
+     * Ids of orders in the given status that have no delivery job.
+     */
+    @Query("select o.id from LaundryOrder o where o.status = :status " +
+            "and not exists (select j.id from DeliveryJob j where j.order.id = o.id) order by o.id")
+    List<Long> findIdsWithoutDeliveryJob(@Param("status") OrderStatus status, Pageable pageable);
 }
@@ -0,0 +1,49 @@
+package com.laundry.lms.repository;
+
+import com.laundry.lms.model.LedgerAccount;
+import com.laundry.lms.model.LedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+
+    List<LedgerEntry> findByOrderIdOrderByIdAsc(Long orderId);
+
+    boolean existsByJournalKey(String journalKey);
+
+    @Query("select coalesce(sum(e.amount), 0) from LedgerEntry e " +
+            "where e.account = :account and e.customerId = :customerId and e.id > :afterId")
+    BigDecimal sumForCustomerAfter(@Param("account") LedgerAccount account,
+            @Param("customerId") Long customerId,
+            @Param("afterId") Long afterId);
+
+    @Query("select coalesce(sum(e.amount), 0) from LedgerEntry e " +
+            "where e.account = :account and e.id > :afterId and e.createdAt < :before")
+    BigDecimal sumForAccountAfter(@Param("account") LedgerAccount account,
+            @Param("afterId") Long afterId,
+            @Param("before") LocalDateTime before);
+
+    @Query("select max(e.id) from LedgerEntry e where e.createdAt < :before")
+    Long findMaxIdBefore(@Param("before") LocalDateTime before);
+
+    /**
+     * Per-account totals of entries in (afterId, upToId]: account, sum.
+     */
+    @Query("select e.account, sum(e.amount) from LedgerEntry e " +
+            "where e.id > :afterId and e.id <= :upToId group by e.account")
+    List<Object[]> sumByAccountBetween(@Param("afterId") Long afterId, @Param("upToId") Long upToId);
+
+    /**
+     * Per-customer totals of one account's entries in (afterId, upToId]: customerId, sum.
+     */
+    @Query("select e.customerId, sum(e.amount) from LedgerEntry e where e.account = :account " +
+            "and e.customerId is not null and e.id > :afterId and e.id <= :upToId group by e.customerId")
+    List<Object[]> sumByCustomerBetween(@Param("account") LedgerAccount account,
+            @Param("afterId") Long afterId,
+            @Param("upToId") Long upToId);
+}
@@ -0,0 +1,21 @@
+package com.laundry.lms.repository;
+
+import com.laundry.lms.model.LedgerAccount;
+import com.laundry.lms.model.LedgerSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+public interface LedgerSnapshotRepository extends JpaRepository<LedgerSnapshot, Long> {
+
+    Optional<LedgerSnapshot> findFirstByAccountAndCustomerIdOrderBySnapshotDateDesc(
+            LedgerAccount account, Long customerId);
+
+    Optional<LedgerSnapshot> findFirstByAccountAndCustomerIdIsNullOrderBySnapshotDateDesc(LedgerAccount account);
+
+    Optional<LedgerSnapshot> findFirstByAccountAndCustomerIdIsNullAndSnapshotDateLessThanEqualOrderBySnapshotDateDesc(
+            LedgerAccount account, LocalDate date);
+
+    boolean existsByCustomerIdIsNullAndSnapshotDate(LocalDate date);
+}
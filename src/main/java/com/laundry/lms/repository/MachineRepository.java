@@ -0,0 +1,10 @@
+package com.laundry.lms.repository;
+
+import com.laundry.lms.model.Machine;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface MachineRepository extends JpaRepository<Machine, Long> {
+    List<Machine> findByActiveTrueOrderByTypeAscNameAsc();
+}
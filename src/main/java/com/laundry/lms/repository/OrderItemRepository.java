@@ -1,10 +1,33 @@
 package com.laundry.lms.repository;
 
 import com.laundry.lms.model.OrderItem;
+import com.laundry.lms.model.OrderStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> findByOrderId(Long orderId);
+
+    @Query("select i from OrderItem i join fetch i.order o where o.status in :statuses")
+    List<OrderItem> findWithOrderByOrderStatusIn(@Param("statuses") Collection<OrderStatus> statuses);
+
+    /**
+     * Items of orders newer than afterOrderId, for picking up arrivals.
+     */
+    @Query("select i from OrderItem i join fetch i.order o where o.id > :afterOrderId and o.status in :statuses")
+    List<OrderItem> findWithOrderByOrderIdAfter(@Param("afterOrderId") Long afterOrderId,
+            @Param("statuses") Collection<OrderStatus> statuses);
+
+    /**
+     * Items of orders created in [from, to), oldest order first, for replaying demand.
+     */
+    @Query("select i from OrderItem i join fetch i.order o where o.createdAt >= :from and o.createdAt < :to"
+            + " and o.status <> :excluded order by o.createdAt, o.id, i.id")
+    List<OrderItem> findWithOrderByCreatedAtBetween(@Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to, @Param("excluded") OrderStatus excluded);
 }
@@ -0,0 +1,42 @@
+package com.laundry.lms.repository;
+
+import com.laundry.lms.model.OutboxEvent;
+import com.laundry.lms.model.OutboxStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Lock the next deliverable events, skipping rows another relay has locked
+     * (lock timeout -2 is Hibernate's SKIP LOCKED).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select e from OutboxEvent e where (e.state = :pending and e.availableAt <= :now) " +
+            "or (e.state = :processing and e.claimedAt < :staleBefore) order by e.id")
+    List<OutboxEvent> lockNextBatch(@Param("pending") OutboxStatus pending,
+            @Param("processing") OutboxStatus processing,
+            @Param("now") Instant now,
+            @Param("staleBefore") Instant staleBefore,
+            Pageable pageable);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.state = :done, e.processedAt = :now, e.lastError = null where e.id in :ids")
+    int markDone(@Param("ids") Collection<Long> ids, @Param("done") OutboxStatus done, @Param("now") Instant now);
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.state = :done and e.processedAt < :before")
+    int deleteProcessedBefore(@Param("done") OutboxStatus done, @Param("before") Instant before);
+}
@@ -1,9 +1,19 @@
 package com.laundry.lms.repository;
 
 import com.laundry.lms.model.Payment;
+import com.laundry.lms.model.PaymentMethod;
 import com.laundry.lms.model.PaymentStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,4 +25,59 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     Optional<Payment> findFirstByOrderIdOrderByIdDesc(Long orderId);
 
     Optional<Payment> findByOrderId(Long orderId);
+
+    /**
+     * Keyset page of payments touched in [from, to) for revenue re-aggregation, as
+     * (id, updatedAt, order service type, method, status, amount) ordered by id.
+     */
+    @Query("select p.id, p.updatedAt, o.serviceType, p.method, p.status, p.amountLkr from Payment p " +
+            "join LaundryOrder o on o.id = p.orderId where p.updatedAt >= :from and p.updatedAt < :to " +
+            "and p.id > :afterId order by p.id")
+    List<Object[]> findRevenuePage(@Param("from") Instant from, @Param("to") Instant to,
+            @Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Lock a payment row so its rollup contribution is applied by one thread at a time.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Payment p where p.id = :id")
+    Optional<Payment> lockById(@Param("id") Long id);
+
+    /**
+     * Keyset page of (id, orderId, amountLkr, status) ordered by (orderId, id), for reconciliation.
+     */
+    @Query("select p.id, p.orderId, p.amountLkr, p.status from Payment p " +
+            "where p.orderId > :afterOrderId or (p.orderId = :afterOrderId and p.id > :afterId) " +
+            "order by p.orderId, p.id")
+    List<Object[]> findReconciliationPage(@Param("afterOrderId") Long afterOrderId,
+            @Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Latest payment for an order as (id, status, amountLkr), without loading the entity.
+     */
+    @Query("select p.id, p.status, p.amountLkr from Payment p where p.orderId = :orderId order by p.id desc")
+    List<Object[]> findStateByOrderId(@Param("orderId") Long orderId, Pageable pageable);
+
+    /**
+     * (orderId, status, method, provider, providerRef, amountLkr) of one payment, for a staff transition.
+     */
+    @Query("select p.orderId, p.status, p.method, p.provider, p.providerRef, p.amountLkr from Payment p where p.id = :id")
+    List<Object[]> findTransitionState(@Param("id") Long id);
+
+    @Query("select p.status from Payment p where p.id = :id")
+    PaymentStatus findStatusById(@Param("id") Long id);
+
+    /**
+     * Move a payment to a new state only if it is currently in one of the given states.
+     *
+     * @return 1 if the transition was applied, 0 if the payment was in another state
+     */
+    @Modifying
+    @Query("update Payment p set p.status = :to, p.method = :method, p.provider = :provider, " +
+            "p.providerRef = :ref, p.amountLkr = :amount, p.updatedAt = :now " +
+            "where p.id = :id and p.status in :from")
+    int transition(@Param("id") Long id, @Param("from") Collection<PaymentStatus> from,
+            @Param("to") PaymentStatus to, @Param("method") PaymentMethod method,
+            @Param("provider") String provider, @Param("ref") String ref,
+            @Param("amount") BigDecimal amount, @Param("now") Instant now);
 }
@@ -0,0 +1,32 @@
+package com.laundry.lms.repository;
+
+import com.laundry.lms.model.Photo;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface PhotoRepository extends JpaRepository<Photo, Long> {
+    List<Photo> findByDeliveryJobIdOrderByCreatedAtAsc(Long deliveryJobId);
+
+    boolean existsByDeliveryJobId(Long deliveryJobId);
+
+    List<Photo> findByOrderItemIdOrderByCreatedAtAsc(Long orderItemId);
+
+    @Query("select p from Photo p left join p.deliveryJob j left join p.orderItem i " +
+            "where j.order.id = :orderId or i.order.id = :orderId order by p.createdAt")
+    List<Photo> findByOrderId(@Param("orderId") Long orderId);
+
+    // Customer of the order a photo belongs to, through whichever link it has
+    @Query("select coalesce(jo.customer.id, io.customer.id) from Photo p " +
+            "left join p.deliveryJob j left join j.order jo " +
+            "left join p.orderItem i left join i.order io " +
+            "where p.id = :photoId")
+    Optional<Long> findCustomerId(@Param("photoId") Long photoId);
+
+    @Query("select p.id from Photo p where p.thumbnailHash is null order by p.id")
+    List<Long> findIdsWithoutThumbnail(Pageable pageable);
+}
@@ -0,0 +1,10 @@
+package com.laundry.lms.repository;
+
+import com.laundry.lms.model.ReconciliationMismatch;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ReconciliationMismatchRepository extends JpaRepository<ReconciliationMismatch, Long> {
+    Page<ReconciliationMismatch> findByRunIdOrderByIdAsc(Long runId, Pageable pageable);
+}
@@ -0,0 +1,10 @@
+package com.laundry.lms.repository;
+
+import com.laundry.lms.model.ReconciliationRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface ReconciliationRunRepository extends JpaRepository<ReconciliationRun, Long> {
+    Optional<ReconciliationRun> findTopByOrderByIdDesc();
+}
@@ -0,0 +1,34 @@
+package com.laundry.lms.repository;
+
+import com.laundry.lms.model.RevenueGranularity;
+import com.laundry.lms.model.RevenueRollupEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface RevenueRollupEntryRepository extends JpaRepository<RevenueRollupEntry, Long> {
+
+    List<RevenueRollupEntry> findByPaymentId(Long paymentId);
+
+    List<RevenueRollupEntry> findByPaymentIdIn(Collection<Long> paymentIds);
+
+    /**
+     * Keyset page of entries in buckets [from, to] whose payment is no longer in
+     * [periodFrom, periodTo), as (entry, updatedAt, order service type, method,
+     * status, amount) of the payment today.
+     */
+    @Query("select e, p.updatedAt, o.serviceType, p.method, p.status, p.amountLkr from RevenueRollupEntry e " +
+            "join Payment p on p.id = e.paymentId join LaundryOrder o on o.id = p.orderId " +
+            "where e.granularity = :granularity and e.bucketStart between :from and :to " +
+            "and (p.updatedAt < :periodFrom or p.updatedAt >= :periodTo) and e.id > :afterId order by e.id")
+    List<Object[]> findMovedOutPage(@Param("granularity") RevenueGranularity granularity,
+            @Param("from") LocalDate from, @Param("to") LocalDate to,
+            @Param("periodFrom") Instant periodFrom, @Param("periodTo") Instant periodTo,
+            @Param("afterId") Long afterId, Pageable pageable);
+}
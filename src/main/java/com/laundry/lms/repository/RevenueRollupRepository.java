@@ -0,0 +1,45 @@
+package com.laundry.lms.repository;
+
+import com.laundry.lms.model.PaymentMethod;
+import com.laundry.lms.model.PaymentStatus;
+import com.laundry.lms.model.RevenueGranularity;
+import com.laundry.lms.model.RevenueRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface RevenueRollupRepository extends JpaRepository<RevenueRollup, Long> {
+
+    List<RevenueRollup> findByGranularityAndBucketStartBetweenOrderByBucketStartAsc(
+            RevenueGranularity granularity, LocalDate from, LocalDate to);
+
+    /**
+     * Add count payments and amount to a bucket; negative values take a payment out.
+     */
+    @Modifying
+    @Query("update RevenueRollup r set r.paymentCount = r.paymentCount + :count, " +
+            "r.amountLkr = r.amountLkr + :amount, r.updatedAt = :now " +
+            "where r.granularity = :granularity and r.bucketStart = :bucketStart " +
+            "and r.serviceType = :serviceType and r.method = :method and r.status = :status")
+    int increment(@Param("granularity") RevenueGranularity granularity,
+            @Param("bucketStart") LocalDate bucketStart,
+            @Param("serviceType") String serviceType,
+            @Param("method") PaymentMethod method,
+            @Param("status") PaymentStatus status,
+            @Param("count") long count,
+            @Param("amount") BigDecimal amount,
+            @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("delete from RevenueRollup r where r.granularity = :granularity " +
+            "and r.bucketStart between :from and :to")
+    int deleteRange(@Param("granularity") RevenueGranularity granularity,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+}
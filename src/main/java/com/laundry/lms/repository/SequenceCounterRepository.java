@@ -0,0 +1,17 @@
+package com.laundry.lms.repository;
+
+import com.laundry.lms.model.SequenceCounter;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface SequenceCounterRepository extends JpaRepository<SequenceCounter, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from SequenceCounter c where c.name = :name")
+    Optional<SequenceCounter> lockByName(@Param("name") String name);
+}
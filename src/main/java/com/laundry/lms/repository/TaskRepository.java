@@ -2,12 +2,78 @@ package com.laundry.lms.repository;
 
 import com.laundry.lms.model.Task;
 import com.laundry.lms.model.TaskStatus;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.util.List;
 
 public interface TaskRepository extends JpaRepository<Task, Long> {
+    @Override
+    @EntityGraph(attributePaths = "assignee")
+    List<Task> findAll();
+
+    @EntityGraph(attributePaths = "assignee")
     List<Task> findByStatus(TaskStatus status);
 
-    List<Task> findByAssignedTo(String assignedTo);
+    List<Task> findByAssigneeId(Long assigneeId);
+
+    /**
+     * First page of a user's queue in (priority, due_date, id) order, read as
+     * one range of idx_task_queue. Native so priority compares as its stored
+     * ordinal. Tasks without a due date sort first within their priority, as
+     * NULL sorts low in both H2 and MySQL.
+     */
+    @Query(value = "SELECT * FROM tasks WHERE assignee_id = :assigneeId AND status = :status " +
+            "ORDER BY priority, due_date, id LIMIT :limit", nativeQuery = true)
+    List<Task> findQueueHead(@Param("assigneeId") Long assigneeId, @Param("status") String status,
+            @Param("limit") int limit);
+
+    /**
+     * Queue page after a task with a due date.
+     */
+    @Query(value = "SELECT * FROM tasks WHERE assignee_id = :assigneeId AND status = :status " +
+            "AND (priority > :priority OR (priority = :priority AND " +
+            "(due_date > :dueDate OR (due_date = :dueDate AND id > :id)))) " +
+            "ORDER BY priority, due_date, id LIMIT :limit", nativeQuery = true)
+    List<Task> findQueueAfter(@Param("assigneeId") Long assigneeId, @Param("status") String status,
+            @Param("priority") int priority, @Param("dueDate") LocalDate dueDate, @Param("id") Long id,
+            @Param("limit") int limit);
+
+    /**
+     * Queue page after a task without a due date.
+     */
+    @Query(value = "SELECT * FROM tasks WHERE assignee_id = :assigneeId AND status = :status " +
+            "AND (priority > :priority OR (priority = :priority AND (due_date IS NOT NULL OR id > :id))) " +
+            "ORDER BY priority, due_date, id LIMIT :limit", nativeQuery = true)
+    List<Task> findQueueAfterUndated(@Param("assigneeId") Long assigneeId, @Param("status") String status,
+            @Param("priority") int priority, @Param("id") Long id, @Param("limit") int limit);
+
+    /**
+     * Number of tasks per status, read from idx_task_board.
+     */
+    @Query("select t.status, count(t) from Task t group by t.status")
+    List<Object[]> countByStatus();
+
+    /**
+     * First page of a board column, in the same order as the per-user queue.
+     */
+    @Query(value = "SELECT * FROM tasks WHERE status = :status " +
+            "ORDER BY priority, due_date, id LIMIT :limit", nativeQuery = true)
+    List<Task> findColumnHead(@Param("status") String status, @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM tasks WHERE status = :status " +
+            "AND (priority > :priority OR (priority = :priority AND " +
+            "(due_date > :dueDate OR (due_date = :dueDate AND id > :id)))) " +
+            "ORDER BY priority, due_date, id LIMIT :limit", nativeQuery = true)
+    List<Task> findColumnAfter(@Param("status") String status, @Param("priority") int priority,
+            @Param("dueDate") LocalDate dueDate, @Param("id") Long id, @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM tasks WHERE status = :status " +
+            "AND (priority > :priority OR (priority = :priority AND (due_date IS NOT NULL OR id > :id))) " +
+            "ORDER BY priority, due_date, id LIMIT :limit", nativeQuery = true)
+    List<Task> findColumnAfterUndated(@Param("status") String status, @Param("priority") int priority,
+            @Param("id") Long id, @Param("limit") int limit);
 }
@@ -3,6 +3,8 @@ package com.laundry.lms.repository;
 import com.laundry.lms.model.User;
 import com.laundry.lms.model.UserRole;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -10,4 +12,8 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     List<User> findByRole(UserRole role);
+    List<User> findByName(String name);
+
+    @Query("select u.id from User u where u.role = :role and (u.onDuty is null or u.onDuty = true)")
+    List<Long> findOnDutyIdsByRole(@Param("role") UserRole role);
 }
@@ -0,0 +1,64 @@
+package com.laundry.lms.repository;
+
+import com.laundry.lms.model.WebhookInboxEntry;
+import com.laundry.lms.model.WebhookInboxStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface WebhookInboxRepository extends JpaRepository<WebhookInboxEntry, Long> {
+
+    /**
+     * Oldest entries that are pending, or whose claim has gone stale (claimer
+     * died), skipping those queued behind an earlier entry for the same order
+     * that someone is still applying.
+     */
+    @Query("select e.id from WebhookInboxEntry e where (e.state = :pending " +
+            "or (e.state = :processing and e.claimedAt < :staleBefore)) " +
+            "and not exists (select p.id from WebhookInboxEntry p where p.orderId = e.orderId and p.id < e.id " +
+            "and p.state = :processing and p.claimedAt >= :staleBefore) order by e.id")
+    List<Long> findClaimableIds(@Param("pending") WebhookInboxStatus pending,
+            @Param("processing") WebhookInboxStatus processing,
+            @Param("staleBefore") Instant staleBefore,
+            Pageable pageable);
+
+    /**
+     * Claim entries for this node; rows claimed by another node in the meantime are skipped.
+     */
+    @Modifying
+    @Query("update WebhookInboxEntry e set e.state = :processing, e.claimToken = :token, e.claimedAt = :now " +
+            "where e.id in :ids and (e.state = :pending or (e.state = :processing and e.claimedAt < :staleBefore))")
+    int claim(@Param("ids") Collection<Long> ids,
+            @Param("token") String token,
+            @Param("now") Instant now,
+            @Param("pending") WebhookInboxStatus pending,
+            @Param("processing") WebhookInboxStatus processing,
+            @Param("staleBefore") Instant staleBefore);
+
+    List<WebhookInboxEntry> findByClaimTokenOrderByIdAsc(String claimToken);
+
+    /**
+     * Entries in this claim that have an earlier entry for the same order still
+     * waiting outside it: pending, or in another claim.
+     */
+    @Query("select e.id from WebhookInboxEntry e where e.claimToken = :token " +
+            "and exists (select p.id from WebhookInboxEntry p where p.orderId = e.orderId and p.id < e.id " +
+            "and p.state in :waiting and (p.claimToken is null or p.claimToken <> :token))")
+    List<Long> findBlockedInClaim(@Param("token") String token,
+            @Param("waiting") Collection<WebhookInboxStatus> waiting);
+
+    /**
+     * Hand claimed entries back untouched, without counting an attempt.
+     */
+    @Modifying
+    @Query("update WebhookInboxEntry e set e.state = :pending, e.claimToken = null where e.id in :ids")
+    int release(@Param("ids") Collection<Long> ids, @Param("pending") WebhookInboxStatus pending);
+
+    long countByStateIn(Collection<WebhookInboxStatus> states);
+}
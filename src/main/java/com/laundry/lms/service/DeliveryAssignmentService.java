@@ -0,0 +1,208 @@
+package com.laundry.lms.service;
+
+import com.laundry.lms.dto.DeliveryUpdate;
+import com.laundry.lms.model.AuditLog;
+import com.laundry.lms.model.DeliveryStatus;
+import com.laundry.lms.model.User;
+import com.laundry.lms.model.UserRole;
+import com.laundry.lms.repository.AuditLogRepository;
+import com.laundry.lms.repository.DeliveryJobRepository;
+import com.laundry.lms.repository.UserRepository;
+import com.laundry.lms.service.location.DispatchIndex;
+import com.laundry.lms.service.routing.RoutePlanner;
+import com.laundry.lms.service.stream.DeliveryEventHub;
+import com.laundry.lms.service.sync.DeliveryChangeLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Assigns SCHEDULED delivery jobs that have no on-duty driver: new jobs
+ * created without an assignee, and jobs left behind by a driver who went off
+ * duty. Drivers sit in a priority queue ordered by estimated finish time, then
+ * by job count; each job goes to the head of the queue. The whole batch is
+ * written with one JDBC batch UPDATE guarded on the previous assignee, so a
+ * manual reassignment in the meantime is never overwritten.
+ */
+@Service
+public class DeliveryAssignmentService {
+
+    private static final Logger log = LoggerFactory.getLogger(DeliveryAssignmentService.class);
+
+    private static final String ASSIGN = "UPDATE delivery_jobs SET assigned_to_id = ?, updated_at = ?, change_seq = ? "
+            + "WHERE id = ? AND status = 'SCHEDULED' AND COALESCE(assigned_to_id, 0) = ?";
+
+    private final DeliveryJobRepository deliveryJobRepository;
+    private final UserRepository userRepository;
+    private final AuditLogRepository auditLogRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final DispatchIndex dispatchIndex;
+    private final DeliveryEventHub eventHub;
+    private final DeliveryChangeLog changeLog;
+    private final double depotLatitude;
+    private final double depotLongitude;
+    private final double speedKmh;
+    private final double minutesPerJob;
+
+    private static final class DriverLoad {
+        private final long driverId;
+        private long jobs;
+        private double finishMinutes;
+
+        private DriverLoad(long driverId, long jobs, double finishMinutes) {
+            this.driverId = driverId;
+            this.jobs = jobs;
+            this.finishMinutes = finishMinutes;
+        }
+    }
+
+    private static final Comparator<DriverLoad> LEAST_LOADED = Comparator
+            .comparingDouble((DriverLoad d) -> d.finishMinutes)
+            .thenComparingLong(d -> d.jobs)
+            .thenComparingLong(d -> d.driverId);
+
+    public DeliveryAssignmentService(DeliveryJobRepository deliveryJobRepository,
+            UserRepository userRepository,
+            AuditLogRepository auditLogRepository,
+            JdbcTemplate jdbcTemplate,
+            DispatchIndex dispatchIndex,
+            DeliveryEventHub eventHub,
+            DeliveryChangeLog changeLog,
+            @Value("${delivery.depot.latitude:6.9271}") double depotLatitude,
+            @Value("${delivery.depot.longitude:79.8612}") double depotLongitude,
+            @Value("${delivery.route.speed-kmh:25}") double speedKmh,
+            @Value("${delivery.assignment.minutes-per-job:20}") double minutesPerJob) {
+        this.deliveryJobRepository = deliveryJobRepository;
+        this.userRepository = userRepository;
+        this.auditLogRepository = auditLogRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.dispatchIndex = dispatchIndex;
+        this.eventHub = eventHub;
+        this.changeLog = changeLog;
+        this.depotLatitude = depotLatitude;
+        this.depotLongitude = depotLongitude;
+        this.speedKmh = speedKmh;
+        this.minutesPerJob = minutesPerJob;
+    }
+
+    /**
+     * Periodic pass that picks up new and orphaned jobs.
+     */
+    @Scheduled(fixedDelayString = "${delivery.assignment.interval-ms:15000}")
+    public void scheduledRun() {
+        int assigned = assignPending(null);
+        if (assigned > 0) {
+            log.info("Auto-assigned {} delivery job(s)", assigned);
+        }
+    }
+
+    /**
+     * Assign every SCHEDULED job without an on-duty driver.
+     *
+     * @param actor user to record in the audit log, or null for the scheduled run
+     * @return number of jobs assigned
+     */
+    @Transactional
+    public int assignPending(User actor) {
+        List<Long> driverIds = userRepository.findOnDutyIdsByRole(UserRole.DELIVERY_STAFF);
+        if (driverIds.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> pending = deliveryJobRepository.findUnassignedOrOrphaned(DeliveryStatus.SCHEDULED, driverIds);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        PriorityQueue<DriverLoad> queue = new PriorityQueue<>(driverIds.size(), LEAST_LOADED);
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : deliveryJobRepository.countActiveByDriver(
+                EnumSet.of(DeliveryStatus.SCHEDULED, DeliveryStatus.PICKED_UP, DeliveryStatus.IN_TRANSIT), driverIds)) {
+            counts.put((Long) row[0], (Long) row[1]);
+        }
+        for (Long driverId : driverIds) {
+            long jobs = counts.getOrDefault(driverId, 0L);
+            queue.add(new DriverLoad(driverId, jobs, jobs * minutesPerJob));
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long changeSeq = changeLog.next();
+        List<Object[]> updates = new ArrayList<>(pending.size());
+        for (Object[] row : pending) {
+            DriverLoad driver = queue.poll();
+            driver.jobs++;
+            driver.finishMinutes += estimateMinutes((Double) row[2], (Double) row[3]);
+            queue.add(driver);
+            Long previous = (Long) row[1];
+            updates.add(new Object[] { driver.driverId, now, changeSeq, row[0], previous != null ? previous : 0L });
+        }
+
+        int assigned = 0;
+        int[] results = jdbcTemplate.batchUpdate(ASSIGN, updates);
+        Instant at = Instant.now();
+        for (int i = 0; i < results.length; i++) {
+            // Drivers may report SUCCESS_NO_INFO (-2) for batched statements
+            int count = results[i] == Statement.SUCCESS_NO_INFO ? 1 : results[i];
+            if (count > 0) {
+                Object[] row = pending.get(i);
+                Object[] update = updates.get(i);
+                // The off-duty driver this job was taken from drops it on their next sync
+                changeLog.removed((Long) row[0], (Long) row[1], changeSeq);
+                eventHub.publish(new DeliveryUpdate(DeliveryUpdate.Type.REASSIGNED, (Long) row[0], (Long) row[4],
+                        DeliveryStatus.SCHEDULED, (Long) update[0], (Long) row[1], Boolean.TRUE.equals(row[5]), at));
+            }
+            assigned += count;
+        }
+        if (actor != null) {
+            auditLogRepository.save(AuditLog.create(actor, "AUTO_ASSIGN_DELIVERIES", "DeliveryJob", null,
+                    null, String.valueOf(assigned)));
+        }
+        return assigned;
+    }
+
+    /**
+     * Put a driver on or off duty. Going off duty hands their SCHEDULED jobs
+     * to the remaining drivers straight away.
+     *
+     * @return number of jobs reassigned
+     */
+    @Transactional
+    public int setOnDuty(User driver, boolean onDuty, User actor) {
+        if (driver.getRole() != UserRole.DELIVERY_STAFF) {
+            throw new IllegalStateException("Only delivery staff can go on or off duty");
+        }
+        boolean wasOnDuty = !Boolean.FALSE.equals(driver.getOnDuty());
+        driver.setOnDuty(onDuty);
+        userRepository.save(driver);
+        dispatchIndex.setOnDuty(driver.getId(), onDuty);
+        auditLogRepository.save(AuditLog.create(actor, "SET_DRIVER_DUTY", "User", driver.getId(),
+                String.valueOf(wasOnDuty), String.valueOf(onDuty)));
+        // Flush so the assignment queries see the new duty state
+        userRepository.flush();
+        return assignPending(actor);
+    }
+
+    // Round trip from the depot plus handling time; unknown locations get the flat estimate
+    private double estimateMinutes(Double latitude, Double longitude) {
+        if (latitude == null || longitude == null) {
+            return minutesPerJob;
+        }
+        double km = RoutePlanner.haversineKm(depotLatitude, depotLongitude, latitude, longitude);
+        return 2 * km / speedKmh * 60 + minutesPerJob / 2;
+    }
+}
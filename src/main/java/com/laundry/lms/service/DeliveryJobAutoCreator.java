@@ -0,0 +1,186 @@
+package com.laundry.lms.service;
+
+import com.laundry.lms.model.AuditLog;
+import com.laundry.lms.model.DeliveryJob;
+import com.laundry.lms.model.LaundryOrder;
+import com.laundry.lms.model.OrderStatus;
+import com.laundry.lms.repository.AuditLogRepository;
+import com.laundry.lms.repository.DeliveryJobRepository;
+import com.laundry.lms.repository.LaundryOrderRepository;
+import com.laundry.lms.repository.UserRepository;
+import com.laundry.lms.service.sync.DeliveryChangeLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Creates delivery jobs for orders that reach READY. Order ids arrive from
+ * the OrderStatusChangedEvent listener and are written in batches, one
+ * transaction per batch. The unique constraint on delivery_jobs.order_id
+ * (see DeliveryJobOrderKeyMigration) is the only duplicate check: a batch
+ * that hits it is retried order by order and the duplicates are skipped. A
+ * periodic sweep re-queues READY orders still without a job, covering ids
+ * lost to a restart. Each job is audited in the batch's transaction under
+ * the staff member who marked the order READY.
+ */
+@Service
+public class DeliveryJobAutoCreator {
+
+    private static final Logger log = LoggerFactory.getLogger(DeliveryJobAutoCreator.class);
+
+    // actorId is null when the order was queued by the sweep
+    private record ReadyOrder(Long orderId, Long actorId) {}
+
+    private final LaundryOrderRepository orderRepository;
+    private final DeliveryJobRepository deliveryJobRepository;
+    private final AuditLogRepository auditLogRepository;
+    private final UserRepository userRepository;
+    private final DeliveryService deliveryService;
+    private final DeliveryChangeLog changeLog;
+    private final TransactionTemplate transactionTemplate;
+    private final Queue<ReadyOrder> pending = new ConcurrentLinkedQueue<>();
+    private final int batchSize;
+    private final int sweepLimit;
+
+    public DeliveryJobAutoCreator(LaundryOrderRepository orderRepository,
+            DeliveryJobRepository deliveryJobRepository,
+            AuditLogRepository auditLogRepository,
+            UserRepository userRepository,
+            DeliveryService deliveryService,
+            DeliveryChangeLog changeLog,
+            PlatformTransactionManager transactionManager,
+            @Value("${delivery.auto-create.batch-size:100}") int batchSize,
+            @Value("${delivery.auto-create.sweep-limit:500}") int sweepLimit) {
+        this.orderRepository = orderRepository;
+        this.deliveryJobRepository = deliveryJobRepository;
+        this.auditLogRepository = auditLogRepository;
+        this.userRepository = userRepository;
+        this.deliveryService = deliveryService;
+        this.changeLog = changeLog;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.sweepLimit = sweepLimit;
+    }
+
+    /**
+     * Queue an order that became READY.
+     *
+     * @param actorId staff member who marked it READY, or null if unknown
+     */
+    public void enqueue(Long orderId, Long actorId) {
+        pending.add(new ReadyOrder(orderId, actorId));
+    }
+
+    /**
+     * Create jobs for everything queued so far.
+     *
+     * @return number of jobs created
+     */
+    @Scheduled(fixedDelayString = "${delivery.auto-create.flush-ms:500}")
+    public synchronized int flush() {
+        int created = 0;
+        while (true) {
+            Map<Long, Long> batch = new LinkedHashMap<>();
+            ReadyOrder ready;
+            while (batch.size() < batchSize && (ready = pending.poll()) != null) {
+                // A known actor wins over the sweep's unknown one
+                batch.merge(ready.orderId(), ready.actorId() != null ? ready.actorId() : 0L,
+                        (queued, next) -> queued != 0L ? queued : next);
+            }
+            if (batch.isEmpty()) {
+                return created;
+            }
+            created += createBatch(batch);
+        }
+    }
+
+    /**
+     * Queue READY orders that still have no delivery job.
+     */
+    @Scheduled(fixedDelayString = "${delivery.auto-create.sweep-ms:300000}",
+            initialDelayString = "${delivery.auto-create.sweep-ms:300000}")
+    public void sweep() {
+        List<Long> missing = orderRepository.findIdsWithoutDeliveryJob(OrderStatus.READY,
+                PageRequest.of(0, sweepLimit));
+        if (!missing.isEmpty()) {
+            log.info("Queueing {} READY order(s) without a delivery job", missing.size());
+            missing.forEach(orderId -> pending.add(new ReadyOrder(orderId, null)));
+        }
+    }
+
+    // orderId -> actorId, 0 when unknown
+    private int createBatch(Map<Long, Long> actors) {
+        List<Long> orderIds = new ArrayList<>(actors.keySet());
+        List<DeliveryJob> created = new ArrayList<>();
+        try {
+            created.addAll(transactionTemplate.execute(status -> createAll(orderIds, actors)));
+        } catch (DataIntegrityViolationException e) {
+            // Some orders already have a job; retry one by one and skip those
+            for (Long orderId : orderIds) {
+                try {
+                    created.addAll(transactionTemplate.execute(status -> createAll(List.of(orderId), actors)));
+                } catch (DataIntegrityViolationException duplicate) {
+                    log.debug("Order {} already has a delivery job", orderId);
+                }
+            }
+        } catch (RuntimeException e) {
+            // Left for the sweep to pick up again
+            log.warn("Creating delivery jobs for {} order(s) failed: {}", orderIds.size(), e.getMessage());
+        }
+        for (DeliveryJob job : created) {
+            deliveryService.jobCreated(job);
+        }
+        return created.size();
+    }
+
+    private List<DeliveryJob> createAll(List<Long> orderIds, Map<Long, Long> actors) {
+        List<DeliveryJob> jobs = new ArrayList<>(orderIds.size());
+        for (LaundryOrder order : orderRepository.findWithCustomerByIdInAndStatus(orderIds, OrderStatus.READY)) {
+            if (order.getPickupDate() == null || order.getDeliveryDate() == null) {
+                log.warn("Order {} has no pickup or delivery date; create its delivery job manually", order.getId());
+                continue;
+            }
+            jobs.add(DeliveryService.newJob(order));
+        }
+        if (jobs.isEmpty()) {
+            return jobs;
+        }
+        // One change value for the whole batch; it commits atomically
+        long changeSeq = changeLog.next();
+        jobs.forEach(job -> job.setChangeSeq(changeSeq));
+        List<DeliveryJob> saved = deliveryJobRepository.saveAllAndFlush(jobs);
+        for (DeliveryJob job : saved) {
+            audit(job, actors.getOrDefault(job.getOrder().getId(), 0L));
+        }
+        return saved;
+    }
+
+    // Same trail as a manually generated job; the sweep falls back to whoever last changed the order's status
+    private void audit(DeliveryJob job, Long actorId) {
+        Long orderId = job.getOrder().getId();
+        if (actorId == 0L) {
+            List<Long> actorIds = auditLogRepository.findActorIds("LaundryOrder", orderId, "UPDATE_STATUS",
+                    PageRequest.of(0, 1));
+            if (actorIds.isEmpty()) {
+                log.warn("No actor to audit the delivery job created for order {}", orderId);
+                return;
+            }
+            actorId = actorIds.get(0);
+        }
+        auditLogRepository.save(AuditLog.create(userRepository.getReferenceById(actorId), "AUTO_CREATE_DELIVERY_JOB",
+                "DeliveryJob", job.getId(), null, orderId.toString()));
+    }
+}
@@ -1,12 +1,20 @@
 package com.laundry.lms.service;
 
+import com.laundry.lms.dto.DeliveryUpdate;
 import com.laundry.lms.model.*;
 import com.laundry.lms.repository.AuditLogRepository;
 import com.laundry.lms.repository.DeliveryJobRepository;
 import com.laundry.lms.repository.LaundryOrderRepository;
+import com.laundry.lms.repository.PhotoRepository;
 import com.laundry.lms.repository.UserRepository;
+import com.laundry.lms.service.location.DispatchIndex;
+import com.laundry.lms.service.stream.DeliveryEventHub;
+import com.laundry.lms.service.sync.DeliveryChangeLog;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -22,15 +30,30 @@ public class DeliveryService {
     private final LaundryOrderRepository orderRepository;
     private final UserRepository userRepository;
     private final AuditLogRepository auditLogRepository;
+    private final PhotoRepository photoRepository;
+    private final LateDeliveryMonitor lateDeliveryMonitor;
+    private final DispatchIndex dispatchIndex;
+    private final DeliveryEventHub eventHub;
+    private final DeliveryChangeLog changeLog;
 
     public DeliveryService(DeliveryJobRepository deliveryJobRepository,
             LaundryOrderRepository orderRepository,
             UserRepository userRepository,
-            AuditLogRepository auditLogRepository) {
+            AuditLogRepository auditLogRepository,
+            PhotoRepository photoRepository,
+            LateDeliveryMonitor lateDeliveryMonitor,
+            DispatchIndex dispatchIndex,
+            DeliveryEventHub eventHub,
+            DeliveryChangeLog changeLog) {
         this.deliveryJobRepository = deliveryJobRepository;
         this.orderRepository = orderRepository;
         this.userRepository = userRepository;
         this.auditLogRepository = auditLogRepository;
+        this.photoRepository = photoRepository;
+        this.lateDeliveryMonitor = lateDeliveryMonitor;
+        this.dispatchIndex = dispatchIndex;
+        this.eventHub = eventHub;
+        this.changeLog = changeLog;
     }
 
     /**
@@ -41,31 +64,57 @@ public class DeliveryService {
         LaundryOrder order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Order not found"));
 
-        // Check if delivery job already exists for this order
-        List<DeliveryJob> existingJobs = deliveryJobRepository.findByOrderId(orderId);
-        if (!existingJobs.isEmpty()) {
-            throw new IllegalStateException("Delivery job already exists for this order");
-        }
-
         User assignedTo = null;
         if (assignedToId != null) {
             assignedTo = userRepository.findById(assignedToId)
                     .orElseThrow(() -> new IllegalArgumentException("Assigned user not found"));
         }
 
-        DeliveryJob job = new DeliveryJob();
-        job.setOrder(order);
+        DeliveryJob job = newJob(order);
         job.setAssignedTo(assignedTo);
-        job.setPickupAt(order.getPickupDate().atTime(9, 0)); // Default 9 AM pickup
-        job.setDeliveryAt(order.getDeliveryDate().atTime(17, 0)); // Default 5 PM delivery
-        job.setStatus(DeliveryStatus.SCHEDULED);
-        job.setLateFlag(false);
+        job.setChangeSeq(changeLog.next());
 
-        DeliveryJob saved = deliveryJobRepository.save(job);
+        DeliveryJob saved;
+        try {
+            // uk_delivery_job_order rejects a second job for the same order
+            saved = deliveryJobRepository.saveAndFlush(job);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("Delivery job already exists for this order");
+        }
         createAuditLog(creator, "CREATE_DELIVERY_JOB", "DeliveryJob", saved.getId(), null, orderId.toString());
+        jobCreated(saved);
         return saved;
     }
 
+    /**
+     * Start watching a newly created job: deadline, dispatch index and live streams.
+     */
+    void jobCreated(DeliveryJob job) {
+        afterCommit(() -> {
+            lateDeliveryMonitor.track(job);
+            dispatchIndex.trackJob(job);
+        });
+        eventHub.publish(DeliveryUpdate.Type.CREATED, job, null);
+    }
+
+    /**
+     * A SCHEDULED job for the order at its booked slot hours; orders from
+     * before slot booking keep 9 AM pickup and 5 PM delivery.
+     */
+    static DeliveryJob newJob(LaundryOrder order) {
+        DeliveryJob job = new DeliveryJob();
+        job.setOrder(order);
+        job.setPickupAt(order.getPickupDate().atTime(order.getPickupHour() != null ? order.getPickupHour() : 9, 0));
+        job.setDeliveryAt(order.getDeliveryHour() != null
+                ? order.getDeliveryDate().atTime(order.getDeliveryHour(), 0).plusHours(1)
+                : order.getDeliveryDate().atTime(17, 0));
+        job.setStatus(DeliveryStatus.SCHEDULED);
+        job.setLateFlag(false);
+        job.setLatitude(order.getCustomer().getLatitude());
+        job.setLongitude(order.getCustomer().getLongitude());
+        return job;
+    }
+
     /**
      * Get deliveries assigned to a specific user.
      */
@@ -105,10 +154,16 @@ public class DeliveryService {
         }
 
         job.setStatus(newStatus);
+        job.setChangeSeq(changeLog.next());
         DeliveryJob updated = deliveryJobRepository.save(job);
 
         createAuditLog(updater, "UPDATE_DELIVERY_STATUS", "DeliveryJob", deliveryId,
                 oldStatus.name(), newStatus.name());
+        afterCommit(() -> {
+            lateDeliveryMonitor.track(updated);
+            dispatchIndex.trackJob(updated);
+        });
+        eventHub.publish(DeliveryUpdate.Type.STATUS, updated, null);
         return updated;
     }
 
@@ -121,50 +176,74 @@ public class DeliveryService {
                 .orElseThrow(() -> new IllegalArgumentException("Delivery job not found"));
 
         String oldAssignee = job.getAssignedTo() != null ? job.getAssignedTo().getName() : "Unassigned";
+        Long oldAssigneeId = job.getAssignedTo() != null ? job.getAssignedTo().getId() : null;
 
         User newAssignee = userRepository.findById(newAssigneeId)
                 .orElseThrow(() -> new IllegalArgumentException("Assigned user not found"));
 
+        long changeSeq = changeLog.next();
         job.setAssignedTo(newAssignee);
+        job.setChangeSeq(changeSeq);
         DeliveryJob updated = deliveryJobRepository.save(job);
+        if (oldAssigneeId != null && !oldAssigneeId.equals(newAssigneeId)) {
+            changeLog.removed(deliveryId, oldAssigneeId, changeSeq);
+        }
 
         createAuditLog(admin, "REASSIGN_DELIVERY", "DeliveryJob", deliveryId,
                 oldAssignee, newAssignee.getName());
+        eventHub.publish(DeliveryUpdate.Type.REASSIGNED, updated, oldAssigneeId);
         return updated;
     }
 
     /**
      * Delete a delivery job.
+     *
+     * @throws IllegalStateException if proof-of-delivery photos are attached; cancel the job instead
      */
     @Transactional
     public void deleteDelivery(Long deliveryId, User admin) {
         DeliveryJob job = deliveryJobRepository.findById(deliveryId)
                 .orElseThrow(() -> new IllegalArgumentException("Delivery job not found"));
+        if (photoRepository.existsByDeliveryJobId(deliveryId)) {
+            throw new IllegalStateException("Delivery has proof-of-delivery photos; cancel it instead");
+        }
 
         createAuditLog(admin, "DELETE_DELIVERY", "DeliveryJob", deliveryId,
                 job.getOrder().getId().toString(), null);
+        eventHub.publish(DeliveryUpdate.Type.DELETED, job, null);
+        if (job.getAssignedTo() != null) {
+            changeLog.removed(deliveryId, job.getAssignedTo().getId(), changeLog.next());
+        }
         deliveryJobRepository.delete(job);
+        afterCommit(() -> {
+            lateDeliveryMonitor.untrack(deliveryId);
+            dispatchIndex.untrackJob(deliveryId);
+        });
     }
 
     /**
-     * Check for late deliveries (scheduled job).
+     * Check for late deliveries now instead of waiting for the next sweep.
      */
-    @Transactional
     public int markLateDeliveries() {
-        List<DeliveryJob> active = deliveryJobRepository.findByStatus(DeliveryStatus.SCHEDULED);
-        active.addAll(deliveryJobRepository.findByStatus(DeliveryStatus.PICKED_UP));
-        active.addAll(deliveryJobRepository.findByStatus(DeliveryStatus.IN_TRANSIT));
-
-        int lateCount = 0;
-        LocalDateTime now = LocalDateTime.now();
-        for (DeliveryJob job : active) {
-            if (now.isAfter(job.getDeliveryAt()) && !job.getLateFlag()) {
-                job.setLateFlag(true);
-                deliveryJobRepository.save(job);
-                lateCount++;
-            }
+        return lateDeliveryMonitor.sweep();
+    }
+
+    /**
+     * Run once the current transaction commits, or now if there is none. The
+     * deadline wheel and dispatch index are in memory, so like the event hub
+     * they must not see a change that is then rolled back.
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
         }
-        return lateCount;
     }
 
     private void createAuditLog(User actor, String action, String entityType, Long entityId,
@@ -2,6 +2,8 @@ package com.laundry.lms.service;
 
 import com.laundry.lms.model.*;
 import com.laundry.lms.repository.*;
+import com.laundry.lms.service.events.InvoiceGeneratedEvent;
+import com.laundry.lms.service.outbox.OutboxPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,15 +22,27 @@ public class FinanceService {
     private final InvoiceRepository invoiceRepository;
     private final LaundryOrderRepository orderRepository;
     private final AuditLogRepository auditLogRepository;
+    private final InvoiceNumberAllocator invoiceNumberAllocator;
+    private final LedgerService ledgerService;
+    private final OutboxPublisher outbox;
+    private final PaymentService paymentService;
 
     public FinanceService(PaymentRepository paymentRepository,
             InvoiceRepository invoiceRepository,
             LaundryOrderRepository orderRepository,
-            AuditLogRepository auditLogRepository) {
+            AuditLogRepository auditLogRepository,
+            InvoiceNumberAllocator invoiceNumberAllocator,
+            LedgerService ledgerService,
+            OutboxPublisher outbox,
+            PaymentService paymentService) {
         this.paymentRepository = paymentRepository;
         this.invoiceRepository = invoiceRepository;
         this.orderRepository = orderRepository;
         this.auditLogRepository = auditLogRepository;
+        this.invoiceNumberAllocator = invoiceNumberAllocator;
+        this.ledgerService = ledgerService;
+        this.outbox = outbox;
+        this.paymentService = paymentService;
     }
 
     /**
@@ -46,12 +60,16 @@ public class FinanceService {
 
         Invoice invoice = new Invoice();
         invoice.setOrder(order);
-        invoice.setInvoiceNo("INV-" + System.currentTimeMillis());
+        invoice.setInvoiceNo(invoiceNumberAllocator.nextInvoiceNo());
         invoice.setAmount(order.getPrice());
         invoice.setIssuedAt(LocalDateTime.now());
 
         Invoice saved = invoiceRepository.save(invoice);
         createAuditLog(creator, "GENERATE_INVOICE", "Invoice", saved.getId(), null, orderId.toString());
+        ledgerService.postCharge(orderId, order.getCustomer().getId(), saved.getAmount(),
+                "Invoice " + saved.getInvoiceNo());
+        // PDF is rendered in the background once this transaction commits
+        outbox.publish(new InvoiceGeneratedEvent(saved.getId(), orderId));
         return saved;
     }
 
@@ -77,30 +95,19 @@ public class FinanceService {
     }
 
     /**
-     * Update payment status (idempotent).
+     * Update payment status (idempotent). Goes through the payment state
+     * machine in PaymentService, so the order, ledger and events follow.
      */
     @Transactional
     public Payment updatePaymentStatus(Long paymentId, PaymentStatus newStatus, User updater) {
-        Payment payment = paymentRepository.findById(paymentId)
-                .orElseThrow(() -> new IllegalArgumentException("Payment not found"));
-
-        // Idempotent check - if already in the requested status, return as-is
-        if (payment.getStatus() == newStatus) {
-            return payment;
-        }
-
-        // Prevent changing from PAID back to other states
-        if (payment.getStatus() == PaymentStatus.PAID && newStatus != PaymentStatus.PAID) {
-            throw new IllegalStateException("Cannot change payment status from PAID");
+        PaymentStatus oldStatus = paymentService.applyStaffChange(paymentId, newStatus);
+        if (oldStatus != null) {
+            createAuditLog(updater, "UPDATE_PAYMENT_STATUS", "Payment", paymentId,
+                    oldStatus.name(), newStatus.name());
         }
-
-        PaymentStatus oldStatus = payment.getStatus();
-        payment.setStatus(newStatus);
-
-        Payment updated = paymentRepository.save(payment);
-        createAuditLog(updater, "UPDATE_PAYMENT_STATUS", "Payment", paymentId,
-                oldStatus.name(), newStatus.name());
-        return updated;
+        // Read after the bulk update, which bypassed the persistence context
+        return paymentRepository.findById(paymentId)
+                .orElseThrow(() -> new IllegalArgumentException("Payment not found"));
     }
 
     /**
@@ -121,6 +128,11 @@ public class FinanceService {
 
         createAuditLog(admin, "DELETE_PAYMENT", "Payment", paymentId,
                 payment.getAmountLkr().toString(), null);
+        // The ledger keeps the history: money recorded as received is reversed, not erased
+        if (payment.getStatus() == PaymentStatus.PAID) {
+            ledgerService.postPaymentReversal(payment.getOrderId(), findCustomerId(payment.getOrderId()),
+                    paymentId, payment.getAmountLkr(), "Payment record deleted");
+        }
         paymentRepository.delete(payment);
     }
 
@@ -131,6 +143,13 @@ public class FinanceService {
         return invoiceRepository.findByOrderId(orderId);
     }
 
+    /**
+     * Get invoice by ID.
+     */
+    public Optional<Invoice> getInvoiceById(Long invoiceId) {
+        return invoiceRepository.findById(invoiceId);
+    }
+
     /**
      * Get all invoices.
      */
@@ -167,6 +186,12 @@ public class FinanceService {
             long pendingCount) {
     }
 
+    private Long findCustomerId(Long orderId) {
+        return orderRepository.findById(orderId)
+                .map(order -> order.getCustomer().getId())
+                .orElse(null);
+    }
+
     private void createAuditLog(User actor, String action, String entityType, Long entityId,
             String before, String after) {
         AuditLog log = AuditLog.create(actor, action, entityType, entityId, before, after);
@@ -0,0 +1,273 @@
+package com.laundry.lms.service;
+
+import com.laundry.lms.dto.InvoiceBatchStatus;
+import com.laundry.lms.model.User;
+import com.laundry.lms.model.UserRole;
+import com.laundry.lms.repository.LaundryOrderRepository;
+import com.laundry.lms.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * End-of-day batch invoicing for paid orders that have no invoice.
+ * Orders are found with an anti-join and read in keyset chunks; each chunk is
+ * invoiced in its own transaction with batched invoice and audit inserts, so
+ * a failed or interrupted run can simply be started again. Chunks are read
+ * only as fast as the workers invoice them, and a chunk that hits an order
+ * invoiced in the meantime is redone one order at a time, skipping that order.
+ */
+@Service
+public class InvoiceBatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(InvoiceBatchService.class);
+
+    private static final String INSERT_INVOICE = "insert into invoices (order_id, invoice_no, issued_at, amount, created_at) "
+            + "values (?, ?, ?, ?, ?)";
+    private static final String INSERT_AUDIT = "insert into audit_logs (actor_user_id, action, entity_type, entity_id, "
+            + "before_json, after_json, created_at) values (?, ?, ?, ?, ?, ?, ?)";
+
+    private final LaundryOrderRepository orderRepository;
+    private final UserRepository userRepository;
+    private final InvoiceNumberAllocator invoiceNumberAllocator;
+    private final InvoicePdfService invoicePdfService;
+    private final LedgerService ledgerService;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(r -> new Thread(r, "invoice-batch"));
+    private final ExecutorService workers;
+
+    private final AtomicReference<Run> current = new AtomicReference<>();
+
+    public InvoiceBatchService(LaundryOrderRepository orderRepository,
+            UserRepository userRepository,
+            InvoiceNumberAllocator invoiceNumberAllocator,
+            InvoicePdfService invoicePdfService,
+            LedgerService ledgerService,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${finance.invoice-batch.chunk-size:500}") int chunkSize,
+            @Value("${finance.invoice-batch.workers:4}") int workerCount) {
+        this.orderRepository = orderRepository;
+        this.userRepository = userRepository;
+        this.invoiceNumberAllocator = invoiceNumberAllocator;
+        this.invoicePdfService = invoicePdfService;
+        this.ledgerService = ledgerService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        // At most workerCount chunks wait; beyond that the reading thread invoices the chunk
+        // itself, so a large run holds a few chunks in memory rather than every uninvoiced order
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workerCount), r -> new Thread(r, "invoice-batch-worker"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Start a batch run in the background.
+     *
+     * @throws IllegalStateException if a run is already in progress
+     */
+    public InvoiceBatchStatus start(User actor) {
+        Run run = new Run(actor);
+        Run previous = current.get();
+        if (previous != null && previous.state.get().equals("RUNNING")) {
+            throw new IllegalStateException("Invoice batch is already running");
+        }
+        if (!current.compareAndSet(previous, run)) {
+            throw new IllegalStateException("Invoice batch is already running");
+        }
+        runner.submit(() -> execute(run));
+        return run.toStatus();
+    }
+
+    /**
+     * Progress of the current or last run.
+     */
+    public InvoiceBatchStatus getStatus() {
+        Run run = current.get();
+        if (run == null) {
+            return new InvoiceBatchStatus("IDLE", null, null, 0, 0, 0, 0, null, null);
+        }
+        return run.toStatus();
+    }
+
+    /**
+     * End-of-day run (scheduled job). Audited as the first admin user.
+     */
+    @Scheduled(cron = "${finance.invoice-batch.cron:0 0 23 * * *}")
+    public void scheduledRun() {
+        List<User> admins = userRepository.findByRole(UserRole.ADMIN);
+        if (admins.isEmpty()) {
+            log.warn("Skipping invoice batch: no admin user to record as actor");
+            return;
+        }
+        try {
+            start(admins.get(0));
+        } catch (IllegalStateException e) {
+            log.info("Skipping invoice batch: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private void execute(Run run) {
+        try {
+            long afterId = 0L;
+            List<Future<?>> pending = new ArrayList<>();
+            while (true) {
+                List<Object[]> chunk = orderRepository.findUninvoicedPaidAfter(afterId, PageRequest.of(0, chunkSize));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                afterId = (Long) chunk.get(chunk.size() - 1)[0];
+                pending.removeIf(Future::isDone);
+                pending.add(workers.submit(() -> processChunk(run, chunk)));
+            }
+            for (Future<?> future : pending) {
+                future.get();
+            }
+            run.finish(run.chunksFailed.get() == 0 && run.lastError.get() == null ? "COMPLETED" : "COMPLETED_WITH_ERRORS");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.lastError.set("Interrupted");
+            run.finish("FAILED");
+        } catch (Exception e) {
+            log.error("Invoice batch failed", e);
+            run.lastError.set(e.getMessage());
+            run.finish("FAILED");
+        }
+        log.info("Invoice batch {}: {} invoices in {} chunks ({} failed, {} orders skipped)", run.state.get(),
+                run.invoicesCreated.get(), run.chunksCompleted.get(), run.chunksFailed.get(), run.ordersSkipped.get());
+    }
+
+    private void processChunk(Run run, List<Object[]> chunk) {
+        try {
+            List<Long> invoiceIds = transactionTemplate.execute(status -> insertChunk(run.actor, chunk));
+            invoiceIds.forEach(invoicePdfService::requestRender);
+            run.invoicesCreated.addAndGet(chunk.size());
+        } catch (DataIntegrityViolationException e) {
+            // Usually an order invoiced manually in the meantime; redo the chunk order by order
+            processRows(run, chunk);
+        } catch (RuntimeException e) {
+            // The next run retries these orders
+            log.warn("Invoice batch chunk failed: {}", e.getMessage());
+            run.chunksFailed.incrementAndGet();
+            run.lastError.set(e.getMessage());
+            return;
+        }
+        run.chunksCompleted.incrementAndGet();
+        run.lastOrderId.accumulateAndGet((Long) chunk.get(chunk.size() - 1)[0], Math::max);
+    }
+
+    private void processRows(Run run, List<Object[]> chunk) {
+        for (Object[] row : chunk) {
+            try {
+                List<Long> invoiceIds = transactionTemplate.execute(status -> insertChunk(run.actor, List.<Object[]>of(row)));
+                invoiceIds.forEach(invoicePdfService::requestRender);
+                run.invoicesCreated.incrementAndGet();
+            } catch (DataIntegrityViolationException e) {
+                log.info("Invoice batch skipped order {}: already invoiced", row[0]);
+                run.ordersSkipped.incrementAndGet();
+            } catch (RuntimeException e) {
+                log.warn("Invoice batch failed for order {}: {}", row[0], e.getMessage());
+                run.ordersSkipped.incrementAndGet();
+                run.lastError.set(e.getMessage());
+            }
+        }
+    }
+
+    private List<Long> insertChunk(User actor, List<Object[]> chunk) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> invoiceRows = new ArrayList<>(chunk.size());
+        List<LedgerService.Charge> charges = new ArrayList<>(chunk.size());
+        Map<String, Long> orderByInvoiceNo = new HashMap<>();
+        for (Object[] row : chunk) {
+            Long orderId = (Long) row[0];
+            BigDecimal amount = (BigDecimal) row[1];
+            String invoiceNo = invoiceNumberAllocator.nextInvoiceNo();
+            orderByInvoiceNo.put(invoiceNo, orderId);
+            invoiceRows.add(new Object[] { orderId, invoiceNo, now, amount, now });
+            charges.add(new LedgerService.Charge(orderId, (Long) row[2], amount, "Invoice " + invoiceNo));
+        }
+        jdbcTemplate.batchUpdate(INSERT_INVOICE, invoiceRows);
+        ledgerService.postCharges(charges);
+
+        List<Long> invoiceIds = new ArrayList<>(chunk.size());
+        List<Object[]> auditRows = new ArrayList<>(chunk.size());
+        namedJdbcTemplate.query("select id, invoice_no from invoices where invoice_no in (:invoiceNos)",
+                new MapSqlParameterSource("invoiceNos", orderByInvoiceNo.keySet()),
+                rs -> {
+                    Long orderId = orderByInvoiceNo.get(rs.getString("invoice_no"));
+                    invoiceIds.add(rs.getLong("id"));
+                    auditRows.add(new Object[] { actor.getId(), "GENERATE_INVOICE", "Invoice",
+                            rs.getLong("id"), null, orderId.toString(), now });
+                });
+        jdbcTemplate.batchUpdate(INSERT_AUDIT, auditRows);
+        return invoiceIds;
+    }
+
+    /**
+     * Mutable progress of one run, read concurrently by the status endpoint.
+     */
+    private static final class Run {
+        private final User actor;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private volatile LocalDateTime finishedAt;
+        private final AtomicReference<String> state = new AtomicReference<>("RUNNING");
+        private final AtomicLong chunksCompleted = new AtomicLong();
+        private final AtomicLong chunksFailed = new AtomicLong();
+        private final AtomicLong invoicesCreated = new AtomicLong();
+        private final AtomicLong ordersSkipped = new AtomicLong();
+        private final AtomicLong lastOrderId = new AtomicLong();
+        private final AtomicReference<String> lastError = new AtomicReference<>();
+
+        private Run(User actor) {
+            this.actor = actor;
+        }
+
+        private void finish(String finalState) {
+            finishedAt = LocalDateTime.now();
+            state.set(finalState);
+        }
+
+        private InvoiceBatchStatus toStatus() {
+            long last = lastOrderId.get();
+            return new InvoiceBatchStatus(state.get(), startedAt, finishedAt, chunksCompleted.get(),
+                    chunksFailed.get(), invoicesCreated.get(), ordersSkipped.get(), last == 0 ? null : last, lastError.get());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.laundry.lms.service;
+
+import com.laundry.lms.model.SequenceCounter;
+import com.laundry.lms.repository.SequenceCounterRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hi/lo allocator for invoice numbers.
+ * Each node reserves a block of numbers per year from the sequence_counters
+ * table and hands them out from memory, so the counter row is touched once
+ * per block. Numbers are unique and sortable within a year; values left in a
+ * block when a node stops are skipped (gaps are expected).
+ */
+@Service
+public class InvoiceNumberAllocator {
+
+    private static final String SEQUENCE_PREFIX = "INVOICE-";
+
+    private final SequenceCounterRepository counterRepository;
+    private final TransactionTemplate newTransaction;
+    private final int blockSize;
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+    // One lock per sequence, so refilling one year's block does not hold up another
+    private final Map<String, Object> refillLocks = new ConcurrentHashMap<>();
+
+    public InvoiceNumberAllocator(SequenceCounterRepository counterRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${finance.invoice-number.block-size:100}") int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Invoice number block size must be positive");
+        }
+        this.counterRepository = counterRepository;
+        this.blockSize = blockSize;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Next invoice number for the current year, e.g. INV-2025-000001234.
+     */
+    public String nextInvoiceNo() {
+        int year = LocalDate.now().getYear();
+        return String.format("INV-%d-%09d", year, next(SEQUENCE_PREFIX + year));
+    }
+
+    /**
+     * Next value of a named sequence, reserving a new block when the local one runs out.
+     */
+    public long next(String sequence) {
+        while (true) {
+            Block block = blocks.get(sequence);
+            if (block != null) {
+                long value = block.next.getAndIncrement();
+                if (value < block.end) {
+                    return value;
+                }
+            }
+            refill(sequence, block);
+        }
+    }
+
+    private void refill(String sequence, Block exhausted) {
+        synchronized (refillLocks.computeIfAbsent(sequence, key -> new Object())) {
+            // Another thread may have refilled while we waited
+            if (blocks.get(sequence) != exhausted) {
+                return;
+            }
+            long start = reserveBlock(sequence);
+            blocks.put(sequence, new Block(start, start + blockSize));
+        }
+    }
+
+    /**
+     * Reserve [start, start + blockSize) in a short transaction of its own, so the
+     * row lock is released before the caller's invoice transaction continues.
+     */
+    private long reserveBlock(String sequence) {
+        if (!counterRepository.existsById(sequence)) {
+            try {
+                newTransaction.executeWithoutResult(status ->
+                        counterRepository.saveAndFlush(new SequenceCounter(sequence)));
+            } catch (DataIntegrityViolationException e) {
+                // Another node created the counter first; the insert failed and theirs is kept
+            }
+        }
+        Long start = newTransaction.execute(status -> {
+            SequenceCounter counter = counterRepository.lockByName(sequence)
+                    .orElseThrow(() -> new IllegalStateException("Sequence counter missing: " + sequence));
+            long first = counter.getNextValue();
+            counter.setNextValue(first + blockSize);
+            counterRepository.save(counter);
+            return first;
+        });
+        return start;
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.laundry.lms.service;
+
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Renders a single-page invoice as a minimal PDF 1.4 document using the
+ * built-in Helvetica font, so no PDF library is needed.
+ */
+@Component
+public class InvoicePdfRenderer {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    public record InvoiceDocument(
+            String invoiceNo,
+            LocalDateTime issuedAt,
+            Long orderId,
+            String customerName,
+            String serviceType,
+            Double quantity,
+            String unit,
+            BigDecimal amount) {
+    }
+
+    public byte[] render(InvoiceDocument invoice) {
+        List<String> lines = new ArrayList<>();
+        lines.add("SmartFold Laundry - Invoice");
+        lines.add("");
+        lines.add("Invoice No: " + invoice.invoiceNo());
+        lines.add("Issued: " + (invoice.issuedAt() != null ? DATE_FORMAT.format(invoice.issuedAt()) : "-"));
+        lines.add("Order: #" + invoice.orderId());
+        lines.add("Customer: " + invoice.customerName());
+        lines.add("Service: " + invoice.serviceType());
+        lines.add("Quantity: " + invoice.quantity() + " " + invoice.unit());
+        lines.add("");
+        lines.add("Amount due: LKR " + invoice.amount());
+
+        StringBuilder content = new StringBuilder("BT /F1 12 Tf 16 TL 50 790 Td\n");
+        for (String line : lines) {
+            content.append('(').append(escape(line)).append(") Tj T*\n");
+        }
+        content.append("ET\n");
+        byte[] stream = content.toString().getBytes(StandardCharsets.US_ASCII);
+
+        List<String> objects = List.of(
+                "<< /Type /Catalog /Pages 2 0 R >>",
+                "<< /Type /Pages /Kids [3 0 R] /Count 1 >>",
+                "<< /Type /Page /Parent 2 0 R /MediaBox [0 0 595 842] "
+                        + "/Resources << /Font << /F1 4 0 R >> >> /Contents 5 0 R >>",
+                "<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica >>");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024 + stream.length);
+        List<Integer> offsets = new ArrayList<>();
+        write(out, "%PDF-1.4\n");
+        for (int i = 0; i < objects.size(); i++) {
+            offsets.add(out.size());
+            write(out, (i + 1) + " 0 obj\n" + objects.get(i) + "\nendobj\n");
+        }
+        offsets.add(out.size());
+        write(out, "5 0 obj\n<< /Length " + stream.length + " >>\nstream\n");
+        out.writeBytes(stream);
+        write(out, "endstream\nendobj\n");
+
+        int xref = out.size();
+        StringBuilder trailer = new StringBuilder("xref\n0 " + (offsets.size() + 1) + "\n0000000000 65535 f \n");
+        for (int offset : offsets) {
+            trailer.append(String.format("%010d 00000 n \n", offset));
+        }
+        trailer.append("trailer\n<< /Size ").append(offsets.size() + 1).append(" /Root 1 0 R >>\n")
+                .append("startxref\n").append(xref).append("\n%%EOF\n");
+        write(out, trailer.toString());
+        return out.toByteArray();
+    }
+
+    private static void write(ByteArrayOutputStream out, String text) {
+        out.writeBytes(text.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Escape PDF string delimiters and replace anything Helvetica's standard
+     * encoding cannot show.
+     */
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (char c : text.toCharArray()) {
+            if (c == '(' || c == ')' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 32 || c > 126) {
+                escaped.append('?');
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,130 @@
+package com.laundry.lms.service;
+
+import com.laundry.lms.model.Invoice;
+import com.laundry.lms.model.LaundryOrder;
+import com.laundry.lms.repository.InvoiceRepository;
+import com.laundry.lms.service.InvoicePdfRenderer.InvoiceDocument;
+import com.laundry.lms.service.storage.ContentStore;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders invoice PDFs on a background pool and stores them in the
+ * content-addressed store. Rendering never runs on a request thread, and an
+ * invoice whose PDF is already stored is never rendered again. The queue is
+ * bounded; an invoice that does not fit is rendered when its PDF is first
+ * downloaded.
+ */
+@Service
+public class InvoicePdfService {
+
+    private static final Logger log = LoggerFactory.getLogger(InvoicePdfService.class);
+
+    private final InvoiceRepository invoiceRepository;
+    private final InvoicePdfRenderer renderer;
+    private final ContentStore contentStore;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor workers;
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    public InvoicePdfService(InvoiceRepository invoiceRepository,
+            InvoicePdfRenderer renderer,
+            ContentStore contentStore,
+            PlatformTransactionManager transactionManager,
+            @Value("${finance.invoice-pdf.workers:2}") int workerCount,
+            @Value("${finance.invoice-pdf.queue-capacity:1000}") int queueCapacity) {
+        this.invoiceRepository = invoiceRepository;
+        this.renderer = renderer;
+        this.contentStore = contentStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Rejects once full rather than running on the caller, which may be a request thread
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> new Thread(r, "invoice-pdf"));
+    }
+
+    /**
+     * Queue an invoice for rendering unless it is already queued. When the
+     * queue is full the request is dropped; the next download of the PDF
+     * queues it again.
+     */
+    public void requestRender(Long invoiceId) {
+        if (!inFlight.add(invoiceId)) {
+            return;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    render(invoiceId);
+                } catch (RuntimeException e) {
+                    log.error("Failed to render PDF for invoice {}", invoiceId, e);
+                } finally {
+                    inFlight.remove(invoiceId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(invoiceId);
+            log.debug("Invoice PDF queue is full; invoice {} not queued", invoiceId);
+        }
+    }
+
+    /**
+     * Stored PDF for an invoice, if it has been rendered.
+     */
+    public Optional<Path> findPdf(Invoice invoice) {
+        if (!contentStore.exists(invoice.getPdfHash())) {
+            return Optional.empty();
+        }
+        return Optional.of(contentStore.resolve(invoice.getPdfHash()));
+    }
+
+    public boolean isRendering(Long invoiceId) {
+        return inFlight.contains(invoiceId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    private void render(Long invoiceId) {
+        InvoiceDocument document = transactionTemplate.execute(status -> invoiceRepository.findById(invoiceId)
+                .filter(invoice -> !contentStore.exists(invoice.getPdfHash()))
+                .map(this::toDocument)
+                .orElse(null));
+        if (document == null) {
+            return;
+        }
+
+        String hash = contentStore.put(renderer.render(document));
+        transactionTemplate.executeWithoutResult(status -> invoiceRepository.attachPdf(invoiceId, hash,
+                "/api/finance/invoices/" + invoiceId + "/pdf"));
+        log.info("Rendered PDF for invoice {} ({})", document.invoiceNo(), hash);
+    }
+
+    private InvoiceDocument toDocument(Invoice invoice) {
+        LaundryOrder order = invoice.getOrder();
+        return new InvoiceDocument(
+                invoice.getInvoiceNo(),
+                invoice.getIssuedAt(),
+                order.getId(),
+                order.getCustomer().getName(),
+                order.getServiceType(),
+                order.getQuantity(),
+                order.getUnit(),
+                invoice.getAmount());
+    }
+}
@@ -0,0 +1,158 @@
+package com.laundry.lms.service;
+
+import com.laundry.lms.model.DeliveryJob;
+import com.laundry.lms.model.DeliveryStatus;
+import com.laundry.lms.repository.DeliveryJobRepository;
+import com.laundry.lms.service.async.ListenerExecutor;
+import com.laundry.lms.service.events.DeliveryLateEvent;
+import com.laundry.lms.service.outbox.OutboxPublisher;
+import com.laundry.lms.service.sync.DeliveryChangeLog;
+import com.laundry.lms.service.timer.HashedTimerWheel;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Detects late deliveries. Upcoming deadlines sit in a hashed timer wheel so
+ * a job is flagged, and a DeliveryLateEvent emitted, within a tick of going
+ * late. A periodic sweep flags anything the wheel did not cover (for example
+ * jobs created on another node) with one bulk UPDATE, emits the same event for
+ * each job it flagged, and reloads the wheel with deadlines inside the
+ * look-ahead window.
+ */
+@Service
+public class LateDeliveryMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(LateDeliveryMonitor.class);
+    static final Set<DeliveryStatus> ACTIVE = EnumSet.of(
+            DeliveryStatus.SCHEDULED, DeliveryStatus.PICKED_UP, DeliveryStatus.IN_TRANSIT);
+
+    private final DeliveryJobRepository deliveryJobRepository;
+    private final OutboxPublisher outbox;
+    private final ListenerExecutor listenerExecutor;
+    private final DeliveryChangeLog changeLog;
+    private final TransactionTemplate transactionTemplate;
+    private final HashedTimerWheel<Long> wheel;
+    private final Duration horizon;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    public LateDeliveryMonitor(DeliveryJobRepository deliveryJobRepository,
+            OutboxPublisher outbox,
+            ListenerExecutor listenerExecutor,
+            DeliveryChangeLog changeLog,
+            PlatformTransactionManager transactionManager,
+            @Value("${delivery.late.tick-ms:1000}") long tickMillis,
+            @Value("${delivery.late.wheel-size:512}") int wheelSize,
+            @Value("${delivery.late.horizon-minutes:180}") long horizonMinutes) {
+        this.deliveryJobRepository = deliveryJobRepository;
+        this.outbox = outbox;
+        this.listenerExecutor = listenerExecutor;
+        this.changeLog = changeLog;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.horizon = Duration.ofMinutes(horizonMinutes);
+        // The callback runs on the ticker thread; the database work goes to the listener pool
+        this.wheel = new HashedTimerWheel<>("late-delivery-wheel", tickMillis, wheelSize,
+                id -> listenerExecutor.execute(() -> onDeadline(id)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        wheel.start();
+        // Includes already-overdue jobs, which fire on the first tick with an event
+        loadDeadlines(LocalDateTime.now().plus(horizon));
+    }
+
+    @PreDestroy
+    public void stop() {
+        wheel.stop();
+    }
+
+    /**
+     * Flag all overdue jobs with a single UPDATE, emit a DeliveryLateEvent for
+     * each, and refresh the wheel.
+     *
+     * @return number of jobs flagged by the sweep
+     */
+    @Scheduled(fixedDelayString = "${delivery.late.sweep-ms:60000}",
+            initialDelayString = "${delivery.late.sweep-ms:60000}")
+    public int sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        Integer flagged = transactionTemplate.execute(status -> {
+            // Most sweeps find nothing; don't take (and lock) a change value for those
+            if (!deliveryJobRepository.existsOverdue(ACTIVE, now)) {
+                return 0;
+            }
+            long changeSeq = changeLog.next();
+            int count = deliveryJobRepository.markLate(ACTIVE, now, changeSeq);
+            if (count > 0) {
+                // The same event the wheel emits, so live streams and dashboards see swept jobs too
+                for (Object[] row : deliveryJobRepository.findFlaggedLateAt(ACTIVE, changeSeq)) {
+                    outbox.publish(new DeliveryLateEvent((Long) row[0], (Long) row[1], (LocalDateTime) row[2]));
+                }
+            }
+            return count;
+        });
+        if (flagged != null && flagged > 0) {
+            log.info("Late-delivery sweep flagged {} job(s)", flagged);
+        }
+        loadDeadlines(now.plus(horizon));
+        return flagged == null ? 0 : flagged;
+    }
+
+    /**
+     * Start, move or stop watching a job's deadline after it was created or changed.
+     */
+    public void track(DeliveryJob job) {
+        if (ACTIVE.contains(job.getStatus()) && !Boolean.TRUE.equals(job.getLateFlag())
+                && job.getDeliveryAt() != null) {
+            wheel.schedule(job.getId(), toEpochMillis(job.getDeliveryAt()));
+        } else {
+            wheel.cancel(job.getId());
+        }
+    }
+
+    public void untrack(Long deliveryId) {
+        wheel.cancel(deliveryId);
+    }
+
+    private void loadDeadlines(LocalDateTime until) {
+        List<Object[]> rows = deliveryJobRepository.findDeadlinesBefore(ACTIVE, until);
+        for (Object[] row : rows) {
+            wheel.schedule((Long) row[0], toEpochMillis((LocalDateTime) row[1]));
+        }
+    }
+
+    private void onDeadline(Long deliveryId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            // Delivered or rescheduled since it was put on the wheel
+            if (!deliveryJobRepository.isDue(deliveryId, ACTIVE, now)
+                    || deliveryJobRepository.markLateIfDue(deliveryId, ACTIVE, now, changeLog.next()) == 0) {
+                return;
+            }
+            List<Object[]> rows = deliveryJobRepository.findOrderAndDeadline(deliveryId);
+            if (!rows.isEmpty()) {
+                outbox.publish(new DeliveryLateEvent(deliveryId, (Long) rows.get(0)[0],
+                        (LocalDateTime) rows.get(0)[1]));
+            }
+        });
+    }
+
+    private long toEpochMillis(LocalDateTime time) {
+        return time.atZone(zone).toInstant().toEpochMilli();
+    }
+}
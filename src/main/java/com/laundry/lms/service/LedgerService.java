@@ -0,0 +1,218 @@
+package com.laundry.lms.service;
+
+import com.laundry.lms.model.*;
+import com.laundry.lms.repository.LedgerEntryRepository;
+import com.laundry.lms.repository.LedgerSnapshotRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Service for the append-only double-entry payment ledger.
+ * Balances are read as the latest snapshot plus the entries after it, and
+ * snapshots are taken nightly, so a balance query only scans one day of entries.
+ */
+@Service
+public class LedgerService {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerService.class);
+
+    private final LedgerEntryRepository entryRepository;
+    private final LedgerSnapshotRepository snapshotRepository;
+
+    public LedgerService(LedgerEntryRepository entryRepository,
+            LedgerSnapshotRepository snapshotRepository) {
+        this.entryRepository = entryRepository;
+        this.snapshotRepository = snapshotRepository;
+    }
+
+    public record Charge(Long orderId, Long customerId, BigDecimal amount, String memo) {
+    }
+
+    /**
+     * Charge an order to the customer (once per order).
+     */
+    @Transactional
+    public void postCharge(Long orderId, Long customerId, BigDecimal amount, String memo) {
+        post("CHARGE-ORDER-" + orderId, LedgerEntryType.CHARGE, LedgerAccount.RECEIVABLE, LedgerAccount.REVENUE,
+                customerId, orderId, null, amount, memo);
+    }
+
+    /**
+     * Charge many orders in one go (batch invoicing). Callers guarantee the
+     * orders have not been charged yet.
+     */
+    @Transactional
+    public void postCharges(List<Charge> charges) {
+        List<LedgerEntry> legs = new ArrayList<>(charges.size() * 2);
+        for (Charge charge : charges) {
+            if (charge.amount() == null || charge.amount().signum() == 0) {
+                continue;
+            }
+            String key = "CHARGE-ORDER-" + charge.orderId();
+            legs.add(LedgerEntry.leg(key, LedgerEntryType.CHARGE, LedgerAccount.RECEIVABLE,
+                    charge.customerId(), charge.orderId(), null, charge.amount(), charge.memo()));
+            legs.add(LedgerEntry.leg(key, LedgerEntryType.CHARGE, LedgerAccount.REVENUE,
+                    charge.customerId(), charge.orderId(), null, charge.amount().negate(), charge.memo()));
+        }
+        entryRepository.saveAll(legs);
+    }
+
+    /**
+     * Record money received for a payment (once per payment).
+     */
+    @Transactional
+    public void postPayment(Long orderId, Long customerId, Long paymentId, BigDecimal amount) {
+        post("PAYMENT-" + paymentId, LedgerEntryType.PAYMENT, LedgerAccount.CASH, LedgerAccount.RECEIVABLE,
+                customerId, orderId, paymentId, amount, "Payment received");
+    }
+
+    /**
+     * Reverse a payment that was recorded as received.
+     */
+    @Transactional
+    public void postPaymentReversal(Long orderId, Long customerId, Long paymentId, BigDecimal amount, String memo) {
+        post("REVERSAL-PAYMENT-" + paymentId, LedgerEntryType.REFUND, LedgerAccount.RECEIVABLE, LedgerAccount.CASH,
+                customerId, orderId, paymentId, amount, memo);
+    }
+
+    /**
+     * Refund money to a customer.
+     */
+    @Transactional
+    public void postRefund(Long orderId, Long customerId, BigDecimal amount, String memo) {
+        post("REFUND-" + UUID.randomUUID(), LedgerEntryType.REFUND, LedgerAccount.RECEIVABLE, LedgerAccount.CASH,
+                customerId, orderId, null, amount, memo);
+    }
+
+    /**
+     * Write off an amount the customer will not pay.
+     */
+    @Transactional
+    public void postWriteOff(Long orderId, Long customerId, BigDecimal amount, String memo) {
+        post("WRITE-OFF-" + UUID.randomUUID(), LedgerEntryType.WRITE_OFF, LedgerAccount.BAD_DEBT,
+                LedgerAccount.RECEIVABLE, customerId, orderId, null, amount, memo);
+    }
+
+    /**
+     * Get ledger entries for an order.
+     */
+    public List<LedgerEntry> getOrderEntries(Long orderId) {
+        return entryRepository.findByOrderIdOrderByIdAsc(orderId);
+    }
+
+    /**
+     * Amount a customer currently owes (negative means credit).
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getCustomerBalance(Long customerId) {
+        var snapshot = snapshotRepository.findFirstByAccountAndCustomerIdOrderBySnapshotDateDesc(
+                LedgerAccount.RECEIVABLE, customerId);
+        BigDecimal base = snapshot.map(LedgerSnapshot::getBalance).orElse(BigDecimal.ZERO);
+        Long afterId = snapshot.map(LedgerSnapshot::getAsOfEntryId).orElse(0L);
+        return base.add(entryRepository.sumForCustomerAfter(LedgerAccount.RECEIVABLE, customerId, afterId));
+    }
+
+    /**
+     * Balance of every account at the end of a day.
+     */
+    @Transactional(readOnly = true)
+    public Map<LedgerAccount, BigDecimal> getDailyBalances(LocalDate date) {
+        Map<LedgerAccount, BigDecimal> balances = new EnumMap<>(LedgerAccount.class);
+        for (LedgerAccount account : LedgerAccount.values()) {
+            var snapshot = snapshotRepository
+                    .findFirstByAccountAndCustomerIdIsNullAndSnapshotDateLessThanEqualOrderBySnapshotDateDesc(
+                            account, date);
+            BigDecimal base = snapshot.map(LedgerSnapshot::getBalance).orElse(BigDecimal.ZERO);
+            Long afterId = snapshot.map(LedgerSnapshot::getAsOfEntryId).orElse(0L);
+            balances.put(account, base.add(entryRepository.sumForAccountAfter(account, afterId,
+                    date.plusDays(1).atStartOfDay())));
+        }
+        return balances;
+    }
+
+    /**
+     * Nightly balance snapshot for the previous day (scheduled job).
+     */
+    @Scheduled(cron = "${finance.ledger.snapshot-cron:0 15 0 * * *}")
+    @Transactional
+    public void snapshotYesterday() {
+        int written = takeSnapshot(LocalDate.now().minusDays(1));
+        log.info("Ledger snapshot written: {} rows", written);
+    }
+
+    /**
+     * Snapshot account and customer receivable balances as of the end of a day.
+     * Snapshots must be taken in date order; an older date than the latest
+     * snapshot is ignored. Runs shortly after midnight so that entries created
+     * before the cutoff have long committed.
+     *
+     * @return number of snapshot rows written
+     */
+    @Transactional
+    public int takeSnapshot(LocalDate date) {
+        var previous = snapshotRepository.findFirstByAccountAndCustomerIdIsNullOrderBySnapshotDateDesc(
+                LedgerAccount.RECEIVABLE);
+        if (previous.isPresent() && !previous.get().getSnapshotDate().isBefore(date)) {
+            return 0;
+        }
+        long afterId = previous.map(LedgerSnapshot::getAsOfEntryId).orElse(0L);
+        Long maxId = entryRepository.findMaxIdBefore(date.plusDays(1).atStartOfDay());
+        long cutoff = maxId != null ? Math.max(maxId, afterId) : afterId;
+
+        List<LedgerSnapshot> snapshots = new ArrayList<>();
+
+        Map<LedgerAccount, BigDecimal> deltas = new EnumMap<>(LedgerAccount.class);
+        for (Object[] row : entryRepository.sumByAccountBetween(afterId, cutoff)) {
+            deltas.put((LedgerAccount) row[0], (BigDecimal) row[1]);
+        }
+        for (LedgerAccount account : LedgerAccount.values()) {
+            BigDecimal base = snapshotRepository.findFirstByAccountAndCustomerIdIsNullOrderBySnapshotDateDesc(account)
+                    .map(LedgerSnapshot::getBalance)
+                    .orElse(BigDecimal.ZERO);
+            snapshots.add(new LedgerSnapshot(account, null, date, cutoff,
+                    base.add(deltas.getOrDefault(account, BigDecimal.ZERO))));
+        }
+
+        // Only customers with receivable activity since the last run need a new snapshot
+        for (Object[] row : entryRepository.sumByCustomerBetween(LedgerAccount.RECEIVABLE, afterId, cutoff)) {
+            Long customerId = (Long) row[0];
+            BigDecimal base = snapshotRepository
+                    .findFirstByAccountAndCustomerIdOrderBySnapshotDateDesc(LedgerAccount.RECEIVABLE, customerId)
+                    .map(LedgerSnapshot::getBalance)
+                    .orElse(BigDecimal.ZERO);
+            snapshots.add(new LedgerSnapshot(LedgerAccount.RECEIVABLE, customerId, date, cutoff,
+                    base.add((BigDecimal) row[1])));
+        }
+
+        snapshotRepository.saveAll(snapshots);
+        return snapshots.size();
+    }
+
+    private void post(String journalKey, LedgerEntryType type, LedgerAccount debit, LedgerAccount credit,
+            Long customerId, Long orderId, Long paymentId, BigDecimal amount, String memo) {
+        if (amount == null || amount.signum() == 0) {
+            return;
+        }
+        if (amount.signum() < 0) {
+            throw new IllegalArgumentException("Ledger amount cannot be negative");
+        }
+        // Replays (e.g. webhook retries) must not post the same journal twice
+        if (entryRepository.existsByJournalKey(journalKey)) {
+            return;
+        }
+        entryRepository.saveAll(List.of(
+                LedgerEntry.leg(journalKey, type, debit, customerId, orderId, paymentId, amount, memo),
+                LedgerEntry.leg(journalKey, type, credit, customerId, orderId, paymentId, amount.negate(), memo)));
+    }
+}
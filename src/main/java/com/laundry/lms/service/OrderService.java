@@ -5,6 +5,8 @@ import com.laundry.lms.repository.AuditLogRepository;
 import com.laundry.lms.repository.LaundryOrderRepository;
 import com.laundry.lms.repository.OrderItemRepository;
 import com.laundry.lms.repository.UserRepository;
+import com.laundry.lms.service.events.OrderStatusChangedEvent;
+import com.laundry.lms.service.outbox.OutboxPublisher;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -27,19 +29,25 @@ public class OrderService {
     private final AuditLogRepository auditLogRepository;
     private final PricingService pricingService;
     private final ObjectMapper objectMapper;
+    private final SlotBookingService slotBookingService;
+    private final OutboxPublisher outbox;
 
     public OrderService(LaundryOrderRepository orderRepository,
             OrderItemRepository orderItemRepository,
             UserRepository userRepository,
             AuditLogRepository auditLogRepository,
             PricingService pricingService,
-            ObjectMapper objectMapper) {
+            ObjectMapper objectMapper,
+            SlotBookingService slotBookingService,
+            OutboxPublisher outbox) {
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
         this.userRepository = userRepository;
         this.auditLogRepository = auditLogRepository;
         this.pricingService = pricingService;
         this.objectMapper = objectMapper;
+        this.slotBookingService = slotBookingService;
+        this.outbox = outbox;
     }
 
     /**
@@ -99,6 +107,9 @@ public class OrderService {
                     order.getStatus().name(), OrderStatus.CANCELLED.name());
         }
 
+        if (order.getStatus() != OrderStatus.CANCELLED) {
+            slotBookingService.release(order);
+        }
         order.setStatus(OrderStatus.CANCELLED);
         order.setNotes(
                 order.getNotes() != null ? order.getNotes() + " | Cancelled: " + reason : "Cancelled: " + reason);
@@ -129,7 +140,12 @@ public class OrderService {
                 currentStatus.name(), newStatus.name());
 
         order.setStatus(newStatus);
-        return orderRepository.save(order);
+        LaundryOrder saved = orderRepository.save(order);
+        if (currentStatus != newStatus) {
+            // Delivery bookkeeping happens after commit, off the request thread
+            outbox.publish(new OrderStatusChangedEvent(orderId, currentStatus, newStatus, staffId));
+        }
+        return saved;
     }
 
     /**
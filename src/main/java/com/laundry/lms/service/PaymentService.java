@@ -2,112 +2,204 @@ package com.laundry.lms.service;
 
 import com.laundry.lms.model.LaundryOrder;
 import com.laundry.lms.model.Payment;
+import com.laundry.lms.model.PaymentMethod;
 import com.laundry.lms.model.PaymentStatus;
 import com.laundry.lms.repository.LaundryOrderRepository;
 import com.laundry.lms.repository.PaymentRepository;
-import org.springframework.context.ApplicationEventPublisher;
+import com.laundry.lms.service.events.PaymentCompletedEvent;
+import com.laundry.lms.service.events.PaymentFailedEvent;
+import com.laundry.lms.service.outbox.OutboxPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
+/**
+ * Payment state machine: PENDING -> PAID | FAILED, FAILED -> PENDING (retry),
+ * PAID terminal. Every transition is a conditional UPDATE on payments and
+ * orders, so concurrent or replayed webhooks cannot overwrite each other; a
+ * transition that no longer applies just reports the current state. Events go
+ * through the outbox in the same transaction as the state change.
+ */
 @Service
 public class PaymentService {
+  private static final Set<PaymentStatus> REOPENABLE = EnumSet.of(PaymentStatus.PENDING, PaymentStatus.FAILED);
+
   private final PaymentRepository payments;
   private final LaundryOrderRepository orders;
-  private final ApplicationEventPublisher events;
+  private final OutboxPublisher outbox;
+  private final LedgerService ledger;
+  private final TransactionTemplate newTransaction;
 
-  public PaymentService(PaymentRepository payments, LaundryOrderRepository orders, ApplicationEventPublisher events) {
-    this.payments = payments; this.orders = orders; this.events = events;
+  public PaymentService(PaymentRepository payments, LaundryOrderRepository orders, OutboxPublisher outbox,
+                        LedgerService ledger, PlatformTransactionManager transactionManager) {
+    this.payments = payments; this.orders = orders; this.outbox = outbox; this.ledger = ledger;
+    this.newTransaction = new TransactionTemplate(transactionManager);
+    this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
   }
 
+  private record OrderContext(Long orderId, BigDecimal total, Long customerId) {}
+  private record PaymentState(Long paymentId, PaymentStatus status, BigDecimal amount) {}
+
   public String makeDemoCheckoutUrl(LaundryOrder order) {
-    BigDecimal amount = extractOrderTotal(order);
+    BigDecimal amount = order.getPrice() != null ? order.getPrice() : BigDecimal.ZERO;
     return "/frontend/demo-checkout.html?orderId=" + order.getId() + "&amount=" + amount;
   }
 
-  private BigDecimal extractOrderTotal(LaundryOrder o) {
-    for (String name : new String[]{"getPrice","getTotal","getTotalAmount"}) {
-      try { Method m = o.getClass().getMethod(name); Object v = m.invoke(o);
-        if (v instanceof BigDecimal b) return b;
-        if (v instanceof Number n) return BigDecimal.valueOf(n.doubleValue());
-      } catch (Exception ignored) {}
-    }
-    return BigDecimal.ZERO;
+  /** Open (or retry) a card payment for an order. Returns the resulting state. */
+  @Transactional
+  public PaymentStatus beginCardCheckout(Long orderId) {
+    return reopen(orderId, PaymentMethod.CARD, "DEMO");
   }
 
-  private void setOrderPaymentMethod(LaundryOrder o, String v) {
-    try { o.getClass().getMethod("setPaymentMethod", String.class).invoke(o, v); } catch (Exception ignored) {}
-  }
-  private void setOrderPaymentStatus(LaundryOrder o, String v) {
-    try { o.getClass().getMethod("setPaymentStatus", String.class).invoke(o, v); } catch (Exception ignored) {}
+  /** Switch an order to cash on delivery. Returns the resulting state. */
+  @Transactional
+  public PaymentStatus confirmCod(Long orderId) {
+    return reopen(orderId, PaymentMethod.COD, "CASH");
   }
-  private void setOrderPaidAt(LaundryOrder o, Instant t) {
-    try { o.getClass().getMethod("setPaidAt", Instant.class).invoke(o, t); } catch (Exception ignored) {}
+
+  /** Apply a successful card payment. Replays return the current state. */
+  @Transactional
+  public PaymentStatus markCardPaid(Long orderId, String ref, BigDecimal amt) {
+    OrderContext order = loadOrder(orderId);
+    PaymentState payment = ensurePayment(order, PaymentMethod.CARD, "DEMO");
+    BigDecimal amount = amt != null ? amt : order.total();
+    Instant now = Instant.now();
+    if (payments.transition(payment.paymentId(), PaymentStatus.sourcesOf(PaymentStatus.PAID), PaymentStatus.PAID,
+        PaymentMethod.CARD, "DEMO", ref, amount, now) == 0) {
+      return payments.findStatusById(payment.paymentId());
+    }
+    orders.markPaid(orderId, PaymentMethod.CARD.name(), now, PaymentStatus.PAID.name());
+    ledger.postPayment(orderId, order.customerId(), payment.paymentId(), amount);
+    outbox.publish(new PaymentCompletedEvent(payment.paymentId(), orderId, amount));
+    return PaymentStatus.PAID;
   }
 
+  /** Apply a failed card payment. Replays return the current state. */
   @Transactional
-  public LaundryOrder confirmCod(Long orderId) {
-    var o = orders.findById(orderId).orElseThrow();
-    setOrderPaymentMethod(o, "COD");
-    setOrderPaymentStatus(o, PaymentStatus.PENDING.name());
-    orders.save(o);
-
-    var p = payments.findByOrderId(orderId).orElse(new Payment());
-    p.setOrderId(orderId);
-    p.setProvider("CASH");
-    p.setAmountLkr(extractOrderTotal(o));
-    p.setStatus(PaymentStatus.PENDING);
-    p.setCreatedAt(p.getCreatedAt() == null ? Instant.now() : p.getCreatedAt());
-    p.setUpdatedAt(Instant.now());
-    payments.save(p);
-    return o;
+  public PaymentStatus markFailed(Long orderId, String reason) {
+    OrderContext order = loadOrder(orderId);
+    PaymentState payment = ensurePayment(order, PaymentMethod.CARD, "DEMO");
+    if (payments.transition(payment.paymentId(), PaymentStatus.sourcesOf(PaymentStatus.FAILED), PaymentStatus.FAILED,
+        PaymentMethod.CARD, "DEMO", "FAILED", payment.amount(), Instant.now()) == 0) {
+      return payments.findStatusById(payment.paymentId());
+    }
+    orders.updatePaymentStateUnlessPaid(orderId, PaymentStatus.FAILED.name(), PaymentMethod.CARD.name(),
+        PaymentStatus.PAID.name());
+    outbox.publish(new PaymentFailedEvent(payment.paymentId(), orderId, reason));
+    return PaymentStatus.FAILED;
   }
 
+  /**
+   * Staff change to an existing payment, e.g. cash taken at the door. Same
+   * conditional transition, order update, ledger entry and events as the
+   * webhooks; asking for the state the payment already has changes nothing.
+   *
+   * @return the state the payment left, or null if it already had the target state
+   * @throws IllegalArgumentException if there is no such payment
+   * @throws IllegalStateException if the payment cannot move to the target from its current state
+   */
   @Transactional
-  public void markCardPaid(Long orderId, String ref, BigDecimal amt) {
-    var o = orders.findById(orderId).orElseThrow();
-    setOrderPaymentStatus(o, PaymentStatus.PAID.name());
-    setOrderPaidAt(o, Instant.now());
-    orders.save(o);
-
-    var p = payments.findByOrderId(orderId).orElse(new Payment());
-    p.setOrderId(orderId);
-    p.setProvider("DEMO");
-    p.setProviderRef(ref);
-    p.setAmountLkr(amt != null ? amt : extractOrderTotal(o));
-    p.setStatus(PaymentStatus.PAID);
-    p.setCreatedAt(p.getCreatedAt() == null ? Instant.now() : p.getCreatedAt());
-    p.setUpdatedAt(Instant.now());
-    payments.save(p);
+  public PaymentStatus applyStaffChange(Long paymentId, PaymentStatus to) {
+    List<Object[]> rows = payments.findTransitionState(paymentId);
+    if (rows.isEmpty()) throw new IllegalArgumentException("Payment not found");
+    Object[] row = rows.get(0);
+    Long orderId = (Long) row[0];
+    PaymentStatus from = (PaymentStatus) row[1];
+    PaymentMethod method = (PaymentMethod) row[2];
+    BigDecimal amount = row[5] != null ? (BigDecimal) row[5] : BigDecimal.ZERO;
+    if (from == to) return null;
+    if (!from.canTransitionTo(to)) {
+      throw new IllegalStateException("Cannot change payment status from " + from + " to " + to);
+    }
+    Instant now = Instant.now();
+    // Only from the state read above, so the audit trail names the state that was actually left
+    if (payments.transition(paymentId, EnumSet.of(from), to, method, (String) row[3], (String) row[4],
+        amount, now) == 0) {
+      PaymentStatus current = payments.findStatusById(paymentId);
+      if (current == to) return null;
+      throw new IllegalStateException("Payment status changed to " + current + " meanwhile; reload and retry");
+    }
+    String methodName = method != null ? method.name() : null;
+    switch (to) {
+      case PAID -> {
+        orders.markPaid(orderId, methodName, now, PaymentStatus.PAID.name());
+        ledger.postPayment(orderId, loadOrder(orderId).customerId(), paymentId, amount);
+        outbox.publish(new PaymentCompletedEvent(paymentId, orderId, amount));
+      }
+      case FAILED -> {
+        orders.updatePaymentStateUnlessPaid(orderId, PaymentStatus.FAILED.name(), methodName,
+            PaymentStatus.PAID.name());
+        outbox.publish(new PaymentFailedEvent(paymentId, orderId, "Marked failed by staff"));
+      }
+      case PENDING -> orders.updatePaymentStateUnlessPaid(orderId, PaymentStatus.PENDING.name(), methodName,
+          PaymentStatus.PAID.name());
+    }
+    return from;
+  }
 
-    try {
-      Class<?> evt = Class.forName("com.laundry.lms.service.events.PaymentCompletedEvent");
-      var ctor = evt.getDeclaredConstructor(Long.class, Long.class, BigDecimal.class);
-      events.publishEvent(ctor.newInstance(p.getId(), orderId, p.getAmountLkr()));
-    } catch (Throwable ignored) {}
+  // FAILED -> PENDING is the retry edge; PENDING -> PENDING only switches method
+  private PaymentStatus reopen(Long orderId, PaymentMethod method, String provider) {
+    OrderContext order = loadOrder(orderId);
+    PaymentState payment = ensurePayment(order, method, provider);
+    if (payments.transition(payment.paymentId(), REOPENABLE, PaymentStatus.PENDING,
+        method, provider, null, order.total(), Instant.now()) == 0) {
+      return payments.findStatusById(payment.paymentId());
+    }
+    orders.updatePaymentStateUnlessPaid(orderId, PaymentStatus.PENDING.name(), method.name(),
+        PaymentStatus.PAID.name());
+    return PaymentStatus.PENDING;
   }
 
-  @Transactional
-  public void markFailed(Long orderId, String reason) {
-    var o = orders.findById(orderId).orElseThrow();
-    setOrderPaymentStatus(o, PaymentStatus.FAILED.name());
-    orders.save(o);
-
-    var p = payments.findByOrderId(orderId).orElse(new Payment());
-    p.setOrderId(orderId);
-    p.setProvider("DEMO");
-    p.setProviderRef("FAILED");
-    p.setStatus(PaymentStatus.FAILED);
-    p.setUpdatedAt(Instant.now());
-    payments.save(p);
+  private OrderContext loadOrder(Long orderId) {
+    List<Object[]> rows = orders.findPaymentContext(orderId);
+    if (rows.isEmpty()) throw new NoSuchElementException("Order not found: " + orderId);
+    Object[] row = rows.get(0);
+    BigDecimal total = row[0] != null ? (BigDecimal) row[0] : BigDecimal.ZERO;
+    return new OrderContext(orderId, total, (Long) row[1]);
+  }
 
+  /**
+   * The payment row for an order, created on first use. uk_payment_order keeps
+   * it to one row per order: the insert runs in a transaction of its own, so
+   * losing the race to a concurrent webhook fails only that insert, and the
+   * winner's row is then read in a fresh transaction where it is visible.
+   */
+  private PaymentState ensurePayment(OrderContext order, PaymentMethod method, String provider) {
+    PaymentState existing = findState(order.orderId());
+    if (existing != null) return existing;
     try {
-      Class<?> evt = Class.forName("com.laundry.lms.service.events.PaymentFailedEvent");
-      var ctor = evt.getDeclaredConstructor(Long.class, Long.class, String.class);
-      events.publishEvent(ctor.newInstance(p.getId(), orderId, reason));
-    } catch (Throwable ignored) {}
+      return newTransaction.execute(status -> {
+        Payment p = new Payment();
+        p.setOrderId(order.orderId());
+        p.setProvider(provider);
+        p.setMethod(method);
+        p.setAmountLkr(order.total());
+        p.setStatus(PaymentStatus.PENDING);
+        payments.saveAndFlush(p);
+        return new PaymentState(p.getId(), p.getStatus(), p.getAmountLkr());
+      });
+    } catch (DataIntegrityViolationException e) {
+      PaymentState winner = newTransaction.execute(status -> findState(order.orderId()));
+      if (winner == null) throw e;
+      return winner;
+    }
+  }
+
+  private PaymentState findState(Long orderId) {
+    List<Object[]> rows = payments.findStateByOrderId(orderId, PageRequest.of(0, 1));
+    if (rows.isEmpty()) return null;
+    Object[] row = rows.get(0);
+    return new PaymentState((Long) row[0], (PaymentStatus) row[1], (BigDecimal) row[2]);
   }
 }
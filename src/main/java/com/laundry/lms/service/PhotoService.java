@@ -0,0 +1,259 @@
+package com.laundry.lms.service;
+
+import com.laundry.lms.model.DeliveryJob;
+import com.laundry.lms.model.OrderItem;
+import com.laundry.lms.model.Photo;
+import com.laundry.lms.model.PhotoKind;
+import com.laundry.lms.model.User;
+import com.laundry.lms.model.UserRole;
+import com.laundry.lms.repository.DeliveryJobRepository;
+import com.laundry.lms.repository.OrderItemRepository;
+import com.laundry.lms.repository.PhotoRepository;
+import com.laundry.lms.service.PhotoThumbnailer.Thumbnail;
+import com.laundry.lms.service.storage.ContentStore;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Proof-of-delivery and garment condition photos. Uploads are streamed into
+ * the content store and hashed on the way, so memory use does not grow with
+ * the file size. Thumbnails are rendered afterwards on a background pool
+ * with a bounded queue; photos still without one are queued again at startup
+ * or when their thumbnail is next requested.
+ */
+@Service
+public class PhotoService {
+
+    private static final Logger log = LoggerFactory.getLogger(PhotoService.class);
+
+    private static final String SET_THUMBNAIL = "UPDATE photos SET thumbnail_hash = ?, width = ?, height = ? WHERE id = ?";
+
+    private static final Set<UserRole> STAFF = EnumSet.of(
+            UserRole.ADMIN, UserRole.LAUNDRY_STAFF, UserRole.DELIVERY_STAFF, UserRole.CUSTOMER_SERVICE);
+
+    private final PhotoRepository photoRepository;
+    private final DeliveryJobRepository deliveryJobRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ContentStore contentStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final ThreadPoolExecutor workers;
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final long maxBytes;
+    private final int thumbnailSize;
+    private final int backfillLimit;
+    private final int queueCapacity;
+
+    public PhotoService(PhotoRepository photoRepository,
+            DeliveryJobRepository deliveryJobRepository,
+            OrderItemRepository orderItemRepository,
+            ContentStore contentStore,
+            JdbcTemplate jdbcTemplate,
+            @Value("${photos.max-bytes:15728640}") long maxBytes,
+            @Value("${photos.thumbnail-size:320}") int thumbnailSize,
+            @Value("${photos.thumbnail-workers:2}") int workerCount,
+            @Value("${photos.backfill-limit:500}") int backfillLimit,
+            @Value("${photos.thumbnail-queue-capacity:100}") int queueCapacity) {
+        this.photoRepository = photoRepository;
+        this.deliveryJobRepository = deliveryJobRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.contentStore = contentStore;
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxBytes = maxBytes;
+        this.thumbnailSize = thumbnailSize;
+        this.backfillLimit = backfillLimit;
+        this.queueCapacity = queueCapacity;
+        // Rejects once full rather than running on the caller, which is a request thread
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> new Thread(r, "photo-thumbnail"));
+    }
+
+    /**
+     * Attach a proof-of-delivery photo. Only the assigned driver or an admin may upload.
+     *
+     * @throws IllegalArgumentException if the delivery does not exist or the file is not a JPEG or PNG
+     * @throws SecurityException if the uploader is not assigned to the delivery
+     */
+    public Photo addDeliveryPhoto(Long deliveryId, InputStream content, String caption, User uploader) {
+        DeliveryJob job = deliveryJobRepository.findById(deliveryId)
+                .orElseThrow(() -> new IllegalArgumentException("Delivery not found"));
+        if (!isAssignedOrAdmin(job, uploader)) {
+            throw new SecurityException("You can only add photos to your own deliveries");
+        }
+        Photo photo = new Photo();
+        photo.setKind(PhotoKind.PROOF_OF_DELIVERY);
+        photo.setDeliveryJob(job);
+        return store(photo, content, caption, uploader);
+    }
+
+    /**
+     * Attach a photo of a garment's condition to an order item.
+     *
+     * @throws IllegalArgumentException if the item does not exist or the file is not a JPEG or PNG
+     */
+    public Photo addItemPhoto(Long orderItemId, InputStream content, String caption, User uploader) {
+        OrderItem item = orderItemRepository.findById(orderItemId)
+                .orElseThrow(() -> new IllegalArgumentException("Order item not found"));
+        Photo photo = new Photo();
+        photo.setKind(PhotoKind.GARMENT_CONDITION);
+        photo.setOrderItem(item);
+        return store(photo, content, caption, uploader);
+    }
+
+    public Optional<Photo> getPhoto(Long id) {
+        return photoRepository.findById(id);
+    }
+
+    /**
+     * Photos of a delivery, for its assigned driver or an admin.
+     *
+     * @throws IllegalArgumentException if the delivery does not exist
+     * @throws SecurityException if the viewer is not assigned to the delivery
+     */
+    public List<Photo> getDeliveryPhotos(Long deliveryId, User viewer) {
+        DeliveryJob job = deliveryJobRepository.findById(deliveryId)
+                .orElseThrow(() -> new IllegalArgumentException("Delivery not found"));
+        if (!isAssignedOrAdmin(job, viewer)) {
+            throw new SecurityException("You can only view photos of your own deliveries");
+        }
+        return photoRepository.findByDeliveryJobIdOrderByCreatedAtAsc(deliveryId);
+    }
+
+    public List<Photo> getItemPhotos(Long orderItemId) {
+        return photoRepository.findByOrderItemIdOrderByCreatedAtAsc(orderItemId);
+    }
+
+    public List<Photo> getOrderPhotos(Long orderId) {
+        return photoRepository.findByOrderId(orderId);
+    }
+
+    /**
+     * Staff may see every photo; customers only those of their own orders.
+     */
+    public boolean canView(Photo photo, User user) {
+        if (STAFF.contains(user.getRole())) {
+            return true;
+        }
+        return user.getRole() == UserRole.CUSTOMER
+                && photoRepository.findCustomerId(photo.getId()).map(user.getId()::equals).orElse(false);
+    }
+
+    public Path resolve(String hash) {
+        return contentStore.resolve(hash);
+    }
+
+    /**
+     * Queue a photo for thumbnail rendering unless it is already queued. When
+     * the queue is full the request is dropped; the next thumbnail request for
+     * the photo queues it again.
+     */
+    public void requestThumbnail(Long photoId) {
+        if (!inFlight.add(photoId)) {
+            return;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    renderThumbnail(photoId);
+                } catch (IOException | RuntimeException e) {
+                    log.error("Failed to render thumbnail for photo {}", photoId, e);
+                } finally {
+                    inFlight.remove(photoId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(photoId);
+            log.debug("Thumbnail queue is full; photo {} not queued", photoId);
+        }
+    }
+
+    /**
+     * Queue photos whose thumbnail was lost to a restart.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillThumbnails() {
+        // No more than fits in the queue; the rest are rendered when first requested
+        List<Long> missing = photoRepository.findIdsWithoutThumbnail(
+                PageRequest.of(0, Math.min(backfillLimit, queueCapacity)));
+        if (!missing.isEmpty()) {
+            log.info("Queueing {} photo(s) without a thumbnail", missing.size());
+            missing.forEach(this::requestThumbnail);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private static boolean isAssignedOrAdmin(DeliveryJob job, User user) {
+        return user.getRole() == UserRole.ADMIN
+                || (job.getAssignedTo() != null && job.getAssignedTo().getId().equals(user.getId()));
+    }
+
+    private Photo store(Photo photo, InputStream content, String caption, User uploader) {
+        BufferedInputStream input = new BufferedInputStream(content);
+        String contentType = sniffContentType(input);
+        ContentStore.Stored stored = contentStore.put(input, maxBytes);
+
+        photo.setUploadedBy(uploader);
+        photo.setContentHash(stored.hash());
+        photo.setContentType(contentType);
+        photo.setSizeBytes(stored.size());
+        photo.setCaption(caption != null && !caption.isBlank() ? caption.trim() : null);
+        Photo saved = photoRepository.save(photo);
+        requestThumbnail(saved.getId());
+        return saved;
+    }
+
+    private void renderThumbnail(Long photoId) throws IOException {
+        Photo photo = photoRepository.findById(photoId).orElse(null);
+        if (photo == null || photo.getThumbnailHash() != null) {
+            return;
+        }
+        Thumbnail thumbnail = PhotoThumbnailer.render(contentStore.resolve(photo.getContentHash()), thumbnailSize);
+        String hash = contentStore.put(thumbnail.jpeg());
+        jdbcTemplate.update(SET_THUMBNAIL, hash, thumbnail.sourceWidth(), thumbnail.sourceHeight(), photoId);
+    }
+
+    // Trust the file's magic bytes, not the client's Content-Type
+    private static String sniffContentType(BufferedInputStream input) {
+        byte[] header = new byte[8];
+        int read;
+        try {
+            input.mark(header.length);
+            read = input.readNBytes(header, 0, header.length);
+            input.reset();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not read the uploaded file", e);
+        }
+        if (read >= 3 && (header[0] & 0xFF) == 0xFF && (header[1] & 0xFF) == 0xD8 && (header[2] & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        }
+        if (read == 8 && (header[0] & 0xFF) == 0x89 && header[1] == 'P' && header[2] == 'N' && header[3] == 'G'
+                && header[4] == 0x0D && header[5] == 0x0A && header[6] == 0x1A && header[7] == 0x0A) {
+            return "image/png";
+        }
+        throw new IllegalArgumentException("Only JPEG and PNG photos are accepted");
+    }
+}
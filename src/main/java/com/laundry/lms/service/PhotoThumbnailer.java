@@ -0,0 +1,72 @@
+package com.laundry.lms.service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * Renders JPEG thumbnails of stored photos. The source is decoded with
+ * subsampling straight from disk, so a 12 MP photo is never held in memory
+ * at full resolution.
+ */
+final class PhotoThumbnailer {
+
+    record Thumbnail(byte[] jpeg, int sourceWidth, int sourceHeight) {}
+
+    private PhotoThumbnailer() {
+    }
+
+    /**
+     * Scale an image so its longer edge is at most maxEdge pixels.
+     *
+     * @throws IOException if the file is not a readable image
+     */
+    static Thumbnail render(Path image, int maxEdge) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(image.toFile())) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+
+                // Decode every n-th pixel, keeping about twice the target size for a smooth downscale
+                int step = Math.max(1, Math.max(width, height) / (2 * maxEdge));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                BufferedImage decoded = reader.read(0, param);
+
+                double scale = Math.min(1.0, (double) maxEdge / Math.max(decoded.getWidth(), decoded.getHeight()));
+                int thumbWidth = Math.max(1, (int) Math.round(decoded.getWidth() * scale));
+                int thumbHeight = Math.max(1, (int) Math.round(decoded.getHeight() * scale));
+                BufferedImage thumb = new BufferedImage(thumbWidth, thumbHeight, BufferedImage.TYPE_INT_RGB);
+                Graphics2D g = thumb.createGraphics();
+                try {
+                    g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                    // PNG transparency becomes white in the JPEG
+                    g.drawImage(decoded, 0, 0, thumbWidth, thumbHeight, Color.WHITE, null);
+                } finally {
+                    g.dispose();
+                }
+
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                ImageIO.write(thumb, "jpg", out);
+                return new Thumbnail(out.toByteArray(), width, height);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.laundry.lms.service;
+
+import com.laundry.lms.model.*;
+import com.laundry.lms.repository.LaundryOrderRepository;
+import com.laundry.lms.repository.PaymentRepository;
+import com.laundry.lms.repository.ReconciliationMismatchRepository;
+import com.laundry.lms.repository.ReconciliationRunRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Reconciles LaundryOrder.paymentStatus against the payments table.
+ * Orders (by id) and payments (by orderId, id) are read as two sorted keyset
+ * cursors and merge-joined, so memory stays at one page of each no matter how
+ * many rows there are. Mismatches are written to the report table whenever a
+ * chunk fills up; with auto-repair, order statuses are aligned to the
+ * payment's status with a conditional UPDATE. Orders with no payment status
+ * at all (rows from before it had a default) get the payment's status, or
+ * PENDING when there is no payment.
+ */
+@Service
+public class ReconciliationService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReconciliationService.class);
+
+    private final LaundryOrderRepository orderRepository;
+    private final PaymentRepository paymentRepository;
+    private final ReconciliationRunRepository runRepository;
+    private final ReconciliationMismatchRepository mismatchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int pageSize;
+    private final boolean scheduledAutoRepair;
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(r -> new Thread(r, "reconciliation"));
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public ReconciliationService(LaundryOrderRepository orderRepository,
+            PaymentRepository paymentRepository,
+            ReconciliationRunRepository runRepository,
+            ReconciliationMismatchRepository mismatchRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${finance.reconciliation.page-size:1000}") int pageSize,
+            @Value("${finance.reconciliation.auto-repair:false}") boolean scheduledAutoRepair) {
+        this.orderRepository = orderRepository;
+        this.paymentRepository = paymentRepository;
+        this.runRepository = runRepository;
+        this.mismatchRepository = mismatchRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pageSize = pageSize;
+        this.scheduledAutoRepair = scheduledAutoRepair;
+    }
+
+    private record OrderRow(Long id, BigDecimal price, String paymentStatus) {
+    }
+
+    private record PaymentRow(Long id, Long orderId, BigDecimal amount, PaymentStatus status) {
+    }
+
+    /**
+     * Start a reconciliation run in the background.
+     *
+     * @throws IllegalStateException if a run is already in progress
+     */
+    public ReconciliationRun start(boolean autoRepair) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Reconciliation is already running");
+        }
+        try {
+            ReconciliationRun run = new ReconciliationRun();
+            run.setAutoRepair(autoRepair);
+            ReconciliationRun saved = runRepository.save(run);
+            runner.submit(() -> execute(saved));
+            return saved;
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    /**
+     * Get the current or last run.
+     */
+    public Optional<ReconciliationRun> getLatestRun() {
+        return runRepository.findTopByOrderByIdDesc();
+    }
+
+    /**
+     * Get a page of mismatches for a run.
+     */
+    public Page<ReconciliationMismatch> getMismatches(Long runId, int page, int size) {
+        return mismatchRepository.findByRunIdOrderByIdAsc(runId, PageRequest.of(page, Math.min(size, 500)));
+    }
+
+    /**
+     * Nightly reconciliation (scheduled job).
+     */
+    @Scheduled(cron = "${finance.reconciliation.cron:0 0 3 * * *}")
+    public void scheduledRun() {
+        try {
+            start(scheduledAutoRepair);
+        } catch (IllegalStateException e) {
+            log.info("Skipping reconciliation: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+
+    private void execute(ReconciliationRun run) {
+        try {
+            KeysetCursor<OrderRow> orders = new KeysetCursor<>(last -> orderRepository
+                    .findPaymentStatePage(last == null ? 0L : last.id(), PageRequest.of(0, pageSize))
+                    .stream()
+                    .map(r -> new OrderRow((Long) r[0], (BigDecimal) r[1], (String) r[2]))
+                    .toList(), pageSize);
+            KeysetCursor<PaymentRow> payments = new KeysetCursor<>(last -> paymentRepository
+                    .findReconciliationPage(last == null ? 0L : last.orderId(), last == null ? 0L : last.id(),
+                            PageRequest.of(0, pageSize))
+                    .stream()
+                    .map(r -> new PaymentRow((Long) r[0], (Long) r[1], (BigDecimal) r[2], (PaymentStatus) r[3]))
+                    .toList(), pageSize);
+
+            List<ReconciliationMismatch> chunk = new ArrayList<>();
+            int ordersInChunk = 0;
+            OrderRow order;
+            while ((order = orders.next()) != null) {
+                // Payments for order ids we have already passed have no order
+                PaymentRow payment;
+                while ((payment = payments.peek()) != null && payment.orderId() < order.id()) {
+                    payments.next();
+                    run.setPaymentsScanned(run.getPaymentsScanned() + 1);
+                    append(run, chunk, mismatch(run, ReconciliationMismatchType.ORPHAN_PAYMENT, null, payment,
+                            null, payment.status().name()));
+                }
+                List<PaymentRow> matched = new ArrayList<>(1);
+                while ((payment = payments.peek()) != null && payment.orderId().equals(order.id())) {
+                    matched.add(payments.next());
+                }
+                run.setPaymentsScanned(run.getPaymentsScanned() + matched.size());
+                compare(run, order, matched, chunk);
+
+                run.setOrdersScanned(run.getOrdersScanned() + 1);
+                run.setLastOrderId(order.id());
+                // Progress is saved every page of orders even when nothing is wrong
+                if (++ordersInChunk >= pageSize) {
+                    flush(run, chunk);
+                    ordersInChunk = 0;
+                }
+            }
+            PaymentRow payment;
+            while ((payment = payments.next()) != null) {
+                run.setPaymentsScanned(run.getPaymentsScanned() + 1);
+                append(run, chunk, mismatch(run, ReconciliationMismatchType.ORPHAN_PAYMENT, null, payment,
+                        null, payment.status().name()));
+            }
+
+            run.setState("COMPLETED");
+            run.setFinishedAt(LocalDateTime.now());
+            flush(run, chunk);
+            log.info("Reconciliation {} finished: {} orders, {} payments, {} mismatches, {} repaired",
+                    run.getId(), run.getOrdersScanned(), run.getPaymentsScanned(), run.getMismatches(),
+                    run.getRepaired());
+        } catch (Exception e) {
+            log.error("Reconciliation {} failed", run.getId(), e);
+            run.setState("FAILED");
+            run.setError(e.getMessage());
+            run.setFinishedAt(LocalDateTime.now());
+            runRepository.save(run);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void compare(ReconciliationRun run, OrderRow order, List<PaymentRow> matched,
+            List<ReconciliationMismatch> chunk) {
+        String orderStatus = order.paymentStatus();
+        // The newest payment row is the one the rest of the system reads
+        PaymentRow latest = matched.isEmpty() ? null : matched.get(matched.size() - 1);
+        if (orderStatus == null) {
+            append(run, chunk, mismatch(run, ReconciliationMismatchType.MISSING_STATUS, order.id(), latest,
+                    null, latest != null ? latest.status().name() : PaymentStatus.PENDING.name()));
+        }
+        if (latest == null) {
+            if (PaymentStatus.PAID.name().equals(orderStatus) || PaymentStatus.FAILED.name().equals(orderStatus)) {
+                append(run, chunk, mismatch(run, ReconciliationMismatchType.MISSING_PAYMENT, order.id(), null,
+                        orderStatus, null));
+            }
+            return;
+        }
+
+        for (int i = 0; i < matched.size() - 1; i++) {
+            PaymentRow older = matched.get(i);
+            append(run, chunk, mismatch(run, ReconciliationMismatchType.DUPLICATE_PAYMENT, order.id(), older,
+                    null, older.status().name()));
+        }
+        if (orderStatus != null && !latest.status().name().equals(orderStatus)) {
+            append(run, chunk, mismatch(run, ReconciliationMismatchType.STATUS_MISMATCH, order.id(), latest,
+                    orderStatus, latest.status().name()));
+        }
+        if (latest.status() == PaymentStatus.PAID && order.price() != null && latest.amount() != null
+                && latest.amount().compareTo(order.price()) != 0) {
+            append(run, chunk, mismatch(run, ReconciliationMismatchType.AMOUNT_MISMATCH, order.id(), latest,
+                    order.price().toPlainString(), latest.amount().toPlainString()));
+        }
+    }
+
+    // Every mismatch goes through here so a chunk never grows past a page
+    private void append(ReconciliationRun run, List<ReconciliationMismatch> chunk, ReconciliationMismatch mismatch) {
+        chunk.add(mismatch);
+        if (chunk.size() >= pageSize) {
+            flush(run, chunk);
+        }
+    }
+
+    private ReconciliationMismatch mismatch(ReconciliationRun run, ReconciliationMismatchType type, Long orderId,
+            PaymentRow payment, String orderValue, String paymentValue) {
+        return new ReconciliationMismatch(run.getId(), type, orderId,
+                payment != null ? payment.id() : null, orderValue, paymentValue);
+    }
+
+    /**
+     * Write the chunk's mismatches (and repairs) and the run's progress in one transaction.
+     */
+    private void flush(ReconciliationRun run, List<ReconciliationMismatch> chunk) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (run.getAutoRepair()) {
+                for (ReconciliationMismatch mismatch : chunk) {
+                    int updated;
+                    if (mismatch.getType() == ReconciliationMismatchType.STATUS_MISMATCH) {
+                        updated = orderRepository.updatePaymentStatusIf(mismatch.getOrderId(),
+                                mismatch.getOrderValue(), mismatch.getPaymentValue());
+                    } else if (mismatch.getType() == ReconciliationMismatchType.MISSING_STATUS) {
+                        updated = orderRepository.fillPaymentStatusIfNull(mismatch.getOrderId(),
+                                mismatch.getPaymentValue());
+                    } else {
+                        continue;
+                    }
+                    if (updated > 0) {
+                        mismatch.setRepaired(true);
+                        run.setRepaired(run.getRepaired() + 1);
+                    }
+                }
+            }
+            mismatchRepository.saveAll(chunk);
+            run.setMismatches(run.getMismatches() + chunk.size());
+            runRepository.save(run);
+        });
+        chunk.clear();
+    }
+
+    /**
+     * Forward-only cursor over keyset pages; holds a single page in memory.
+     */
+    private static final class KeysetCursor<T> {
+        private final Function<T, List<T>> fetchAfter;
+        private final int pageSize;
+        private List<T> page = List.of();
+        private int index;
+        private T last;
+        private boolean exhausted;
+
+        private KeysetCursor(Function<T, List<T>> fetchAfter, int pageSize) {
+            this.fetchAfter = fetchAfter;
+            this.pageSize = pageSize;
+        }
+
+        private T peek() {
+            if (index >= page.size()) {
+                if (exhausted) {
+                    return null;
+                }
+                page = fetchAfter.apply(last);
+                index = 0;
+                exhausted = page.size() < pageSize;
+                if (page.isEmpty()) {
+                    return null;
+                }
+                last = page.get(page.size() - 1);
+            }
+            return page.get(index);
+        }
+
+        private T next() {
+            T row = peek();
+            if (row != null) {
+                index++;
+            }
+            return row;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.laundry.lms.service;
+
+import com.laundry.lms.model.*;
+import com.laundry.lms.repository.LaundryOrderRepository;
+import com.laundry.lms.repository.PaymentRepository;
+import com.laundry.lms.repository.RevenueRollupEntryRepository;
+import com.laundry.lms.repository.RevenueRollupRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service for time-bucketed revenue rollups.
+ * Each payment's bucket per granularity is kept in revenue_rollup_entries, so
+ * applying a payment event moves the payment between buckets instead of
+ * adding it again; redelivered events are no-ops. The recent window is
+ * re-aggregated from the payments table every night to correct any drift.
+ */
+@Service
+public class RevenueRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(RevenueRollupService.class);
+
+    private final RevenueRollupRepository rollupRepository;
+    private final RevenueRollupEntryRepository entryRepository;
+    private final PaymentRepository paymentRepository;
+    private final LaundryOrderRepository orderRepository;
+    private final EntityManager entityManager;
+    private final int pageSize;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    public RevenueRollupService(RevenueRollupRepository rollupRepository,
+            RevenueRollupEntryRepository entryRepository,
+            PaymentRepository paymentRepository,
+            LaundryOrderRepository orderRepository,
+            EntityManager entityManager,
+            @Value("${finance.rollup.rebuild-page-size:1000}") int pageSize) {
+        this.rollupRepository = rollupRepository;
+        this.entryRepository = entryRepository;
+        this.paymentRepository = paymentRepository;
+        this.orderRepository = orderRepository;
+        this.entityManager = entityManager;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Get rollups for a granularity whose buckets overlap [from, to].
+     */
+    @Transactional(readOnly = true)
+    public List<RevenueRollup> getRevenue(RevenueGranularity granularity, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        return rollupRepository.findByGranularityAndBucketStartBetweenOrderByBucketStartAsc(
+                granularity, granularity.bucketStart(from), to);
+    }
+
+    /**
+     * Move a payment to the buckets of its current state at every granularity.
+     * Runs in its own transaction because it is called after the payment commits;
+     * the payment row is locked so two events for it are applied one after the other.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void recordPayment(Long paymentId) {
+        Payment payment = paymentRepository.lockById(paymentId).orElse(null);
+        if (payment == null) {
+            return;
+        }
+        String serviceType = orderRepository.findById(payment.getOrderId())
+                .map(LaundryOrder::getServiceType)
+                .orElse(null);
+        if (serviceType == null) {
+            log.warn("Skipping revenue rollup for payment {}: order {} not found", paymentId, payment.getOrderId());
+            return;
+        }
+
+        LocalDate day = LocalDate.ofInstant(payment.getUpdatedAt(), zone);
+        BigDecimal amount = payment.getAmountLkr() != null ? payment.getAmountLkr() : BigDecimal.ZERO;
+        Map<RevenueGranularity, RevenueRollupEntry> entries = new EnumMap<>(RevenueGranularity.class);
+        entryRepository.findByPaymentId(paymentId).forEach(entry -> entries.put(entry.getGranularity(), entry));
+        LocalDateTime now = LocalDateTime.now();
+
+        for (RevenueGranularity granularity : RevenueGranularity.values()) {
+            LocalDate bucket = granularity.bucketStart(day);
+            RevenueRollupEntry entry = entries.get(granularity);
+            if (entry != null && entry.matches(bucket, serviceType, payment.getMethod(), payment.getStatus(), amount)) {
+                // Already counted here, e.g. a redelivered event
+                continue;
+            }
+            if (entry != null) {
+                rollupRepository.increment(granularity, entry.getBucketStart(), entry.getServiceType(),
+                        entry.getMethod(), entry.getStatus(), -1, entry.getAmountLkr().negate(), now);
+            } else {
+                entry = new RevenueRollupEntry(paymentId, granularity);
+            }
+            add(new RollupKey(granularity, bucket, serviceType, payment.getMethod(), payment.getStatus()),
+                    amount, now);
+            entry.set(bucket, serviceType, payment.getMethod(), payment.getStatus(), amount);
+            entryRepository.save(entry);
+        }
+        entryRepository.flush();
+    }
+
+    private void add(RollupKey key, BigDecimal amount, LocalDateTime now) {
+        int updated = rollupRepository.increment(key.granularity(), key.bucket(), key.serviceType(),
+                key.method(), key.status(), 1, amount, now);
+        if (updated == 0) {
+            RevenueRollup rollup = new RevenueRollup(key.granularity(), key.bucket(), key.serviceType(),
+                    key.method(), key.status());
+            rollup.setPaymentCount(1L);
+            rollup.setAmountLkr(amount);
+            rollupRepository.saveAndFlush(rollup);
+        }
+    }
+
+    /**
+     * Nightly re-aggregation of the current week and month (scheduled job).
+     */
+    @Scheduled(cron = "${finance.rollup.rebuild-cron:0 30 2 * * *}")
+    @Transactional
+    public void rebuildRecent() {
+        LocalDate yesterday = LocalDate.now(zone).minusDays(1);
+        LocalDate from = RevenueGranularity.MONTHLY.bucketStart(yesterday);
+        LocalDate weekStart = RevenueGranularity.WEEKLY.bucketStart(yesterday);
+        if (weekStart.isBefore(from)) {
+            from = weekStart;
+        }
+        int rows = rebuild(from, yesterday);
+        log.info("Revenue rollups rebuilt from {} to {}: {} rows", from, yesterday, rows);
+    }
+
+    /**
+     * Recompute every bucket containing a day in [from, to] from the payments
+     * table, reading payments a page at a time, and point the entries of the
+     * payments involved at the rebuilt buckets.
+     *
+     * @return number of rollup rows written
+     */
+    @Transactional
+    public int rebuild(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+
+        // Per granularity, buckets [first, last] covering payments in [periodFrom, periodTo)
+        Map<RevenueGranularity, Instant[]> periods = new EnumMap<>(RevenueGranularity.class);
+        Instant scanFrom = null;
+        Instant scanTo = null;
+        for (RevenueGranularity granularity : RevenueGranularity.values()) {
+            Instant periodFrom = granularity.bucketStart(from).atStartOfDay(zone).toInstant();
+            Instant periodTo = bucketEnd(granularity, to).atStartOfDay(zone).toInstant();
+            periods.put(granularity, new Instant[] { periodFrom, periodTo });
+            scanFrom = scanFrom == null || periodFrom.isBefore(scanFrom) ? periodFrom : scanFrom;
+            scanTo = scanTo == null || periodTo.isAfter(scanTo) ? periodTo : scanTo;
+            rollupRepository.deleteRange(granularity, granularity.bucketStart(from), granularity.bucketStart(to));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<RollupKey, RevenueRollup> rollups = new LinkedHashMap<>();
+        long afterId = 0;
+        while (true) {
+            List<Object[]> page = paymentRepository.findRevenuePage(scanFrom, scanTo, afterId,
+                    PageRequest.of(0, pageSize));
+            if (page.isEmpty()) {
+                break;
+            }
+            Map<Long, Map<RevenueGranularity, RevenueRollupEntry>> entries = new HashMap<>();
+            entryRepository.findByPaymentIdIn(page.stream().map(row -> (Long) row[0]).toList())
+                    .forEach(entry -> entries.computeIfAbsent(entry.getPaymentId(),
+                            id -> new EnumMap<>(RevenueGranularity.class)).put(entry.getGranularity(), entry));
+
+            for (Object[] row : page) {
+                Long paymentId = (Long) row[0];
+                Instant updatedAt = (Instant) row[1];
+                String serviceType = (String) row[2];
+                PaymentMethod method = (PaymentMethod) row[3];
+                PaymentStatus status = (PaymentStatus) row[4];
+                BigDecimal amount = row[5] != null ? (BigDecimal) row[5] : BigDecimal.ZERO;
+                LocalDate day = LocalDate.ofInstant(updatedAt, zone);
+
+                for (RevenueGranularity granularity : RevenueGranularity.values()) {
+                    Instant[] period = periods.get(granularity);
+                    if (updatedAt.isBefore(period[0]) || !updatedAt.isBefore(period[1])) {
+                        continue;
+                    }
+                    RollupKey key = new RollupKey(granularity, granularity.bucketStart(day), serviceType, method, status);
+                    RevenueRollup rollup = rollups.computeIfAbsent(key,
+                            k -> new RevenueRollup(k.granularity(), k.bucket(), k.serviceType(), k.method(), k.status()));
+                    rollup.setPaymentCount(rollup.getPaymentCount() + 1);
+                    rollup.setAmountLkr(rollup.getAmountLkr().add(amount));
+
+                    RevenueRollupEntry entry = entries.getOrDefault(paymentId, Map.of()).get(granularity);
+                    if (entry == null) {
+                        entry = new RevenueRollupEntry(paymentId, granularity);
+                    } else if (entry.matches(key.bucket(), serviceType, method, status, amount)) {
+                        continue;
+                    } else if (!rebuilt(granularity, entry.getBucketStart(), from, to)) {
+                        // It moved here from a bucket this rebuild leaves alone
+                        rollupRepository.increment(granularity, entry.getBucketStart(), entry.getServiceType(),
+                                entry.getMethod(), entry.getStatus(), -1, entry.getAmountLkr().negate(), now);
+                    }
+                    entry.set(key.bucket(), serviceType, method, status, amount);
+                    entryRepository.save(entry);
+                }
+                afterId = paymentId;
+            }
+            entryRepository.flush();
+            entityManager.clear();
+        }
+
+        // Payments counted in a rebuilt bucket that have since moved past it
+        for (RevenueGranularity granularity : RevenueGranularity.values()) {
+            Instant[] period = periods.get(granularity);
+            long afterEntryId = 0;
+            while (true) {
+                List<Object[]> page = entryRepository.findMovedOutPage(granularity, granularity.bucketStart(from),
+                        granularity.bucketStart(to), period[0], period[1], afterEntryId, PageRequest.of(0, pageSize));
+                if (page.isEmpty()) {
+                    break;
+                }
+                for (Object[] row : page) {
+                    RevenueRollupEntry entry = (RevenueRollupEntry) row[0];
+                    LocalDate day = LocalDate.ofInstant((Instant) row[1], zone);
+                    BigDecimal amount = row[5] != null ? (BigDecimal) row[5] : BigDecimal.ZERO;
+                    RollupKey key = new RollupKey(granularity, granularity.bucketStart(day), (String) row[2],
+                            (PaymentMethod) row[3], (PaymentStatus) row[4]);
+                    add(key, amount, now);
+                    entry.set(key.bucket(), key.serviceType(), key.method(), key.status(), amount);
+                    entryRepository.save(entry);
+                    afterEntryId = entry.getId();
+                }
+                entryRepository.flush();
+                entityManager.clear();
+            }
+        }
+
+        rollupRepository.saveAll(rollups.values());
+        return rollups.size();
+    }
+
+    private static boolean rebuilt(RevenueGranularity granularity, LocalDate bucket, LocalDate from, LocalDate to) {
+        return !bucket.isBefore(granularity.bucketStart(from)) && !bucket.isAfter(granularity.bucketStart(to));
+    }
+
+    /**
+     * Exclusive end of the bucket containing the given day.
+     */
+    private LocalDate bucketEnd(RevenueGranularity granularity, LocalDate day) {
+        LocalDate start = granularity.bucketStart(day);
+        return switch (granularity) {
+            case DAILY -> start.plusDays(1);
+            case WEEKLY -> start.plusWeeks(1);
+            case MONTHLY -> start.plusMonths(1);
+        };
+    }
+
+    private record RollupKey(RevenueGranularity granularity, LocalDate bucket, String serviceType,
+            PaymentMethod method, PaymentStatus status) {
+    }
+}
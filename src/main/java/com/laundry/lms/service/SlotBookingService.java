@@ -0,0 +1,302 @@
+package com.laundry.lms.service;
+
+import com.laundry.lms.dto.SlotAvailability;
+import com.laundry.lms.model.DeliverySlot;
+import com.laundry.lms.model.DeliveryZone;
+import com.laundry.lms.model.LaundryOrder;
+import com.laundry.lms.model.SlotKind;
+import com.laundry.lms.model.User;
+import com.laundry.lms.repository.DeliverySlotRepository;
+import com.laundry.lms.service.routing.RoutePlanner;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hourly pickup and delivery capacity per zone and day. The database row is
+ * the source of truth and is only changed by conditional UPDATEs that cannot
+ * push booked past capacity. In front of it sits one in-memory counter per
+ * slot that includes reservations in flight, so once a slot looks full
+ * further requests are turned away without touching the database, and never
+ * more than the remaining capacity race for the row at once. Counters are
+ * refreshed from the database periodically to pick up other nodes' bookings.
+ * Only days from today to the booking horizon can be viewed or booked, which
+ * bounds both the rows created and the counters held.
+ */
+@Service
+public class SlotBookingService {
+
+    private static final String RESERVE = "UPDATE delivery_slots SET booked = booked + 1 "
+            + "WHERE id = ? AND booked < capacity";
+    private static final String RELEASE = "UPDATE delivery_slots SET booked = booked - 1 "
+            + "WHERE id = ? AND booked > 0";
+    private static final String CREATE = "INSERT INTO delivery_slots (slot_date, zone, slot_hour, kind, capacity, booked) "
+            + "VALUES (?, ?, ?, ?, ?, 0)";
+
+    private record SlotKey(LocalDate date, DeliveryZone zone, int hour, SlotKind kind) {}
+
+    private record DayKey(LocalDate date, DeliveryZone zone) {}
+
+    private static final class Counter {
+        private final long id;
+        private final int capacity;
+        private final AtomicInteger booked;
+
+        private Counter(long id, int capacity, int booked) {
+            this.id = id;
+            this.capacity = capacity;
+            this.booked = new AtomicInteger(booked);
+        }
+    }
+
+    private final DeliverySlotRepository slotRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate newTransaction;
+    private final Map<SlotKey, Counter> counters = new ConcurrentHashMap<>();
+    private final Set<DayKey> loadedDays = ConcurrentHashMap.newKeySet();
+    private final int openHour;
+    private final int closeHour;
+    private final int pickupCapacity;
+    private final int deliveryCapacity;
+    private final double depotLatitude;
+    private final double depotLongitude;
+    private final double centralKm;
+    private final int bookingDays;
+
+    public SlotBookingService(DeliverySlotRepository slotRepository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${delivery.slots.open-hour:8}") int openHour,
+            @Value("${delivery.slots.close-hour:20}") int closeHour,
+            @Value("${delivery.slots.pickup-capacity:6}") int pickupCapacity,
+            @Value("${delivery.slots.delivery-capacity:6}") int deliveryCapacity,
+            @Value("${delivery.depot.latitude:6.9271}") double depotLatitude,
+            @Value("${delivery.depot.longitude:79.8612}") double depotLongitude,
+            @Value("${delivery.slots.central-km:5}") double centralKm,
+            @Value("${delivery.slots.booking-days:30}") int bookingDays) {
+        this.slotRepository = slotRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.openHour = openHour;
+        this.closeHour = closeHour;
+        this.pickupCapacity = pickupCapacity;
+        this.deliveryCapacity = deliveryCapacity;
+        this.depotLatitude = depotLatitude;
+        this.depotLongitude = depotLongitude;
+        this.centralKm = centralKm;
+        this.bookingDays = bookingDays;
+    }
+
+    /**
+     * Zone of a customer's home; customers without a location are treated as central.
+     */
+    public DeliveryZone zoneOf(User customer) {
+        Double latitude = customer.getLatitude();
+        Double longitude = customer.getLongitude();
+        if (latitude == null || longitude == null
+                || RoutePlanner.haversineKm(depotLatitude, depotLongitude, latitude, longitude) <= centralKm) {
+            return DeliveryZone.CENTRAL;
+        }
+        double east = (longitude - depotLongitude) * Math.cos(Math.toRadians(depotLatitude));
+        double north = latitude - depotLatitude;
+        double bearing = (Math.toDegrees(Math.atan2(east, north)) + 360) % 360;
+        if (bearing < 45 || bearing >= 315) {
+            return DeliveryZone.NORTH;
+        }
+        if (bearing < 135) {
+            return DeliveryZone.EAST;
+        }
+        return bearing < 225 ? DeliveryZone.SOUTH : DeliveryZone.WEST;
+    }
+
+    /**
+     * Capacity and bookings for every slot of a day in a zone.
+     *
+     * @throws IllegalArgumentException if the day is past or beyond the booking horizon
+     */
+    public SlotAvailability availability(LocalDate date, DeliveryZone zone) {
+        checkBookable(date);
+        loadDay(date, zone);
+        List<SlotAvailability.HourSlot> pickup = new ArrayList<>();
+        List<SlotAvailability.HourSlot> delivery = new ArrayList<>();
+        for (int hour = openHour; hour < closeHour; hour++) {
+            pickup.add(toHourSlot(hour, counters.get(new SlotKey(date, zone, hour, SlotKind.PICKUP))));
+            delivery.add(toHourSlot(hour, counters.get(new SlotKey(date, zone, hour, SlotKind.DELIVERY))));
+        }
+        return new SlotAvailability(date, zone, pickup, delivery);
+    }
+
+    /**
+     * Reserve the pickup and delivery slots for an order, or neither.
+     *
+     * @throws IllegalArgumentException if a time is outside service hours or the booking horizon
+     * @throws IllegalStateException if a slot is full
+     */
+    public void reserve(DeliveryZone zone, LocalDateTime pickupAt, LocalDateTime deliveryAt) {
+        checkBookable(pickupAt.toLocalDate());
+        checkBookable(deliveryAt.toLocalDate());
+        Counter pickup = counter(zone, pickupAt, SlotKind.PICKUP);
+        Counter delivery = counter(zone, deliveryAt, SlotKind.DELIVERY);
+        if (!tryReserve(pickup)) {
+            throw new IllegalStateException("The " + pickupAt.getHour() + ":00 pickup slot is fully booked");
+        }
+        if (!tryReserve(delivery)) {
+            release(pickup);
+            throw new IllegalStateException("The " + deliveryAt.getHour() + ":00 delivery slot is fully booked");
+        }
+    }
+
+    /**
+     * Give back slots taken by reserve, e.g. when saving the order failed.
+     */
+    public void release(DeliveryZone zone, LocalDateTime pickupAt, LocalDateTime deliveryAt) {
+        release(counter(zone, pickupAt, SlotKind.PICKUP));
+        release(counter(zone, deliveryAt, SlotKind.DELIVERY));
+    }
+
+    /**
+     * Give back the slots of a cancelled order that have not started yet.
+     */
+    public void release(LaundryOrder order) {
+        if (order.getSlotZone() == null || order.getPickupHour() == null || order.getDeliveryHour() == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime pickupAt = order.getPickupDate().atTime(order.getPickupHour(), 0);
+        LocalDateTime deliveryAt = order.getDeliveryDate().atTime(order.getDeliveryHour(), 0);
+        if (pickupAt.isAfter(now)) {
+            release(counter(order.getSlotZone(), pickupAt, SlotKind.PICKUP));
+        }
+        if (deliveryAt.isAfter(now)) {
+            release(counter(order.getSlotZone(), deliveryAt, SlotKind.DELIVERY));
+        }
+    }
+
+    /**
+     * Re-read booked counts so bookings made on other nodes are reflected,
+     * and forget days that have passed.
+     */
+    @Scheduled(fixedDelayString = "${delivery.slots.refresh-ms:5000}")
+    public void refresh() {
+        LocalDate today = LocalDate.now();
+        counters.keySet().removeIf(key -> key.date().isBefore(today));
+        loadedDays.removeIf(day -> day.date().isBefore(today));
+        Map<Long, Counter> byId = new HashMap<>();
+        counters.values().forEach(counter -> byId.put(counter.id, counter));
+        if (byId.isEmpty()) {
+            return;
+        }
+        for (DeliverySlot slot : slotRepository.findByIdIn(byId.keySet())) {
+            byId.get(slot.getId()).booked.set(slot.getBooked());
+        }
+    }
+
+    private void checkBookable(LocalDate date) {
+        LocalDate today = LocalDate.now();
+        if (date.isBefore(today) || date.isAfter(today.plusDays(bookingDays))) {
+            throw new IllegalArgumentException("Slots can be booked from today up to " + bookingDays + " days ahead");
+        }
+    }
+
+    private boolean tryReserve(Counter counter) {
+        if (counter.booked.incrementAndGet() > counter.capacity) {
+            counter.booked.decrementAndGet();
+            return false;
+        }
+        if (jdbcTemplate.update(RESERVE, counter.id) == 1) {
+            return true;
+        }
+        // Another node took the last place; the next refresh brings the counter up to date
+        counter.booked.decrementAndGet();
+        return false;
+    }
+
+    private void release(Counter counter) {
+        if (jdbcTemplate.update(RELEASE, counter.id) == 1) {
+            counter.booked.updateAndGet(booked -> Math.max(0, booked - 1));
+        }
+    }
+
+    private Counter counter(DeliveryZone zone, LocalDateTime at, SlotKind kind) {
+        int hour = at.getHour();
+        if (hour < openHour || hour >= closeHour) {
+            throw new IllegalArgumentException(
+                    "Pickup and delivery times must be between " + openHour + ":00 and " + closeHour + ":00");
+        }
+        SlotKey key = new SlotKey(at.toLocalDate(), zone, hour, kind);
+        Counter counter = counters.get(key);
+        if (counter == null) {
+            loadDay(at.toLocalDate(), zone);
+            counter = counters.get(key);
+        }
+        return counter;
+    }
+
+    // Create the day's missing rows on first use, then cache them as counters
+    private void loadDay(LocalDate date, DeliveryZone zone) {
+        DayKey day = new DayKey(date, zone);
+        if (loadedDays.contains(day)) {
+            return;
+        }
+        synchronized (this) {
+            if (loadedDays.contains(day)) {
+                return;
+            }
+            List<DeliverySlot> rows = slotRepository.findBySlotDateAndZoneOrderByKindAscSlotHourAsc(date, zone);
+            if (rows.size() < 2 * (closeHour - openHour)) {
+                try {
+                    createSlots(date, zone, rows);
+                } catch (DataIntegrityViolationException e) {
+                    // Another node created them at the same time
+                }
+                rows = slotRepository.findBySlotDateAndZoneOrderByKindAscSlotHourAsc(date, zone);
+            }
+            for (DeliverySlot slot : rows) {
+                counters.put(new SlotKey(date, zone, slot.getSlotHour(), slot.getKind()),
+                        new Counter(slot.getId(), slot.getCapacity(), slot.getBooked()));
+            }
+            loadedDays.add(day);
+        }
+    }
+
+    private void createSlots(LocalDate date, DeliveryZone zone, List<DeliverySlot> existing) {
+        Set<SlotKey> present = new HashSet<>();
+        for (DeliverySlot slot : existing) {
+            present.add(new SlotKey(date, zone, slot.getSlotHour(), slot.getKind()));
+        }
+        List<Object[]> rows = new ArrayList<>();
+        Date sqlDate = Date.valueOf(date);
+        for (SlotKind kind : SlotKind.values()) {
+            int capacity = kind == SlotKind.PICKUP ? pickupCapacity : deliveryCapacity;
+            for (int hour = openHour; hour < closeHour; hour++) {
+                if (!present.contains(new SlotKey(date, zone, hour, kind))) {
+                    rows.add(new Object[] { sqlDate, zone.name(), hour, kind.name(), capacity });
+                }
+            }
+        }
+        newTransaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(CREATE, rows));
+    }
+
+    private static SlotAvailability.HourSlot toHourSlot(int hour, Counter counter) {
+        int booked = Math.min(counter.booked.get(), counter.capacity);
+        return new SlotAvailability.HourSlot(hour, counter.capacity, booked, counter.capacity - booked);
+    }
+}
@@ -1,14 +1,24 @@
 package com.laundry.lms.service;
 
+import com.laundry.lms.dto.TaskBoard;
+import com.laundry.lms.dto.TaskQueuePage;
+import com.laundry.lms.dto.TaskResponse;
 import com.laundry.lms.model.*;
 import com.laundry.lms.repository.AuditLogRepository;
 import com.laundry.lms.repository.TaskRepository;
 import com.laundry.lms.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service for task management operations.
@@ -19,20 +29,128 @@ public class TaskService {
     private final TaskRepository taskRepository;
     private final UserRepository userRepository;
     private final AuditLogRepository auditLogRepository;
+    private final int maxQueueLimit;
 
     public TaskService(TaskRepository taskRepository,
             UserRepository userRepository,
-            AuditLogRepository auditLogRepository) {
+            AuditLogRepository auditLogRepository,
+            @Value("${tasks.queue.max-limit:100}") int maxQueueLimit) {
         this.taskRepository = taskRepository;
         this.userRepository = userRepository;
         this.auditLogRepository = auditLogRepository;
+        this.maxQueueLimit = maxQueueLimit;
     }
 
     /**
      * Get tasks assigned to a specific user.
      */
-    public List<Task> getTasksForUser(String assignedTo) {
-        return taskRepository.findByAssignedTo(assignedTo);
+    public List<Task> getTasksForUser(Long assigneeId) {
+        return taskRepository.findByAssigneeId(assigneeId);
+    }
+
+    /**
+     * Next tasks in a user's queue: highest priority first, then earliest due
+     * date. Paged by keyset, so a page costs the same however deep it is.
+     *
+     * @param after nextCursor of the previous page, or null for the first
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    @Transactional(readOnly = true)
+    public TaskQueuePage getQueue(User user, TaskStatus status, int limit, String after) {
+        int size = pageSize(limit);
+        Cursor cursor = Cursor.parse(after);
+        List<Task> tasks;
+        if (cursor == null) {
+            tasks = taskRepository.findQueueHead(user.getId(), status.name(), size);
+        } else if (cursor.dueDate() == null) {
+            tasks = taskRepository.findQueueAfterUndated(user.getId(), status.name(),
+                    cursor.priority(), cursor.id(), size);
+        } else {
+            tasks = taskRepository.findQueueAfter(user.getId(), status.name(),
+                    cursor.priority(), cursor.dueDate(), cursor.id(), size);
+        }
+        return toPage(tasks, size);
+    }
+
+    /**
+     * Task board: the number of tasks in each status from one grouped count,
+     * and the first page of every column in queue order.
+     */
+    @Transactional(readOnly = true)
+    public TaskBoard getBoard(int limit) {
+        Map<TaskStatus, Long> counts = new EnumMap<>(TaskStatus.class);
+        for (TaskStatus status : TaskStatus.values()) {
+            counts.put(status, 0L);
+        }
+        for (Object[] row : taskRepository.countByStatus()) {
+            counts.put((TaskStatus) row[0], (Long) row[1]);
+        }
+        int size = pageSize(limit);
+        Map<TaskStatus, List<Task>> heads = new EnumMap<>(TaskStatus.class);
+        for (TaskStatus status : TaskStatus.values()) {
+            heads.put(status, counts.get(status) == 0 ? List.of()
+                    : taskRepository.findColumnHead(status.name(), size));
+        }
+        preloadAssignees(heads.values().stream().flatMap(List::stream).toList());
+        Map<TaskStatus, TaskQueuePage> columns = new EnumMap<>(TaskStatus.class);
+        heads.forEach((status, tasks) -> columns.put(status, toPage(tasks, size)));
+        return new TaskBoard(counts, columns);
+    }
+
+    /**
+     * Next page of one board column.
+     *
+     * @param after nextCursor of the previous page of this column
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    @Transactional(readOnly = true)
+    public TaskQueuePage getBoardColumn(TaskStatus status, int limit, String after) {
+        int size = pageSize(limit);
+        Cursor cursor = Cursor.parse(after);
+        List<Task> tasks;
+        if (cursor == null) {
+            tasks = taskRepository.findColumnHead(status.name(), size);
+        } else if (cursor.dueDate() == null) {
+            tasks = taskRepository.findColumnAfterUndated(status.name(), cursor.priority(), cursor.id(), size);
+        } else {
+            tasks = taskRepository.findColumnAfter(status.name(), cursor.priority(), cursor.dueDate(),
+                    cursor.id(), size);
+        }
+        preloadAssignees(tasks);
+        return toPage(tasks, size);
+    }
+
+    /**
+     * Find the staff member a task is assigned to, by id or else by email or
+     * exact name. Returns null when neither is given.
+     *
+     * @throws IllegalArgumentException if no single staff member matches
+     */
+    public User resolveAssignee(Long assigneeId, String nameOrEmail) {
+        User user;
+        if (assigneeId != null) {
+            user = userRepository.findById(assigneeId)
+                    .orElseThrow(() -> new IllegalArgumentException("Assignee not found"));
+        } else if (nameOrEmail != null && !nameOrEmail.isBlank()) {
+            String key = nameOrEmail.trim();
+            user = userRepository.findByEmail(key).orElse(null);
+            if (user == null) {
+                List<User> byName = userRepository.findByName(key);
+                if (byName.isEmpty()) {
+                    throw new IllegalArgumentException("Assignee not found: " + key);
+                }
+                if (byName.size() > 1) {
+                    throw new IllegalArgumentException("More than one user is named " + key + "; use assigneeId");
+                }
+                user = byName.get(0);
+            }
+        } else {
+            return null;
+        }
+        if (user.getRole() == UserRole.CUSTOMER) {
+            throw new IllegalArgumentException("Tasks can only be assigned to staff");
+        }
+        return user;
     }
 
     /**
@@ -86,15 +204,17 @@ public class TaskService {
      * Reassign task to another user.
      */
     @Transactional
-    public Task reassignTask(Long taskId, String newAssignee, User admin) {
+    public Task reassignTask(Long taskId, User newAssignee, User admin) {
         Task task = taskRepository.findById(taskId)
                 .orElseThrow(() -> new IllegalArgumentException("Task not found"));
 
-        String oldAssignee = task.getAssignedTo();
-        task.setAssignedTo(newAssignee);
+        String oldAssignee = task.getAssignee() != null ? task.getAssignee().getName() : task.getLegacyAssignee();
+        task.setAssignee(newAssignee);
+        task.setLegacyAssignee(null);
         Task updated = taskRepository.save(task);
 
-        createAuditLog(admin, "REASSIGN_TASK", "Task", taskId, oldAssignee, newAssignee);
+        createAuditLog(admin, "REASSIGN_TASK", "Task", taskId, oldAssignee,
+                newAssignee != null ? newAssignee.getName() : null);
         return updated;
     }
 
@@ -115,4 +235,55 @@ public class TaskService {
         AuditLog log = AuditLog.create(actor, action, entityType, entityId, before, after);
         auditLogRepository.save(log);
     }
+
+    private int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, maxQueueLimit));
+    }
+
+    private static TaskQueuePage toPage(List<Task> tasks, int size) {
+        String nextCursor = tasks.size() == size ? Cursor.of(tasks.get(size - 1)) : null;
+        return new TaskQueuePage(tasks.stream().map(TaskResponse::from).toList(), nextCursor);
+    }
+
+    // Load a page's assignees in one query so mapping the page does not load them one by one
+    private void preloadAssignees(List<Task> tasks) {
+        Set<Long> ids = new HashSet<>();
+        for (Task task : tasks) {
+            if (task.getAssignee() != null) {
+                ids.add(task.getAssignee().getId());
+            }
+        }
+        if (!ids.isEmpty()) {
+            userRepository.findAllById(ids);
+        }
+    }
+
+    /**
+     * Position in (priority, due_date, id) order, written as
+     * "priority:dueDate:id" with an empty dueDate for undated tasks.
+     */
+    private record Cursor(int priority, LocalDate dueDate, long id) {
+
+        static String of(Task task) {
+            return task.getPriority().ordinal() + ":"
+                    + (task.getDueDate() != null ? task.getDueDate() : "") + ":" + task.getId();
+        }
+
+        static Cursor parse(String value) {
+            if (value == null || value.isBlank()) {
+                return null;
+            }
+            String[] parts = value.split(":", -1);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            try {
+                return new Cursor(Integer.parseInt(parts[0]),
+                        parts[1].isEmpty() ? null : LocalDate.parse(parts[1]),
+                        Long.parseLong(parts[2]));
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+    }
 }
@@ -0,0 +1,234 @@
+package com.laundry.lms.service;
+
+import com.laundry.lms.dto.DemoWebhookRequest;
+import com.laundry.lms.model.WebhookInboxEntry;
+import com.laundry.lms.model.WebhookInboxStatus;
+import com.laundry.lms.repository.WebhookInboxRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Durable inbox for payment webhooks. The HTTP handler only stores the
+ * payload; a background drain applies entries to payments. Entries for the
+ * same order always run on the same lane in id order, and each order's
+ * entries in a claimed batch commit together. An entry is never applied
+ * before an earlier one for its order: while that one is pending a retry or
+ * held by another claim, the later ones are left or handed back, until it is
+ * applied or dead-lettered as FAILED.
+ */
+@Service
+public class WebhookInboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookInboxService.class);
+    private static final String DEMO_PROVIDER = "DEMO";
+
+    private final WebhookInboxRepository inboxRepository;
+    private final PaymentService paymentService;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService[] lanes;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration claimTimeout;
+
+    public WebhookInboxService(WebhookInboxRepository inboxRepository,
+            PaymentService paymentService,
+            PlatformTransactionManager transactionManager,
+            @Value("${payments.webhook-inbox.workers:4}") int workerCount,
+            @Value("${payments.webhook-inbox.batch-size:200}") int batchSize,
+            @Value("${payments.webhook-inbox.max-attempts:5}") int maxAttempts,
+            @Value("${payments.webhook-inbox.claim-timeout-seconds:300}") long claimTimeoutSeconds) {
+        this.inboxRepository = inboxRepository;
+        this.paymentService = paymentService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.claimTimeout = Duration.ofSeconds(claimTimeoutSeconds);
+        this.lanes = new ExecutorService[Math.max(1, workerCount)];
+        for (int i = 0; i < lanes.length; i++) {
+            String name = "webhook-inbox-" + i;
+            lanes[i] = Executors.newSingleThreadExecutor(r -> new Thread(r, name));
+        }
+    }
+
+    /**
+     * Store a demo gateway webhook for processing.
+     *
+     * @return false if the provider already delivered this event
+     */
+    public boolean accept(DemoWebhookRequest request, String payloadJson) {
+        if (request.orderId() == null) {
+            throw new IllegalArgumentException("orderId is required");
+        }
+        String outcome = request.status() == null ? "failed" : request.status().toLowerCase();
+        WebhookInboxEntry entry = new WebhookInboxEntry();
+        entry.setProvider(DEMO_PROVIDER);
+        entry.setProviderRef(providerRef(request, outcome));
+        entry.setOrderId(request.orderId());
+        entry.setEventStatus(outcome);
+        entry.setAmountLkr(request.amountLkr());
+        entry.setPayloadJson(payloadJson);
+        try {
+            inboxRepository.saveAndFlush(entry);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Deduplication key: the payment reference, else the gateway's event id.
+     * Without either, a retry cannot be told apart from a second real event for
+     * the same order and outcome, so each delivery is kept.
+     */
+    private static String providerRef(DemoWebhookRequest request, String outcome) {
+        if (request.demoRef() != null && !request.demoRef().isBlank()) {
+            return request.demoRef();
+        }
+        if (request.eventId() != null && !request.eventId().isBlank()) {
+            return "event-" + request.eventId();
+        }
+        return "order-" + request.orderId() + "-" + outcome + "-" + UUID.randomUUID();
+    }
+
+    /**
+     * Claim the next batch of pending entries and apply them.
+     */
+    @Scheduled(fixedDelayString = "${payments.webhook-inbox.poll-ms:250}")
+    public void drain() {
+        List<WebhookInboxEntry> batch;
+        while (!(batch = claimBatch()).isEmpty()) {
+            process(batch);
+            if (batch.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+    }
+
+    private List<WebhookInboxEntry> claimBatch() {
+        Instant now = Instant.now();
+        Instant staleBefore = now.minus(claimTimeout);
+        String token = UUID.randomUUID().toString();
+        return transactionTemplate.execute(status -> {
+            List<Long> ids = inboxRepository.findClaimableIds(WebhookInboxStatus.PENDING,
+                    WebhookInboxStatus.PROCESSING, staleBefore, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            if (inboxRepository.claim(ids, token, now, WebhookInboxStatus.PENDING,
+                    WebhookInboxStatus.PROCESSING, staleBefore) == 0) {
+                return List.of();
+            }
+            // Another node claimed an earlier entry for the same order between the query and the claim
+            List<Long> blocked = inboxRepository.findBlockedInClaim(token,
+                    EnumSet.of(WebhookInboxStatus.PENDING, WebhookInboxStatus.PROCESSING));
+            if (!blocked.isEmpty()) {
+                inboxRepository.release(blocked, WebhookInboxStatus.PENDING);
+            }
+            return inboxRepository.findByClaimTokenOrderByIdAsc(token);
+        });
+    }
+
+    private void process(List<WebhookInboxEntry> batch) {
+        Map<Long, List<WebhookInboxEntry>> byOrder = new LinkedHashMap<>();
+        for (WebhookInboxEntry entry : batch) {
+            byOrder.computeIfAbsent(entry.getOrderId(), k -> new ArrayList<>()).add(entry);
+        }
+        List<Future<?>> pending = new ArrayList<>(byOrder.size());
+        for (Map.Entry<Long, List<WebhookInboxEntry>> group : byOrder.entrySet()) {
+            ExecutorService lane = lanes[Math.floorMod(group.getKey().hashCode(), lanes.length)];
+            pending.add(lane.submit(() -> applyGroup(group.getValue())));
+        }
+        for (Future<?> future : pending) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                log.error("Webhook inbox lane failed", e.getCause());
+            }
+        }
+    }
+
+    private void applyGroup(List<WebhookInboxEntry> entries) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> entries.forEach(this::apply));
+        } catch (RuntimeException groupFailure) {
+            // Retry one by one so the entries before a bad event still commit
+            for (int i = 0; i < entries.size(); i++) {
+                WebhookInboxEntry entry = entries.get(i);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> apply(entry));
+                } catch (RuntimeException e) {
+                    if (!recordFailure(entry, e)) {
+                        // Going to be retried: the later entries for this order wait for it
+                        List<Long> later = entries.subList(i + 1, entries.size()).stream()
+                                .map(WebhookInboxEntry::getId).toList();
+                        if (!later.isEmpty()) {
+                            transactionTemplate.executeWithoutResult(status ->
+                                    inboxRepository.release(later, WebhookInboxStatus.PENDING));
+                        }
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private void apply(WebhookInboxEntry entry) {
+        if ("success".equals(entry.getEventStatus())) {
+            paymentService.markCardPaid(entry.getOrderId(), entry.getProviderRef(), entry.getAmountLkr());
+        } else {
+            paymentService.markFailed(entry.getOrderId(), "demo-failed");
+        }
+        entry.setState(WebhookInboxStatus.PROCESSED);
+        entry.setProcessedAt(Instant.now());
+        entry.setClaimToken(null);
+        entry.setLastError(null);
+        inboxRepository.save(entry);
+    }
+
+    // true if the entry is now dead-lettered as FAILED
+    private boolean recordFailure(WebhookInboxEntry entry, RuntimeException e) {
+        int attempts = entry.getAttempts() + 1;
+        WebhookInboxStatus next = attempts >= maxAttempts ? WebhookInboxStatus.FAILED : WebhookInboxStatus.PENDING;
+        String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        log.warn("Webhook {} for order {} failed (attempt {}): {}", entry.getId(), entry.getOrderId(), attempts, message);
+        transactionTemplate.executeWithoutResult(status -> inboxRepository.findById(entry.getId()).ifPresent(e2 -> {
+            e2.setAttempts(attempts);
+            e2.setState(next);
+            e2.setClaimToken(null);
+            e2.setLastError(message.length() > 1000 ? message.substring(0, 1000) : message);
+            inboxRepository.save(e2);
+        }));
+        return next == WebhookInboxStatus.FAILED;
+    }
+}
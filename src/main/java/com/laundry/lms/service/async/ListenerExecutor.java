@@ -0,0 +1,79 @@
+package com.laundry.lms.service.async;
+
+import com.laundry.lms.dto.ListenerExecutorStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded pool for event listeners and @Async work. When both the threads and
+ * the queue are full the submitting thread runs the task itself, which slows
+ * the producer down instead of dropping work or growing without limit.
+ */
+public class ListenerExecutor implements AsyncTaskExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(ListenerExecutor.class);
+
+    private final ThreadPoolExecutor pool;
+    private final ListenerMetrics metrics;
+    private final int queueCapacity;
+    private final LongAdder callerRuns = new LongAdder();
+
+    public ListenerExecutor(int coreThreads, int maxThreads, int queueCapacity, long keepAliveSeconds,
+            ListenerMetrics metrics) {
+        this.metrics = metrics;
+        this.queueCapacity = queueCapacity;
+        AtomicInteger counter = new AtomicInteger();
+        RejectedExecutionHandler callerRunsPolicy = (task, executor) -> {
+            if (executor.isShutdown()) {
+                log.warn("Listener executor is shut down; dropping task");
+                return;
+            }
+            callerRuns.increment();
+            task.run();
+        };
+        this.pool = new ThreadPoolExecutor(coreThreads, Math.max(coreThreads, maxThreads),
+                keepAliveSeconds, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                r -> new Thread(r, "listener-" + counter.incrementAndGet()), callerRunsPolicy);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        pool.execute(task);
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        return pool.submit(task);
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        return pool.submit(task);
+    }
+
+    public ListenerExecutorStats stats() {
+        return new ListenerExecutorStats(
+                pool.getPoolSize(),
+                pool.getActiveCount(),
+                pool.getMaximumPoolSize(),
+                pool.getQueue().size(),
+                queueCapacity,
+                pool.getCompletedTaskCount(),
+                callerRuns.sum(),
+                metrics.snapshot());
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
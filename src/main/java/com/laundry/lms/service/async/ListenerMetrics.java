@@ -0,0 +1,50 @@
+package com.laundry.lms.service.async;
+
+import com.laundry.lms.dto.ListenerExecutorStats.ListenerTiming;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-listener invocation counts and timings for the event observers.
+ */
+@Component
+public class ListenerMetrics {
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public void record(String listener, long nanos, boolean failed) {
+        Timer timer = timers.computeIfAbsent(listener, k -> new Timer());
+        timer.invocations.increment();
+        timer.totalNanos.add(nanos);
+        timer.maxNanos.accumulateAndGet(nanos, Math::max);
+        if (failed) {
+            timer.failures.increment();
+        }
+    }
+
+    public List<ListenerTiming> snapshot() {
+        return timers.entrySet().stream()
+                .map(e -> e.getValue().toTiming(e.getKey()))
+                .sorted(Comparator.comparing(ListenerTiming::listener))
+                .toList();
+    }
+
+    private static final class Timer {
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private ListenerTiming toTiming(String listener) {
+            long count = invocations.sum();
+            double avg = count == 0 ? 0 : totalNanos.sum() / 1e6 / count;
+            return new ListenerTiming(listener, count, failures.sum(), avg, maxNanos.get() / 1e6);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.laundry.lms.service.async;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ApplicationListenerMethodAdapter;
+import org.springframework.context.event.DefaultEventListenerFactory;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+
+/**
+ * Wraps @EventListener methods in service.observers so every invocation is
+ * timed in {@link ListenerMetrics}.
+ */
+@Component
+public class TimedEventListenerFactory extends DefaultEventListenerFactory {
+
+    private static final String OBSERVERS_PACKAGE = "com.laundry.lms.service.observers";
+
+    private final ListenerMetrics metrics;
+
+    public TimedEventListenerFactory(ListenerMetrics metrics) {
+        this.metrics = metrics;
+        // Ahead of the default factory, which would otherwise claim the method
+        setOrder(100);
+    }
+
+    @Override
+    public boolean supportsMethod(Method method) {
+        return method.getDeclaringClass().getPackageName().equals(OBSERVERS_PACKAGE);
+    }
+
+    @Override
+    public ApplicationListener<?> createApplicationListener(String beanName, Class<?> type, Method method) {
+        String name = type.getSimpleName() + "." + method.getName();
+        return new ApplicationListenerMethodAdapter(beanName, type, method) {
+            @Override
+            public void processEvent(ApplicationEvent event) {
+                long start = System.nanoTime();
+                boolean failed = true;
+                try {
+                    super.processEvent(event);
+                    failed = false;
+                } finally {
+                    metrics.record(name, System.nanoTime() - start, failed);
+                }
+            }
+        };
+    }
+}
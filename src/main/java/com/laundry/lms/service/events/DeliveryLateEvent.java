@@ -0,0 +1,6 @@
+package com.laundry.lms.service.events;
+
+import java.time.LocalDateTime;
+
+public record DeliveryLateEvent(Long deliveryId, Long orderId, LocalDateTime deliveryAt) {
+}
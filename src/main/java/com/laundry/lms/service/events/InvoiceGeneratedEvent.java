@@ -0,0 +1,4 @@
+package com.laundry.lms.service.events;
+
+public record InvoiceGeneratedEvent(Long invoiceId, Long orderId) {
+}
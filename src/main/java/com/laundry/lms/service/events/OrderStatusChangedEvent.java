@@ -0,0 +1,10 @@
+package com.laundry.lms.service.events;
+
+import com.laundry.lms.model.OrderStatus;
+
+/**
+ * actorId is the staff member who changed the status; null in events written
+ * before it was recorded.
+ */
+public record OrderStatusChangedEvent(Long orderId, OrderStatus from, OrderStatus to, Long actorId) {
+}
@@ -0,0 +1,127 @@
+package com.laundry.lms.service.location;
+
+import com.laundry.lms.model.DeliveryJob;
+import com.laundry.lms.model.DeliveryStatus;
+import com.laundry.lms.model.UserRole;
+import com.laundry.lms.repository.DeliveryJobRepository;
+import com.laundry.lms.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory spatial index of drivers and open delivery jobs for dispatch
+ * queries. Driver positions follow location pings; jobs are added, moved and
+ * dropped as DeliveryService changes them, and a periodic resync catches
+ * anything changed elsewhere. Only on-duty drivers with a recent ping are
+ * returned as available.
+ */
+@Service
+public class DispatchIndex {
+
+    private static final Set<DeliveryStatus> OPEN = EnumSet.of(
+            DeliveryStatus.SCHEDULED, DeliveryStatus.PICKED_UP, DeliveryStatus.IN_TRANSIT);
+
+    private final DeliveryJobRepository deliveryJobRepository;
+    private final UserRepository userRepository;
+    private final GridIndex<Long> drivers;
+    private final GridIndex<Long> jobs;
+    private final Map<Long, Long> lastSeen = new ConcurrentHashMap<>();
+    private final Map<Long, DeliveryStatus> jobStatus = new ConcurrentHashMap<>();
+    private final Set<Long> onDuty = ConcurrentHashMap.newKeySet();
+    private final long maxPingAgeMillis;
+
+    public DispatchIndex(DeliveryJobRepository deliveryJobRepository,
+            UserRepository userRepository,
+            DriverLocationService locationService,
+            @Value("${delivery.dispatch.cell-km:1}") double cellKm,
+            @Value("${delivery.location.max-ping-age-minutes:10}") long maxPingAgeMinutes) {
+        this.deliveryJobRepository = deliveryJobRepository;
+        this.userRepository = userRepository;
+        this.drivers = new GridIndex<>(cellKm);
+        this.jobs = new GridIndex<>(cellKm);
+        this.maxPingAgeMillis = Duration.ofMinutes(maxPingAgeMinutes).toMillis();
+        locationService.addListener((driverId, latitude, longitude, recordedAt) -> {
+            drivers.put(driverId, latitude, longitude);
+            lastSeen.put(driverId, recordedAt.toEpochMilli());
+        });
+    }
+
+    /**
+     * Load on-duty drivers and open jobs, then drop anything no longer open.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${delivery.dispatch.resync-ms:300000}",
+            initialDelayString = "${delivery.dispatch.resync-ms:300000}")
+    public void resync() {
+        Set<Long> duty = new HashSet<>(userRepository.findOnDutyIdsByRole(UserRole.DELIVERY_STAFF));
+        onDuty.addAll(duty);
+        onDuty.retainAll(duty);
+
+        Set<Long> seen = new HashSet<>();
+        for (Object[] row : deliveryJobRepository.findOpenJobLocations(OPEN)) {
+            Long id = (Long) row[0];
+            jobs.put(id, (Double) row[2], (Double) row[3]);
+            jobStatus.put(id, (DeliveryStatus) row[1]);
+            seen.add(id);
+        }
+        for (Long id : jobStatus.keySet()) {
+            if (!seen.contains(id)) {
+                untrackJob(id);
+            }
+        }
+    }
+
+    /**
+     * Add, move or drop a job after it was created or changed.
+     */
+    public void trackJob(DeliveryJob job) {
+        if (OPEN.contains(job.getStatus()) && job.getLatitude() != null && job.getLongitude() != null) {
+            jobs.put(job.getId(), job.getLatitude(), job.getLongitude());
+            jobStatus.put(job.getId(), job.getStatus());
+        } else {
+            untrackJob(job.getId());
+        }
+    }
+
+    public void untrackJob(Long deliveryId) {
+        jobs.remove(deliveryId);
+        jobStatus.remove(deliveryId);
+    }
+
+    public void setOnDuty(Long driverId, boolean available) {
+        if (available) {
+            onDuty.add(driverId);
+        } else {
+            onDuty.remove(driverId);
+        }
+    }
+
+    /**
+     * Up to k available drivers, nearest first.
+     */
+    public List<GridIndex.Hit<Long>> nearestDrivers(double latitude, double longitude, int k) {
+        long freshAfter = System.currentTimeMillis() - maxPingAgeMillis;
+        return drivers.nearest(latitude, longitude, k,
+                id -> onDuty.contains(id) && lastSeen.getOrDefault(id, 0L) >= freshAfter);
+    }
+
+    /**
+     * Open jobs within radiusKm, nearest first, optionally of one status only.
+     */
+    public List<GridIndex.Hit<Long>> jobsWithin(double latitude, double longitude, double radiusKm,
+            DeliveryStatus status) {
+        return jobs.within(latitude, longitude, radiusKm,
+                id -> status == null || jobStatus.get(id) == status);
+    }
+}
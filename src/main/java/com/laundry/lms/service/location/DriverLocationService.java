@@ -0,0 +1,216 @@
+package com.laundry.lms.service.location;
+
+import com.laundry.lms.dto.DriverPosition;
+import com.laundry.lms.model.DeliveryStatus;
+import com.laundry.lms.repository.DeliveryJobRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Ingests driver location pings. Each ping lands in the driver's in-memory
+ * ring, and latest position and recent trail are served from there. A
+ * scheduled flush downsamples what arrived since the last run and writes it
+ * to driver_locations with one JDBC batch, so the database sees a handful of
+ * rows per driver per minute however often the app pings.
+ */
+@Service
+public class DriverLocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(DriverLocationService.class);
+
+    private static final String INSERT = "INSERT INTO driver_locations (driver_id, recorded_at, lat_e6, lon_e6) "
+            + "VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DeliveryJobRepository deliveryJobRepository;
+    private final int ringSize;
+    private final long minIntervalMillis;
+    private final double minMeters;
+    private final int batchSize;
+    private final Duration maxPingAge;
+    private final Duration retention;
+    private final Map<Long, LocationRing> rings = new ConcurrentHashMap<>();
+    private final List<PingListener> listeners = new CopyOnWriteArrayList<>();
+    // Rows from a failed flush, retried on the next run
+    private final List<Object[]> carryOver = new ArrayList<>();
+
+    public DriverLocationService(JdbcTemplate jdbcTemplate,
+            DeliveryJobRepository deliveryJobRepository,
+            @Value("${delivery.location.ring-size:720}") int ringSize,
+            @Value("${delivery.location.min-interval-seconds:30}") long minIntervalSeconds,
+            @Value("${delivery.location.min-distance-meters:50}") double minMeters,
+            @Value("${delivery.location.batch-size:500}") int batchSize,
+            @Value("${delivery.location.max-ping-age-minutes:10}") long maxPingAgeMinutes,
+            @Value("${delivery.location.retention-days:30}") long retentionDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.deliveryJobRepository = deliveryJobRepository;
+        this.ringSize = ringSize;
+        this.minIntervalMillis = minIntervalSeconds * 1000;
+        this.minMeters = minMeters;
+        this.batchSize = batchSize;
+        this.maxPingAge = Duration.ofMinutes(maxPingAgeMinutes);
+        this.retention = Duration.ofDays(retentionDays);
+    }
+
+    /**
+     * Callback for every accepted ping, run on the request thread, so it must be cheap.
+     */
+    @FunctionalInterface
+    public interface PingListener {
+        void onPing(Long driverId, double latitude, double longitude, Instant recordedAt);
+    }
+
+    public void addListener(PingListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Record a ping for a driver. A missing timestamp means now; timestamps
+     * ahead of the server clock are clamped to now.
+     *
+     * @return false if the ping was older than the driver's latest and was dropped
+     */
+    public boolean record(Long driverId, double latitude, double longitude, Instant recordedAt) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Coordinates out of range");
+        }
+        Instant now = Instant.now();
+        Instant at = recordedAt == null || recordedAt.isAfter(now) ? now : recordedAt;
+        if (at.isBefore(now.minus(maxPingAge))) {
+            throw new IllegalArgumentException("Ping is too old");
+        }
+        LocationRing ring = rings.computeIfAbsent(driverId, id -> new LocationRing(ringSize));
+        if (!ring.add(at.toEpochMilli(), toE6(latitude), toE6(longitude))) {
+            return false;
+        }
+        for (PingListener listener : listeners) {
+            listener.onPing(driverId, latitude, longitude, at);
+        }
+        return true;
+    }
+
+    /**
+     * Latest known position of one driver, if any.
+     */
+    public DriverPosition latest(Long driverId) {
+        LocationRing ring = rings.get(driverId);
+        LocationRing.Fix fix = ring != null ? ring.latest() : null;
+        return fix != null ? toPosition(driverId, fix) : null;
+    }
+
+    /**
+     * Latest position of the driver working an active delivery job for the
+     * order, or null if no driver is on it or they have not reported recently.
+     */
+    public DriverPosition latestForOrder(Long orderId) {
+        List<Long> driverIds = deliveryJobRepository.findActiveDriverIds(orderId,
+                EnumSet.of(DeliveryStatus.SCHEDULED, DeliveryStatus.PICKED_UP, DeliveryStatus.IN_TRANSIT));
+        Instant freshAfter = Instant.now().minus(maxPingAge);
+        for (Long driverId : driverIds) {
+            DriverPosition position = driverId != null ? latest(driverId) : null;
+            if (position != null && position.recordedAt().isAfter(freshAfter)) {
+                return position;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Latest known position of every driver that has pinged, most recent first.
+     */
+    public List<DriverPosition> latestAll() {
+        List<DriverPosition> positions = new ArrayList<>(rings.size());
+        rings.forEach((driverId, ring) -> {
+            LocationRing.Fix fix = ring.latest();
+            if (fix != null) {
+                positions.add(toPosition(driverId, fix));
+            }
+        });
+        positions.sort(Comparator.comparing(DriverPosition::recordedAt).reversed());
+        return positions;
+    }
+
+    /**
+     * Positions from the last given minutes, oldest first, as far back as the ring holds.
+     */
+    public List<DriverPosition> trail(Long driverId, int minutes) {
+        LocationRing ring = rings.get(driverId);
+        if (ring == null) {
+            return List.of();
+        }
+        long since = Instant.now().minus(Duration.ofMinutes(minutes)).toEpochMilli();
+        List<LocationRing.Fix> fixes = ring.since(since);
+        List<DriverPosition> trail = new ArrayList<>(fixes.size());
+        for (LocationRing.Fix fix : fixes) {
+            trail.add(toPosition(driverId, fix));
+        }
+        return trail;
+    }
+
+    /**
+     * Downsample new fixes from every ring and persist them in batches.
+     */
+    @Scheduled(fixedDelayString = "${delivery.location.flush-ms:10000}")
+    public synchronized void flush() {
+        List<Object[]> rows = new ArrayList<>(carryOver);
+        carryOver.clear();
+        rings.forEach((driverId, ring) -> {
+            for (LocationRing.Fix fix : ring.drain(minIntervalMillis, minMeters)) {
+                rows.add(new Object[] { driverId, new Timestamp(fix.epochMillis()), fix.latE6(), fix.lonE6() });
+            }
+        });
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            List<Object[]> batch = rows.subList(from, Math.min(from + batchSize, rows.size()));
+            try {
+                jdbcTemplate.batchUpdate(INSERT, batch);
+            } catch (RuntimeException e) {
+                log.warn("Location flush failed, keeping {} row(s) for the next run: {}",
+                        rows.size() - from, e.getMessage());
+                // Bounded so a long outage cannot grow the heap without limit
+                List<Object[]> rest = rows.subList(from, rows.size());
+                int keep = Math.min(rest.size(), batchSize * 20);
+                carryOver.addAll(rest.subList(rest.size() - keep, rest.size()));
+                return;
+            }
+        }
+    }
+
+    /**
+     * Remove persisted locations past the retention window.
+     */
+    @Scheduled(cron = "${delivery.location.purge-cron:0 30 4 * * *}")
+    public void purge() {
+        Timestamp before = Timestamp.from(Instant.now().minus(retention));
+        int removed = jdbcTemplate.update("DELETE FROM driver_locations WHERE recorded_at < ?", before);
+        log.info("Purged {} driver location row(s)", removed);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private static int toE6(double degrees) {
+        return (int) Math.round(degrees * 1e6);
+    }
+
+    private static DriverPosition toPosition(Long driverId, LocationRing.Fix fix) {
+        return new DriverPosition(driverId, fix.latitude(), fix.longitude(), Instant.ofEpochMilli(fix.epochMillis()));
+    }
+}
@@ -0,0 +1,247 @@
+package com.laundry.lms.service.location;
+
+import com.laundry.lms.service.routing.RoutePlanner;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Uniform latitude/longitude grid of moving points. Each point lives in the
+ * bucket of the cell it falls in, so an update is a hash lookup plus at most a
+ * move between two buckets. Queries only visit cells near the query point:
+ * nearest-k searches outward ring by ring and stops once no unvisited cell can
+ * hold anything closer, and radius queries visit the cells the circle's
+ * bounding box covers. Reads share a lock; updates take it exclusively.
+ */
+public final class GridIndex<K> {
+
+    /**
+     * A query result with its great-circle distance from the query point.
+     */
+    public record Hit<K>(K id, double latitude, double longitude, double distanceKm) {}
+
+    private static final double KM_PER_DEGREE = 111.0;
+    private static final Comparator<Hit<?>> BY_DISTANCE = Comparator.comparingDouble(Hit::distanceKm);
+
+    private static final class Entry<K> {
+        private final K id;
+        private double latitude;
+        private double longitude;
+        private long cell;
+
+        private Entry(K id) {
+            this.id = id;
+        }
+    }
+
+    private final double cellDegrees;
+    private final Map<K, Entry<K>> entries = new HashMap<>();
+    private final Map<Long, List<Entry<K>>> cells = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Bounds of occupied cells, so an empty neighbourhood does not search forever
+    private int minRow = Integer.MAX_VALUE;
+    private int maxRow = Integer.MIN_VALUE;
+    private int minCol = Integer.MAX_VALUE;
+    private int maxCol = Integer.MIN_VALUE;
+
+    /**
+     * @param cellKm approximate cell edge; about the typical query radius works best
+     */
+    public GridIndex(double cellKm) {
+        if (cellKm <= 0) {
+            throw new IllegalArgumentException("cellKm must be positive");
+        }
+        this.cellDegrees = cellKm / KM_PER_DEGREE;
+    }
+
+    /**
+     * Insert a point or move it to a new position.
+     */
+    public void put(K id, double latitude, double longitude) {
+        int row = row(latitude);
+        int col = col(longitude);
+        long cell = cellKey(row, col);
+        lock.writeLock().lock();
+        try {
+            Entry<K> entry = entries.get(id);
+            if (entry == null) {
+                entry = new Entry<>(id);
+                entries.put(id, entry);
+                cells.computeIfAbsent(cell, c -> new ArrayList<>()).add(entry);
+            } else if (entry.cell != cell) {
+                unlink(entry);
+                cells.computeIfAbsent(cell, c -> new ArrayList<>()).add(entry);
+            }
+            entry.latitude = latitude;
+            entry.longitude = longitude;
+            entry.cell = cell;
+            minRow = Math.min(minRow, row);
+            maxRow = Math.max(maxRow, row);
+            minCol = Math.min(minCol, col);
+            maxCol = Math.max(maxCol, col);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(K id) {
+        lock.writeLock().lock();
+        try {
+            Entry<K> entry = entries.remove(id);
+            if (entry != null) {
+                unlink(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            cells.clear();
+            minRow = minCol = Integer.MAX_VALUE;
+            maxRow = maxCol = Integer.MIN_VALUE;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to k points accepted by the filter, nearest first.
+     */
+    public List<Hit<K>> nearest(double latitude, double longitude, int k, Predicate<? super K> filter) {
+        if (k <= 0) {
+            return List.of();
+        }
+        int row = row(latitude);
+        int col = col(longitude);
+        // Max-heap of the best k so far
+        PriorityQueue<Hit<K>> best = new PriorityQueue<>(k + 1, BY_DISTANCE.reversed());
+        lock.readLock().lock();
+        try {
+            if (entries.isEmpty()) {
+                return List.of();
+            }
+            int maxRing = Math.max(Math.max(row - minRow, maxRow - row), Math.max(col - minCol, maxCol - col));
+            for (int ring = 0; ring <= maxRing; ring++) {
+                for (int r = row - ring; r <= row + ring; r++) {
+                    boolean edgeRow = r == row - ring || r == row + ring;
+                    for (int c = col - ring; c <= col + ring; c += edgeRow ? 1 : 2 * ring) {
+                        scan(cells.get(cellKey(r, c)), latitude, longitude, filter, best, k);
+                    }
+                }
+                // Anything outside this ring is at least ring cell widths away
+                if (best.size() == k && best.peek().distanceKm() <= ring * minCellWidthKm(latitude, ring + 1)) {
+                    break;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Hit<K>> hits = new ArrayList<>(best);
+        hits.sort(BY_DISTANCE);
+        return hits;
+    }
+
+    /**
+     * Points accepted by the filter within radiusKm, nearest first.
+     */
+    public List<Hit<K>> within(double latitude, double longitude, double radiusKm, Predicate<? super K> filter) {
+        int row = row(latitude);
+        int col = col(longitude);
+        double cellKm = cellDegrees * KM_PER_DEGREE;
+        int rows = (int) Math.ceil(radiusKm / cellKm);
+        int cols = (int) Math.ceil(radiusKm / minCellWidthKm(latitude, rows + 1));
+        List<Hit<K>> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (int r = Math.max(row - rows, minRow); r <= Math.min(row + rows, maxRow); r++) {
+                for (int c = Math.max(col - cols, minCol); c <= Math.min(col + cols, maxCol); c++) {
+                    List<Entry<K>> bucket = cells.get(cellKey(r, c));
+                    if (bucket == null) {
+                        continue;
+                    }
+                    for (Entry<K> entry : bucket) {
+                        if (!filter.test(entry.id)) {
+                            continue;
+                        }
+                        double km = RoutePlanner.haversineKm(latitude, longitude, entry.latitude, entry.longitude);
+                        if (km <= radiusKm) {
+                            hits.add(new Hit<>(entry.id, entry.latitude, entry.longitude, km));
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        hits.sort(BY_DISTANCE);
+        return hits;
+    }
+
+    private void scan(List<Entry<K>> bucket, double latitude, double longitude, Predicate<? super K> filter,
+            PriorityQueue<Hit<K>> best, int k) {
+        if (bucket == null) {
+            return;
+        }
+        for (Entry<K> entry : bucket) {
+            if (!filter.test(entry.id)) {
+                continue;
+            }
+            double km = RoutePlanner.haversineKm(latitude, longitude, entry.latitude, entry.longitude);
+            if (best.size() < k) {
+                best.add(new Hit<>(entry.id, entry.latitude, entry.longitude, km));
+            } else if (km < best.peek().distanceKm()) {
+                best.poll();
+                best.add(new Hit<>(entry.id, entry.latitude, entry.longitude, km));
+            }
+        }
+    }
+
+    private void unlink(Entry<K> entry) {
+        List<Entry<K>> bucket = cells.get(entry.cell);
+        int index = bucket.indexOf(entry);
+        // Swap-remove; order within a cell does not matter
+        bucket.set(index, bucket.get(bucket.size() - 1));
+        bucket.remove(bucket.size() - 1);
+        if (bucket.isEmpty()) {
+            cells.remove(entry.cell);
+        }
+    }
+
+    // East-west cell width shrinks away from the equator; take the narrowest within reach
+    private double minCellWidthKm(double latitude, int rings) {
+        double farthest = Math.min(89.0, Math.abs(latitude) + rings * cellDegrees);
+        return cellDegrees * KM_PER_DEGREE * Math.cos(Math.toRadians(farthest));
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor(latitude / cellDegrees);
+    }
+
+    private int col(double longitude) {
+        return (int) Math.floor(longitude / cellDegrees);
+    }
+
+    private static long cellKey(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+}
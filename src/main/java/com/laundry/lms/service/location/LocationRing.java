@@ -0,0 +1,128 @@
+package com.laundry.lms.service.location;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Fixed-size ring of recent positions for one driver. Fixes are kept in
+ * parallel primitive arrays (epoch millis and microdegrees), so a ping is a
+ * few array stores with no allocation. Once full, the oldest fix is
+ * overwritten. The ring also remembers how far it has been flushed and the
+ * last fix that was persisted, which drives downsampling.
+ */
+final class LocationRing {
+
+    /**
+     * One position; coordinates in microdegrees.
+     */
+    record Fix(long epochMillis, int latE6, int lonE6) {
+
+        double latitude() {
+            return latE6 / 1e6;
+        }
+
+        double longitude() {
+            return lonE6 / 1e6;
+        }
+    }
+
+    private final long[] times;
+    private final int[] lats;
+    private final int[] lons;
+    // Total fixes ever written; slot of fix n is n % capacity
+    private long written;
+    private long flushed;
+    private long lastPersistedMillis = Long.MIN_VALUE;
+    private int lastPersistedLat;
+    private int lastPersistedLon;
+
+    LocationRing(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.times = new long[capacity];
+        this.lats = new int[capacity];
+        this.lons = new int[capacity];
+    }
+
+    /**
+     * Append a fix. Fixes older than the newest one already held are ignored
+     * so the ring stays in time order.
+     *
+     * @return false if the fix was out of order
+     */
+    synchronized boolean add(long epochMillis, int latE6, int lonE6) {
+        if (written > 0 && epochMillis < times[slot(written - 1)]) {
+            return false;
+        }
+        int slot = slot(written);
+        times[slot] = epochMillis;
+        lats[slot] = latE6;
+        lons[slot] = lonE6;
+        written++;
+        return true;
+    }
+
+    synchronized Fix latest() {
+        if (written == 0) {
+            return null;
+        }
+        int slot = slot(written - 1);
+        return new Fix(times[slot], lats[slot], lons[slot]);
+    }
+
+    /**
+     * Fixes recorded at or after the given time, oldest first.
+     */
+    synchronized List<Fix> since(long epochMillis) {
+        long first = Math.max(0, written - times.length);
+        List<Fix> fixes = new ArrayList<>();
+        for (long n = written - 1; n >= first; n--) {
+            int slot = slot(n);
+            if (times[slot] < epochMillis) {
+                break;
+            }
+            fixes.add(new Fix(times[slot], lats[slot], lons[slot]));
+        }
+        Collections.reverse(fixes);
+        return fixes;
+    }
+
+    /**
+     * Take the fixes written since the last drain, keeping only those at
+     * least minIntervalMillis after, or minMeters away from, the previous
+     * kept fix. Fixes overwritten before they could be drained are skipped.
+     */
+    synchronized List<Fix> drain(long minIntervalMillis, double minMeters) {
+        long first = Math.max(flushed, written - times.length);
+        List<Fix> kept = new ArrayList<>();
+        for (long n = first; n < written; n++) {
+            int slot = slot(n);
+            long time = times[slot];
+            boolean keep = lastPersistedMillis == Long.MIN_VALUE
+                    || time - lastPersistedMillis >= minIntervalMillis
+                    || meters(lastPersistedLat, lastPersistedLon, lats[slot], lons[slot]) >= minMeters;
+            if (keep) {
+                kept.add(new Fix(time, lats[slot], lons[slot]));
+                lastPersistedMillis = time;
+                lastPersistedLat = lats[slot];
+                lastPersistedLon = lons[slot];
+            }
+        }
+        flushed = written;
+        return kept;
+    }
+
+    private int slot(long n) {
+        return (int) (n % times.length);
+    }
+
+    // Equirectangular approximation; plenty for the few metres downsampling cares about
+    private static double meters(int lat1, int lon1, int lat2, int lon2) {
+        double meanLat = Math.toRadians((lat1 + lat2) / 2e6);
+        double dx = Math.toRadians((lon2 - lon1) / 1e6) * Math.cos(meanLat);
+        double dy = Math.toRadians((lat2 - lat1) / 1e6);
+        return Math.sqrt(dx * dx + dy * dy) * 6_371_000;
+    }
+}
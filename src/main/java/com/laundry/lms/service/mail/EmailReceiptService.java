@@ -0,0 +1,230 @@
+package com.laundry.lms.service.mail;
+
+import com.laundry.lms.model.EmailDeliveryStatus;
+import com.laundry.lms.model.EmailReceipt;
+import com.laundry.lms.model.LaundryOrder;
+import com.laundry.lms.repository.EmailReceiptRepository;
+import com.laundry.lms.repository.LaundryOrderRepository;
+import com.laundry.lms.service.mail.ReceiptTemplates.RenderedMail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Payment receipt emails. Receipts are rendered and queued in email_receipts
+ * when a payment completes; a scheduled dispatcher sends due receipts in
+ * batches over a pooled SMTP session, retrying transient failures with
+ * exponential backoff. Payment confirmation never waits on the mail server.
+ */
+@Service
+public class EmailReceiptService {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailReceiptService.class);
+    private static final DateTimeFormatter DATE_HEADER = DateTimeFormatter.RFC_1123_DATE_TIME;
+    private static final DateTimeFormatter PAID_AT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final EmailReceiptRepository receiptRepository;
+    private final LaundryOrderRepository orderRepository;
+    private final ReceiptTemplates templates;
+    private final SmtpConnectionPool smtpPool;
+    private final TransactionTemplate transactionTemplate;
+    private final String from;
+    private final Locale defaultLocale;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration backoff;
+    private final Duration maxBackoff;
+    private final Duration claimTimeout;
+
+    public EmailReceiptService(EmailReceiptRepository receiptRepository,
+            LaundryOrderRepository orderRepository,
+            ReceiptTemplates templates,
+            SmtpConnectionPool smtpPool,
+            PlatformTransactionManager transactionManager,
+            @Value("${mail.from:receipts@smartfold.lk}") String from,
+            @Value("${mail.receipt.default-locale:en}") String defaultLocale,
+            @Value("${mail.receipt.batch-size:50}") int batchSize,
+            @Value("${mail.receipt.max-attempts:6}") int maxAttempts,
+            @Value("${mail.receipt.backoff-seconds:30}") long backoffSeconds,
+            @Value("${mail.receipt.max-backoff-seconds:3600}") long maxBackoffSeconds) {
+        this.receiptRepository = receiptRepository;
+        this.orderRepository = orderRepository;
+        this.templates = templates;
+        this.smtpPool = smtpPool;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.from = from;
+        this.defaultLocale = Locale.forLanguageTag(defaultLocale);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.backoff = Duration.ofSeconds(backoffSeconds);
+        this.maxBackoff = Duration.ofSeconds(maxBackoffSeconds);
+        this.claimTimeout = Duration.ofMinutes(10);
+    }
+
+    /**
+     * Render and queue the receipt for a completed payment. Repeated calls for
+     * the same payment are ignored.
+     */
+    @Transactional
+    public void enqueue(Long paymentId, Long orderId, BigDecimal amount) {
+        if (receiptRepository.existsByPaymentId(paymentId)) {
+            return;
+        }
+        LaundryOrder order = orderRepository.findById(orderId).orElse(null);
+        if (order == null || order.getCustomer() == null || order.getCustomer().getEmail() == null) {
+            log.warn("No recipient for receipt of payment {} (order {})", paymentId, orderId);
+            return;
+        }
+        Instant paidAt = order.getPaidAt() != null ? order.getPaidAt() : Instant.now();
+        RenderedMail mail = templates.render(defaultLocale, Map.of(
+                "customerName", order.getCustomer().getName(),
+                "orderId", orderId.toString(),
+                "serviceType", order.getServiceType(),
+                "amount", (amount != null ? amount : order.getPrice()).setScale(2, RoundingMode.HALF_UP).toPlainString(),
+                "paidAt", PAID_AT.format(paidAt.atZone(zone)),
+                "paymentId", paymentId.toString()));
+
+        EmailReceipt receipt = new EmailReceipt();
+        receipt.setPaymentId(paymentId);
+        receipt.setOrderId(orderId);
+        receipt.setRecipient(order.getCustomer().getEmail());
+        receipt.setLocale(defaultLocale.toLanguageTag());
+        receipt.setSubject(mail.subject());
+        receipt.setBody(mail.body());
+        receiptRepository.save(receipt);
+    }
+
+    /**
+     * Send every due receipt, one batch per SMTP session.
+     */
+    @Scheduled(fixedDelayString = "${mail.receipt.poll-ms:1000}")
+    public void dispatch() {
+        List<EmailReceipt> batch;
+        while (!(batch = claimBatch()).isEmpty()) {
+            send(batch);
+            if (batch.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private List<EmailReceipt> claimBatch() {
+        Instant now = Instant.now();
+        return transactionTemplate.execute(status -> {
+            List<EmailReceipt> due = receiptRepository.lockDue(EmailDeliveryStatus.PENDING, EmailDeliveryStatus.SENDING,
+                    now, now.minus(claimTimeout), PageRequest.of(0, batchSize));
+            for (EmailReceipt receipt : due) {
+                receipt.setStatus(EmailDeliveryStatus.SENDING);
+                receipt.setClaimedAt(now);
+            }
+            return due;
+        });
+    }
+
+    private void send(List<EmailReceipt> batch) {
+        List<Long> sent = new ArrayList<>(batch.size());
+        SmtpConnection connection = null;
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                EmailReceipt receipt = batch.get(i);
+                if (connection == null) {
+                    try {
+                        connection = smtpPool.borrow();
+                    } catch (IOException e) {
+                        // No session at all (server down, or refusing us even with a 5xx greeting):
+                        // nothing was tried, so the rest of the batch is retried with backoff
+                        String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                        for (EmailReceipt unsent : batch.subList(i, batch.size())) {
+                            recordFailure(unsent, message, false);
+                        }
+                        break;
+                    }
+                }
+                try {
+                    connection.send(from, receipt.getRecipient(), compose(receipt));
+                    sent.add(receipt.getId());
+                } catch (SmtpException e) {
+                    // Rejected by the server; the session itself is still usable
+                    recordFailure(receipt, e.getMessage(), e.isPermanent());
+                    try {
+                        connection.reset();
+                    } catch (IOException resetFailed) {
+                        smtpPool.release(connection, true);
+                        connection = null;
+                    }
+                } catch (IOException e) {
+                    recordFailure(receipt, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName(), false);
+                    smtpPool.release(connection, true);
+                    connection = null;
+                }
+            }
+        } finally {
+            if (connection != null) {
+                smtpPool.release(connection, false);
+            }
+            if (!sent.isEmpty()) {
+                Instant now = Instant.now();
+                transactionTemplate.executeWithoutResult(status ->
+                        receiptRepository.markSent(sent, EmailDeliveryStatus.SENT, now));
+            }
+        }
+    }
+
+    private void recordFailure(EmailReceipt receipt, String message, boolean permanent) {
+        int attempts = receipt.getAttempts() + 1;
+        boolean giveUp = permanent || attempts >= maxAttempts;
+        Duration delay = backoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        Instant next = Instant.now().plus(delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay);
+        log.warn("Receipt {} to {} failed (attempt {}){}: {}", receipt.getId(), receipt.getRecipient(), attempts,
+                giveUp ? ", giving up" : "", message);
+        transactionTemplate.executeWithoutResult(status -> receiptRepository.findById(receipt.getId()).ifPresent(r -> {
+            r.setAttempts(attempts);
+            r.setStatus(giveUp ? EmailDeliveryStatus.FAILED : EmailDeliveryStatus.PENDING);
+            r.setNextAttemptAt(next);
+            r.setLastError(message != null && message.length() > 1000 ? message.substring(0, 1000) : message);
+        }));
+    }
+
+    private String compose(EmailReceipt receipt) {
+        return "From: " + from + "\r\n"
+                + "To: " + receipt.getRecipient() + "\r\n"
+                + "Subject: " + encodeHeader(receipt.getSubject()) + "\r\n"
+                + "Date: " + DATE_HEADER.format(ZonedDateTime.now(zone)) + "\r\n"
+                + "Message-ID: <receipt-" + receipt.getPaymentId() + "@" + from.substring(from.indexOf('@') + 1) + ">\r\n"
+                + "MIME-Version: 1.0\r\n"
+                + "Content-Type: text/plain; charset=UTF-8\r\n"
+                + "Content-Transfer-Encoding: 8bit\r\n"
+                + "\r\n"
+                + receipt.getBody();
+    }
+
+    // RFC 2047 encoded-word for non-ASCII subjects
+    private static String encodeHeader(String value) {
+        if (StandardCharsets.US_ASCII.newEncoder().canEncode(value)) {
+            return value;
+        }
+        return "=?UTF-8?B?" + Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8)) + "?=";
+    }
+}
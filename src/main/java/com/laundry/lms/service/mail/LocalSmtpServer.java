@@ -0,0 +1,167 @@
+package com.laundry.lms.service.mail;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Minimal in-process SMTP server for development and tests. It accepts every
+ * message, keeps the most recent ones in memory and logs them; nothing is
+ * relayed.
+ */
+@Component
+@ConditionalOnProperty(name = "mail.smtp.local-server.enabled", havingValue = "true")
+public class LocalSmtpServer {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalSmtpServer.class);
+    private static final int RETAINED = 100;
+
+    public record ReceivedMail(String from, List<String> recipients, String data) {}
+
+    private final int requestedPort;
+    private final Deque<ReceivedMail> received = new ArrayDeque<>();
+    private ServerSocket serverSocket;
+    private ExecutorService sessions;
+
+    public LocalSmtpServer(@Value("${mail.smtp.port:2525}") int port) {
+        this.requestedPort = port;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        serverSocket = new ServerSocket(requestedPort, 50, InetAddress.getLoopbackAddress());
+        sessions = Executors.newFixedThreadPool(4, r -> new Thread(r, "local-smtp"));
+        Thread acceptor = new Thread(this::acceptLoop, "local-smtp-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        log.info("Local SMTP server listening on port {}", getPort());
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        serverSocket.close();
+        sessions.shutdownNow();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public synchronized List<ReceivedMail> received() {
+        return new ArrayList<>(received);
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                sessions.submit(() -> serve(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    log.warn("Local SMTP accept failed: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            reply(out, "220 localhost LMS SMTP stand-in");
+            String from = null;
+            List<String> recipients = new ArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                String verb = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                switch (verb) {
+                    case "EHLO", "HELO" -> reply(out, "250 localhost");
+                    case "MAIL" -> {
+                        from = address(line);
+                        recipients.clear();
+                        reply(out, "250 OK");
+                    }
+                    case "RCPT" -> {
+                        recipients.add(address(line));
+                        reply(out, "250 OK");
+                    }
+                    case "DATA" -> {
+                        if (from == null || recipients.isEmpty()) {
+                            reply(out, "503 Need MAIL and RCPT first");
+                            continue;
+                        }
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        String data = readData(in);
+                        store(new ReceivedMail(from, List.copyOf(recipients), data));
+                        from = null;
+                        recipients.clear();
+                        reply(out, "250 OK queued");
+                    }
+                    case "RSET" -> {
+                        from = null;
+                        recipients.clear();
+                        reply(out, "250 OK");
+                    }
+                    case "NOOP" -> reply(out, "250 OK");
+                    case "QUIT" -> {
+                        reply(out, "221 Bye");
+                        return;
+                    }
+                    default -> reply(out, "502 Command not implemented");
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Local SMTP session ended: {}", e.getMessage());
+        }
+    }
+
+    private static String readData(BufferedReader in) throws IOException {
+        StringBuilder data = new StringBuilder();
+        String line;
+        while ((line = in.readLine()) != null && !line.equals(".")) {
+            data.append(line.startsWith(".") ? line.substring(1) : line).append("\r\n");
+        }
+        return data.toString();
+    }
+
+    private static String address(String line) {
+        int start = line.indexOf('<');
+        int end = line.indexOf('>', start + 1);
+        return start >= 0 && end > start ? line.substring(start + 1, end) : line.substring(line.indexOf(':') + 1).trim();
+    }
+
+    private synchronized void store(ReceivedMail mail) {
+        if (received.size() == RETAINED) {
+            received.removeFirst();
+        }
+        received.addLast(mail);
+        log.info("Local SMTP accepted mail from {} to {}", mail.from(), mail.recipients());
+    }
+
+    private static void reply(Writer out, String line) throws IOException {
+        out.write(line);
+        out.write("\r\n");
+        out.flush();
+    }
+}
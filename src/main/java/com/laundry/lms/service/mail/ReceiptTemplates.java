@@ -0,0 +1,87 @@
+package com.laundry.lms.service.mail;
+
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Receipt email templates from classpath:mail/receipt_{language}.txt. Each
+ * locale's template is parsed once and cached; rendering only concatenates.
+ * The first line is "Subject: ..." and the body follows a blank line.
+ */
+@Component
+public class ReceiptTemplates {
+
+    private static final String FALLBACK_LANGUAGE = "en";
+
+    private final Map<String, Compiled> cache = new ConcurrentHashMap<>();
+
+    public record RenderedMail(String subject, String body) {}
+
+    public RenderedMail render(Locale locale, Map<String, String> values) {
+        Compiled template = cache.computeIfAbsent(locale.getLanguage(), ReceiptTemplates::load);
+        return new RenderedMail(template.subject().fill(values), template.body().fill(values));
+    }
+
+    private static Compiled load(String language) {
+        String source = read("mail/receipt_" + language + ".txt");
+        if (source == null) {
+            source = read("mail/receipt_" + FALLBACK_LANGUAGE + ".txt");
+        }
+        if (source == null || !source.startsWith("Subject:")) {
+            throw new IllegalStateException("Missing receipt template for " + language);
+        }
+        int end = source.indexOf('\n');
+        String subject = source.substring("Subject:".length(), end).trim();
+        String body = source.substring(end + 1).stripLeading();
+        return new Compiled(Parts.parse(subject), Parts.parse(body));
+    }
+
+    private static String read(String path) {
+        try (InputStream in = ReceiptTemplates.class.getClassLoader().getResourceAsStream(path)) {
+            return in == null ? null : new String(in.readAllBytes(), StandardCharsets.UTF_8).replace("\r\n", "\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Compiled(Parts subject, Parts body) {}
+
+    // Literal text interleaved with ${name} placeholders: literals.size() == names.size() + 1
+    private record Parts(List<String> literals, List<String> names) {
+
+        static Parts parse(String text) {
+            List<String> literals = new ArrayList<>();
+            List<String> names = new ArrayList<>();
+            int pos = 0;
+            int start;
+            while ((start = text.indexOf("${", pos)) >= 0) {
+                int end = text.indexOf('}', start);
+                if (end < 0) {
+                    break;
+                }
+                literals.add(text.substring(pos, start));
+                names.add(text.substring(start + 2, end));
+                pos = end + 1;
+            }
+            literals.add(text.substring(pos));
+            return new Parts(List.copyOf(literals), List.copyOf(names));
+        }
+
+        String fill(Map<String, String> values) {
+            StringBuilder out = new StringBuilder(256);
+            for (int i = 0; i < names.size(); i++) {
+                out.append(literals.get(i)).append(values.getOrDefault(names.get(i), ""));
+            }
+            return out.append(literals.get(names.size())).toString();
+        }
+    }
+}
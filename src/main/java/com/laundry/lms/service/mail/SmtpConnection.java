@@ -0,0 +1,122 @@
+package com.laundry.lms.service.mail;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A plain SMTP session that can carry many messages (RSET between them).
+ */
+public class SmtpConnection implements Closeable {
+
+    private final Socket socket;
+    private final BufferedReader in;
+    private final Writer out;
+    private long lastUsed;
+
+    private SmtpConnection(Socket socket) throws IOException {
+        this.socket = socket;
+        this.in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        this.out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+        this.lastUsed = System.nanoTime();
+    }
+
+    public static SmtpConnection open(String host, int port, String heloName, int timeoutMs) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(host, port), timeoutMs);
+            socket.setSoTimeout(timeoutMs);
+            SmtpConnection connection = new SmtpConnection(socket);
+            connection.expect(220);
+            connection.command("EHLO " + heloName, 250);
+            return connection;
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Send one message. data is the full message (headers, blank line, body).
+     */
+    public void send(String from, String to, String data) throws IOException {
+        command("MAIL FROM:<" + from + ">", 250);
+        command("RCPT TO:<" + to + ">", 250);
+        command("DATA", 354);
+        for (String line : data.split("\r?\n", -1)) {
+            // Dot-stuffing so a line with a single "." does not end the message
+            out.write(line.startsWith(".") ? "." + line : line);
+            out.write("\r\n");
+        }
+        out.write(".\r\n");
+        out.flush();
+        expect(250);
+        lastUsed = System.nanoTime();
+    }
+
+    public void reset() throws IOException {
+        command("RSET", 250);
+    }
+
+    public boolean isAlive() {
+        try {
+            command("NOOP", 250);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public long idleNanos() {
+        return System.nanoTime() - lastUsed;
+    }
+
+    @Override
+    public void close() {
+        try {
+            out.write("QUIT\r\n");
+            out.flush();
+        } catch (IOException ignored) {
+            // Closing anyway
+        }
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // Nothing left to release
+        }
+    }
+
+    private void command(String line, int expected) throws IOException {
+        out.write(line);
+        out.write("\r\n");
+        out.flush();
+        expect(expected);
+    }
+
+    // Reads a possibly multi-line reply ("250-..." continuation lines, "250 ..." last line)
+    private void expect(int expected) throws IOException {
+        String line;
+        do {
+            line = in.readLine();
+            if (line == null) {
+                throw new IOException("SMTP connection closed");
+            }
+        } while (line.length() > 3 && line.charAt(3) == '-');
+        int code;
+        try {
+            code = Integer.parseInt(line.substring(0, 3));
+        } catch (RuntimeException e) {
+            throw new IOException("Malformed SMTP reply: " + line);
+        }
+        if (code != expected && !(expected == 250 && code == 251)) {
+            throw new SmtpException(code, line);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.laundry.lms.service.mail;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a few SMTP sessions open between batches. Connections idle longer than
+ * the configured limit, or that fail a NOOP, are replaced on borrow.
+ */
+@Component
+public class SmtpConnectionPool {
+
+    private final String host;
+    private final int port;
+    private final String heloName;
+    private final int timeoutMs;
+    private final long maxIdleNanos;
+    private final BlockingQueue<SmtpConnection> idle;
+
+    public SmtpConnectionPool(@Value("${mail.smtp.host:localhost}") String host,
+            @Value("${mail.smtp.port:2525}") int port,
+            @Value("${mail.smtp.helo-name:lms.local}") String heloName,
+            @Value("${mail.smtp.timeout-ms:10000}") int timeoutMs,
+            @Value("${mail.smtp.pool-size:2}") int poolSize,
+            @Value("${mail.smtp.max-idle-seconds:60}") long maxIdleSeconds) {
+        this.host = host;
+        this.port = port;
+        this.heloName = heloName;
+        this.timeoutMs = timeoutMs;
+        this.maxIdleNanos = TimeUnit.SECONDS.toNanos(maxIdleSeconds);
+        this.idle = new ArrayBlockingQueue<>(Math.max(1, poolSize));
+    }
+
+    public SmtpConnection borrow() throws IOException {
+        SmtpConnection connection;
+        while ((connection = idle.poll()) != null) {
+            if (connection.idleNanos() < maxIdleNanos && connection.isAlive()) {
+                return connection;
+            }
+            connection.close();
+        }
+        return SmtpConnection.open(host, port, heloName, timeoutMs);
+    }
+
+    /**
+     * Return a healthy connection for reuse; broken ones are closed.
+     */
+    public void release(SmtpConnection connection, boolean broken) {
+        if (broken || !idle.offer(connection)) {
+            connection.close();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        SmtpConnection connection;
+        while ((connection = idle.poll()) != null) {
+            connection.close();
+        }
+    }
+}
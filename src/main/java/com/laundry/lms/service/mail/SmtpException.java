@@ -0,0 +1,24 @@
+package com.laundry.lms.service.mail;
+
+import java.io.IOException;
+
+/**
+ * SMTP server rejected a command. 5xx replies are permanent and not worth retrying.
+ */
+public class SmtpException extends IOException {
+
+    private final int code;
+
+    public SmtpException(int code, String reply) {
+        super(reply);
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public boolean isPermanent() {
+        return code >= 500;
+    }
+}
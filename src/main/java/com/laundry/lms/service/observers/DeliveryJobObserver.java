@@ -0,0 +1,24 @@
+package com.laundry.lms.service.observers;
+
+import com.laundry.lms.model.OrderStatus;
+import com.laundry.lms.service.DeliveryJobAutoCreator;
+import com.laundry.lms.service.events.OrderStatusChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Component
+public class DeliveryJobObserver {
+
+    private final DeliveryJobAutoCreator autoCreator;
+
+    public DeliveryJobObserver(DeliveryJobAutoCreator autoCreator) {
+        this.autoCreator = autoCreator;
+    }
+
+    @EventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.to() == OrderStatus.READY) {
+            autoCreator.enqueue(event.orderId(), event.actorId());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.laundry.lms.service.observers;
+
+import com.laundry.lms.dto.DeliveryUpdate;
+import com.laundry.lms.repository.DeliveryJobRepository;
+import com.laundry.lms.service.events.DeliveryLateEvent;
+import com.laundry.lms.service.stream.DeliveryEventHub;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Component
+public class DeliveryStreamObserver {
+
+    private final DeliveryJobRepository deliveryJobRepository;
+    private final DeliveryEventHub eventHub;
+
+    public DeliveryStreamObserver(DeliveryJobRepository deliveryJobRepository, DeliveryEventHub eventHub) {
+        this.deliveryJobRepository = deliveryJobRepository;
+        this.eventHub = eventHub;
+    }
+
+    @EventListener
+    public void onDeliveryLate(DeliveryLateEvent event) {
+        deliveryJobRepository.findById(event.deliveryId())
+                .ifPresent(job -> eventHub.publish(DeliveryUpdate.Type.LATE, job, null));
+    }
+}
@@ -1,21 +1,26 @@
 package com.laundry.lms.service.observers;
 
 import com.laundry.lms.service.events.PaymentCompletedEvent;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Async;
+import com.laundry.lms.service.mail.EmailReceiptService;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.event.TransactionPhase;
-import org.springframework.transaction.event.TransactionalEventListener;
 
 @Component
 public class EmailReceiptObserver {
 
-    private static final Logger log = LoggerFactory.getLogger(EmailReceiptObserver.class);
+    private final EmailReceiptService receiptService;
 
-    @Async
-    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public EmailReceiptObserver(EmailReceiptService receiptService) {
+        this.receiptService = receiptService;
+    }
+
+    @EventListener
     public void onPaymentCompleted(PaymentCompletedEvent event) {
-        log.info("Email receipt sent for payment {}", event.paymentId());
+        try {
+            receiptService.enqueue(event.paymentId(), event.orderId(), event.amountLkr());
+        } catch (DataIntegrityViolationException e) {
+            // Redelivered event raced the first one; the receipt is already queued
+        }
     }
 }
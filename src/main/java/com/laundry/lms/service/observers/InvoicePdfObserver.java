@@ -0,0 +1,21 @@
+package com.laundry.lms.service.observers;
+
+import com.laundry.lms.service.InvoicePdfService;
+import com.laundry.lms.service.events.InvoiceGeneratedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Component
+public class InvoicePdfObserver {
+
+    private final InvoicePdfService invoicePdfService;
+
+    public InvoicePdfObserver(InvoicePdfService invoicePdfService) {
+        this.invoicePdfService = invoicePdfService;
+    }
+
+    @EventListener
+    public void onInvoiceGenerated(InvoiceGeneratedEvent event) {
+        invoicePdfService.requestRender(event.invoiceId());
+    }
+}
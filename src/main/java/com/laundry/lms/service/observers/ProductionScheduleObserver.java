@@ -0,0 +1,21 @@
+package com.laundry.lms.service.observers;
+
+import com.laundry.lms.service.events.OrderStatusChangedEvent;
+import com.laundry.lms.service.production.ProductionScheduleService;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ProductionScheduleObserver {
+
+    private final ProductionScheduleService scheduleService;
+
+    public ProductionScheduleObserver(ProductionScheduleService scheduleService) {
+        this.scheduleService = scheduleService;
+    }
+
+    @EventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        scheduleService.orderStatusChanged(event);
+    }
+}
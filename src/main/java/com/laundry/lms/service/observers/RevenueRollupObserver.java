@@ -0,0 +1,44 @@
+package com.laundry.lms.service.observers;
+
+import com.laundry.lms.service.RevenueRollupService;
+import com.laundry.lms.service.events.PaymentCompletedEvent;
+import com.laundry.lms.service.events.PaymentFailedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+@Component
+public class RevenueRollupObserver {
+
+    private static final Logger log = LoggerFactory.getLogger(RevenueRollupObserver.class);
+
+    private final RevenueRollupService rollupService;
+
+    public RevenueRollupObserver(RevenueRollupService rollupService) {
+        this.rollupService = rollupService;
+    }
+
+    @EventListener
+    public void onPaymentCompleted(PaymentCompletedEvent event) {
+        record(event.paymentId());
+    }
+
+    @EventListener
+    public void onPaymentFailed(PaymentFailedEvent event) {
+        record(event.paymentId());
+    }
+
+    private void record(Long paymentId) {
+        try {
+            rollupService.recordPayment(paymentId);
+        } catch (DataIntegrityViolationException e) {
+            // Another node created the bucket or entry row first; the retry takes the update path
+            rollupService.recordPayment(paymentId);
+        } catch (RuntimeException e) {
+            // The nightly rebuild will pick this payment up
+            log.warn("Revenue rollup failed for payment {}: {}", paymentId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.laundry.lms.service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laundry.lms.model.OutboxEvent;
+import com.laundry.lms.repository.OutboxEventRepository;
+import com.laundry.lms.service.events.DeliveryLateEvent;
+import com.laundry.lms.service.events.InvoiceGeneratedEvent;
+import com.laundry.lms.service.events.OrderStatusChangedEvent;
+import com.laundry.lms.service.events.PaymentCompletedEvent;
+import com.laundry.lms.service.events.PaymentFailedEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Writes domain events to the outbox table. Must be called inside the
+ * transaction that makes the change, so the event exists if and only if the
+ * change commits.
+ */
+@Service
+public class OutboxPublisher {
+
+    // Event types that may travel through the outbox, keyed by their stored name
+    private static final Map<String, Class<?>> EVENT_TYPES = Stream.of(
+            PaymentCompletedEvent.class,
+            PaymentFailedEvent.class,
+            InvoiceGeneratedEvent.class,
+            DeliveryLateEvent.class,
+            OrderStatusChangedEvent.class)
+            .collect(Collectors.toUnmodifiableMap(Class::getSimpleName, Function.identity()));
+
+    private final OutboxEventRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    public OutboxPublisher(OutboxEventRepository outboxRepository, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Record an event for delivery after commit.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(Object event) {
+        String type = event.getClass().getSimpleName();
+        if (EVENT_TYPES.get(type) != event.getClass()) {
+            throw new IllegalArgumentException("Unregistered outbox event type: " + event.getClass().getName());
+        }
+        try {
+            outboxRepository.save(new OutboxEvent(type, objectMapper.writeValueAsString(event)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize " + type, e);
+        }
+    }
+
+    /**
+     * Rebuild a stored event, or empty if its type is no longer registered.
+     */
+    Optional<Object> read(OutboxEvent row) throws JsonProcessingException {
+        Class<?> type = EVENT_TYPES.get(row.getEventType());
+        if (type == null) {
+            return Optional.empty();
+        }
+        return Optional.of(objectMapper.readValue(row.getPayloadJson(), type));
+    }
+}
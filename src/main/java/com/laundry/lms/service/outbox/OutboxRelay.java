@@ -0,0 +1,163 @@
+package com.laundry.lms.service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.laundry.lms.model.OutboxEvent;
+import com.laundry.lms.model.OutboxStatus;
+import com.laundry.lms.repository.OutboxEventRepository;
+import com.laundry.lms.service.async.ListenerExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Delivers outbox events to the listeners in service.observers. Each node
+ * claims a batch with SKIP LOCKED, dispatches it on the listener executor
+ * outside any transaction and marks the delivered rows done in one update. A node that dies mid-batch
+ * leaves its claims to expire, so delivery is at-least-once and listeners
+ * must tolerate repeats.
+ */
+@Service
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxRepository;
+    private final OutboxPublisher outboxPublisher;
+    private final ApplicationEventPublisher events;
+    private final ListenerExecutor listenerExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retryDelay;
+    private final Duration claimTimeout;
+    private final Duration retention;
+
+    public OutboxRelay(OutboxEventRepository outboxRepository,
+            OutboxPublisher outboxPublisher,
+            ApplicationEventPublisher events,
+            ListenerExecutor listenerExecutor,
+            PlatformTransactionManager transactionManager,
+            @Value("${outbox.relay.batch-size:100}") int batchSize,
+            @Value("${outbox.relay.max-attempts:10}") int maxAttempts,
+            @Value("${outbox.relay.retry-delay-seconds:5}") long retryDelaySeconds,
+            @Value("${outbox.relay.claim-timeout-seconds:300}") long claimTimeoutSeconds,
+            @Value("${outbox.retention-days:7}") long retentionDays) {
+        this.outboxRepository = outboxRepository;
+        this.outboxPublisher = outboxPublisher;
+        this.events = events;
+        this.listenerExecutor = listenerExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryDelay = Duration.ofSeconds(retryDelaySeconds);
+        this.claimTimeout = Duration.ofSeconds(claimTimeoutSeconds);
+        this.retention = Duration.ofDays(retentionDays);
+    }
+
+    /**
+     * Deliver everything currently due, one batch at a time.
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.poll-ms:200}")
+    public void relay() {
+        List<OutboxEvent> batch;
+        while (!(batch = claimBatch()).isEmpty()) {
+            dispatch(batch);
+            if (batch.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Remove delivered events past the retention window.
+     */
+    @Scheduled(cron = "${outbox.purge-cron:0 45 3 * * *}")
+    public void purge() {
+        Instant before = Instant.now().minus(retention);
+        Integer removed = transactionTemplate.execute(status ->
+                outboxRepository.deleteProcessedBefore(OutboxStatus.DONE, before));
+        log.info("Purged {} delivered outbox events", removed);
+    }
+
+    private List<OutboxEvent> claimBatch() {
+        Instant now = Instant.now();
+        return transactionTemplate.execute(status -> {
+            List<OutboxEvent> rows = outboxRepository.lockNextBatch(OutboxStatus.PENDING, OutboxStatus.PROCESSING,
+                    now, now.minus(claimTimeout), PageRequest.of(0, batchSize));
+            for (OutboxEvent row : rows) {
+                row.setState(OutboxStatus.PROCESSING);
+                row.setClaimedAt(now);
+            }
+            return rows;
+        });
+    }
+
+    private void dispatch(List<OutboxEvent> batch) {
+        // Events in a batch run in parallel on the listener pool; the relay waits for all of them
+        Map<OutboxEvent, Future<?>> running = new LinkedHashMap<>();
+        for (OutboxEvent row : batch) {
+            try {
+                Optional<Object> event = outboxPublisher.read(row);
+                if (event.isEmpty()) {
+                    recordFailure(row, "Unknown event type " + row.getEventType(), true);
+                    continue;
+                }
+                running.put(row, listenerExecutor.submit(() -> events.publishEvent(event.get())));
+            } catch (JsonProcessingException e) {
+                recordFailure(row, describe(e), true);
+            }
+        }
+        List<Long> delivered = new ArrayList<>(running.size());
+        for (Map.Entry<OutboxEvent, Future<?>> entry : running.entrySet()) {
+            try {
+                entry.getValue().get();
+                delivered.add(entry.getKey().getId());
+            } catch (InterruptedException e) {
+                // Undelivered rows stay claimed and are retried after the claim timeout
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                recordFailure(entry.getKey(), describe(e.getCause()), false);
+            }
+        }
+        if (!delivered.isEmpty()) {
+            Instant now = Instant.now();
+            transactionTemplate.executeWithoutResult(status ->
+                    outboxRepository.markDone(delivered, OutboxStatus.DONE, now));
+        }
+    }
+
+    private void recordFailure(OutboxEvent row, String message, boolean permanent) {
+        int attempts = row.getAttempts() + 1;
+        boolean giveUp = permanent || attempts >= maxAttempts;
+        log.warn("Outbox event {} ({}) failed, attempt {}: {}", row.getId(), row.getEventType(), attempts, message);
+        transactionTemplate.executeWithoutResult(status -> outboxRepository.findById(row.getId()).ifPresent(e -> {
+            e.setAttempts(attempts);
+            e.setState(giveUp ? OutboxStatus.FAILED : OutboxStatus.PENDING);
+            e.setAvailableAt(Instant.now().plus(retryDelay.multipliedBy(attempts)));
+            e.setLastError(message.length() > 1000 ? message.substring(0, 1000) : message);
+        }));
+    }
+
+    // Some exceptions carry no message; the class name still says what went wrong
+    private static String describe(Throwable error) {
+        String message = error instanceof JsonProcessingException json ? json.getOriginalMessage() : error.getMessage();
+        return message != null ? message : error.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,337 @@
+package com.laundry.lms.service.production;
+
+import com.laundry.lms.model.MachineType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Batches order items into machine loads and lays the loads out on each
+ * machine's timeline. Every item follows a route of steps (wash, dry, press
+ * and so on); items at the same step with the same program can share a load
+ * up to the machine's capacity, and an item too big for one load is split.
+ * Work is taken in priority order: express first, then earliest due, then
+ * oldest order. Machine types are planned one after another in route order,
+ * so each pass already knows when its items come off the previous step.
+ * <p>
+ * Loads that have started are frozen by advanceTo and never move again;
+ * replan only lays out work that has not started, so an arrival reshuffles
+ * the queue without disturbing what is already in the machines. Times are
+ * whole minutes from an epoch chosen by the caller. Not thread-safe.
+ */
+public class ProductionPlanner {
+
+    private static final double EPS = 1e-6;
+    // Items that do not fit the rest of a load are passed over this many times before the load closes
+    private static final int LOOK_AHEAD = 8;
+
+    public record Machine(long id, MachineType type, double capacityKg) {}
+
+    public record Step(MachineType type, String program, int minutes) {}
+
+    /**
+     * One order item. Its route must visit machine types in MachineType order.
+     */
+    public record Job(long orderId, long itemId, boolean express, int dueMinute, int releaseMinute, double kg,
+            List<Step> route) {}
+
+    public record Part(long orderId, long itemId, double kg) {}
+
+    public record Load(long machineId, String program, int startMinute, int endMinute, List<Part> parts) {
+
+        public double kg() {
+            double kg = 0;
+            for (Part part : parts) {
+                kg += part.kg();
+            }
+            return kg;
+        }
+    }
+
+    /**
+     * Running and planned loads by start, the minute each order's last item
+     * leaves its last step, orders expected after their due minute, and
+     * orders with a step no machine can do.
+     */
+    public record Plan(List<Load> loads, Map<Long, Integer> readyMinutes, Set<Long> lateOrders,
+            Set<Long> unschedulable) {}
+
+    private static final class Unit {
+        private final Job job;
+        // Committed progress: frozen loads applied
+        private int step;
+        private double remainingKg;
+        private int release;
+        private int stepDoneAt;
+        // Tentative progress during replan
+        private int planStep;
+        private double planKg;
+        private int planRelease;
+        private int planDoneAt;
+
+        private Unit(Job job) {
+            this.job = job;
+            this.remainingKg = job.kg();
+            this.release = job.releaseMinute();
+        }
+
+        private boolean finished() {
+            return step >= job.route().size();
+        }
+    }
+
+    private static final Comparator<Unit> PRIORITY = (a, b) -> {
+        if (a.job.express() != b.job.express()) {
+            return a.job.express() ? -1 : 1;
+        }
+        int byDue = Integer.compare(a.job.dueMinute(), b.job.dueMinute());
+        if (byDue != 0) {
+            return byDue;
+        }
+        int byOrder = Long.compare(a.job.orderId(), b.job.orderId());
+        return byOrder != 0 ? byOrder : Long.compare(a.job.itemId(), b.job.itemId());
+    };
+
+    private final Map<Long, Unit> units = new LinkedHashMap<>();
+    private final Map<Long, Integer> busyUntil = new HashMap<>();
+    private List<Machine> machines = List.of();
+    private List<Load> started = new ArrayList<>();
+    private List<Load> planned = new ArrayList<>();
+    private int now = Integer.MIN_VALUE;
+
+    /**
+     * @throws IllegalArgumentException if a machine has no capacity; it could never take a load
+     */
+    public void setMachines(List<Machine> machines) {
+        for (Machine machine : machines) {
+            if (machine.capacityKg() <= 0) {
+                throw new IllegalArgumentException("Machine " + machine.id() + " has no capacity");
+            }
+        }
+        this.machines = List.copyOf(machines);
+    }
+
+    /**
+     * Add an item; adding one that is already known does nothing.
+     *
+     * @throws IllegalArgumentException if the route goes back to an earlier machine type
+     */
+    public void add(Job job) {
+        if (units.containsKey(job.itemId())) {
+            return;
+        }
+        for (int i = 1; i < job.route().size(); i++) {
+            if (job.route().get(i).type().ordinal() <= job.route().get(i - 1).type().ordinal()) {
+                throw new IllegalArgumentException("Route of item " + job.itemId() + " is out of machine order");
+            }
+        }
+        units.put(job.itemId(), new Unit(job));
+    }
+
+    /**
+     * Drop an order's items, e.g. once it is READY or cancelled. Loads already
+     * running keep their machine until they end.
+     */
+    public void remove(long orderId) {
+        units.values().removeIf(unit -> unit.job.orderId() == orderId);
+    }
+
+    /**
+     * Make an order's items that have not started available from the given minute.
+     */
+    public void release(long orderId, int minute) {
+        for (Unit unit : units.values()) {
+            if (unit.job.orderId() == orderId && unit.step == 0 && unit.remainingKg >= unit.job.kg() - EPS) {
+                unit.release = minute;
+            }
+        }
+    }
+
+    public Set<Long> orderIds() {
+        Set<Long> ids = new HashSet<>();
+        for (Unit unit : units.values()) {
+            ids.add(unit.job.orderId());
+        }
+        return ids;
+    }
+
+    /**
+     * Move the clock forward: planned loads starting by now are frozen and
+     * loads that have ended are forgotten.
+     *
+     * @return true if any load was frozen, so the plan should be redone
+     */
+    public boolean advanceTo(int minute) {
+        now = Math.max(now, minute);
+        List<Load> remaining = new ArrayList<>();
+        boolean froze = false;
+        for (Load load : planned) {
+            if (load.startMinute() > now) {
+                remaining.add(load);
+                continue;
+            }
+            froze = true;
+            started.add(load);
+            busyUntil.merge(load.machineId(), load.endMinute(), Math::max);
+            for (Part part : load.parts()) {
+                Unit unit = units.get(part.itemId());
+                if (unit == null || unit.finished()) {
+                    continue;
+                }
+                unit.remainingKg -= part.kg();
+                unit.stepDoneAt = Math.max(unit.stepDoneAt, load.endMinute());
+                if (unit.remainingKg <= EPS) {
+                    unit.step++;
+                    unit.remainingKg = unit.job.kg();
+                    unit.release = unit.stepDoneAt;
+                    unit.stepDoneAt = 0;
+                }
+            }
+        }
+        planned = remaining;
+        started.removeIf(load -> load.endMinute() <= now);
+        busyUntil.values().removeIf(end -> end <= now);
+        return froze;
+    }
+
+    /**
+     * Lay out all work that has not started, from the current minute.
+     */
+    public Plan replan() {
+        List<Unit> open = new ArrayList<>();
+        for (Unit unit : units.values()) {
+            unit.planStep = unit.step;
+            unit.planKg = unit.remainingKg;
+            unit.planRelease = Math.max(unit.release, now);
+            unit.planDoneAt = unit.stepDoneAt;
+            if (!unit.finished()) {
+                open.add(unit);
+            }
+        }
+        Map<Long, Integer> free = new HashMap<>();
+        for (Machine machine : machines) {
+            free.put(machine.id(), Math.max(now, busyUntil.getOrDefault(machine.id(), now)));
+        }
+
+        List<Load> loads = new ArrayList<>();
+        Set<Long> unschedulable = new HashSet<>();
+        for (MachineType type : MachineType.values()) {
+            List<Unit> waiting = new ArrayList<>();
+            for (Unit unit : open) {
+                if (unit.planStep < unit.job.route().size() && unit.job.route().get(unit.planStep).type() == type) {
+                    waiting.add(unit);
+                }
+            }
+            if (waiting.isEmpty()) {
+                continue;
+            }
+            List<Machine> ofType = machines.stream().filter(machine -> machine.type() == type).toList();
+            if (ofType.isEmpty()) {
+                for (Unit unit : waiting) {
+                    unschedulable.add(unit.job.orderId());
+                    unit.planStep = unit.job.route().size();
+                }
+                continue;
+            }
+            planType(ofType, waiting, free, loads);
+        }
+        loads.sort(Comparator.comparingInt(Load::startMinute).thenComparingLong(Load::machineId));
+        planned = loads;
+
+        Map<Long, Integer> ready = new HashMap<>();
+        for (Unit unit : units.values()) {
+            if (!unschedulable.contains(unit.job.orderId())) {
+                ready.merge(unit.job.orderId(), unit.planRelease, Math::max);
+            }
+        }
+        Set<Long> late = new HashSet<>();
+        for (Unit unit : units.values()) {
+            Integer readyAt = ready.get(unit.job.orderId());
+            if (readyAt != null && readyAt > unit.job.dueMinute()) {
+                late.add(unit.job.orderId());
+            }
+        }
+        List<Load> all = new ArrayList<>(started);
+        all.addAll(loads);
+        all.sort(Comparator.comparingInt(Load::startMinute).thenComparingLong(Load::machineId));
+        return new Plan(all, ready, late, unschedulable);
+    }
+
+    // One machine type: whenever a machine frees up, start the best waiting load on it
+    private static void planType(List<Machine> ofType, List<Unit> waiting, Map<Long, Integer> free, List<Load> out) {
+        waiting.sort(Comparator.comparingInt(unit -> unit.planRelease));
+        PriorityQueue<Machine> idle = new PriorityQueue<>(
+                Comparator.comparingInt((Machine machine) -> free.get(machine.id())).thenComparingLong(Machine::id));
+        idle.addAll(ofType);
+        Map<String, PriorityQueue<Unit>> queues = new HashMap<>();
+        int next = 0;
+        int left = waiting.size();
+
+        while (left > 0) {
+            Machine machine = idle.poll();
+            int at = free.get(machine.id());
+            while (next < waiting.size() && waiting.get(next).planRelease <= at) {
+                Unit unit = waiting.get(next++);
+                queues.computeIfAbsent(program(unit), key -> new PriorityQueue<>(PRIORITY)).add(unit);
+            }
+            PriorityQueue<Unit> queue = null;
+            for (PriorityQueue<Unit> candidate : queues.values()) {
+                if (!candidate.isEmpty() && (queue == null || PRIORITY.compare(candidate.peek(), queue.peek()) < 0)) {
+                    queue = candidate;
+                }
+            }
+            if (queue == null) {
+                // Nothing has arrived yet; this machine waits for the next item
+                free.put(machine.id(), waiting.get(next).planRelease);
+                idle.add(machine);
+                continue;
+            }
+
+            Step step = queue.peek().job.route().get(queue.peek().planStep);
+            int end = at + step.minutes();
+            double room = machine.capacityKg();
+            List<Part> parts = new ArrayList<>();
+            List<Unit> passed = new ArrayList<>();
+            while (room > EPS && !queue.isEmpty() && passed.size() < LOOK_AHEAD) {
+                Unit unit = queue.poll();
+                double take;
+                if (unit.planKg <= room + EPS) {
+                    take = unit.planKg;
+                } else if (parts.isEmpty() || unit.planKg > machine.capacityKg()) {
+                    take = room;
+                } else {
+                    passed.add(unit);
+                    continue;
+                }
+                parts.add(new Part(unit.job.orderId(), unit.job.itemId(), take));
+                room -= take;
+                unit.planKg -= take;
+                unit.planDoneAt = Math.max(unit.planDoneAt, end);
+                if (unit.planKg > EPS) {
+                    queue.add(unit);
+                    break;
+                }
+                unit.planStep++;
+                unit.planKg = unit.job.kg();
+                unit.planRelease = unit.planDoneAt;
+                unit.planDoneAt = 0;
+                left--;
+            }
+            queue.addAll(passed);
+            out.add(new Load(machine.id(), step.program(), at, end, parts));
+            free.put(machine.id(), end);
+            idle.add(machine);
+        }
+    }
+
+    private static String program(Unit unit) {
+        return unit.job.route().get(unit.planStep).program();
+    }
+}
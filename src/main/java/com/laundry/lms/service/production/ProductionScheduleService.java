@@ -0,0 +1,326 @@
+package com.laundry.lms.service.production;
+
+import com.laundry.lms.dto.ProductionSchedule;
+import com.laundry.lms.dto.ProductionSchedule.MachineLoad;
+import com.laundry.lms.dto.ProductionSchedule.MachineSchedule;
+import com.laundry.lms.dto.ProductionSchedule.OrderEstimate;
+import com.laundry.lms.model.LaundryOrder;
+import com.laundry.lms.model.Machine;
+import com.laundry.lms.model.MachineType;
+import com.laundry.lms.model.OrderItem;
+import com.laundry.lms.model.OrderStatus;
+import com.laundry.lms.model.ServiceType;
+import com.laundry.lms.repository.MachineRepository;
+import com.laundry.lms.repository.OrderItemRepository;
+import com.laundry.lms.service.events.OrderStatusChangedEvent;
+import com.laundry.lms.service.production.ProductionPlanner.Job;
+import com.laundry.lms.service.production.ProductionPlanner.Load;
+import com.laundry.lms.service.production.ProductionPlanner.Part;
+import com.laundry.lms.service.production.ProductionPlanner.Plan;
+import com.laundry.lms.service.production.ProductionPlanner.Step;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Keeps a machine schedule for all open orders. Items of PENDING orders
+ * become available at their pickup time, IN_PROGRESS ones straight away.
+ * New orders are picked up by id on each refresh and status changes arrive
+ * from OrderStatusChangedEvent, so only the changed orders are read. An
+ * order and its items are saved one after the other, so the id watermark
+ * only moves past orders older than production.arrival-window-seconds; until
+ * then they are read again, in case an earlier order's items were not yet
+ * visible. The
+ * planner then lays out the work that has not started, leaving running loads
+ * where they are. A periodic resync catches anything missed.
+ */
+@Service
+public class ProductionScheduleService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductionScheduleService.class);
+
+    private static final Set<OrderStatus> OPEN = EnumSet.of(OrderStatus.PENDING, OrderStatus.IN_PROGRESS);
+
+    private record OrderInfo(boolean express, LocalDateTime dueAt) {}
+
+    private final OrderItemRepository orderItemRepository;
+    private final MachineRepository machineRepository;
+    private final ProductionPlanner planner = new ProductionPlanner();
+    private final Map<ServiceType, List<Step>> routes = new EnumMap<>(ServiceType.class);
+    private final Queue<OrderStatusChangedEvent> changes = new ConcurrentLinkedQueue<>();
+    private final Map<Long, OrderInfo> orders = new HashMap<>();
+    private final Map<Long, Machine> machines = new LinkedHashMap<>();
+    // Planner minutes count from here
+    private final LocalDateTime epoch = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+    private final double kgPerItem;
+    private final int defaultDeliveryHour;
+    private final Duration readyBuffer;
+    private final Duration arrivalWindow;
+    // Orders up to here have been read with all their items
+    private long lastOrderId;
+    private boolean dirty = true;
+    private volatile ProductionSchedule schedule;
+
+    public ProductionScheduleService(OrderItemRepository orderItemRepository,
+            MachineRepository machineRepository,
+            @Value("${production.kg-per-item:0.3}") double kgPerItem,
+            @Value("${production.wash-minutes:45}") int washMinutes,
+            @Value("${production.delicate-wash-minutes:60}") int delicateWashMinutes,
+            @Value("${production.dry-clean-minutes:90}") int dryCleanMinutes,
+            @Value("${production.dry-minutes:50}") int dryMinutes,
+            @Value("${production.press-minutes:20}") int pressMinutes,
+            @Value("${production.default-delivery-hour:18}") int defaultDeliveryHour,
+            @Value("${production.ready-buffer-minutes:60}") long readyBufferMinutes,
+            @Value("${production.arrival-window-seconds:60}") long arrivalWindowSeconds) {
+        this.orderItemRepository = orderItemRepository;
+        this.machineRepository = machineRepository;
+        this.kgPerItem = kgPerItem;
+        this.defaultDeliveryHour = defaultDeliveryHour;
+        this.readyBuffer = Duration.ofMinutes(readyBufferMinutes);
+        this.arrivalWindow = Duration.ofSeconds(arrivalWindowSeconds);
+
+        Step wash = new Step(MachineType.WASHER, "WASH", washMinutes);
+        Step delicate = new Step(MachineType.WASHER, "DELICATE", delicateWashMinutes);
+        Step dryClean = new Step(MachineType.DRY_CLEANER, "DRY_CLEAN", dryCleanMinutes);
+        Step dry = new Step(MachineType.DRYER, "DRY", dryMinutes);
+        Step lowHeat = new Step(MachineType.DRYER, "LOW_HEAT", dryMinutes);
+        Step press = new Step(MachineType.PRESS, "PRESS", pressMinutes);
+        routes.put(ServiceType.LAUNDRY_WASH_ONLY, List.of(wash, dry));
+        routes.put(ServiceType.WASH_AND_IRON, List.of(wash, dry, press));
+        routes.put(ServiceType.PRESSING_IRON_ONLY, List.of(press));
+        routes.put(ServiceType.DRY_CLEANING, List.of(dryClean));
+        routes.put(ServiceType.PREMIUM_DELICATE_CARE, List.of(delicate, lowHeat, press));
+        // Express is a priority, not a process step
+        routes.put(ServiceType.EXPRESS_SERVICE, List.of());
+    }
+
+    /**
+     * The latest schedule.
+     */
+    public ProductionSchedule getSchedule() {
+        ProductionSchedule current = schedule;
+        if (current == null) {
+            refresh();
+            current = schedule;
+        }
+        return current;
+    }
+
+    public Optional<OrderEstimate> getEstimate(Long orderId) {
+        return getSchedule().orders().stream()
+                .filter(estimate -> estimate.orderId().equals(orderId))
+                .findFirst();
+    }
+
+    /**
+     * Machine steps per service type, as the scheduler plans them.
+     */
+    public Map<ServiceType, List<Step>> getRoutes() {
+        return Collections.unmodifiableMap(routes);
+    }
+
+    public void orderStatusChanged(OrderStatusChangedEvent event) {
+        changes.add(event);
+    }
+
+    /**
+     * Reload machines and all open orders, dropping orders that are no longer open.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${production.resync-ms:300000}",
+            initialDelayString = "${production.resync-ms:300000}")
+    public synchronized void resync() {
+        machines.clear();
+        List<ProductionPlanner.Machine> planned = new ArrayList<>();
+        for (Machine machine : machineRepository.findByActiveTrueOrderByTypeAscNameAsc()) {
+            // Rows saved before capacity was checked; the planner could never fill them
+            if (machine.getCapacityKg() == null || machine.getCapacityKg() <= 0) {
+                log.warn("Skipping machine {} ({}): capacity {} kg", machine.getId(), machine.getName(),
+                        machine.getCapacityKg());
+                continue;
+            }
+            machines.put(machine.getId(), machine);
+            planned.add(new ProductionPlanner.Machine(machine.getId(), machine.getType(), machine.getCapacityKg()));
+        }
+        planner.setMachines(planned);
+
+        List<OrderItem> items = orderItemRepository.findWithOrderByOrderStatusIn(OPEN);
+        Set<Long> open = new HashSet<>();
+        items.forEach(item -> open.add(item.getOrder().getId()));
+        for (Long orderId : planner.orderIds()) {
+            if (!open.contains(orderId)) {
+                planner.remove(orderId);
+            }
+        }
+        orders.keySet().retainAll(open);
+        addItems(items);
+        advanceWatermark(items);
+        dirty = true;
+        refresh();
+    }
+
+    /**
+     * Apply status changes and new orders, move the clock on and replan if
+     * anything changed.
+     */
+    @Scheduled(fixedDelayString = "${production.refresh-ms:5000}")
+    public synchronized void refresh() {
+        int now = minute(LocalDateTime.now());
+        Set<Long> progressed = new LinkedHashSet<>();
+        OrderStatusChangedEvent change;
+        while ((change = changes.poll()) != null) {
+            if (change.to() == OrderStatus.IN_PROGRESS) {
+                progressed.add(change.orderId());
+            } else if (!OPEN.contains(change.to())) {
+                planner.remove(change.orderId());
+                orders.remove(change.orderId());
+                progressed.remove(change.orderId());
+            }
+            dirty = true;
+        }
+        List<OrderItem> arrivals = orderItemRepository.findWithOrderByOrderIdAfter(lastOrderId, OPEN);
+        addItems(arrivals);
+        advanceWatermark(arrivals);
+        // Garments are in the shop once the order is in progress
+        progressed.forEach(orderId -> planner.release(orderId, now));
+
+        dirty |= planner.advanceTo(now);
+        if (dirty || schedule == null) {
+            schedule = toSchedule(planner.replan());
+            dirty = false;
+        }
+    }
+
+    private void addItems(List<OrderItem> items) {
+        Map<Long, Boolean> express = new HashMap<>();
+        for (OrderItem item : items) {
+            express.merge(item.getOrder().getId(), isExpress(item), Boolean::logicalOr);
+        }
+        for (OrderItem item : items) {
+            LaundryOrder order = item.getOrder();
+            OrderInfo info = orders.computeIfAbsent(order.getId(), id -> new OrderInfo(express.get(id), dueAt(order)));
+            List<Step> route = routes.getOrDefault(item.getServiceType(), List.of());
+            if (route.isEmpty()) {
+                continue;
+            }
+            int release = minute(LocalDateTime.now());
+            if (order.getStatus() == OrderStatus.PENDING && order.getPickupDate() != null) {
+                int hour = order.getPickupHour() != null ? order.getPickupHour() : 0;
+                release = Math.max(release, minute(order.getPickupDate().atTime(hour, 0)));
+            }
+            int due = info.dueAt() != null ? minute(info.dueAt()) : Integer.MAX_VALUE;
+            planner.add(new Job(order.getId(), item.getId(), info.express(), due, release, kg(item), route));
+        }
+    }
+
+    // Up to the newest order that is past the arrival window, but never past one that is not
+    private void advanceWatermark(List<OrderItem> items) {
+        LocalDateTime settled = LocalDateTime.now().minus(arrivalWindow);
+        long newest = lastOrderId;
+        long unsettled = Long.MAX_VALUE;
+        for (OrderItem item : items) {
+            LaundryOrder order = item.getOrder();
+            if (order.getCreatedAt() != null && order.getCreatedAt().isAfter(settled)) {
+                unsettled = Math.min(unsettled, order.getId());
+            } else {
+                newest = Math.max(newest, order.getId());
+            }
+        }
+        lastOrderId = Math.max(lastOrderId, Math.min(newest, unsettled - 1));
+    }
+
+    /**
+     * Whether the item makes its order express.
+     */
+    public boolean isExpress(OrderItem item) {
+        LaundryOrder order = item.getOrder();
+        return Boolean.TRUE.equals(order.getExpress())
+                || item.getServiceType() == ServiceType.EXPRESS_SERVICE
+                // Orders from before the express column only say so in their summary
+                || (order.getServiceType() != null && order.getServiceType().contains("EXPRESS"));
+    }
+
+    /**
+     * Promised delivery time, or null when the order has no delivery date.
+     */
+    public LocalDateTime deliveryAt(LaundryOrder order) {
+        if (order.getDeliveryDate() == null) {
+            return null;
+        }
+        int hour = order.getDeliveryHour() != null ? order.getDeliveryHour() : defaultDeliveryHour;
+        return order.getDeliveryDate().atTime(hour, 0);
+    }
+
+    private LocalDateTime dueAt(LaundryOrder order) {
+        LocalDateTime delivery = deliveryAt(order);
+        return delivery != null ? delivery.minus(readyBuffer) : null;
+    }
+
+    /**
+     * Machine kg of an item; counted items use the per-item estimate.
+     */
+    public double kg(OrderItem item) {
+        if (item.getQuantityKg() != null && item.getQuantityKg() > 0) {
+            return item.getQuantityKg();
+        }
+        int count = item.getItemCount() != null ? item.getItemCount() : 1;
+        return Math.max(1, count) * kgPerItem;
+    }
+
+    private ProductionSchedule toSchedule(Plan plan) {
+        Map<Long, List<MachineLoad>> loads = new HashMap<>();
+        for (Load load : plan.loads()) {
+            List<Long> orderIds = load.parts().stream().map(Part::orderId).distinct().toList();
+            loads.computeIfAbsent(load.machineId(), id -> new ArrayList<>()).add(new MachineLoad(
+                    at(load.startMinute()), at(load.endMinute()), load.program(), load.kg(), orderIds));
+        }
+        List<MachineSchedule> machineSchedules = new ArrayList<>();
+        for (Machine machine : machines.values()) {
+            machineSchedules.add(new MachineSchedule(machine.getId(), machine.getName(), machine.getType(),
+                    machine.getCapacityKg(), loads.getOrDefault(machine.getId(), List.of())));
+        }
+        List<OrderEstimate> estimates = new ArrayList<>();
+        plan.readyMinutes().forEach((orderId, ready) -> {
+            OrderInfo info = orders.get(orderId);
+            if (info != null) {
+                estimates.add(new OrderEstimate(orderId, info.express(), at(ready), info.dueAt(),
+                        plan.lateOrders().contains(orderId)));
+            }
+        });
+        estimates.sort(Comparator.comparing(OrderEstimate::readyAt).thenComparing(OrderEstimate::orderId));
+        List<Long> unschedulable = plan.unschedulable().stream().sorted().toList();
+        return new ProductionSchedule(LocalDateTime.now(), machineSchedules, estimates, unschedulable);
+    }
+
+    private int minute(LocalDateTime time) {
+        long minutes = Duration.between(epoch, time).toMinutes();
+        return (int) Math.max(Integer.MIN_VALUE / 2, Math.min(Integer.MAX_VALUE / 2, minutes));
+    }
+
+    private LocalDateTime at(int minute) {
+        return epoch.plusMinutes(minute);
+    }
+}
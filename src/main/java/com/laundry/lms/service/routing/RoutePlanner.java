@@ -0,0 +1,281 @@
+package com.laundry.lms.service.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-vehicle stop sequencing with time windows. A route starts and ends at
+ * the depot; arriving early means waiting, arriving late is allowed but
+ * penalised per minute. Construction is nearest-neighbour on a time-aware
+ * score, followed by 2-opt and Or-opt local search until no move improves the
+ * route or the time budget runs out. Keeps no state between calls, so one
+ * instance can be shared across threads.
+ */
+public class RoutePlanner {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double EPS = 1e-9;
+
+    private final double speedKmh;
+    private final double latenessPenaltyPerMinute;
+
+    public record Stop(long id, double latitude, double longitude, int earliest, int latest, int serviceMinutes) {}
+
+    /**
+     * Stops in visiting order with their arrival minute (minutes from midnight).
+     */
+    public record Plan(List<Stop> sequence, int[] arrivals, double distanceKm, int finishMinute,
+            int lateStops, double cost) {}
+
+    public RoutePlanner(double speedKmh, double latenessPenaltyPerMinute) {
+        this.speedKmh = speedKmh;
+        this.latenessPenaltyPerMinute = latenessPenaltyPerMinute;
+    }
+
+    /**
+     * Nearest-neighbour construction only; useful as a baseline.
+     */
+    public Plan construct(double depotLatitude, double depotLongitude, int startMinute, List<Stop> stops) {
+        Problem problem = new Problem(depotLatitude, depotLongitude, startMinute, stops);
+        return problem.toPlan(problem.nearestNeighbour());
+    }
+
+    /**
+     * Construct and improve a route within the given time budget.
+     */
+    public Plan plan(double depotLatitude, double depotLongitude, int startMinute, List<Stop> stops, long budgetMillis) {
+        Problem problem = new Problem(depotLatitude, depotLongitude, startMinute, stops);
+        int[] route = problem.nearestNeighbour();
+        long deadline = System.nanoTime() + budgetMillis * 1_000_000L;
+        boolean improved = true;
+        while (improved && System.nanoTime() < deadline) {
+            improved = problem.twoOpt(route, deadline);
+            improved |= problem.orOpt(route, deadline);
+        }
+        return problem.toPlan(route);
+    }
+
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    // Node 0 is the depot, node i (1..n) is stops.get(i - 1)
+    private final class Problem {
+        private final List<Stop> stops;
+        private final int n;
+        private final double[][] km;
+        private final double[][] minutes;
+        private final int startMinute;
+
+        private Problem(double depotLatitude, double depotLongitude, int startMinute, List<Stop> stops) {
+            this.stops = stops;
+            this.n = stops.size();
+            this.startMinute = startMinute;
+            double[] lat = new double[n + 1];
+            double[] lon = new double[n + 1];
+            lat[0] = depotLatitude;
+            lon[0] = depotLongitude;
+            for (int i = 0; i < n; i++) {
+                lat[i + 1] = stops.get(i).latitude();
+                lon[i + 1] = stops.get(i).longitude();
+            }
+            this.km = new double[n + 1][n + 1];
+            this.minutes = new double[n + 1][n + 1];
+            for (int i = 0; i <= n; i++) {
+                for (int j = i + 1; j <= n; j++) {
+                    double d = haversineKm(lat[i], lon[i], lat[j], lon[j]);
+                    km[i][j] = km[j][i] = d;
+                    minutes[i][j] = minutes[j][i] = d / speedKmh * 60.0;
+                }
+            }
+        }
+
+        private Stop stop(int node) {
+            return stops.get(node - 1);
+        }
+
+        // Prefer stops that can be served soonest, nudged towards those whose window closes first
+        private int[] nearestNeighbour() {
+            int[] route = new int[n];
+            boolean[] visited = new boolean[n + 1];
+            int current = 0;
+            double time = startMinute;
+            for (int k = 0; k < n; k++) {
+                int best = -1;
+                double bestScore = Double.MAX_VALUE;
+                for (int j = 1; j <= n; j++) {
+                    if (visited[j]) {
+                        continue;
+                    }
+                    Stop s = stop(j);
+                    double arrival = time + minutes[current][j];
+                    double begin = Math.max(arrival, s.earliest());
+                    double late = Math.max(0, begin - s.latest());
+                    double slack = Math.max(0, s.latest() - begin);
+                    double score = begin - time + latenessPenaltyPerMinute * late + 0.1 * slack;
+                    if (score < bestScore) {
+                        bestScore = score;
+                        best = j;
+                    }
+                }
+                visited[best] = true;
+                route[k] = best;
+                Stop s = stop(best);
+                time = Math.max(time + minutes[current][best], s.earliest()) + s.serviceMinutes();
+                current = best;
+            }
+            return route;
+        }
+
+        private double cost(int[] route) {
+            double time = startMinute;
+            double travel = 0;
+            double late = 0;
+            int previous = 0;
+            for (int node : route) {
+                Stop s = stop(node);
+                travel += minutes[previous][node];
+                double begin = Math.max(time + minutes[previous][node], s.earliest());
+                late += Math.max(0, begin - s.latest());
+                time = begin + s.serviceMinutes();
+                previous = node;
+            }
+            travel += minutes[previous][0];
+            return travel + latenessPenaltyPerMinute * late;
+        }
+
+        private int node(int[] route, int position) {
+            return position < 0 || position >= route.length ? 0 : route[position];
+        }
+
+        // Reverse route[i..j]; only distance-improving reversals are checked against the windows
+        private boolean twoOpt(int[] route, long deadline) {
+            boolean improved = false;
+            double current = cost(route);
+            for (int i = 0; i < n - 1; i++) {
+                if (System.nanoTime() > deadline) {
+                    return improved;
+                }
+                int a = node(route, i - 1);
+                int b = route[i];
+                for (int j = i + 1; j < n; j++) {
+                    int c = route[j];
+                    int d = node(route, j + 1);
+                    double delta = minutes[a][c] + minutes[b][d] - minutes[a][b] - minutes[c][d];
+                    if (delta >= -EPS) {
+                        continue;
+                    }
+                    reverse(route, i, j);
+                    double candidate = cost(route);
+                    if (candidate < current - EPS) {
+                        current = candidate;
+                        improved = true;
+                        b = route[i];
+                    } else {
+                        reverse(route, i, j);
+                    }
+                }
+            }
+            return improved;
+        }
+
+        // Move a segment of 1-3 stops to another position, keeping its direction
+        private boolean orOpt(int[] route, long deadline) {
+            boolean improved = false;
+            double current = cost(route);
+            int[] buffer = new int[n];
+            for (int length = 1; length <= 3; length++) {
+                for (int i = 0; i + length <= n; i++) {
+                    if (System.nanoTime() > deadline) {
+                        return improved;
+                    }
+                    int first = route[i];
+                    int last = route[i + length - 1];
+                    int prev = node(route, i - 1);
+                    int next = node(route, i + length);
+                    double removeGain = minutes[prev][first] + minutes[last][next] - minutes[prev][next];
+                    for (int p = -1; p < n; p++) {
+                        if (p >= i - 1 && p < i + length) {
+                            continue;
+                        }
+                        int u = node(route, p);
+                        int v = node(route, p + 1);
+                        double insertCost = minutes[u][first] + minutes[last][v] - minutes[u][v];
+                        if (insertCost - removeGain >= -EPS) {
+                            continue;
+                        }
+                        moveSegment(route, buffer, i, length, p);
+                        double candidate = cost(route);
+                        if (candidate < current - EPS) {
+                            current = candidate;
+                            improved = true;
+                            break;
+                        }
+                        System.arraycopy(buffer, 0, route, 0, n);
+                    }
+                }
+            }
+            return improved;
+        }
+
+        // Saves the original route in backup, then moves route[i, i+length) to follow position p
+        private void moveSegment(int[] route, int[] backup, int i, int length, int p) {
+            System.arraycopy(route, 0, backup, 0, n);
+            int[] segment = new int[length];
+            System.arraycopy(backup, i, segment, 0, length);
+            int write = 0;
+            if (p == -1) {
+                System.arraycopy(segment, 0, route, 0, length);
+                write = length;
+            }
+            for (int k = 0; k < n; k++) {
+                if (k >= i && k < i + length) {
+                    continue;
+                }
+                route[write++] = backup[k];
+                if (k == p) {
+                    System.arraycopy(segment, 0, route, write, length);
+                    write += length;
+                }
+            }
+        }
+
+        private void reverse(int[] route, int i, int j) {
+            while (i < j) {
+                int tmp = route[i];
+                route[i++] = route[j];
+                route[j--] = tmp;
+            }
+        }
+
+        private Plan toPlan(int[] route) {
+            List<Stop> sequence = new ArrayList<>(n);
+            int[] arrivals = new int[n];
+            double distance = 0;
+            double time = startMinute;
+            int late = 0;
+            int previous = 0;
+            for (int k = 0; k < n; k++) {
+                int node = route[k];
+                Stop s = stop(node);
+                distance += km[previous][node];
+                double arrival = time + minutes[previous][node];
+                double begin = Math.max(arrival, s.earliest());
+                if (begin > s.latest()) {
+                    late++;
+                }
+                arrivals[k] = (int) Math.round(begin);
+                sequence.add(s);
+                time = begin + s.serviceMinutes();
+                previous = node;
+            }
+            distance += km[previous][0];
+            time += minutes[previous][0];
+            return new Plan(sequence, arrivals, distance, (int) Math.round(time), late, cost(route));
+        }
+    }
+}
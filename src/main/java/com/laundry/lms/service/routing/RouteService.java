@@ -0,0 +1,191 @@
+package com.laundry.lms.service.routing;
+
+import com.laundry.lms.dto.RoutePlanResponse;
+import com.laundry.lms.dto.RoutePlanResponse.RouteStop;
+import com.laundry.lms.model.DeliveryJob;
+import com.laundry.lms.model.DeliveryStatus;
+import com.laundry.lms.model.User;
+import com.laundry.lms.model.UserRole;
+import com.laundry.lms.repository.DeliveryJobRepository;
+import com.laundry.lms.repository.UserRepository;
+import com.laundry.lms.service.routing.RoutePlanner.Plan;
+import com.laundry.lms.service.routing.RoutePlanner.Stop;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Builds per-driver, per-day stop sequences. SCHEDULED jobs are pickups
+ * (window opens at pickupAt); PICKED_UP and IN_TRANSIT jobs are deliveries
+ * (window closes at deliveryAt). Jobs without coordinates are listed as
+ * unrouted. Jobs are read in a short read-only transaction and planned after
+ * it ends, so no connection is held while the planner searches. Planning for
+ * all drivers runs one driver per worker thread.
+ */
+@Service
+public class RouteService {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private record JobStop(Long deliveryId, Long orderId, String kind, double latitude, double longitude,
+            LocalDateTime windowStart, LocalDateTime windowEnd) {}
+
+    private final DeliveryJobRepository deliveryJobRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate readTransaction;
+    private final RoutePlanner planner;
+    private final ExecutorService workers;
+    private final double depotLatitude;
+    private final double depotLongitude;
+    private final LocalTime startTime;
+    private final Duration pickupWindow;
+    private final Duration deliveryWindow;
+    private final int serviceMinutes;
+    private final long budgetMillis;
+
+    public RouteService(DeliveryJobRepository deliveryJobRepository,
+            UserRepository userRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${delivery.depot.latitude:6.9271}") double depotLatitude,
+            @Value("${delivery.depot.longitude:79.8612}") double depotLongitude,
+            @Value("${delivery.route.start-time:08:00}") String startTime,
+            @Value("${delivery.route.speed-kmh:25}") double speedKmh,
+            @Value("${delivery.route.lateness-penalty:10}") double latenessPenalty,
+            @Value("${delivery.route.pickup-window-minutes:120}") long pickupWindowMinutes,
+            @Value("${delivery.route.delivery-window-minutes:240}") long deliveryWindowMinutes,
+            @Value("${delivery.route.service-minutes:5}") int serviceMinutes,
+            @Value("${delivery.route.budget-ms:2000}") long budgetMillis,
+            @Value("${delivery.route.workers:4}") int workerCount) {
+        this.deliveryJobRepository = deliveryJobRepository;
+        this.userRepository = userRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.planner = new RoutePlanner(speedKmh, latenessPenalty);
+        this.workers = Executors.newFixedThreadPool(workerCount, r -> new Thread(r, "route-planner"));
+        this.depotLatitude = depotLatitude;
+        this.depotLongitude = depotLongitude;
+        this.startTime = LocalTime.parse(startTime);
+        this.pickupWindow = Duration.ofMinutes(pickupWindowMinutes);
+        this.deliveryWindow = Duration.ofMinutes(deliveryWindowMinutes);
+        this.serviceMinutes = serviceMinutes;
+        this.budgetMillis = budgetMillis;
+    }
+
+    /**
+     * Route for one driver on one day.
+     */
+    public RoutePlanResponse planForDriver(Long driverId, LocalDate date) {
+        List<JobStop> stops = readTransaction.execute(status -> loadStops(List.of(driverId), date))
+                .getOrDefault(driverId, List.of());
+        return plan(driverId, date, stops);
+    }
+
+    /**
+     * Routes for every delivery driver on one day, planned in parallel.
+     */
+    public List<RoutePlanResponse> planForAllDrivers(LocalDate date) {
+        List<Long> driverIds = new ArrayList<>();
+        Map<Long, List<JobStop>> stopsByDriver = readTransaction.execute(status -> {
+            driverIds.addAll(userRepository.findByRole(UserRole.DELIVERY_STAFF).stream().map(User::getId).toList());
+            return driverIds.isEmpty() ? Map.<Long, List<JobStop>>of() : loadStops(driverIds, date);
+        });
+        if (driverIds.isEmpty()) {
+            return List.of();
+        }
+        List<Future<RoutePlanResponse>> futures = new ArrayList<>(driverIds.size());
+        for (Long driverId : driverIds) {
+            List<JobStop> stops = stopsByDriver.getOrDefault(driverId, List.of());
+            futures.add(workers.submit(() -> plan(driverId, date, stops)));
+        }
+        List<RoutePlanResponse> plans = new ArrayList<>(futures.size());
+        for (Future<RoutePlanResponse> future : futures) {
+            try {
+                plans.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Route planning interrupted");
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Route planning failed: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+        return plans;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    // Copies what planning needs out of the entities so workers never touch the persistence context
+    private Map<Long, List<JobStop>> loadStops(List<Long> driverIds, LocalDate date) {
+        LocalDateTime dayStart = date.atStartOfDay();
+        List<DeliveryJob> jobs = deliveryJobRepository.findRouteStops(driverIds, DeliveryStatus.SCHEDULED,
+                EnumSet.of(DeliveryStatus.PICKED_UP, DeliveryStatus.IN_TRANSIT), dayStart, dayStart.plusDays(1));
+        Map<Long, List<JobStop>> byDriver = new HashMap<>();
+        for (DeliveryJob job : jobs) {
+            boolean pickup = job.getStatus() == DeliveryStatus.SCHEDULED;
+            LocalDateTime windowStart = pickup ? job.getPickupAt() : job.getDeliveryAt().minus(deliveryWindow);
+            LocalDateTime windowEnd = pickup ? job.getPickupAt().plus(pickupWindow) : job.getDeliveryAt();
+            JobStop stop = new JobStop(job.getId(), job.getOrder().getId(), pickup ? "PICKUP" : "DELIVERY",
+                    job.getLatitude() != null ? job.getLatitude() : Double.NaN,
+                    job.getLongitude() != null ? job.getLongitude() : Double.NaN,
+                    windowStart, windowEnd);
+            byDriver.computeIfAbsent(job.getAssignedTo().getId(), k -> new ArrayList<>()).add(stop);
+        }
+        return byDriver;
+    }
+
+    private RoutePlanResponse plan(Long driverId, LocalDate date, List<JobStop> jobStops) {
+        LocalDateTime dayStart = date.atStartOfDay();
+        List<Stop> stops = new ArrayList<>(jobStops.size());
+        Map<Long, JobStop> byId = new HashMap<>();
+        List<Long> unrouted = new ArrayList<>();
+        for (JobStop job : jobStops) {
+            if (Double.isNaN(job.latitude()) || Double.isNaN(job.longitude())) {
+                unrouted.add(job.deliveryId());
+                continue;
+            }
+            byId.put(job.deliveryId(), job);
+            stops.add(new Stop(job.deliveryId(), job.latitude(), job.longitude(),
+                    minuteOfDay(dayStart, job.windowStart()), minuteOfDay(dayStart, job.windowEnd()), serviceMinutes));
+        }
+        int start = startTime.getHour() * 60 + startTime.getMinute();
+        if (stops.isEmpty()) {
+            return new RoutePlanResponse(driverId, date, List.of(), unrouted, 0, dayStart.plusMinutes(start), 0);
+        }
+
+        Plan plan = planner.plan(depotLatitude, depotLongitude, start, stops, budgetMillis);
+        List<RouteStop> route = new ArrayList<>(stops.size());
+        for (int i = 0; i < plan.sequence().size(); i++) {
+            Stop stop = plan.sequence().get(i);
+            JobStop job = byId.get(stop.id());
+            route.add(new RouteStop(i + 1, job.deliveryId(), job.orderId(), job.kind(), job.latitude(),
+                    job.longitude(), job.windowStart(), job.windowEnd(),
+                    dayStart.plusMinutes(plan.arrivals()[i]), plan.arrivals()[i] > stop.latest()));
+        }
+        double distance = Math.round(plan.distanceKm() * 100) / 100.0;
+        return new RoutePlanResponse(driverId, date, route, unrouted, distance,
+                dayStart.plusMinutes(plan.finishMinute()), plan.lateStops());
+    }
+
+    private static int minuteOfDay(LocalDateTime dayStart, LocalDateTime time) {
+        long minutes = Duration.between(dayStart, time).toMinutes();
+        return (int) Math.max(0, Math.min(MINUTES_PER_DAY, minutes));
+    }
+}
@@ -0,0 +1,111 @@
+package com.laundry.lms.service.simulation;
+
+import com.laundry.lms.model.ServiceType;
+import com.laundry.lms.service.production.ProductionPlanner.Step;
+import com.laundry.lms.service.simulation.ShopSimulator.Item;
+import com.laundry.lms.service.simulation.ShopSimulator.Order;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Synthetic demand for the simulator. Orders arrive as a Poisson process
+ * whose rate follows the time of day (morning and evening peaks, nothing
+ * overnight) and the day of the week (busier weekends). Each order has one to
+ * four items with a service mix and weights close to what the shop sees;
+ * standard orders are due two days after pickup at a delivery hour, express
+ * orders the same evening or next morning. Deterministic for a given seed.
+ */
+public class DemandGenerator {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    // Relative arrival rate per hour of day
+    private static final double[] HOURLY = {
+            0, 0, 0, 0, 0, 0, 0, 2, 6, 8, 7, 5, 4, 4, 4, 5, 7, 9, 8, 5, 2, 0, 0, 0 };
+    // Relative volume Monday to Sunday, day 0 being a Monday
+    private static final double[] WEEKLY = { 0.9, 0.9, 0.95, 0.95, 1.0, 1.2, 1.1 };
+    private static final ServiceType[] MIX = {
+            ServiceType.LAUNDRY_WASH_ONLY, ServiceType.LAUNDRY_WASH_ONLY, ServiceType.LAUNDRY_WASH_ONLY,
+            ServiceType.WASH_AND_IRON, ServiceType.WASH_AND_IRON, ServiceType.WASH_AND_IRON,
+            ServiceType.PRESSING_IRON_ONLY, ServiceType.PRESSING_IRON_ONLY,
+            ServiceType.DRY_CLEANING, ServiceType.PREMIUM_DELICATE_CARE };
+
+    private final Map<ServiceType, List<Step>> routes;
+    private final Random random;
+
+    public DemandGenerator(Map<ServiceType, List<Step>> routes, long seed) {
+        this.routes = routes;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Orders for the given number of days, sorted by arrival.
+     *
+     * @param ordersPerDay average over a week
+     */
+    public List<Order> generate(int days, double ordersPerDay, double expressShare) {
+        double hourlyTotal = 0;
+        for (double weight : HOURLY) {
+            hourlyTotal += weight;
+        }
+        double weeklyTotal = 0;
+        for (double weight : WEEKLY) {
+            weeklyTotal += weight;
+        }
+
+        List<Order> orders = new ArrayList<>();
+        long id = 1;
+        for (int day = 0; day < days; day++) {
+            double dayRate = ordersPerDay * WEEKLY[day % 7] * 7 / weeklyTotal;
+            for (int hour = 0; hour < 24; hour++) {
+                double perMinute = dayRate * HOURLY[hour] / hourlyTotal / 60;
+                if (perMinute <= 0) {
+                    continue;
+                }
+                // Exponential gaps within the hour
+                double minute = exponential(perMinute);
+                while (minute < 60) {
+                    int arrival = day * MINUTES_PER_DAY + hour * 60 + (int) minute;
+                    orders.add(order(id++, arrival, random.nextDouble() < expressShare));
+                    minute += exponential(perMinute);
+                }
+            }
+        }
+        return orders;
+    }
+
+    private Order order(long id, int arrival, boolean express) {
+        int day = arrival / MINUTES_PER_DAY;
+        int hour = (arrival % MINUTES_PER_DAY) / 60;
+        int due;
+        if (express) {
+            // Same evening for morning pickups, otherwise next morning
+            due = hour < 12 ? day * MINUTES_PER_DAY + 19 * 60 : (day + 1) * MINUTES_PER_DAY + 10 * 60;
+        } else {
+            due = (day + 2) * MINUTES_PER_DAY + (9 + random.nextInt(10)) * 60;
+        }
+        int count = 1 + random.nextInt(4);
+        List<Item> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ServiceType type = MIX[random.nextInt(MIX.length)];
+            items.add(new Item(weight(type), routes.getOrDefault(type, List.of())));
+        }
+        return new Order(id, express, arrival, due, items);
+    }
+
+    private double weight(ServiceType type) {
+        // Mostly light bags, the odd duvet or large family load
+        double kg = switch (type) {
+            case PRESSING_IRON_ONLY, PREMIUM_DELICATE_CARE -> 0.5 + random.nextDouble() * 1.5;
+            case DRY_CLEANING -> 0.5 + random.nextDouble() * 2.5;
+            default -> 1 + random.nextDouble() * 4;
+        };
+        return random.nextInt(25) == 0 ? kg * 4 : kg;
+    }
+
+    private double exponential(double rate) {
+        return -Math.log(1 - random.nextDouble()) / rate;
+    }
+}
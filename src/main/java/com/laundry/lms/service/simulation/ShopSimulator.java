@@ -0,0 +1,498 @@
+package com.laundry.lms.service.simulation;
+
+import com.laundry.lms.model.MachineType;
+import com.laundry.lms.service.production.ProductionPlanner.Machine;
+import com.laundry.lms.service.production.ProductionPlanner.Step;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Discrete-event model of the shop: orders arrive, their items go through
+ * the machines of their route in loads, and finished orders go out with
+ * drivers. Starting a load needs a member of staff on shift for the handling
+ * time; a delivery trip needs a driver on shift and takes several orders.
+ * Load building follows the production scheduler: express first, then
+ * earliest due, items of one program per load, up to machine capacity.
+ * <p>
+ * Time is whole minutes from midnight of day 0 and only jumps from event to
+ * event, so idle nights cost nothing. Each run is self-contained; one
+ * instance can run several models one after another but is not thread-safe.
+ */
+public class ShopSimulator {
+
+    private static final double EPS = 1e-6;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    // Work still queued this long after the last arrival is reported as unfinished
+    private static final int DRAIN_DAYS = 30;
+
+    /**
+     * headcount people on duty every day from startHour to endHour (0-24).
+     */
+    public record Shift(int startHour, int endHour, int headcount) {
+
+        public Shift {
+            if (startHour < 0 || endHour > 24 || startHour >= endHour || headcount < 0) {
+                throw new IllegalArgumentException("Invalid shift " + startHour + "-" + endHour + "x" + headcount);
+            }
+        }
+
+        /**
+         * Parse "6-14x3,14-22x2".
+         */
+        public static List<Shift> parseAll(String value) {
+            List<Shift> shifts = new ArrayList<>();
+            for (String part : value.split(",")) {
+                String spec = part.trim();
+                if (spec.isEmpty()) {
+                    continue;
+                }
+                try {
+                    int dash = spec.indexOf('-');
+                    int times = spec.indexOf('x');
+                    shifts.add(new Shift(Integer.parseInt(spec.substring(0, dash)),
+                            Integer.parseInt(spec.substring(dash + 1, times)),
+                            Integer.parseInt(spec.substring(times + 1))));
+                } catch (RuntimeException e) {
+                    throw new IllegalArgumentException("Invalid shift " + spec);
+                }
+            }
+            return shifts;
+        }
+    }
+
+    public record Config(List<Machine> machines, List<Shift> staffShifts, int handlingMinutes,
+            List<Shift> driverShifts, int stopsPerTrip, int outboundMinutes, int stopMinutes,
+            int deliveryWindowMinutes) {}
+
+    public record Item(double kg, List<Step> route) {}
+
+    /**
+     * An order as it reaches the shop. dueMinute is the promised delivery time.
+     */
+    public record Order(long id, boolean express, int arrivalMinute, int dueMinute, List<Item> items) {}
+
+    public record Percentiles(int p50, int p90, int p95, int p99, int max) {}
+
+    public record MachineUse(MachineType type, int machines, double utilization, double averageFill, long loads) {}
+
+    /**
+     * Production is arrival until the last item comes off its last machine,
+     * the part the shop's capacity decides; turnaround is arrival to
+     * delivery, which also waits for the delivery window. Late counts orders delivered after
+     * their due minute or not delivered at all. Utilization is busy time over
+     * the time available: the whole horizon for machines, time on shift for
+     * staff and drivers.
+     */
+    public record Report(int days, int orders, int delivered, int unfinished, int late, double lateRate,
+            Percentiles productionMinutes, Percentiles turnaroundMinutes, Percentiles expressTurnaroundMinutes, List<MachineUse> machines,
+            double staffUtilization, double driverUtilization, long events) {}
+
+    private static final int ARRIVAL = 0;
+    private static final int LOAD_DONE = 1;
+    private static final int STAFF_FREE = 2;
+    private static final int DRIVER_FREE = 3;
+    private static final int DELIVERABLE = 4;
+    private static final int SHIFT_CHANGE = 5;
+    private static final int TRIP_CHECK = 6;
+
+    private record Event(int time, long seq, int kind, Object subject) {}
+
+    private static final class SimOrder {
+        private final Order order;
+        private int itemsLeft;
+        private int readyAt = -1;
+        private int deliveredAt = -1;
+
+        private SimOrder(Order order) {
+            this.order = order;
+            this.itemsLeft = order.items().size();
+        }
+    }
+
+    private static final class SimItem {
+        private final SimOrder order;
+        private final Item item;
+        private int step;
+        private double unassignedKg;
+        private int partsInMachines;
+
+        private SimItem(SimOrder order, Item item) {
+            this.order = order;
+            this.item = item;
+            this.unassignedKg = item.kg();
+        }
+
+        private Step current() {
+            return item.route().get(step);
+        }
+    }
+
+    private record Load(SimMachine machine, List<SimItem> items, double kg) {}
+
+    private static final class SimMachine {
+        private final Machine machine;
+        private long busyMinutes;
+        private long loads;
+        private double loadedKg;
+
+        private SimMachine(Machine machine) {
+            this.machine = machine;
+        }
+    }
+
+    private static final Comparator<SimItem> ITEM_PRIORITY = (a, b) -> {
+        if (a.order.order.express() != b.order.order.express()) {
+            return a.order.order.express() ? -1 : 1;
+        }
+        int byDue = Integer.compare(a.order.order.dueMinute(), b.order.order.dueMinute());
+        return byDue != 0 ? byDue : Long.compare(a.order.order.id(), b.order.order.id());
+    };
+
+    private static final Comparator<SimOrder> DELIVERY_PRIORITY = Comparator
+            .comparingInt((SimOrder order) -> order.order.dueMinute())
+            .thenComparingLong(order -> order.order.id());
+
+    // Run state, reset by run()
+    private PriorityQueue<Event> events;
+    private long seq;
+    private Config config;
+    private Map<MachineType, ArrayDeque<SimMachine>> idle;
+    private Map<MachineType, Map<String, PriorityQueue<SimItem>>> queues;
+    private PriorityQueue<SimOrder> deliveries;
+    private int staffOnShift;
+    private int staffBusy;
+    private int driversOnShift;
+    private int driversBusy;
+    private long staffBusyMinutes;
+    private long driverBusyMinutes;
+    private int outstanding;
+    private long processed;
+    private int tripCheckAt;
+
+    /**
+     * Run the orders through the shop; orders must be sorted by arrival.
+     */
+    public Report run(Config config, List<Order> orders) {
+        this.config = config;
+        this.events = new PriorityQueue<>(Comparator.comparingInt(Event::time).thenComparingLong(Event::seq));
+        this.seq = 0;
+        this.idle = new EnumMap<>(MachineType.class);
+        this.queues = new EnumMap<>(MachineType.class);
+        this.deliveries = new PriorityQueue<>(DELIVERY_PRIORITY);
+        this.staffBusy = 0;
+        this.driversBusy = 0;
+        this.staffBusyMinutes = 0;
+        this.driverBusyMinutes = 0;
+        this.outstanding = orders.size();
+        this.processed = 0;
+        this.tripCheckAt = -1;
+
+        List<SimMachine> machines = new ArrayList<>();
+        for (Machine machine : config.machines()) {
+            SimMachine simMachine = new SimMachine(machine);
+            machines.add(simMachine);
+            idle.computeIfAbsent(machine.type(), type -> new ArrayDeque<>()).add(simMachine);
+        }
+
+        List<SimOrder> simOrders = new ArrayList<>(orders.size());
+        int lastArrival = 0;
+        for (Order order : orders) {
+            SimOrder simOrder = new SimOrder(order);
+            simOrders.add(simOrder);
+            lastArrival = Math.max(lastArrival, order.arrivalMinute());
+        }
+        int days = lastArrival / MINUTES_PER_DAY + 1;
+        int stopAt = (days + DRAIN_DAYS) * MINUTES_PER_DAY;
+
+        // Arrivals are fed in one at a time so the event queue stays small
+        int nextArrival = 0;
+        staffOnShift = headcount(config.staffShifts(), 0);
+        driversOnShift = headcount(config.driverShifts(), 0);
+        schedule(nextShiftChange(0), SHIFT_CHANGE, null);
+        if (!simOrders.isEmpty()) {
+            schedule(simOrders.get(0).order.arrivalMinute(), ARRIVAL, simOrders.get(nextArrival++));
+        }
+
+        int now = 0;
+        while (!events.isEmpty() && outstanding > 0) {
+            Event event = events.poll();
+            now = event.time();
+            if (now >= stopAt) {
+                break;
+            }
+            processed++;
+            switch (event.kind()) {
+                case ARRIVAL -> {
+                    arrive((SimOrder) event.subject(), now);
+                    if (nextArrival < simOrders.size()) {
+                        SimOrder next = simOrders.get(nextArrival++);
+                        schedule(Math.max(now, next.order.arrivalMinute()), ARRIVAL, next);
+                    }
+                }
+                case LOAD_DONE -> finishLoad((Load) event.subject(), now);
+                case STAFF_FREE -> staffBusy--;
+                case DRIVER_FREE -> driversBusy--;
+                case DELIVERABLE -> deliveries.add((SimOrder) event.subject());
+                case TRIP_CHECK -> tripCheckAt = -1;
+                case SHIFT_CHANGE -> {
+                    staffOnShift = headcount(config.staffShifts(), now);
+                    driversOnShift = headcount(config.driverShifts(), now);
+                    schedule(nextShiftChange(now), SHIFT_CHANGE, null);
+                }
+                default -> throw new IllegalStateException("Unknown event " + event.kind());
+            }
+            startLoads(now);
+            startTrips(now);
+        }
+        return report(simOrders, machines, days);
+    }
+
+    private void arrive(SimOrder order, int now) {
+        if (order.order.items().isEmpty()) {
+            ready(order, now);
+            return;
+        }
+        for (Item item : order.order.items()) {
+            SimItem simItem = new SimItem(order, item);
+            if (item.route().isEmpty()) {
+                itemDone(simItem, now);
+            } else {
+                enqueue(simItem);
+            }
+        }
+    }
+
+    private void enqueue(SimItem item) {
+        Step step = item.current();
+        queues.computeIfAbsent(step.type(), type -> new HashMap<>())
+                .computeIfAbsent(step.program(), program -> new PriorityQueue<>(ITEM_PRIORITY))
+                .add(item);
+    }
+
+    // Start loads while staff and machines are free, best waiting item first
+    private void startLoads(int now) {
+        while (staffBusy < staffOnShift) {
+            PriorityQueue<SimItem> best = null;
+            for (Map.Entry<MachineType, Map<String, PriorityQueue<SimItem>>> byType : queues.entrySet()) {
+                ArrayDeque<SimMachine> free = idle.get(byType.getKey());
+                if (free == null || free.isEmpty()) {
+                    continue;
+                }
+                for (PriorityQueue<SimItem> queue : byType.getValue().values()) {
+                    if (!queue.isEmpty() && (best == null || ITEM_PRIORITY.compare(queue.peek(), best.peek()) < 0)) {
+                        best = queue;
+                    }
+                }
+            }
+            if (best == null) {
+                return;
+            }
+            Step step = best.peek().current();
+            SimMachine machine = idle.get(step.type()).poll();
+            double room = machine.machine.capacityKg();
+            List<SimItem> items = new ArrayList<>();
+            while (room > EPS && !best.isEmpty()) {
+                SimItem item = best.peek();
+                if (item.unassignedKg > room + EPS && !items.isEmpty() && item.unassignedKg <= machine.machine.capacityKg()) {
+                    // Fits a load of its own; do not split it just to top this one up
+                    break;
+                }
+                double take = Math.min(item.unassignedKg, room);
+                item.unassignedKg -= take;
+                item.partsInMachines++;
+                room -= take;
+                items.add(item);
+                if (item.unassignedKg <= EPS) {
+                    best.poll();
+                }
+            }
+            int minutes = config.handlingMinutes() + step.minutes();
+            double kg = machine.machine.capacityKg() - room;
+            machine.busyMinutes += minutes;
+            machine.loads++;
+            machine.loadedKg += kg;
+            staffBusy++;
+            staffBusyMinutes += config.handlingMinutes();
+            schedule(now + config.handlingMinutes(), STAFF_FREE, null);
+            schedule(now + minutes, LOAD_DONE, new Load(machine, items, kg));
+        }
+    }
+
+    private void finishLoad(Load load, int now) {
+        idle.get(load.machine().machine.type()).add(load.machine());
+        for (SimItem item : load.items()) {
+            item.partsInMachines--;
+            if (item.partsInMachines > 0 || item.unassignedKg > EPS) {
+                continue;
+            }
+            item.step++;
+            if (item.step < item.item.route().size()) {
+                item.unassignedKg = item.item.kg();
+                enqueue(item);
+            } else {
+                itemDone(item, now);
+            }
+        }
+    }
+
+    private void itemDone(SimItem item, int now) {
+        if (--item.order.itemsLeft == 0) {
+            ready(item.order, now);
+        }
+    }
+
+    // Ready orders go out from the start of their delivery window
+    private void ready(SimOrder order, int now) {
+        order.readyAt = now;
+        int windowOpens = order.order.dueMinute() - config.deliveryWindowMinutes();
+        if (windowOpens > now) {
+            schedule(windowOpens, DELIVERABLE, order);
+        } else {
+            deliveries.add(order);
+        }
+    }
+
+    // A driver leaves with a full van, or earlier once the most urgent order cannot wait any longer.
+    // Orders this trip would reach late are left to another free driver.
+    private void startTrips(int now) {
+        int fullTrip = 2 * config.outboundMinutes() + config.stopsPerTrip() * config.stopMinutes();
+        while (driversBusy < driversOnShift && !deliveries.isEmpty()) {
+            int leaveBy = deliveries.peek().order.dueMinute() - fullTrip;
+            if (deliveries.size() < config.stopsPerTrip() && leaveBy > now) {
+                if (tripCheckAt < 0 || tripCheckAt > leaveBy) {
+                    tripCheckAt = leaveBy;
+                    schedule(leaveBy, TRIP_CHECK, null);
+                }
+                return;
+            }
+            int stops = 0;
+            while (stops < config.stopsPerTrip() && !deliveries.isEmpty()) {
+                int due = deliveries.peek().order.dueMinute();
+                boolean lateHere = now + config.outboundMinutes() + (stops + 1) * config.stopMinutes() > due;
+                boolean onTimeElsewhere = driversBusy + 1 < driversOnShift
+                        && now + config.outboundMinutes() + config.stopMinutes() <= due;
+                if (stops > 0 && lateHere && onTimeElsewhere) {
+                    // Leave it for the next free driver
+                    break;
+                }
+                SimOrder order = deliveries.poll();
+                stops++;
+                order.deliveredAt = now + config.outboundMinutes() + stops * config.stopMinutes();
+                outstanding--;
+            }
+            int minutes = 2 * config.outboundMinutes() + stops * config.stopMinutes();
+            driversBusy++;
+            driverBusyMinutes += minutes;
+            schedule(now + minutes, DRIVER_FREE, null);
+        }
+    }
+
+    private void schedule(int time, int kind, Object subject) {
+        events.add(new Event(time, seq++, kind, subject));
+    }
+
+    private static int headcount(List<Shift> shifts, int minute) {
+        int hour = (minute % MINUTES_PER_DAY) / 60;
+        int count = 0;
+        for (Shift shift : shifts) {
+            if (hour >= shift.startHour() && hour < shift.endHour()) {
+                count += shift.headcount();
+            }
+        }
+        return count;
+    }
+
+    // Next full hour; shifts only change on the hour
+    private static int nextShiftChange(int minute) {
+        return (minute / 60 + 1) * 60;
+    }
+
+    private static int onShiftMinutesPerDay(List<Shift> shifts) {
+        int minutes = 0;
+        for (Shift shift : shifts) {
+            minutes += (shift.endHour() - shift.startHour()) * 60 * shift.headcount();
+        }
+        return minutes;
+    }
+
+    private Report report(List<SimOrder> orders, List<SimMachine> machines, int days) {
+        int[] production = new int[orders.size()];
+        int[] turnaround = new int[orders.size()];
+        int[] express = new int[orders.size()];
+        int produced = 0;
+        int delivered = 0;
+        int expressDelivered = 0;
+        int late = 0;
+        for (SimOrder order : orders) {
+            if (order.readyAt >= 0) {
+                production[produced++] = order.readyAt - order.order.arrivalMinute();
+            }
+            if (order.deliveredAt < 0) {
+                // Never delivered within the run
+                late++;
+                continue;
+            }
+            int minutes = order.deliveredAt - order.order.arrivalMinute();
+            turnaround[delivered++] = minutes;
+            if (order.order.express()) {
+                express[expressDelivered++] = minutes;
+            }
+            if (order.deliveredAt > order.order.dueMinute()) {
+                late++;
+            }
+        }
+
+        long horizon = (long) days * MINUTES_PER_DAY;
+        Map<MachineType, double[]> byType = new EnumMap<>(MachineType.class);
+        for (SimMachine machine : machines) {
+            // count, busy minutes, loads, kg
+            double[] totals = byType.computeIfAbsent(machine.machine.type(), type -> new double[4]);
+            totals[0]++;
+            totals[1] += machine.busyMinutes;
+            totals[2] += machine.loads;
+            totals[3] += machine.loadedKg;
+        }
+        List<MachineUse> machineUse = new ArrayList<>();
+        byType.forEach((type, totals) -> {
+            double capacity = 0;
+            for (SimMachine machine : machines) {
+                if (machine.machine.type() == type) {
+                    capacity += machine.machine.capacityKg() * machine.loads;
+                }
+            }
+            machineUse.add(new MachineUse(type, (int) totals[0], totals[1] / (totals[0] * horizon),
+                    capacity > 0 ? totals[3] / capacity : 0, (long) totals[2]));
+        });
+
+        long staffMinutes = (long) onShiftMinutesPerDay(config.staffShifts()) * days;
+        long driverMinutes = (long) onShiftMinutesPerDay(config.driverShifts()) * days;
+        return new Report(days, orders.size(), delivered, orders.size() - delivered, late,
+                orders.isEmpty() ? 0 : (double) late / orders.size(),
+                percentiles(production, produced), percentiles(turnaround, delivered), percentiles(express, expressDelivered), machineUse,
+                staffMinutes > 0 ? (double) staffBusyMinutes / staffMinutes : 0,
+                driverMinutes > 0 ? (double) driverBusyMinutes / driverMinutes : 0,
+                processed);
+    }
+
+    private static Percentiles percentiles(int[] values, int count) {
+        if (count == 0) {
+            return new Percentiles(0, 0, 0, 0, 0);
+        }
+        int[] sorted = Arrays.copyOf(values, count);
+        Arrays.sort(sorted);
+        return new Percentiles(rank(sorted, 0.50), rank(sorted, 0.90), rank(sorted, 0.95), rank(sorted, 0.99),
+                sorted[count - 1]);
+    }
+
+    private static int rank(int[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+}
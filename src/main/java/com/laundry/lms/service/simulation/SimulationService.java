@@ -0,0 +1,236 @@
+package com.laundry.lms.service.simulation;
+
+import com.laundry.lms.dto.SimulationReport;
+import com.laundry.lms.dto.SimulationRequest;
+import com.laundry.lms.model.LaundryOrder;
+import com.laundry.lms.model.OrderItem;
+import com.laundry.lms.model.OrderStatus;
+import com.laundry.lms.repository.MachineRepository;
+import com.laundry.lms.repository.OrderItemRepository;
+import com.laundry.lms.service.production.ProductionPlanner.Machine;
+import com.laundry.lms.service.production.ProductionScheduleService;
+import com.laundry.lms.service.simulation.ShopSimulator.Config;
+import com.laundry.lms.service.simulation.ShopSimulator.Item;
+import com.laundry.lms.service.simulation.ShopSimulator.Order;
+import com.laundry.lms.service.simulation.ShopSimulator.Shift;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the shop simulator on past orders or synthetic demand. Routes, item
+ * weights, express flags and delivery times come from the production
+ * scheduler so the model batches work the way the shop is planned; machines
+ * come from the machines table unless the request lists its own. Past
+ * orders are read in a short read-only transaction; the run itself is in
+ * memory and holds no connection. Synthetic demand and machine groups are
+ * capped by simulation.max-orders-per-day and simulation.max-machines.
+ */
+@Service
+public class SimulationService {
+
+    private final OrderItemRepository orderItemRepository;
+    private final MachineRepository machineRepository;
+    private final ProductionScheduleService scheduleService;
+    private final TransactionTemplate readTransaction;
+    private final int maxDays;
+    private final double maxOrdersPerDay;
+    private final int maxMachines;
+    private final int defaultDays;
+    private final double defaultOrdersPerDay;
+    private final double defaultExpressShare;
+    private final long defaultTurnaroundMinutes;
+    private final String staffShifts;
+    private final int handlingMinutes;
+    private final String driverShifts;
+    private final int stopsPerTrip;
+    private final int outboundMinutes;
+    private final int stopMinutes;
+    private final int deliveryWindowMinutes;
+
+    public SimulationService(OrderItemRepository orderItemRepository,
+            MachineRepository machineRepository,
+            ProductionScheduleService scheduleService,
+            PlatformTransactionManager transactionManager,
+            @Value("${simulation.max-days:366}") int maxDays,
+            @Value("${simulation.max-orders-per-day:2000}") double maxOrdersPerDay,
+            @Value("${simulation.max-machines:500}") int maxMachines,
+            @Value("${simulation.default-days:365}") int defaultDays,
+            @Value("${simulation.orders-per-day:100}") double defaultOrdersPerDay,
+            @Value("${simulation.express-share:0.1}") double defaultExpressShare,
+            @Value("${simulation.default-turnaround-hours:48}") long defaultTurnaroundHours,
+            @Value("${simulation.staff-shifts:6-14x4,14-22x4}") String staffShifts,
+            @Value("${simulation.handling-minutes:5}") int handlingMinutes,
+            @Value("${simulation.driver-shifts:7-15x3,12-20x2}") String driverShifts,
+            @Value("${simulation.stops-per-trip:12}") int stopsPerTrip,
+            @Value("${simulation.outbound-minutes:20}") int outboundMinutes,
+            @Value("${simulation.stop-minutes:5}") int stopMinutes,
+            @Value("${simulation.delivery-window-minutes:240}") int deliveryWindowMinutes) {
+        this.orderItemRepository = orderItemRepository;
+        this.machineRepository = machineRepository;
+        this.scheduleService = scheduleService;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.maxDays = maxDays;
+        this.maxOrdersPerDay = maxOrdersPerDay;
+        this.maxMachines = maxMachines;
+        this.defaultDays = defaultDays;
+        this.defaultOrdersPerDay = defaultOrdersPerDay;
+        this.defaultExpressShare = defaultExpressShare;
+        this.defaultTurnaroundMinutes = defaultTurnaroundHours * 60;
+        this.staffShifts = staffShifts;
+        this.handlingMinutes = handlingMinutes;
+        this.driverShifts = driverShifts;
+        this.stopsPerTrip = stopsPerTrip;
+        this.outboundMinutes = outboundMinutes;
+        this.stopMinutes = stopMinutes;
+        this.deliveryWindowMinutes = deliveryWindowMinutes;
+    }
+
+    /**
+     * @throws IllegalArgumentException for an invalid request or when there are no machines
+     */
+    public SimulationReport simulate(SimulationRequest request) {
+        Config config = config(request);
+        String demand;
+        LocalDate from;
+        LocalDate to;
+        List<Order> orders;
+        if (request.from() != null || request.to() != null) {
+            if (request.from() == null || request.to() == null || request.to().isBefore(request.from())) {
+                throw new IllegalArgumentException("from and to must both be set, from first");
+            }
+            demand = "HISTORY";
+            from = request.from();
+            to = request.to();
+            checkDays(ChronoUnit.DAYS.between(from, to) + 1);
+            orders = readTransaction.execute(status -> history(request.from(), request.to()));
+        } else {
+            int days = request.days() != null ? request.days() : defaultDays;
+            checkDays(days);
+            double ordersPerDay = request.ordersPerDay() != null ? request.ordersPerDay() : defaultOrdersPerDay;
+            double expressShare = request.expressShare() != null ? request.expressShare() : defaultExpressShare;
+            if (ordersPerDay <= 0 || ordersPerDay > maxOrdersPerDay || expressShare < 0 || expressShare > 1) {
+                throw new IllegalArgumentException("ordersPerDay must be positive and at most " + maxOrdersPerDay
+                        + ", and expressShare between 0 and 1");
+            }
+            long seed = request.seed() != null ? request.seed() : 1;
+            demand = "SYNTHETIC";
+            // Synthetic weeks start on a Monday
+            from = LocalDate.now().with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+            to = from.plusDays(days - 1L);
+            orders = new DemandGenerator(scheduleService.getRoutes(), seed).generate(days, ordersPerDay, expressShare);
+        }
+
+        long start = System.nanoTime();
+        ShopSimulator.Report result = new ShopSimulator().run(config, orders);
+        long wallMillis = (System.nanoTime() - start) / 1_000_000;
+        return new SimulationReport(demand, from, to, config.machines().size(), wallMillis, result);
+    }
+
+    private void checkDays(long days) {
+        if (days < 1 || days > maxDays) {
+            throw new IllegalArgumentException("Simulate between 1 and " + maxDays + " days");
+        }
+    }
+
+    // Orders arrive at their pickup slot (or when placed) and are due at their delivery slot
+    private List<Order> history(LocalDate from, LocalDate to) {
+        LocalDateTime epoch = from.atStartOfDay();
+        List<OrderItem> items = orderItemRepository.findWithOrderByCreatedAtBetween(epoch,
+                to.plusDays(1).atStartOfDay(), OrderStatus.CANCELLED);
+        Map<Long, List<OrderItem>> byOrder = new LinkedHashMap<>();
+        for (OrderItem item : items) {
+            byOrder.computeIfAbsent(item.getOrder().getId(), id -> new ArrayList<>()).add(item);
+        }
+
+        List<Order> orders = new ArrayList<>(byOrder.size());
+        for (List<OrderItem> orderItems : byOrder.values()) {
+            LaundryOrder order = orderItems.get(0).getOrder();
+            LocalDateTime arrival = order.getCreatedAt();
+            if (order.getPickupDate() != null && order.getPickupHour() != null) {
+                LocalDateTime pickup = order.getPickupDate().atTime(order.getPickupHour(), 0);
+                if (pickup.isAfter(arrival)) {
+                    arrival = pickup;
+                }
+            }
+            int arrivalMinute = minute(epoch, arrival);
+            LocalDateTime delivery = scheduleService.deliveryAt(order);
+            int dueMinute = delivery != null
+                    ? minute(epoch, delivery)
+                    : (int) (arrivalMinute + defaultTurnaroundMinutes);
+
+            boolean express = false;
+            List<Item> simItems = new ArrayList<>(orderItems.size());
+            for (OrderItem item : orderItems) {
+                express |= scheduleService.isExpress(item);
+                simItems.add(new Item(scheduleService.kg(item),
+                        scheduleService.getRoutes().getOrDefault(item.getServiceType(), List.of())));
+            }
+            orders.add(new Order(order.getId(), express, arrivalMinute, dueMinute, simItems));
+        }
+        orders.sort(Comparator.comparingInt(Order::arrivalMinute).thenComparingLong(Order::id));
+        return orders;
+    }
+
+    private Config config(SimulationRequest request) {
+        List<Machine> machines = new ArrayList<>();
+        if (request.machines() != null && !request.machines().isEmpty()) {
+            long id = 1;
+            for (SimulationRequest.MachineGroup group : request.machines()) {
+                if (group.type() == null || group.count() < 1 || group.capacityKg() <= 0) {
+                    throw new IllegalArgumentException("Each machine group needs a type, a count and a capacity");
+                }
+                if (group.count() > maxMachines - machines.size()) {
+                    throw new IllegalArgumentException("Simulate at most " + maxMachines + " machines");
+                }
+                for (int i = 0; i < group.count(); i++) {
+                    machines.add(new Machine(id++, group.type(), group.capacityKg()));
+                }
+            }
+        } else {
+            machineRepository.findByActiveTrueOrderByTypeAscNameAsc().stream()
+                    .filter(machine -> machine.getCapacityKg() != null && machine.getCapacityKg() > 0)
+                    .forEach(machine ->
+                            machines.add(new Machine(machine.getId(), machine.getType(), machine.getCapacityKg())));
+        }
+        if (machines.isEmpty()) {
+            throw new IllegalArgumentException("No machines to simulate");
+        }
+
+        Config config = new Config(machines,
+                Shift.parseAll(request.staffShifts() != null ? request.staffShifts() : staffShifts),
+                orDefault(request.handlingMinutes(), handlingMinutes),
+                Shift.parseAll(request.driverShifts() != null ? request.driverShifts() : driverShifts),
+                orDefault(request.stopsPerTrip(), stopsPerTrip),
+                orDefault(request.outboundMinutes(), outboundMinutes),
+                orDefault(request.stopMinutes(), stopMinutes),
+                orDefault(request.deliveryWindowMinutes(), deliveryWindowMinutes));
+        if (config.stopsPerTrip() < 1 || config.handlingMinutes() < 0 || config.outboundMinutes() < 0
+                || config.stopMinutes() < 0 || config.deliveryWindowMinutes() < 0) {
+            throw new IllegalArgumentException("stopsPerTrip must be at least 1 and times not negative");
+        }
+        return config;
+    }
+
+    private static int orDefault(Integer value, int fallback) {
+        return value != null ? value : fallback;
+    }
+
+    private static int minute(LocalDateTime epoch, LocalDateTime time) {
+        return (int) Math.max(0, Duration.between(epoch, time).toMinutes());
+    }
+}
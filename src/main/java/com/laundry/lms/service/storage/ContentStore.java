@@ -0,0 +1,145 @@
+package com.laundry.lms.service.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Local content-addressed file store.
+ * Files are named by the SHA-256 of their content and fanned out into
+ * two-level directories (ab/cd/abcd...), so identical content is stored once
+ * and a stored file never changes.
+ */
+@Component
+public class ContentStore {
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Hash and size of content stored from a stream.
+     */
+    public record Stored(String hash, long size) {}
+
+    private final Path root;
+
+    public ContentStore(@Value("${storage.local.root:./data/store}") String root) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Store content and return its hash. Existing content is not rewritten.
+     */
+    public String put(byte[] content) {
+        String hash = sha256(content);
+        Path target = resolve(hash);
+        if (Files.exists(target)) {
+            return hash;
+        }
+        try {
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), hash, ".tmp");
+            try {
+                Files.write(temp, content);
+                moveIntoPlace(temp, target);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store content " + hash, e);
+        }
+        return hash;
+    }
+
+    /**
+     * Store content read from a stream, hashing it on the way to disk. Only a
+     * small copy buffer is held in memory whatever the size of the content.
+     *
+     * @throws IllegalArgumentException if the stream is longer than maxBytes
+     */
+    public Stored put(InputStream content, long maxBytes) {
+        try {
+            Files.createDirectories(root);
+            // Written under the root so the final move stays on one file system
+            Path temp = Files.createTempFile(root, "upload", ".tmp");
+            try {
+                MessageDigest digest = newDigest();
+                byte[] buffer = new byte[COPY_BUFFER_SIZE];
+                long size = 0;
+                try (OutputStream out = Files.newOutputStream(temp)) {
+                    int read;
+                    while ((read = content.read(buffer)) != -1) {
+                        size += read;
+                        if (size > maxBytes) {
+                            throw new IllegalArgumentException("Content is larger than " + maxBytes + " bytes");
+                        }
+                        digest.update(buffer, 0, read);
+                        out.write(buffer, 0, read);
+                    }
+                }
+                String hash = HexFormat.of().formatHex(digest.digest());
+                Path target = resolve(hash);
+                Files.createDirectories(target.getParent());
+                moveIntoPlace(temp, target);
+                return new Stored(hash, size);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store content", e);
+        }
+    }
+
+    /**
+     * Path of the file for a hash (may not exist).
+     */
+    public Path resolve(String hash) {
+        if (hash == null || !hash.matches("[0-9a-f]{64}")) {
+            throw new IllegalArgumentException("Invalid content hash");
+        }
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    public boolean exists(String hash) {
+        return hash != null && Files.exists(resolve(hash));
+    }
+
+    /**
+     * Move a fully written temp file to its content address. If another writer
+     * got there first the content is identical, so losing the race is fine.
+     */
+    void moveIntoPlace(Path temp, Path target) throws IOException {
+        if (Files.exists(target)) {
+            return;
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            if (!Files.exists(target)) {
+                throw e;
+            }
+        }
+    }
+
+    static String sha256(byte[] content) {
+        return HexFormat.of().formatHex(newDigest().digest(content));
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package com.laundry.lms.service.stream;
+
+import com.laundry.lms.dto.DeliveryUpdate;
+import com.laundry.lms.model.DeliveryJob;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+
+/**
+ * Fans delivery job changes out to Server-Sent Event subscribers. Each
+ * subscriber has a filter and a bounded buffer drained by a small sender
+ * pool, so a slow client never blocks the request that changed the job.
+ * Slow subscribers are dropped: one that falls a full buffer behind, or whose
+ * current send has been blocked longer than the send timeout. A sender thread
+ * stuck in such a send is replaced until the write fails, so the other
+ * subscribers keep flowing. Updates carry a sequence number as the SSE id; a
+ * dropped client reconnects with Last-Event-ID and is replayed from a short
+ * history, or gets a single "resync" event if the history no longer reaches.
+ */
+@Service
+public class DeliveryEventHub {
+
+    private static final Logger log = LoggerFactory.getLogger(DeliveryEventHub.class);
+
+    private record Sequenced(long sequence, DeliveryUpdate update) {}
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Predicate<DeliveryUpdate> filter;
+        private final ArrayDeque<SseEmitter.SseEventBuilder> buffer = new ArrayDeque<>();
+        private boolean draining;
+        private volatile boolean closed;
+        // We ended the stream (too slow), as opposed to the container ending it
+        private boolean dropped;
+        // A sender thread was added to the pool in place of the one stuck sending to us
+        private boolean replaced;
+        // System.nanoTime() when the current send started, 0 when not sending
+        private volatile long sendingSince;
+
+        private Subscriber(SseEmitter emitter, Predicate<DeliveryUpdate> filter) {
+            this.emitter = emitter;
+            this.filter = filter;
+        }
+
+        private void offer(SseEmitter.SseEventBuilder event) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (buffer.size() >= bufferSize) {
+                    log.info("Dropping delivery stream subscriber {} events behind", bufferSize);
+                    drop();
+                } else {
+                    buffer.add(event);
+                }
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            sender.execute(this::drain);
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    List<SseEmitter.SseEventBuilder> batch;
+                    boolean complete;
+                    synchronized (this) {
+                        if (closed || buffer.isEmpty()) {
+                            draining = false;
+                            complete = dropped;
+                            batch = null;
+                        } else {
+                            complete = false;
+                            batch = new ArrayList<>(buffer);
+                            buffer.clear();
+                        }
+                    }
+                    if (batch == null) {
+                        if (complete) {
+                            emitter.completeWithError(new TimeoutException("Subscriber too slow"));
+                        }
+                        return;
+                    }
+                    for (SseEmitter.SseEventBuilder event : batch) {
+                        if (closed || !send(event)) {
+                            break;
+                        }
+                    }
+                }
+            } finally {
+                restoreSender();
+            }
+        }
+
+        private boolean send(SseEmitter.SseEventBuilder event) {
+            sendingSince = System.nanoTime();
+            try {
+                emitter.send(event);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                close();
+                emitter.completeWithError(e);
+                return false;
+            } finally {
+                sendingSince = 0;
+            }
+        }
+
+        // Called by the watchdog while a sender thread is blocked in send()
+        private void stalled() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                drop();
+                if (!draining) {
+                    // The send finished after all; let a sender end the stream
+                    draining = true;
+                    sender.execute(this::drain);
+                } else {
+                    replaced = growSenders();
+                }
+            }
+            log.info("Dropping delivery stream subscriber blocked in a send for over {} ms", sendTimeoutMillis);
+        }
+
+        private synchronized void restoreSender() {
+            if (replaced) {
+                replaced = false;
+                shrinkSenders();
+            }
+        }
+
+        private void drop() {
+            dropped = true;
+            buffer.clear();
+            close();
+        }
+
+        private void close() {
+            closed = true;
+            subscribers.remove(this);
+        }
+    }
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ArrayDeque<Sequenced> history = new ArrayDeque<>();
+    private final ThreadPoolExecutor sender;
+    private final int senderThreads;
+    private final int maxSenderThreads;
+    private final int bufferSize;
+    private final int historySize;
+    private final long timeoutMillis;
+    private final long sendTimeoutMillis;
+    private long sequence;
+
+    public DeliveryEventHub(@Value("${delivery.events.buffer-size:256}") int bufferSize,
+            @Value("${delivery.events.history-size:1024}") int historySize,
+            @Value("${delivery.events.timeout-minutes:30}") long timeoutMinutes,
+            @Value("${delivery.events.sender-threads:2}") int senderThreads,
+            @Value("${delivery.events.max-sender-threads:8}") int maxSenderThreads,
+            @Value("${delivery.events.send-timeout-ms:5000}") long sendTimeoutMillis) {
+        this.bufferSize = bufferSize;
+        this.historySize = historySize;
+        this.timeoutMillis = timeoutMinutes * 60_000;
+        this.sendTimeoutMillis = sendTimeoutMillis;
+        this.senderThreads = senderThreads;
+        this.maxSenderThreads = Math.max(senderThreads, maxSenderThreads);
+        // At most one drain task per subscriber is ever queued, so the queue is bounded by the subscriber count
+        this.sender = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> new Thread(r, "delivery-sse"));
+    }
+
+    /**
+     * Open a stream of updates accepted by the filter.
+     *
+     * @param lastEventId the client's Last-Event-ID header on reconnect, or null
+     */
+    public SseEmitter subscribe(Predicate<DeliveryUpdate> filter, String lastEventId) {
+        return subscribe(new SseEmitter(timeoutMillis), filter, lastEventId);
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, Predicate<DeliveryUpdate> filter, String lastEventId) {
+        Subscriber subscriber = new Subscriber(emitter, filter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+
+        synchronized (history) {
+            // Register and replay under the history lock so no update falls in between
+            subscribers.add(subscriber);
+            subscriber.offer(SseEmitter.event().name("ready").id(Long.toString(sequence)).data(sequence));
+            replay(subscriber, lastEventId);
+        }
+        return emitter;
+    }
+
+    /**
+     * Publish a change to a job once the surrounding transaction commits.
+     */
+    public void publish(DeliveryUpdate.Type type, DeliveryJob job, Long previousAssigneeId) {
+        publish(new DeliveryUpdate(type, job.getId(), job.getOrder().getId(), job.getStatus(),
+                job.getAssignedTo() != null ? job.getAssignedTo().getId() : null, previousAssigneeId,
+                Boolean.TRUE.equals(job.getLateFlag()), Instant.now()));
+    }
+
+    public void publish(DeliveryUpdate update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(update);
+                }
+            });
+        } else {
+            dispatch(update);
+        }
+    }
+
+    /**
+     * Comment line to every subscriber so idle connections are kept open and
+     * dead ones are noticed.
+     */
+    @Scheduled(fixedDelayString = "${delivery.events.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(SseEmitter.event().comment("heartbeat"));
+        }
+    }
+
+    /**
+     * Drop subscribers whose current send has been blocked longer than the send timeout.
+     */
+    @Scheduled(fixedDelayString = "${delivery.events.watchdog-ms:1000}")
+    public void dropStalled() {
+        long now = System.nanoTime();
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        for (Subscriber subscriber : subscribers) {
+            long since = subscriber.sendingSince;
+            if (since != 0 && now - since > timeoutNanos) {
+                subscriber.stalled();
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    int senderThreads() {
+        return sender.getCorePoolSize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+            subscriber.emitter.complete();
+        }
+        sender.shutdownNow();
+    }
+
+    // Add a thread in place of one stuck in a send, up to max-sender-threads
+    private boolean growSenders() {
+        synchronized (sender) {
+            int size = sender.getCorePoolSize();
+            if (size >= maxSenderThreads) {
+                return false;
+            }
+            sender.setMaximumPoolSize(size + 1);
+            sender.setCorePoolSize(size + 1);
+            return true;
+        }
+    }
+
+    private void shrinkSenders() {
+        synchronized (sender) {
+            int size = Math.max(senderThreads, sender.getCorePoolSize() - 1);
+            sender.setCorePoolSize(size);
+            sender.setMaximumPoolSize(size);
+        }
+    }
+
+    private void dispatch(DeliveryUpdate update) {
+        synchronized (history) {
+            Sequenced sequenced = new Sequenced(++sequence, update);
+            history.addLast(sequenced);
+            if (history.size() > historySize) {
+                history.removeFirst();
+            }
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.filter.test(update)) {
+                    subscriber.offer(toEvent(sequenced));
+                }
+            }
+        }
+    }
+
+    private void replay(Subscriber subscriber, String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return;
+        }
+        long after;
+        try {
+            after = Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return;
+        }
+        // History no longer reaches back far enough, or the id is from before a restart
+        if (after > sequence || (!history.isEmpty() && history.peekFirst().sequence() > after + 1)) {
+            subscriber.offer(SseEmitter.event().name("resync").data("history unavailable"));
+            return;
+        }
+        for (Sequenced sequenced : history) {
+            if (sequenced.sequence() > after && subscriber.filter.test(sequenced.update())) {
+                subscriber.offer(toEvent(sequenced));
+            }
+        }
+        log.debug("Replayed delivery updates after {} to a reconnecting subscriber", after);
+    }
+
+    private static SseEmitter.SseEventBuilder toEvent(Sequenced sequenced) {
+        return SseEmitter.event()
+                .id(Long.toString(sequenced.sequence()))
+                .name(sequenced.update().type().name().toLowerCase())
+                .data(sequenced.update());
+    }
+}
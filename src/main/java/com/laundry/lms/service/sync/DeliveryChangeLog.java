@@ -0,0 +1,117 @@
+package com.laundry.lms.service.sync;
+
+import com.laundry.lms.model.DeliveryJobRemoval;
+import com.laundry.lms.model.SequenceCounter;
+import com.laundry.lms.repository.DeliveryJobRemovalRepository;
+import com.laundry.lms.repository.DeliverySyncReceiptRepository;
+import com.laundry.lms.repository.SequenceCounterRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Monotonic change sequence for delivery jobs. Every transaction that changes
+ * a job takes the next value from one counter row and stamps it on the job.
+ * The row stays locked until that transaction ends, so values become visible
+ * in order: once value n is committed, everything below n is too, and a sync
+ * token taken from the committed counter never skips a change.
+ * Jobs leaving a driver's list are recorded as tombstones at the same value.
+ */
+@Service
+public class DeliveryChangeLog {
+
+    private static final Logger log = LoggerFactory.getLogger(DeliveryChangeLog.class);
+
+    static final String SEQUENCE = "DELIVERY_JOB_CHANGE";
+
+    private final SequenceCounterRepository counterRepository;
+    private final DeliveryJobRemovalRepository removalRepository;
+    private final DeliverySyncReceiptRepository receiptRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransaction;
+    private final Duration retention;
+
+    public DeliveryChangeLog(SequenceCounterRepository counterRepository,
+            DeliveryJobRemovalRepository removalRepository,
+            DeliverySyncReceiptRepository receiptRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${delivery.sync.retention-days:14}") long retentionDays) {
+        this.counterRepository = counterRepository;
+        this.removalRepository = removalRepository;
+        this.receiptRepository = receiptRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.retention = Duration.ofDays(retentionDays);
+    }
+
+    /**
+     * Take the next change value; the counter row stays locked until the caller's transaction ends.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long next() {
+        SequenceCounter counter = counterRepository.lockByName(SEQUENCE).orElseGet(this::createCounter);
+        long value = counter.getNextValue();
+        counter.setNextValue(value + 1);
+        counterRepository.save(counter);
+        return value;
+    }
+
+    /**
+     * Highest value whose changes are all committed.
+     */
+    public long committed() {
+        return counterRepository.findById(SEQUENCE).map(counter -> counter.getNextValue() - 1).orElse(0L);
+    }
+
+    /**
+     * Record that a job left a driver's list at the given change value.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removed(Long deliveryId, Long driverId, long changeSeq) {
+        if (driverId != null) {
+            removalRepository.save(new DeliveryJobRemoval(driverId, deliveryId, changeSeq));
+        }
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    /**
+     * Drop tombstones and update receipts past the retention period. Clients
+     * whose token is older than that get a full sync instead.
+     */
+    @Scheduled(cron = "${delivery.sync.purge-cron:0 45 4 * * *}")
+    public void purge() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        transactionTemplate.executeWithoutResult(status -> {
+            int removals = removalRepository.deleteOlderThan(cutoff);
+            int receipts = receiptRepository.deleteOlderThan(cutoff);
+            if (removals + receipts > 0) {
+                log.info("Purged {} delivery tombstone(s) and {} sync receipt(s)", removals, receipts);
+            }
+        });
+    }
+
+    private SequenceCounter createCounter() {
+        try {
+            newTransaction.executeWithoutResult(status -> counterRepository.saveAndFlush(new SequenceCounter(SEQUENCE)));
+        } catch (DataIntegrityViolationException e) {
+            // Another node created the counter first
+        }
+        return counterRepository.lockByName(SEQUENCE)
+                .orElseThrow(() -> new IllegalStateException("Sequence counter missing: " + SEQUENCE));
+    }
+}
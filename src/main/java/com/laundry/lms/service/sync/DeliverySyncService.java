@@ -0,0 +1,240 @@
+package com.laundry.lms.service.sync;
+
+import com.laundry.lms.dto.DeliverySyncRequest;
+import com.laundry.lms.dto.DeliverySyncResponse;
+import com.laundry.lms.model.DeliveryJob;
+import com.laundry.lms.model.DeliveryStatus;
+import com.laundry.lms.model.DeliverySyncReceipt;
+import com.laundry.lms.model.User;
+import com.laundry.lms.repository.DeliveryJobRemovalRepository;
+import com.laundry.lms.repository.DeliveryJobRepository;
+import com.laundry.lms.repository.DeliverySyncReceiptRepository;
+import com.laundry.lms.service.DeliveryService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Offline-first sync for the driver app. A sync applies the status updates
+ * the app queued while offline, each at most once, then returns only the
+ * driver's jobs changed since the client's token plus tombstones for jobs
+ * taken off their list. A missing, malformed or expired token gets the full
+ * list instead: open jobs and those closed within delivery.sync.full-closed-days.
+ * The job of a rejected update is always sent back (or listed as removed if it
+ * is no longer the driver's), so the client can drop its local status without
+ * a full sync.
+ * <p>
+ * Tokens are "changeSeq.issuedAtEpochSecond"; the issue time lets the server
+ * tell when tombstones the client still needs may have been purged.
+ */
+@Service
+public class DeliverySyncService {
+
+    // Drivers move a job forward only; a queued update behind the job's current state is stale
+    private static final Map<DeliveryStatus, Integer> PROGRESS = Map.of(
+            DeliveryStatus.SCHEDULED, 0,
+            DeliveryStatus.PICKED_UP, 1,
+            DeliveryStatus.IN_TRANSIT, 2,
+            DeliveryStatus.LATE, 2,
+            DeliveryStatus.DELIVERED, 3);
+    private static final Set<DeliveryStatus> CLOSED = EnumSet.of(DeliveryStatus.DELIVERED, DeliveryStatus.CANCELLED);
+
+    private final DeliveryJobRepository deliveryJobRepository;
+    private final DeliveryJobRemovalRepository removalRepository;
+    private final DeliverySyncReceiptRepository receiptRepository;
+    private final DeliveryService deliveryService;
+    private final DeliveryChangeLog changeLog;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readTransaction;
+    private final int maxUpdates;
+    private final Duration fullClosedWindow;
+
+    public DeliverySyncService(DeliveryJobRepository deliveryJobRepository,
+            DeliveryJobRemovalRepository removalRepository,
+            DeliverySyncReceiptRepository receiptRepository,
+            DeliveryService deliveryService,
+            DeliveryChangeLog changeLog,
+            PlatformTransactionManager transactionManager,
+            @Value("${delivery.sync.max-updates:200}") int maxUpdates,
+            @Value("${delivery.sync.full-closed-days:2}") long fullClosedDays) {
+        this.deliveryJobRepository = deliveryJobRepository;
+        this.removalRepository = removalRepository;
+        this.receiptRepository = receiptRepository;
+        this.deliveryService = deliveryService;
+        this.changeLog = changeLog;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.maxUpdates = maxUpdates;
+        this.fullClosedWindow = Duration.ofDays(fullClosedDays);
+    }
+
+    /**
+     * Apply queued updates, then return what changed for the driver.
+     *
+     * @throws IllegalArgumentException if more than delivery.sync.max-updates updates are sent at once
+     */
+    public DeliverySyncResponse sync(User driver, DeliverySyncRequest request) {
+        List<DeliverySyncRequest.QueuedUpdate> updates = request.updates() != null ? request.updates() : List.of();
+        if (updates.size() > maxUpdates) {
+            throw new IllegalArgumentException("At most " + maxUpdates + " queued updates per sync");
+        }
+        List<DeliverySyncResponse.UpdateResult> results = new ArrayList<>(updates.size());
+        Set<Long> rejected = new LinkedHashSet<>();
+        for (DeliverySyncRequest.QueuedUpdate update : updates) {
+            DeliverySyncResponse.UpdateResult result = apply(driver, update);
+            results.add(result);
+            if (!result.applied() && update.deliveryId() != null) {
+                rejected.add(update.deliveryId());
+            }
+        }
+
+        Long requested = parseToken(request.syncToken());
+        return readTransaction.execute(status -> {
+            // Read the committed counter first: everything at or below it is visible to the queries below
+            long token = changeLog.committed();
+            // A token ahead of the counter predates a database reset
+            Long since = requested != null && requested <= token ? requested : null;
+            List<DeliverySyncResponse.Job> jobs = new ArrayList<>();
+            Set<Long> changed = new HashSet<>();
+            List<DeliveryJob> found = since != null
+                    ? deliveryJobRepository.findChangedForDriver(driver.getId(), since)
+                    : deliveryJobRepository.findCurrentForDriver(driver.getId(), CLOSED,
+                            LocalDateTime.now().minus(fullClosedWindow));
+            for (DeliveryJob job : found) {
+                jobs.add(DeliverySyncResponse.Job.from(job));
+                changed.add(job.getId());
+            }
+            // The client shows its own status for these until told otherwise
+            Set<Long> unsent = new LinkedHashSet<>(rejected);
+            unsent.removeAll(changed);
+            if (!unsent.isEmpty()) {
+                for (DeliveryJob job : deliveryJobRepository.findForDriver(driver.getId(), unsent)) {
+                    jobs.add(DeliverySyncResponse.Job.from(job));
+                    changed.add(job.getId());
+                    unsent.remove(job.getId());
+                }
+            }
+            List<Long> removed = new ArrayList<>();
+            if (since != null) {
+                for (Long id : removalRepository.findJobIdsRemovedSince(driver.getId(), since)) {
+                    // Reassigned away and back again: the job is in the changed list
+                    if (!changed.contains(id)) {
+                        removed.add(id);
+                        unsent.remove(id);
+                    }
+                }
+                // Not the driver's (any more), even if the tombstone was already sent or purged
+                removed.addAll(unsent);
+            }
+            return new DeliverySyncResponse(token + "." + Instant.now().getEpochSecond(), since == null,
+                    jobs, removed, results);
+        });
+    }
+
+    private DeliverySyncResponse.UpdateResult apply(User driver, DeliverySyncRequest.QueuedUpdate update) {
+        String clientId = update.clientUpdateId();
+        if (clientId == null || clientId.isBlank() || clientId.length() > 64) {
+            return new DeliverySyncResponse.UpdateResult(clientId, false, false,
+                    "clientUpdateId is required (at most 64 characters)");
+        }
+        Optional<DeliverySyncReceipt> previous = receiptRepository.findByDriverIdAndClientUpdateId(driver.getId(), clientId);
+        if (previous.isPresent()) {
+            return duplicate(previous.get());
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // The receipt goes in first so a concurrent resend of the same update fails on the unique key
+                receiptRepository.saveAndFlush(receipt(driver, update, true, null));
+                applyStatus(driver, update);
+            });
+            return new DeliverySyncResponse.UpdateResult(clientId, true, false, null);
+        } catch (DataIntegrityViolationException e) {
+            return receiptRepository.findByDriverIdAndClientUpdateId(driver.getId(), clientId)
+                    .map(this::duplicate)
+                    .orElseThrow(() -> e);
+        } catch (IllegalArgumentException | IllegalStateException | SecurityException e) {
+            try {
+                receiptRepository.saveAndFlush(receipt(driver, update, false, e.getMessage()));
+            } catch (DataIntegrityViolationException duplicate) {
+                // Recorded by a concurrent resend
+            }
+            return new DeliverySyncResponse.UpdateResult(clientId, false, false, e.getMessage());
+        }
+    }
+
+    private void applyStatus(User driver, DeliverySyncRequest.QueuedUpdate update) {
+        if (update.deliveryId() == null || update.status() == null) {
+            throw new IllegalArgumentException("deliveryId and status are required");
+        }
+        Integer target = PROGRESS.get(update.status());
+        if (target == null || target == 0 || update.status() == DeliveryStatus.LATE) {
+            throw new IllegalArgumentException("Drivers cannot set status " + update.status());
+        }
+        DeliveryJob job = deliveryJobRepository.findById(update.deliveryId())
+                .orElseThrow(() -> new IllegalArgumentException("Delivery job not found"));
+        if (job.getAssignedTo() == null || !job.getAssignedTo().getId().equals(driver.getId())) {
+            throw new SecurityException("Delivery " + job.getId() + " is no longer assigned to you");
+        }
+        Integer current = PROGRESS.get(job.getStatus());
+        if (current == null) {
+            throw new IllegalStateException("Delivery " + job.getId() + " is " + job.getStatus());
+        }
+        if (target < current) {
+            throw new IllegalStateException("Delivery " + job.getId() + " is already " + job.getStatus());
+        }
+        if (target > current) {
+            deliveryService.updateDeliveryStatus(job.getId(), update.status(), driver);
+        }
+    }
+
+    private DeliverySyncResponse.UpdateResult duplicate(DeliverySyncReceipt receipt) {
+        return new DeliverySyncResponse.UpdateResult(receipt.getClientUpdateId(), receipt.isApplied(), true,
+                receipt.getMessage());
+    }
+
+    private static DeliverySyncReceipt receipt(User driver, DeliverySyncRequest.QueuedUpdate update,
+            boolean applied, String message) {
+        DeliverySyncReceipt receipt = new DeliverySyncReceipt();
+        receipt.setDriverId(driver.getId());
+        receipt.setClientUpdateId(update.clientUpdateId());
+        receipt.setDeliveryJobId(update.deliveryId());
+        receipt.setStatus(update.status());
+        receipt.setRecordedAt(update.recordedAt());
+        receipt.setApplied(applied);
+        receipt.setMessage(message != null && message.length() > 255 ? message.substring(0, 255) : message);
+        return receipt;
+    }
+
+    // Change value of a token, or null when the client needs a full sync
+    private Long parseToken(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        int dot = token.indexOf('.');
+        try {
+            long since = Long.parseLong(token.substring(0, dot));
+            long issuedAt = Long.parseLong(token.substring(dot + 1));
+            if (Instant.ofEpochSecond(issuedAt).isBefore(Instant.now().minus(changeLog.getRetention()))) {
+                return null;
+            }
+            return since;
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+}
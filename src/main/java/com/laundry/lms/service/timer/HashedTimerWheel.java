@@ -0,0 +1,167 @@
+package com.laundry.lms.service.timer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Hashed timer wheel for wall-clock deadlines keyed by id. Scheduling and
+ * cancelling are O(1) from any thread; a single ticker thread owns the
+ * buckets and fires each key at most one tick after its deadline.
+ * Rescheduling a key replaces its previous deadline.
+ */
+public class HashedTimerWheel<K> {
+
+    private static final Logger log = LoggerFactory.getLogger(HashedTimerWheel.class);
+
+    private final long tickMillis;
+    private final List<List<Timeout<K>>> buckets;
+    private final int mask;
+    private final Consumer<K> onExpire;
+    private final Map<K, Timeout<K>> byKey = new ConcurrentHashMap<>();
+    private final Queue<Timeout<K>> incoming = new ConcurrentLinkedQueue<>();
+    private final LongSupplier clock;
+    // null when ticks are driven by hand
+    private final ScheduledExecutorService ticker;
+    private long startMillis;
+    private long tick;
+
+    private static final class Timeout<K> {
+        private final K key;
+        private final long deadlineMillis;
+        private long rounds;
+        private volatile boolean cancelled;
+
+        private Timeout(K key, long deadlineMillis) {
+            this.key = key;
+            this.deadlineMillis = deadlineMillis;
+        }
+    }
+
+    /**
+     * @param wheelSize number of buckets, rounded up to a power of two
+     */
+    public HashedTimerWheel(String name, long tickMillis, int wheelSize, Consumer<K> onExpire) {
+        this(tickMillis, wheelSize, onExpire, System::currentTimeMillis,
+                Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread thread = new Thread(r, name);
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    /**
+     * Without a ticker thread, for tests that move the clock and call advance themselves.
+     */
+    HashedTimerWheel(long tickMillis, int wheelSize, Consumer<K> onExpire, LongSupplier clock) {
+        this(tickMillis, wheelSize, onExpire, clock, null);
+    }
+
+    private HashedTimerWheel(long tickMillis, int wheelSize, Consumer<K> onExpire, LongSupplier clock,
+            ScheduledExecutorService ticker) {
+        this.tickMillis = tickMillis;
+        int size = Integer.highestOneBit(Math.max(2, wheelSize - 1)) << 1;
+        this.buckets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.mask = size - 1;
+        this.onExpire = onExpire;
+        this.clock = clock;
+        this.ticker = ticker;
+    }
+
+    public void start() {
+        startMillis = clock.getAsLong();
+        if (ticker != null) {
+            ticker.scheduleAtFixedRate(this::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    public void schedule(K key, long deadlineEpochMillis) {
+        Timeout<K> timeout = new Timeout<>(key, deadlineEpochMillis);
+        Timeout<K> previous = byKey.put(key, timeout);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+        incoming.add(timeout);
+    }
+
+    public void cancel(K key) {
+        Timeout<K> timeout = byKey.remove(key);
+        if (timeout != null) {
+            timeout.cancelled = true;
+        }
+    }
+
+    public int size() {
+        return byKey.size();
+    }
+
+    // Catch up on every tick that has elapsed, so a delayed ticker does not drift
+    void advance() {
+        long target = (clock.getAsLong() - startMillis) / tickMillis;
+        while (tick <= target) {
+            transferIncoming();
+            List<K> expired = expireCurrentBucket();
+            tick++;
+            for (K key : expired) {
+                try {
+                    onExpire.accept(key);
+                } catch (RuntimeException e) {
+                    log.warn("Timer callback failed for {}", key, e);
+                }
+            }
+        }
+    }
+
+    private void transferIncoming() {
+        Timeout<K> timeout;
+        while ((timeout = incoming.poll()) != null) {
+            if (timeout.cancelled) {
+                continue;
+            }
+            // Round up so a key never fires before its deadline
+            long deadlineTick = Math.max(-Math.floorDiv(startMillis - timeout.deadlineMillis, tickMillis), tick);
+            timeout.rounds = (deadlineTick - tick) / buckets.size();
+            buckets.get((int) (deadlineTick & mask)).add(timeout);
+        }
+    }
+
+    private List<K> expireCurrentBucket() {
+        List<K> expired = new ArrayList<>();
+        Iterator<Timeout<K>> it = buckets.get((int) (tick & mask)).iterator();
+        while (it.hasNext()) {
+            Timeout<K> timeout = it.next();
+            if (timeout.cancelled) {
+                it.remove();
+            } else if (timeout.rounds <= 0) {
+                it.remove();
+                if (byKey.remove(timeout.key, timeout)) {
+                    expired.add(timeout.key);
+                }
+            } else {
+                timeout.rounds--;
+            }
+        }
+        return expired;
+    }
+}
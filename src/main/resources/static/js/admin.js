@@ -1,5 +1,6 @@
 import {
     api,
+    openEventStream,
     requireAuth,
     toastError,
     toastSuccess,
@@ -39,8 +40,12 @@ navLinks.forEach((link) => {
 });
 
 let orders = [];
-let tasks = [];
+let taskBoard = { counts: {}, columns: {} };
 let payments = [];
+let deliveries = new Map();
+let deliveriesLoaded = false;
+let deliveryBacklog = [];
+let closeDeliveryStream = null;
 let users = [];
 let selectedMessageUser = null;
 let messageInterval = null;
@@ -83,6 +88,7 @@ const taskNotes = document.getElementById("task-notes");
 
 const ordersBody = document.getElementById("orders-body");
 const paymentsBody = document.getElementById("payments-body");
+const deliveriesBody = document.getElementById("deliveries-body");
 const usersBody = document.getElementById("users-body");
 const taskLanes = document.getElementById("task-lanes");
 
@@ -393,7 +399,7 @@ filterCustomer?.addEventListener("change", renderOrders);
 
 async function loadTasks() {
     try {
-        tasks = await api.get("/api/tasks");
+        taskBoard = await api.get("/api/admin/tasks/board");
         renderTasks();
         updateKpis();
     } catch (error) {
@@ -401,14 +407,29 @@ async function loadTasks() {
     }
 }
 
+async function loadMoreTasks(status) {
+    const column = taskBoard.columns[status];
+    if (!column || !column.nextCursor) return;
+    try {
+        const page = await api.get(`/api/admin/tasks/board/${status}?after=${encodeURIComponent(column.nextCursor)}`);
+        column.tasks = column.tasks.concat(page.tasks);
+        column.nextCursor = page.nextCursor;
+        renderTasks();
+    } catch (error) {
+        toastError(error.message);
+    }
+}
+
 function renderTasks() {
     const statuses = ["PENDING", "IN_PROGRESS", "COMPLETED", "CANCELLED"];
     if (taskLanes) {
         taskLanes.innerHTML = statuses.map((status) => {
-            const items = tasks.filter((task) => task.status === status);
+            const column = taskBoard.columns[status] || { tasks: [], nextCursor: null };
+            const items = column.tasks;
             return `<div class="lane">
-        <h3>${status.replace(/_/g, ' ')}</h3>
+        <h3>${status.replace(/_/g, ' ')} (${taskBoard.counts[status] || 0})</h3>
         ${items.length === 0 ? `<p style="color:var(--muted);">No tasks</p>` : items.map(renderTaskCard).join("")}
+        ${column.nextCursor ? `<button data-more-tasks="${status}" class="btn pill-ghost">Load more</button>` : ""}
       </div>`;
         }).join("");
     }
@@ -445,6 +466,11 @@ taskLanes?.addEventListener("click", async (event) => {
     const target = event.target;
     if (!(target instanceof HTMLElement)) return;
 
+    if (target.dataset.moreTasks) {
+        await loadMoreTasks(target.dataset.moreTasks);
+        return;
+    }
+
     if (target.dataset.task && target.dataset.target) {
         try {
             await api.patch(`/api/tasks/${target.dataset.task}/status?value=${target.dataset.target}`);
@@ -522,6 +548,84 @@ paymentsBody?.addEventListener("click", async (event) => {
     }
 });
 
+async function loadDeliveries() {
+    try {
+        const list = await api.get("/api/admin/deliveries");
+        deliveries = new Map(list.map((delivery) => [delivery.id, delivery]));
+        deliveriesLoaded = true;
+        renderDeliveries();
+    } catch (error) {
+        toastError(error.message);
+    }
+}
+
+function renderDeliveries() {
+    if (deliveriesBody) {
+        deliveriesBody.innerHTML = [...deliveries.values()]
+            .sort((a, b) => b.id - a.id)
+            .map((delivery) => {
+                const driver = delivery.assignedTo?.name
+                    ?? users.find((user) => user.id === delivery.assignedTo?.id)?.name
+                    ?? (delivery.assignedTo?.id ? `#${delivery.assignedTo.id}` : "Unassigned");
+                return `<tr>
+        <td>#${delivery.id}</td>
+        <td>${delivery.order?.id ? `#${delivery.order.id}` : "N/A"}</td>
+        <td>${driver}</td>
+        <td>${renderStatusBadge(delivery.status)}${delivery.lateFlag ? ` ${renderStatusBadge("LATE")}` : ""}</td>
+        <td>${delivery.pickupAt ? new Date(delivery.pickupAt).toLocaleString() : "-"}</td>
+        <td>${delivery.deliveryAt ? new Date(delivery.deliveryAt).toLocaleString() : "-"}</td>
+      </tr>`;
+            }).join("");
+    }
+}
+
+// The list is loaded once the stream is open so nothing falls between the
+// two; after that each DeliveryUpdate is applied to the row it names and only
+// a resync, sent when the server no longer has the missed events, reloads it
+async function applyDeliveryEvent(type, update) {
+    if (type === "ready") {
+        if (deliveriesLoaded) return;
+        await loadDeliveries();
+        // Events that arrived while the list was loading may postdate it
+        const backlog = deliveryBacklog;
+        deliveryBacklog = [];
+        for (const [backlogType, backlogUpdate] of backlog) {
+            await applyDeliveryEvent(backlogType, backlogUpdate);
+        }
+        return;
+    }
+    if (!deliveriesLoaded) {
+        deliveryBacklog.push([type, update]);
+        return;
+    }
+    if (type === "resync") {
+        await loadDeliveries();
+        return;
+    }
+    if (!update?.deliveryId) return;
+    const current = deliveries.get(update.deliveryId);
+    if (type === "deleted") {
+        deliveries.delete(update.deliveryId);
+    } else if (!current) {
+        try {
+            deliveries.set(update.deliveryId, await api.get(`/api/delivery/${update.deliveryId}`));
+        } catch {
+            // Deleted again before it could be fetched
+            return;
+        }
+    } else {
+        deliveries.set(update.deliveryId, {
+            ...current,
+            status: update.status ?? current.status,
+            lateFlag: update.late,
+            assignedTo: update.assigneeId
+                ? (current.assignedTo?.id === update.assigneeId ? current.assignedTo : { id: update.assigneeId })
+                : null,
+        });
+    }
+    renderDeliveries();
+}
+
 async function loadUsers() {
     try {
         users = await api.get("/api/admin/users");
@@ -654,7 +758,7 @@ function updateKpis() {
         kpiOrders.textContent = todaysOrders.length.toString();
     }
     if (kpiTasks) {
-        kpiTasks.textContent = tasks.filter((task) => task.status === "PENDING").length.toString();
+        kpiTasks.textContent = (taskBoard.counts.PENDING || 0).toString();
     }
     if (kpiRevenue) {
         const now = new Date();
@@ -774,12 +878,14 @@ async function init() {
     await loadTasks();
     await loadPayments();
     await loadUsers();
+    closeDeliveryStream = openEventStream("/api/admin/deliveries/events", applyDeliveryEvent);
     loadMessages();
 }
 
 init();
 
 window.addEventListener("beforeunload", () => {
+    closeDeliveryStream?.();
     if (messageInterval) {
         clearInterval(messageInterval);
     }
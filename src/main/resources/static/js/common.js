@@ -110,6 +110,79 @@ export const api = {
     },
 };
 
+/* ---------- Event streams ---------- */
+// EventSource cannot send the Bearer header, so server-sent events are read
+// over fetch. onEvent(type, data, id) gets each event with data parsed as
+// JSON when it is JSON. Reconnects with Last-Event-ID so the server replays
+// what was missed; returns a function that closes the stream.
+export function openEventStream(path, onEvent) {
+    const controller = new AbortController();
+    let lastEventId = null;
+    let retryMs = 1000;
+
+    const dispatch = (frame) => {
+        let type = "message";
+        let id = null;
+        const data = [];
+        frame.split("\n").forEach((line) => {
+            if (!line || line.startsWith(":")) return;
+            const colon = line.indexOf(":");
+            const field = colon < 0 ? line : line.slice(0, colon);
+            const value = colon < 0 ? "" : line.slice(colon + 1).replace(/^ /, "");
+            if (field === "event") type = value;
+            else if (field === "id") id = value;
+            else if (field === "data") data.push(value);
+        });
+        if (id !== null) lastEventId = id;
+        if (!data.length && type === "message") return;
+        let payload = data.join("\n");
+        try {
+            payload = payload ? JSON.parse(payload) : null;
+        } catch {
+            // plain text data
+        }
+        onEvent(type, payload, id);
+    };
+
+    const connect = async () => {
+        while (!controller.signal.aborted) {
+            try {
+                const headers = buildHeaders({ Accept: "text/event-stream" });
+                if (lastEventId !== null) headers["Last-Event-ID"] = lastEventId;
+                const res = await fetch(`${API_BASE}${path}`, {
+                    headers,
+                    credentials: "include",
+                    cache: "no-store",
+                    signal: controller.signal,
+                });
+                if (res.status === 401 || res.status === 403) return;
+                if (!res.ok || !res.body) throw new Error(res.statusText);
+                retryMs = 1000;
+                const reader = res.body.getReader();
+                const decoder = new TextDecoder();
+                let buffer = "";
+                while (true) {
+                    const { value, done } = await reader.read();
+                    if (done) break;
+                    buffer += decoder.decode(value, { stream: true }).replace(/\r\n?/g, "\n");
+                    let end;
+                    while ((end = buffer.indexOf("\n\n")) >= 0) {
+                        dispatch(buffer.slice(0, end));
+                        buffer = buffer.slice(end + 2);
+                    }
+                }
+            } catch (e) {
+                if (controller.signal.aborted) return;
+            }
+            await new Promise((resolve) => setTimeout(resolve, retryMs));
+            retryMs = Math.min(retryMs * 2, 30000);
+        }
+    };
+
+    connect();
+    return () => controller.abort();
+}
+
 /* ---------- Auth utils ---------- */
 export function getCurrentUser() {
     const auth = getAuth();
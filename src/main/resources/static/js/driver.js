@@ -1,4 +1,4 @@
-import { api, initTheme, toggleTheme, getCurrentUser, clearCurrentUser, toastSuccess, toastError } from "./common.js";
+import { api, openEventStream, initTheme, toggleTheme, getCurrentUser, clearCurrentUser, toastSuccess, toastError } from "./common.js";
 
 // Initialize theme
 initTheme();
@@ -89,6 +89,125 @@ const DEMO_TASKS = [
 
 let tasks = [...DEMO_TASKS];
 
+/* ---------- Offline sync ---------- */
+// Jobs by id, the last sync token and status updates the server has not acknowledged yet
+const SYNC_STORAGE_KEY = "smartfold_driver_sync";
+const SYNC_BATCH = 200;
+
+const loadSyncState = () => {
+    try {
+        return JSON.parse(localStorage.getItem(SYNC_STORAGE_KEY)) ?? { token: null, jobs: {}, queue: [] };
+    } catch {
+        return { token: null, jobs: {}, queue: [] };
+    }
+};
+
+let syncState = loadSyncState();
+let syncing = false;
+let syncRequested = false;
+
+const saveSyncState = () => {
+    try {
+        localStorage.setItem(SYNC_STORAGE_KEY, JSON.stringify(syncState));
+    } catch (e) {
+        console.error("Failed to persist driver sync state", e);
+    }
+};
+
+const NEXT_STATUS = { SCHEDULED: "PICKED_UP", PICKED_UP: "IN_TRANSIT", IN_TRANSIT: "DELIVERED", LATE: "DELIVERED" };
+
+const toTask = (job) => ({
+    id: job.id,
+    orderId: job.orderId,
+    type: job.status === "SCHEDULED" ? "PICKUP" : "DELIVERY",
+    status: job.status === "DELIVERED" ? "COMPLETED"
+        : job.status === "IN_TRANSIT" || job.status === "LATE" ? "IN_TRANSIT" : "PENDING",
+    customerName: job.customerName,
+    scheduledTime: job.status === "SCHEDULED" ? job.pickupAt : job.deliveryAt,
+    notes: job.notes || "",
+});
+
+const syncedTasks = () => Object.values(syncState.jobs)
+    .filter((job) => job.status !== "CANCELLED")
+    .map(toTask);
+
+const newClientUpdateId = () =>
+    window.crypto?.randomUUID?.() ?? `${Date.now()}-${Math.random().toString(16).slice(2)}`;
+
+// Apply locally straight away and keep the update until a sync acknowledges it
+const queueStatusUpdate = (deliveryId, status) => {
+    syncState.queue.push({ clientUpdateId: newClientUpdateId(), deliveryId, status, recordedAt: new Date().toISOString() });
+    syncState.jobs[deliveryId] = { ...syncState.jobs[deliveryId], status };
+    saveSyncState();
+    tasks = syncedTasks();
+    updateKPIs();
+    renderTasks(elements.filterStatus.value);
+    sync();
+};
+
+const sync = async () => {
+    if (syncing) {
+        // Picked up as soon as the running sync finishes
+        syncRequested = true;
+        return;
+    }
+    syncing = true;
+    syncRequested = false;
+    let again = false;
+    try {
+        const sent = syncState.queue.slice(0, SYNC_BATCH);
+        const res = await api.post("/api/delivery/my/sync", { syncToken: syncState.token, updates: sent });
+        if (res.full) syncState.jobs = {};
+        res.jobs.forEach((job) => (syncState.jobs[job.id] = job));
+        res.removed.forEach((id) => delete syncState.jobs[id]);
+
+        const acknowledged = new Set(res.results.map((r) => r.clientUpdateId));
+        syncState.queue = syncState.queue.filter((u) => !acknowledged.has(u.clientUpdateId));
+        const rejected = res.results.filter((r) => !r.applied);
+        rejected.filter((r) => !r.duplicate).forEach((r) => toastError(r.message || "An update was rejected"));
+
+        // The server sends back the job of each rejected update, which replaced the local status above
+        syncState.token = res.syncToken;
+        again = syncState.queue.length > 0;
+        saveSyncState();
+        tasks = syncedTasks();
+    } catch {
+        // Offline: keep the queue and the cached jobs
+        if (syncState.token) tasks = syncedTasks();
+    } finally {
+        syncing = false;
+    }
+    updateKPIs();
+    renderTasks(elements.filterStatus.value);
+    if (again || syncRequested) sync();
+};
+
+// Live changes to the driver's jobs. Status and late flags are patched in
+// place; new, reassigned and deleted jobs need the job details or a removal,
+// which the delta sync brings. A job with queued local updates keeps its
+// local status until the sync settles it.
+const applyDeliveryEvent = (type, update) => {
+    // ready: catch up on anything since the last sync before the stream opened
+    if (type === "ready" || type === "resync") {
+        sync();
+        return;
+    }
+    if (!update?.deliveryId) return;
+    const job = syncState.jobs[update.deliveryId];
+    const queued = syncState.queue.some((u) => u.deliveryId === update.deliveryId);
+    if ((type === "status" || type === "late") && job && !queued) {
+        syncState.jobs[update.deliveryId] = { ...job, status: update.status, late: update.late };
+        saveSyncState();
+        tasks = syncedTasks();
+        updateKPIs();
+        renderTasks(elements.filterStatus.value);
+        return;
+    }
+    if (type === "created" || type === "reassigned" || type === "deleted" || type === "status" || type === "late") {
+        sync();
+    }
+};
+
 const formatTime = (dateStr) => {
     if (!dateStr) return "—";
     const date = new Date(dateStr);
@@ -138,8 +257,8 @@ const renderTasks = (filter = "ALL") => {
             <div class="task-type ${typeClass}">${task.type}</div>
             <div class="task-info">
                 <h3>Order #${task.orderId}</h3>
-                <p>${task.customerName} • ${task.phone}</p>
-                <div class="address">${task.address}</div>
+                <p>${task.customerName}${task.phone ? ` • ${task.phone}` : ""}</p>
+                ${task.address ? `<div class="address">${task.address}</div>` : ""}
                 ${task.notes ? `<p class="muted small-text" style="margin-top: 8px;">Note: ${task.notes}</p>` : ""}
             </div>
             <div class="task-time">
@@ -166,53 +285,36 @@ const renderTasks = (filter = "ALL") => {
     });
 };
 
-const startTask = async (taskId) => {
+const startTask = (taskId) => {
     const task = tasks.find((t) => t.id === taskId);
     if (!task) return;
 
-    try {
-        // Try API first
-        await api.put(`/api/delivery-tasks/${taskId}/start`);
-    } catch {
-        // Fallback: update locally
+    const job = syncState.jobs[taskId];
+    if (job) {
+        queueStatusUpdate(taskId, NEXT_STATUS[job.status]);
+    } else {
+        // Demo data
+        task.status = "IN_TRANSIT";
+        updateKPIs();
+        renderTasks(elements.filterStatus.value);
     }
-
-    task.status = "IN_TRANSIT";
     toastSuccess(`Started ${task.type.toLowerCase()} for Order #${task.orderId}`);
-    updateKPIs();
-    renderTasks(elements.filterStatus.value);
 };
 
-const completeTask = async (taskId) => {
+const completeTask = (taskId) => {
     const task = tasks.find((t) => t.id === taskId);
     if (!task) return;
 
-    try {
-        // Try API first
-        await api.put(`/api/delivery-tasks/${taskId}/complete`);
-    } catch {
-        // Fallback: update locally
+    if (syncState.jobs[taskId]) {
+        queueStatusUpdate(taskId, "DELIVERED");
+    } else {
+        // Demo data
+        task.status = "COMPLETED";
+        task.completedAt = new Date().toISOString();
+        updateKPIs();
+        renderTasks(elements.filterStatus.value);
     }
-
-    task.status = "COMPLETED";
-    task.completedAt = new Date().toISOString();
     toastSuccess(`Completed ${task.type.toLowerCase()} for Order #${task.orderId}`);
-    updateKPIs();
-    renderTasks(elements.filterStatus.value);
-};
-
-const fetchTasks = async () => {
-    try {
-        const data = await api.get("/api/delivery-tasks/today");
-        if (Array.isArray(data) && data.length > 0) {
-            tasks = data;
-        }
-    } catch {
-        // Use demo data
-    }
-
-    updateKPIs();
-    renderTasks(elements.filterStatus.value);
 };
 
 // Initialize
@@ -227,7 +329,14 @@ elements.filterStatus?.addEventListener("change", () => {
     renderTasks(elements.filterStatus.value);
 });
 
-elements.refreshBtn?.addEventListener("click", fetchTasks);
-
-// Initial load
-fetchTasks();
+elements.refreshBtn?.addEventListener("click", sync);
+window.addEventListener("online", sync);
+openEventStream("/api/delivery/my/events", applyDeliveryEvent);
+// Fallback for changes made while the stream was down
+setInterval(sync, 300000);
+
+// Initial load: cached jobs first, then whatever changed since
+if (syncState.token) tasks = syncedTasks();
+updateKPIs();
+renderTasks(elements.filterStatus.value);
+sync();
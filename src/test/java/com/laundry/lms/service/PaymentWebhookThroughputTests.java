@@ -0,0 +1,131 @@
+package com.laundry.lms.service;
+
+import com.laundry.lms.LaundryManagementSystemApplication;
+import com.laundry.lms.dto.DemoWebhookRequest;
+import com.laundry.lms.model.LaundryOrder;
+import com.laundry.lms.model.PaymentStatus;
+import com.laundry.lms.model.User;
+import com.laundry.lms.model.UserRole;
+import com.laundry.lms.model.WebhookInboxStatus;
+import com.laundry.lms.repository.LaundryOrderRepository;
+import com.laundry.lms.repository.LedgerEntryRepository;
+import com.laundry.lms.repository.PaymentRepository;
+import com.laundry.lms.repository.UserRepository;
+import com.laundry.lms.repository.WebhookInboxRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * A thousand orders paid by webhook at once, each delivered three times
+ * (provider replays), accepted concurrently and drained into payments. Every
+ * webhook is applied exactly once. The benchmark-tagged run times the same
+ * flow and reports webhooks accepted and applied per second. Runs against a
+ * database of its own that is dropped with the context afterwards, so the
+ * orders do not leak into other tests.
+ */
+@SpringBootTest(classes = LaundryManagementSystemApplication.class,
+    properties = "spring.datasource.url=jdbc:h2:mem:webhook-throughput;DB_CLOSE_DELAY=-1")
+@DirtiesContext
+class PaymentWebhookThroughputTests {
+
+  private static final int ORDERS = 1000;
+  private static final int REPLAYS = 2;
+  private static final long DRAIN_TIMEOUT_MILLIS = 60_000;
+  // Floors for the benchmark on an in-memory database, well under what a laptop does
+  private static final double MIN_ACCEPTED_PER_SECOND = 1_000;
+  private static final double MIN_APPLIED_PER_SECOND = 200;
+
+  @Autowired private UserRepository users;
+  @Autowired private LaundryOrderRepository orders;
+  @Autowired private PaymentRepository payments;
+  @Autowired private LedgerEntryRepository ledgerEntries;
+  @Autowired private WebhookInboxRepository inboxRepository;
+  @Autowired private WebhookInboxService inbox;
+
+  @Test
+  void appliesEveryWebhookExactlyOnce() throws InterruptedException {
+    List<Long> orderIds = newOrders("throughput@test.lk");
+    assertEquals(ORDERS * REPLAYS, acceptAll(orderIds));
+    awaitDrained();
+
+    for (Long id : orderIds) {
+      assertEquals(PaymentStatus.PAID.name(), orders.findById(id).orElseThrow().getPaymentStatus());
+      var payment = payments.findByOrderId(id).orElseThrow();
+      assertEquals(PaymentStatus.PAID, payment.getStatus());
+      assertTrue(ledgerEntries.existsByJournalKey("PAYMENT-" + payment.getId()));
+    }
+  }
+
+  @Test
+  @Tag("benchmark")
+  void acceptsAndAppliesWebhooksFastEnough(TestReporter reporter) throws InterruptedException {
+    List<Long> orderIds = newOrders("throughput-benchmark@test.lk");
+
+    long start = System.nanoTime();
+    acceptAll(orderIds);
+    long accepted = System.nanoTime();
+    awaitDrained();
+    long drained = System.nanoTime();
+
+    // Every delivery counts for accepting, only the first of each for applying
+    double acceptedPerSecond = ORDERS * (REPLAYS + 1) / ((accepted - start) / 1e9);
+    double appliedPerSecond = ORDERS / ((drained - accepted) / 1e9);
+    reporter.publishEntry("acceptedPerSecond", String.format("%.0f", acceptedPerSecond));
+    reporter.publishEntry("appliedPerSecond", String.format("%.0f", appliedPerSecond));
+    assertTrue(acceptedPerSecond >= MIN_ACCEPTED_PER_SECOND, "accepted " + acceptedPerSecond + " webhooks/s");
+    assertTrue(appliedPerSecond >= MIN_APPLIED_PER_SECOND, "applied " + appliedPerSecond + " webhooks/s");
+  }
+
+  private List<Long> newOrders(String customerEmail) {
+    User customer = users.save(new User("Throughput Customer", customerEmail, "x", UserRole.CUSTOMER));
+    List<LaundryOrder> batch = new ArrayList<>(ORDERS);
+    for (int i = 0; i < ORDERS; i++) {
+      LaundryOrder order = new LaundryOrder();
+      order.setCustomer(customer);
+      order.setServiceType("Wash & Fold");
+      order.setQuantity(1.0);
+      order.setUnit("kg");
+      order.setPrice(BigDecimal.valueOf(1000));
+      batch.add(order);
+    }
+    return orders.saveAll(batch).stream().map(LaundryOrder::getId).toList();
+  }
+
+  // Each order's webhook plus its replays, concurrently; returns how many were dropped as duplicates
+  private int acceptAll(List<Long> orderIds) {
+    AtomicInteger duplicates = new AtomicInteger();
+    orderIds.parallelStream().forEach(id -> {
+      for (int r = 0; r <= REPLAYS; r++) {
+        DemoWebhookRequest request = new DemoWebhookRequest(id, "success", "T-" + id, BigDecimal.valueOf(1000), null);
+        if (!inbox.accept(request, "{}")) duplicates.incrementAndGet();
+      }
+    });
+    return duplicates.get();
+  }
+
+  private void awaitDrained() throws InterruptedException {
+    inbox.drain();
+    // The scheduled drain may hold part of the batch; wait for it to finish
+    long deadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MILLIS;
+    while (inboxRepository.countByStateIn(EnumSet.of(WebhookInboxStatus.PENDING, WebhookInboxStatus.PROCESSING)) > 0) {
+      if (System.currentTimeMillis() > deadline) {
+        fail("Inbox not drained within " + DRAIN_TIMEOUT_MILLIS + " ms");
+      }
+      Thread.sleep(20);
+    }
+  }
+}
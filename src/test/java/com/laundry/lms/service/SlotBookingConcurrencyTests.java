@@ -0,0 +1,93 @@
+package com.laundry.lms.service;
+
+import com.laundry.lms.LaundryManagementSystemApplication;
+import com.laundry.lms.dto.SlotAvailability;
+import com.laundry.lms.model.DeliveryZone;
+import com.laundry.lms.repository.DeliverySlotRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Evening-rush checkout: hundreds of concurrent reservations for the same
+ * pickup and delivery hour, split across two service instances standing in
+ * for two nodes with separate in-memory counters. Exactly capacity succeed.
+ * Days outside today to the 30-day booking horizon are refused without
+ * creating slot rows.
+ */
+@SpringBootTest(classes = LaundryManagementSystemApplication.class)
+class SlotBookingConcurrencyTests {
+
+  private static final int CHECKOUTS = 400;
+  private static final int CAPACITY = 6;
+
+  @Autowired private SlotBookingService node1;
+  @Autowired private DeliverySlotRepository slots;
+  @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  @Test
+  void neverOversellsAcrossNodes() throws InterruptedException {
+    SlotBookingService node2 = new SlotBookingService(slots, jdbcTemplate, transactionManager,
+        8, 20, CAPACITY, CAPACITY, 6.9271, 79.8612, 5, 30);
+    LocalDate day = LocalDate.now().plusDays(3);
+    LocalDateTime pickupAt = day.atTime(18, 0);
+    LocalDateTime deliveryAt = day.plusDays(1).atTime(19, 0);
+
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicInteger booked = new AtomicInteger();
+    AtomicInteger full = new AtomicInteger();
+    ExecutorService pool = Executors.newFixedThreadPool(64);
+    for (int i = 0; i < CHECKOUTS; i++) {
+      SlotBookingService node = i % 2 == 0 ? node1 : node2;
+      pool.execute(() -> {
+        try {
+          start.await();
+          node.reserve(DeliveryZone.WEST, pickupAt, deliveryAt);
+          booked.incrementAndGet();
+        } catch (IllegalStateException e) {
+          full.incrementAndGet();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+    }
+    start.countDown();
+    pool.shutdown();
+    assertTrue(pool.awaitTermination(60, TimeUnit.SECONDS));
+
+    assertEquals(CAPACITY, booked.get());
+    assertEquals(CHECKOUTS - CAPACITY, full.get());
+    node1.refresh();
+    SlotAvailability pickupDay = node1.availability(day, DeliveryZone.WEST);
+    SlotAvailability deliveryDay = node1.availability(day.plusDays(1), DeliveryZone.WEST);
+    assertEquals(CAPACITY, pickupDay.pickup().get(18 - 8).booked());
+    assertEquals(CAPACITY, deliveryDay.delivery().get(19 - 8).booked());
+    assertEquals(0, deliveryDay.pickup().get(19 - 8).booked());
+  }
+
+  @Test
+  void rejectsDaysOutsideTheBookingHorizon() {
+    LocalDate beyond = LocalDate.now().plusDays(31);
+    assertThrows(IllegalArgumentException.class, () -> node1.availability(beyond, DeliveryZone.EAST));
+    assertThrows(IllegalArgumentException.class, () -> node1.availability(LocalDate.now().minusDays(1),
+        DeliveryZone.EAST));
+    assertThrows(IllegalArgumentException.class, () -> node1.reserve(DeliveryZone.EAST,
+        LocalDate.now().plusDays(29).atTime(10, 0), beyond.atTime(10, 0)));
+    assertTrue(slots.findBySlotDateAndZoneOrderByKindAscSlotHourAsc(beyond, DeliveryZone.EAST).isEmpty());
+  }
+}
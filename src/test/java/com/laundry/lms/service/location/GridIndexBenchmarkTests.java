@@ -0,0 +1,166 @@
+package com.laundry.lms.service.location;
+
+import com.laundry.lms.service.location.GridIndex.Hit;
+import com.laundry.lms.service.routing.RoutePlanner;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Indexes 10k moving points around Colombo, checks nearest-k and radius
+ * answers against a brute-force scan, and queries while another thread keeps
+ * moving points. The throughput check is tagged benchmark and only runs with
+ * -Pbenchmarks.
+ */
+class GridIndexBenchmarkTests {
+
+  private static final int POINTS = 10_000;
+
+  @Test
+  void matchesBruteForce() {
+    Random random = new Random(1);
+    double[][] points = randomPoints(random);
+    GridIndex<Integer> index = build(points);
+
+    for (int q = 0; q < 200; q++) {
+      double lat = 6.85 + random.nextDouble() * 0.15;
+      double lon = 79.83 + random.nextDouble() * 0.12;
+
+      List<Hit<Integer>> nearest = index.nearest(lat, lon, 10, id -> id % 3 != 0);
+      List<double[]> expected = bruteForce(points, lat, lon, id -> id % 3 != 0);
+      for (int i = 0; i < 10; i++) {
+        assertEquals(expected.get(i)[1], nearest.get(i).distanceKm(), 1e-9);
+      }
+
+      List<Hit<Integer>> within = index.within(lat, lon, 1.5, id -> true);
+      long inRadius = bruteForce(points, lat, lon, id -> true).stream().filter(d -> d[1] <= 1.5).count();
+      assertEquals(inRadius, within.size());
+    }
+  }
+
+  @Test
+  void answersQueriesWhilePointsMove() throws InterruptedException {
+    Random random = new Random(2);
+    double[][] points = randomPoints(random);
+    GridIndex<Integer> index = build(points);
+    Mover mover = new Mover(index, points);
+    mover.start();
+    try {
+      for (int queries = 0; queries < 20_000; queries++) {
+        query(index, random, queries);
+      }
+    } finally {
+      mover.stop();
+    }
+    assertEquals(POINTS, index.size());
+  }
+
+  @Test
+  @Tag("benchmark")
+  void sustainsAThousandQueriesPerSecondUnderUpdates() throws InterruptedException {
+    Random random = new Random(2);
+    double[][] points = randomPoints(random);
+    GridIndex<Integer> index = build(points);
+    Mover mover = new Mover(index, points);
+    mover.start();
+
+    int queries = 0;
+    long start = System.nanoTime();
+    long end = start + 1_000_000_000L;
+    try {
+      while (System.nanoTime() < end) {
+        query(index, random, queries++);
+      }
+    } finally {
+      mover.stop();
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    assertTrue(queries / seconds >= 1_000, "throughput below 1k queries/s");
+  }
+
+  private static void query(GridIndex<Integer> index, Random random, int n) {
+    double lat = 6.85 + random.nextDouble() * 0.15;
+    double lon = 79.83 + random.nextDouble() * 0.12;
+    if (n % 2 == 0) {
+      assertEquals(5, index.nearest(lat, lon, 5, id -> true).size());
+    } else {
+      index.within(lat, lon, 2, id -> true);
+    }
+  }
+
+  // Every point pinging about every two seconds: ~5k updates/s
+  private static final class Mover {
+    private final AtomicBoolean running = new AtomicBoolean(true);
+    private final AtomicLong updates = new AtomicLong();
+    private final Thread thread;
+
+    Mover(GridIndex<Integer> index, double[][] points) {
+      thread = new Thread(() -> {
+        Random r = new Random(3);
+        while (running.get()) {
+          for (int i = 0; i < 5; i++) {
+            int id = r.nextInt(POINTS);
+            points[id][0] += (r.nextDouble() - 0.5) * 0.001;
+            points[id][1] += (r.nextDouble() - 0.5) * 0.001;
+            index.put(id, points[id][0], points[id][1]);
+            updates.incrementAndGet();
+          }
+          try {
+            Thread.sleep(1);
+          } catch (InterruptedException e) {
+            return;
+          }
+        }
+      });
+    }
+
+    void start() {
+      thread.start();
+    }
+
+    void stop() throws InterruptedException {
+      running.set(false);
+      thread.join();
+    }
+  }
+
+  private static double[][] randomPoints(Random random) {
+    double[][] points = new double[POINTS][2];
+    for (double[] p : points) {
+      p[0] = 6.85 + random.nextDouble() * 0.15;
+      p[1] = 79.83 + random.nextDouble() * 0.12;
+    }
+    return points;
+  }
+
+  private static GridIndex<Integer> build(double[][] points) {
+    GridIndex<Integer> index = new GridIndex<>(1);
+    for (int i = 0; i < points.length; i++) {
+      index.put(i, points[i][0], points[i][1]);
+    }
+    return index;
+  }
+
+  // (id, distance) of every accepted point, nearest first
+  private static List<double[]> bruteForce(double[][] points, double lat, double lon,
+      IntPredicate filter) {
+    List<double[]> all = new ArrayList<>();
+    for (int i = 0; i < points.length; i++) {
+      if (filter.test(i)) {
+        all.add(new double[] { i, RoutePlanner.haversineKm(lat, lon, points[i][0], points[i][1]) });
+      }
+    }
+    all.sort(Comparator.comparingDouble(d -> d[1]));
+    return all;
+  }
+}
@@ -0,0 +1,173 @@
+package com.laundry.lms.service.mail;
+
+import com.laundry.lms.LaundryManagementSystemApplication;
+import com.laundry.lms.model.EmailDeliveryStatus;
+import com.laundry.lms.model.EmailReceipt;
+import com.laundry.lms.repository.EmailReceiptRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Receipt dispatch against a mail server that is down, one that refuses the
+ * session, and one that accepts: failures stay PENDING with exponential
+ * backoff until max-attempts, and only delivered receipts are SENT.
+ */
+@SpringBootTest(classes = LaundryManagementSystemApplication.class, properties = {
+    "spring.datasource.url=jdbc:h2:mem:receipt-dispatch;DB_CLOSE_DELAY=-1",
+    "mail.receipt.poll-ms=3600000",
+    "mail.receipt.backoff-seconds=30",
+    "mail.receipt.max-backoff-seconds=3600",
+    "mail.receipt.max-attempts=6",
+    "mail.smtp.timeout-ms=2000"})
+@DirtiesContext
+class EmailReceiptDispatchTests {
+
+  private static final int PORT = freePort();
+  private static final AtomicLong PAYMENT_IDS = new AtomicLong();
+
+  @Autowired private EmailReceiptService service;
+  @Autowired private EmailReceiptRepository receipts;
+  @Autowired private SmtpConnectionPool pool;
+
+  @DynamicPropertySource
+  static void smtp(DynamicPropertyRegistry registry) {
+    registry.add("mail.smtp.port", () -> PORT);
+  }
+
+  @AfterEach
+  void cleanUp() {
+    pool.close();
+    receipts.deleteAll();
+  }
+
+  @Test
+  void serverDownLeavesBatchPendingWithBackoff() {
+    Long first = queue(0).getId();
+    Long second = queue(0).getId();
+
+    Instant before = Instant.now();
+    service.dispatch();
+    Instant after = Instant.now();
+
+    for (Long id : new Long[] {first, second}) {
+      EmailReceipt receipt = receipts.findById(id).orElseThrow();
+      assertEquals(EmailDeliveryStatus.PENDING, receipt.getStatus());
+      assertEquals(1, receipt.getAttempts());
+      assertNotNull(receipt.getLastError());
+      assertBetween(receipt.getNextAttemptAt(), before.plusSeconds(30), after.plusSeconds(30));
+    }
+  }
+
+  @Test
+  void rejectedGreetingIsRetriedNotFailed() throws Exception {
+    Long id = queue(0).getId();
+    try (ServerSocket refusing = new ServerSocket(PORT, 50, InetAddress.getLoopbackAddress())) {
+      Thread greeter = new Thread(() -> {
+        try (Socket socket = refusing.accept(); OutputStream out = socket.getOutputStream()) {
+          out.write("554 No SMTP service here\r\n".getBytes(StandardCharsets.US_ASCII));
+          out.flush();
+        } catch (IOException ignored) {
+          // the test fails on the assertions below
+        }
+      });
+      greeter.start();
+      service.dispatch();
+      greeter.join(5000);
+    }
+
+    EmailReceipt receipt = receipts.findById(id).orElseThrow();
+    assertEquals(EmailDeliveryStatus.PENDING, receipt.getStatus());
+    assertEquals(1, receipt.getAttempts());
+    assertTrue(receipt.getLastError().startsWith("554"));
+  }
+
+  @Test
+  void backoffDoublesUntilMaxAttempts() {
+    Long third = queue(2).getId();
+    Long last = queue(5).getId();
+
+    Instant before = Instant.now();
+    service.dispatch();
+    Instant after = Instant.now();
+
+    EmailReceipt retried = receipts.findById(third).orElseThrow();
+    assertEquals(EmailDeliveryStatus.PENDING, retried.getStatus());
+    assertEquals(3, retried.getAttempts());
+    assertBetween(retried.getNextAttemptAt(), before.plusSeconds(120), after.plusSeconds(120));
+
+    EmailReceipt givenUp = receipts.findById(last).orElseThrow();
+    assertEquals(EmailDeliveryStatus.FAILED, givenUp.getStatus());
+    assertEquals(6, givenUp.getAttempts());
+  }
+
+  @Test
+  void sendsDueReceiptsOnceServerIsUp() throws Exception {
+    Long id = queue(1).getId();
+    LocalSmtpServer server = new LocalSmtpServer(PORT);
+    server.start();
+    try {
+      service.dispatch();
+      EmailReceipt receipt = receipts.findById(id).orElseThrow();
+      assertEquals(EmailDeliveryStatus.SENT, receipt.getStatus());
+      assertEquals(2, receipt.getAttempts());
+      assertNull(receipt.getLastError());
+      assertEquals(1, waitForMail(server));
+    } finally {
+      pool.close();
+      server.stop();
+    }
+  }
+
+  private EmailReceipt queue(int attempts) {
+    EmailReceipt receipt = new EmailReceipt();
+    long paymentId = PAYMENT_IDS.incrementAndGet();
+    receipt.setPaymentId(paymentId);
+    receipt.setOrderId(paymentId);
+    receipt.setRecipient("customer" + paymentId + "@test.lk");
+    receipt.setLocale("en");
+    receipt.setSubject("Payment receipt");
+    receipt.setBody("Thank you");
+    receipt.setAttempts(attempts);
+    return receipts.save(receipt);
+  }
+
+  private static int waitForMail(LocalSmtpServer server) throws InterruptedException {
+    for (int i = 0; i < 100 && server.received().isEmpty(); i++) {
+      Thread.sleep(10);
+    }
+    return server.received().size();
+  }
+
+  private static void assertBetween(Instant actual, Instant from, Instant to) {
+    assertTrue(!actual.isBefore(from.minus(Duration.ofMillis(1))) && !actual.isAfter(to),
+        actual + " not in [" + from + ", " + to + "]");
+  }
+
+  private static int freePort() {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package com.laundry.lms.service.mail;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sends receipts through the pooled SMTP client to the embedded SMTP server.
+ */
+class SmtpDeliveryTests {
+
+  private LocalSmtpServer server;
+  private SmtpConnectionPool pool;
+
+  @BeforeEach
+  void start() throws Exception {
+    server = new LocalSmtpServer(0);
+    server.start();
+    pool = new SmtpConnectionPool("localhost", server.getPort(), "test.local", 5000, 1, 60);
+  }
+
+  @AfterEach
+  void stop() throws Exception {
+    pool.close();
+    server.stop();
+  }
+
+  @Test
+  void sendsBatchOverOneReusedConnection() throws Exception {
+    ReceiptTemplates templates = new ReceiptTemplates();
+    SmtpConnection connection = pool.borrow();
+    for (int i = 1; i <= 3; i++) {
+      var mail = templates.render(Locale.ENGLISH, Map.of("orderId", String.valueOf(i), "customerName", "Nimali"));
+      connection.send("receipts@test.lk", "customer" + i + "@test.lk",
+          "Subject: " + mail.subject() + "\r\n\r\n" + mail.body() + "\r\n.hidden dot line");
+    }
+    pool.release(connection, false);
+    assertSame(connection, pool.borrow());
+
+    List<LocalSmtpServer.ReceivedMail> received = waitFor(3);
+    assertEquals(List.of("customer2@test.lk"), received.get(1).recipients());
+    assertTrue(received.get(0).data().contains("Payment receipt for order #1"));
+    assertTrue(received.get(0).data().contains("Hi Nimali,"));
+    assertTrue(received.get(2).data().contains("\r\n.hidden dot line"));
+  }
+
+  private List<LocalSmtpServer.ReceivedMail> waitFor(int count) throws InterruptedException {
+    for (int i = 0; i < 100 && server.received().size() < count; i++) {
+      Thread.sleep(10);
+    }
+    return server.received();
+  }
+}
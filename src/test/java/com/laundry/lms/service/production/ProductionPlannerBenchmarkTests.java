@@ -0,0 +1,227 @@
+package com.laundry.lms.service.production;
+
+import com.laundry.lms.model.MachineType;
+import com.laundry.lms.service.production.ProductionPlanner.Job;
+import com.laundry.lms.service.production.ProductionPlanner.Load;
+import com.laundry.lms.service.production.ProductionPlanner.Machine;
+import com.laundry.lms.service.production.ProductionPlanner.Part;
+import com.laundry.lms.service.production.ProductionPlanner.Plan;
+import com.laundry.lms.service.production.ProductionPlanner.Step;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Schedules a 2,000-order day (about 5,000 items arriving over twelve hours)
+ * on a large shop and checks the plan is feasible, including an incremental
+ * replan after more orders arrive mid-day. The time limits on both only run
+ * with the benchmarks profile.
+ */
+class ProductionPlannerBenchmarkTests {
+
+  private static final int ORDERS = 2_000;
+
+  private static final Step WASH = new Step(MachineType.WASHER, "WASH", 45);
+  private static final Step DELICATE = new Step(MachineType.WASHER, "DELICATE", 60);
+  private static final Step DRY_CLEAN = new Step(MachineType.DRY_CLEANER, "DRY_CLEAN", 90);
+  private static final Step DRY = new Step(MachineType.DRYER, "DRY", 50);
+  private static final Step PRESS = new Step(MachineType.PRESS, "PRESS", 20);
+  private static final List<List<Step>> ROUTES = List.of(
+      List.of(WASH, DRY), List.of(WASH, DRY, PRESS), List.of(PRESS), List.of(DRY_CLEAN),
+      List.of(DELICATE, DRY, PRESS));
+
+  @Test
+  void schedulesATwoThousandOrderDay() {
+    List<Job> jobs = day(new Random(1), 0, ORDERS, 720);
+    Plan plan = plan(jobs);
+
+    assertFeasible(jobs, plan);
+    assertEquals(ORDERS, plan.readyMinutes().size());
+
+    // Express orders should come out well ahead of standard ones
+    double express = 0;
+    double standard = 0;
+    int expressCount = 0;
+    Map<Long, Job> firstJob = new HashMap<>();
+    jobs.forEach(job -> firstJob.putIfAbsent(job.orderId(), job));
+    for (Job job : firstJob.values()) {
+      int turnaround = plan.readyMinutes().get(job.orderId()) - job.releaseMinute();
+      if (job.express()) {
+        express += turnaround;
+        expressCount++;
+      } else {
+        standard += turnaround;
+      }
+    }
+    express /= expressCount;
+    standard /= firstJob.size() - expressCount;
+    assertTrue(express < standard, "express orders are not prioritised");
+  }
+
+  @Test
+  void replansIncrementallyAsOrdersArrive() {
+    MidDay midDay = new MidDay(new Random(2));
+    Plan after = midDay.replan();
+
+    for (Load load : midDay.frozen) {
+      assertTrue(after.loads().contains(load), "a running load was moved");
+    }
+    for (Load load : after.loads()) {
+      if (!midDay.frozen.contains(load)) {
+        assertTrue(load.startMinute() >= 360, "new load starts in the past");
+      }
+    }
+    assertEquals(ORDERS + 200, after.readyMinutes().size());
+  }
+
+  @Test
+  void rejectsAMachineWithoutCapacity() {
+    ProductionPlanner planner = new ProductionPlanner();
+    List<Machine> machines = List.of(new Machine(1, MachineType.WASHER, 12), new Machine(2, MachineType.DRYER, 0));
+    assertThrows(IllegalArgumentException.class, () -> planner.setMachines(machines));
+  }
+
+  @Test
+  @Tag("benchmark")
+  void schedulesATwoThousandOrderDayInUnderASecond() {
+    List<Job> jobs = day(new Random(1), 0, ORDERS, 720);
+    plan(jobs); // warm-up
+
+    long start = System.nanoTime();
+    plan(jobs);
+    double millis = (System.nanoTime() - start) / 1e6;
+
+    assertTrue(millis < 1_000, "planning took " + millis + " ms");
+  }
+
+  @Test
+  @Tag("benchmark")
+  void replansInUnderASecond() {
+    new MidDay(new Random(3)).replan(); // warm-up
+    MidDay midDay = new MidDay(new Random(2));
+
+    long start = System.nanoTime();
+    midDay.replan();
+    double millis = (System.nanoTime() - start) / 1e6;
+
+    assertTrue(millis < 1_000, "replanning took " + millis + " ms");
+  }
+
+  // A planned day frozen at 6h, with 200 more orders arriving over the next hour
+  private static final class MidDay {
+    private final ProductionPlanner planner = planner();
+    private final List<Load> frozen;
+    private final List<Job> arrivals;
+
+    private MidDay(Random random) {
+      day(random, 0, ORDERS, 720).forEach(planner::add);
+      planner.advanceTo(0);
+      Plan before = planner.replan();
+      assertTrue(planner.advanceTo(360));
+      frozen = before.loads().stream()
+          .filter(load -> load.startMinute() <= 360 && load.endMinute() > 360)
+          .toList();
+      arrivals = day(random, ORDERS, 200, 60).stream()
+          .map(job -> new Job(job.orderId(), job.itemId(), job.express(), job.dueMinute() + 360,
+              job.releaseMinute() + 360, job.kg(), job.route()))
+          .toList();
+    }
+
+    private Plan replan() {
+      arrivals.forEach(planner::add);
+      return planner.replan();
+    }
+  }
+
+  private static Plan plan(List<Job> jobs) {
+    ProductionPlanner planner = planner();
+    jobs.forEach(planner::add);
+    return planner.replan();
+  }
+
+  private static ProductionPlanner planner() {
+    ProductionPlanner planner = new ProductionPlanner();
+    planner.setMachines(machines());
+    return planner;
+  }
+
+  private static List<Machine> machines() {
+    List<Machine> machines = new ArrayList<>();
+    long id = 1;
+    for (int i = 0; i < 16; i++) {
+      machines.add(new Machine(id++, MachineType.WASHER, 18));
+      machines.add(new Machine(id++, MachineType.DRYER, 20));
+    }
+    for (int i = 0; i < 4; i++) {
+      machines.add(new Machine(id++, MachineType.DRY_CLEANER, 12));
+    }
+    for (int i = 0; i < 16; i++) {
+      machines.add(new Machine(id++, MachineType.PRESS, 6));
+    }
+    return machines;
+  }
+
+  // Orders arriving uniformly over the given minutes, one to four items each
+  private static List<Job> day(Random random, int firstOrder, int orders, int minutes) {
+    List<Job> jobs = new ArrayList<>();
+    long itemId = firstOrder * 10L;
+    for (int order = firstOrder; order < firstOrder + orders; order++) {
+      boolean express = random.nextInt(10) == 0;
+      int release = random.nextInt(minutes);
+      int due = release + (express ? 8 * 60 : 24 * 60 + random.nextInt(24 * 60));
+      int items = 1 + random.nextInt(4);
+      for (int i = 0; i < items; i++) {
+        double kg = 0.3 + random.nextDouble() * (random.nextInt(20) == 0 ? 20 : 2);
+        jobs.add(new Job(order, itemId++, express, due, release, kg,
+            ROUTES.get(random.nextInt(ROUTES.size()))));
+      }
+    }
+    return jobs;
+  }
+
+  private static void assertFeasible(List<Job> jobs, Plan plan) {
+    Map<Long, Machine> machines = new HashMap<>();
+    machines().forEach(machine -> machines.put(machine.id(), machine));
+
+    // No machine runs two loads at once or more than it holds
+    Map<Long, Integer> busyUntil = new HashMap<>();
+    // kg done per (item, machine type), and when the item's step starts and ends
+    Map<Long, Map<MachineType, Double>> done = new HashMap<>();
+    Map<Long, Map<MachineType, int[]>> window = new HashMap<>();
+    for (Load load : plan.loads()) {
+      assertTrue(load.startMinute() >= busyUntil.getOrDefault(load.machineId(), Integer.MIN_VALUE),
+          "overlapping loads on machine " + load.machineId());
+      busyUntil.put(load.machineId(), load.endMinute());
+      assertTrue(load.kg() <= machines.get(load.machineId()).capacityKg() + 1e-6, "overfull load");
+      MachineType type = machines.get(load.machineId()).type();
+      for (Part part : load.parts()) {
+        done.computeIfAbsent(part.itemId(), key -> new HashMap<>()).merge(type, part.kg(), Double::sum);
+        int[] span = window.computeIfAbsent(part.itemId(), key -> new HashMap<>())
+            .computeIfAbsent(type, key -> new int[] { Integer.MAX_VALUE, Integer.MIN_VALUE });
+        span[0] = Math.min(span[0], load.startMinute());
+        span[1] = Math.max(span[1], load.endMinute());
+      }
+    }
+
+    // Every step of every item is done in full, in route order, after the item arrives
+    for (Job job : jobs) {
+      int previousEnd = job.releaseMinute();
+      for (Step step : job.route()) {
+        assertEquals(job.kg(), done.get(job.itemId()).get(step.type()), 1e-6);
+        int[] span = window.get(job.itemId()).get(step.type());
+        assertTrue(span[0] >= previousEnd, "item " + job.itemId() + " starts a step too early");
+        previousEnd = span[1];
+      }
+      assertTrue(plan.readyMinutes().get(job.orderId()) >= previousEnd);
+    }
+  }
+}
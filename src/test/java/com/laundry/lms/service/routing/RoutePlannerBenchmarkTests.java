@@ -0,0 +1,80 @@
+package com.laundry.lms.service.routing;
+
+import com.laundry.lms.service.routing.RoutePlanner.Plan;
+import com.laundry.lms.service.routing.RoutePlanner.Stop;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Plans synthetic 500-stop days around Colombo: the improved route visits
+ * every stop once and never costs more than the nearest-neighbour start. The
+ * benchmark-tagged run times a 500-stop plan against the production budget.
+ */
+class RoutePlannerBenchmarkTests {
+
+  private static final double DEPOT_LAT = 6.9271;
+  private static final double DEPOT_LON = 79.8612;
+  private static final int START = 8 * 60;
+  // delivery.route.budget-ms, plus room for the distance matrix and building the plan
+  private static final long BUDGET_MILLIS = 2_000;
+  private static final long OVERHEAD_MILLIS = 250;
+
+  @Test
+  void improvesNearestNeighbourOnFiveHundredStopDays() {
+    RoutePlanner planner = new RoutePlanner(25, 10);
+    for (long seed = 1; seed <= 3; seed++) {
+      List<Stop> stops = syntheticDay(500, seed);
+      Plan constructed = planner.construct(DEPOT_LAT, DEPOT_LON, START, stops);
+      Plan improved = planner.plan(DEPOT_LAT, DEPOT_LON, START, stops, 5_000);
+
+      assertEquals(500, improved.sequence().stream().map(Stop::id).collect(Collectors.toSet()).size());
+      assertTrue(improved.cost() <= constructed.cost());
+    }
+  }
+
+  @Test
+  void meetsWindowsOnALightDay() {
+    Plan plan = new RoutePlanner(25, 10).plan(DEPOT_LAT, DEPOT_LON, START, syntheticDay(20, 7), 1_000);
+    assertEquals(0, plan.lateStops());
+  }
+
+  @Test
+  @Tag("benchmark")
+  void plansAFiveHundredStopDayWithinTheBudget(TestReporter reporter) {
+    RoutePlanner planner = new RoutePlanner(25, 10);
+    planner.plan(DEPOT_LAT, DEPOT_LON, START, syntheticDay(500, 11), BUDGET_MILLIS); // warm-up
+    List<Stop> stops = syntheticDay(500, 12);
+    Plan constructed = planner.construct(DEPOT_LAT, DEPOT_LON, START, stops);
+
+    long start = System.nanoTime();
+    Plan plan = planner.plan(DEPOT_LAT, DEPOT_LON, START, stops, BUDGET_MILLIS);
+    double millis = (System.nanoTime() - start) / 1e6;
+
+    reporter.publishEntry("planMillis", String.format("%.0f", millis));
+    reporter.publishEntry("distanceKm", String.format("%.1f (nearest neighbour %.1f)",
+        plan.distanceKm(), constructed.distanceKm()));
+    assertTrue(millis < BUDGET_MILLIS + OVERHEAD_MILLIS, "planning took " + millis + " ms");
+    assertTrue(plan.cost() < constructed.cost(), "no improvement within the budget");
+  }
+
+  // Stops spread over roughly 15 x 13 km with 4-hour windows opening between 08:00 and 18:00
+  private static List<Stop> syntheticDay(int count, long seed) {
+    Random random = new Random(seed);
+    List<Stop> stops = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      int earliest = START + random.nextInt(10 * 60);
+      stops.add(new Stop(i, 6.85 + random.nextDouble() * 0.15, 79.83 + random.nextDouble() * 0.12,
+          earliest, earliest + 240, 5));
+    }
+    return stops;
+  }
+}
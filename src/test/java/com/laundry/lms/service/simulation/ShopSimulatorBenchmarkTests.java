@@ -0,0 +1,110 @@
+package com.laundry.lms.service.simulation;
+
+import com.laundry.lms.model.MachineType;
+import com.laundry.lms.model.ServiceType;
+import com.laundry.lms.service.production.ProductionPlanner.Machine;
+import com.laundry.lms.service.production.ProductionPlanner.Step;
+import com.laundry.lms.service.simulation.ShopSimulator.Config;
+import com.laundry.lms.service.simulation.ShopSimulator.MachineUse;
+import com.laundry.lms.service.simulation.ShopSimulator.Order;
+import com.laundry.lms.service.simulation.ShopSimulator.Report;
+import com.laundry.lms.service.simulation.ShopSimulator.Shift;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Simulates a year of synthetic demand (about 300 orders a day) through a
+ * mid-sized shop, checks the report adds up, and checks that taking washers
+ * away shows up as a longer p90 production time. The time limit on the
+ * simulated year only runs with the benchmarks profile.
+ */
+class ShopSimulatorBenchmarkTests {
+
+  private static final Step WASH = new Step(MachineType.WASHER, "WASH", 45);
+  private static final Step DELICATE = new Step(MachineType.WASHER, "DELICATE", 60);
+  private static final Step DRY_CLEAN = new Step(MachineType.DRY_CLEANER, "DRY_CLEAN", 90);
+  private static final Step DRY = new Step(MachineType.DRYER, "DRY", 50);
+  private static final Step LOW_HEAT = new Step(MachineType.DRYER, "LOW_HEAT", 50);
+  private static final Step PRESS = new Step(MachineType.PRESS, "PRESS", 20);
+
+  @Test
+  void simulatesAYear() {
+    List<Order> year = new DemandGenerator(routes(), 1).generate(365, 300, 0.1);
+    Report report = new ShopSimulator().run(config(14), year);
+
+    assertEquals(365, report.days());
+    assertEquals(year.size(), report.orders());
+    assertEquals(report.orders(), report.delivered() + report.unfinished());
+    assertEquals(0, report.unfinished());
+    assertTrue(report.productionMinutes().p90() <= report.turnaroundMinutes().p90());
+    assertTrue(report.turnaroundMinutes().p50() <= report.turnaroundMinutes().p90());
+    assertTrue(report.turnaroundMinutes().p90() <= report.turnaroundMinutes().p99());
+    assertTrue(report.expressTurnaroundMinutes().p50() < report.turnaroundMinutes().p50());
+    for (MachineUse use : report.machines()) {
+      assertTrue(use.utilization() > 0 && use.utilization() <= 1, use.type() + " utilization");
+      assertTrue(use.averageFill() > 0 && use.averageFill() <= 1 + 1e-9, use.type() + " fill");
+    }
+    assertTrue(report.staffUtilization() > 0 && report.staffUtilization() <= 1);
+    assertTrue(report.driverUtilization() > 0);
+  }
+
+  @Test
+  void fewerWashersMeanLongerProduction() {
+    List<Order> quarter = new DemandGenerator(routes(), 2).generate(90, 300, 0.1);
+    Report fourteen = new ShopSimulator().run(config(14), quarter);
+    Report nine = new ShopSimulator().run(config(9), quarter);
+    assertTrue(nine.productionMinutes().p90() > fourteen.productionMinutes().p90());
+    assertTrue(nine.lateRate() >= fourteen.lateRate());
+    assertEquals(fourteen.orders(), nine.orders());
+  }
+
+  @Test
+  @Tag("benchmark")
+  void simulatesAYearInSeconds() {
+    List<Order> year = new DemandGenerator(routes(), 1).generate(365, 300, 0.1);
+    new ShopSimulator().run(config(14), year.subList(0, 5_000)); // warm-up
+
+    long start = System.nanoTime();
+    new ShopSimulator().run(config(14), year);
+    double seconds = (System.nanoTime() - start) / 1e9;
+
+    assertTrue(seconds < 10, "a simulated year took " + seconds + " s");
+  }
+
+  private static Config config(int washers) {
+    List<Machine> machines = new ArrayList<>();
+    long id = 1;
+    for (int i = 0; i < washers; i++) {
+      machines.add(new Machine(id++, MachineType.WASHER, 12));
+    }
+    for (int i = 0; i < 14; i++) {
+      machines.add(new Machine(id++, MachineType.DRYER, 14));
+    }
+    for (int i = 0; i < 4; i++) {
+      machines.add(new Machine(id++, MachineType.DRY_CLEANER, 10));
+    }
+    for (int i = 0; i < 10; i++) {
+      machines.add(new Machine(id++, MachineType.PRESS, 5));
+    }
+    return new Config(machines, Shift.parseAll("6-14x6,14-22x6"), 5,
+        Shift.parseAll("7-15x6,12-20x4"), 12, 20, 5, 240);
+  }
+
+  private static Map<ServiceType, List<Step>> routes() {
+    Map<ServiceType, List<Step>> routes = new EnumMap<>(ServiceType.class);
+    routes.put(ServiceType.LAUNDRY_WASH_ONLY, List.of(WASH, DRY));
+    routes.put(ServiceType.WASH_AND_IRON, List.of(WASH, DRY, PRESS));
+    routes.put(ServiceType.PRESSING_IRON_ONLY, List.of(PRESS));
+    routes.put(ServiceType.DRY_CLEANING, List.of(DRY_CLEAN));
+    routes.put(ServiceType.PREMIUM_DELICATE_CARE, List.of(DELICATE, LOW_HEAT, PRESS));
+    return routes;
+  }
+}
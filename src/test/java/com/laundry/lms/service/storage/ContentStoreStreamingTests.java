@@ -0,0 +1,116 @@
+package com.laundry.lms.service.storage;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Streams generated uploads into a temporary store and checks that a 12 MB
+ * upload is hashed and written intact. The allocation bound depends on the
+ * JIT, so it only runs with the benchmarks profile.
+ */
+class ContentStoreStreamingTests {
+
+  private static final int TWELVE_MB = 12 * 1024 * 1024;
+
+  @Test
+  void storesTwelveMegabytes() throws IOException {
+    ContentStore store = new ContentStore(Files.createTempDirectory("store").toString());
+    String expected = expectedHash(new GeneratedStream(TWELVE_MB, 7));
+
+    ContentStore.Stored stored = store.put(new GeneratedStream(TWELVE_MB, 7), 15L * 1024 * 1024);
+
+    assertEquals(expected, stored.hash());
+    assertEquals(TWELVE_MB, stored.size());
+    assertEquals(TWELVE_MB, Files.size(store.resolve(stored.hash())));
+  }
+
+  @Test
+  @Tag("benchmark")
+  void storesTwelveMegabytesInConstantMemory() throws IOException {
+    ContentStore store = new ContentStore(Files.createTempDirectory("store").toString());
+
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long before = threads.getCurrentThreadAllocatedBytes();
+    store.put(new GeneratedStream(TWELVE_MB, 7), 15L * 1024 * 1024);
+    long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+    assertTrue(allocated < 1024 * 1024, "upload allocated " + allocated + " bytes");
+  }
+
+  @Test
+  void matchesHashOfByteArrayPut() throws IOException {
+    ContentStore store = new ContentStore(Files.createTempDirectory("store").toString());
+    byte[] content = "proof of delivery".getBytes();
+    assertEquals(store.put(content), store.put(new ByteArrayInputStream(content), 1024).hash());
+  }
+
+  @Test
+  void rejectsOversizedContentWithoutLeavingFiles() throws IOException {
+    Path root = Files.createTempDirectory("store");
+    ContentStore store = new ContentStore(root.toString());
+    assertThrows(IllegalArgumentException.class,
+        () -> store.put(new GeneratedStream(2 * 1024 * 1024, 1), 1024 * 1024));
+    try (Stream<Path> files = Files.walk(root)) {
+      assertEquals(1L, files.count());
+    }
+  }
+
+  private static String expectedHash(InputStream in) throws IOException {
+    MessageDigest digest = ContentStore.newDigest();
+    byte[] buffer = new byte[8192];
+    int read;
+    while ((read = in.read(buffer)) != -1) {
+      digest.update(buffer, 0, read);
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  // Pseudo-random bytes produced on demand, never held in memory
+  private static final class GeneratedStream extends InputStream {
+    private final Random random;
+    private long remaining;
+
+    private GeneratedStream(long length, long seed) {
+      this.random = new Random(seed);
+      this.remaining = length;
+    }
+
+    @Override
+    public int read() {
+      if (remaining == 0) {
+        return -1;
+      }
+      remaining--;
+      return random.nextInt(256);
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (remaining == 0) {
+        return -1;
+      }
+      int n = (int) Math.min(len, remaining);
+      for (int i = 0; i < n; i++) {
+        b[off + i] = (byte) random.nextInt(256);
+      }
+      remaining -= n;
+      return n;
+    }
+  }
+}
@@ -0,0 +1,137 @@
+package com.laundry.lms.service.stream;
+
+import com.laundry.lms.dto.DeliveryUpdate;
+import com.laundry.lms.model.DeliveryStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A client that stops reading must not hold up the others: it is dropped
+ * once its send blocks past the send timeout or it falls a buffer behind,
+ * and the sender thread it holds is replaced until the send returns.
+ */
+class DeliveryEventHubTests {
+
+  private final DeliveryEventHub hub = new DeliveryEventHub(4, 16, 30, 1, 2, 50);
+
+  @AfterEach
+  void stop() {
+    hub.shutdown();
+  }
+
+  @Test
+  void blockedSubscriberIsDroppedAndOthersKeepReceiving() throws Exception {
+    RecordingEmitter stuck = new RecordingEmitter(new CountDownLatch(1));
+    hub.subscribe(stuck, update -> true, null);
+    // The only sender thread is now blocked in the stuck client's "ready" event
+    assertTrue(waitUntil(() -> stuck.sending));
+
+    RecordingEmitter healthy = new RecordingEmitter(null);
+    hub.subscribe(healthy, update -> true, null);
+    hub.publish(update(1L));
+    Thread.sleep(100);
+    assertTrue(healthy.events.isEmpty());
+
+    hub.dropStalled();
+    assertEquals(1, hub.subscriberCount());
+    assertEquals(2, hub.senderThreads());
+    assertTrue(waitUntil(() -> healthy.events.size() == 2));
+    assertTrue(healthy.events.get(1).contains("event:status"));
+
+    stuck.release.countDown();
+    assertTrue(waitUntil(() -> stuck.completedWith != null));
+    assertTrue(waitUntil(() -> hub.senderThreads() == 1));
+    assertEquals(1, stuck.events.size());
+  }
+
+  @Test
+  void subscriberAFullBufferBehindIsDropped() throws Exception {
+    RecordingEmitter stuck = new RecordingEmitter(new CountDownLatch(1));
+    hub.subscribe(stuck, update -> true, null);
+    assertTrue(waitUntil(() -> stuck.sending));
+
+    for (long id = 1; id <= 5; id++) {
+      hub.publish(update(id));
+    }
+    assertEquals(0, hub.subscriberCount());
+
+    stuck.release.countDown();
+    assertTrue(waitUntil(() -> stuck.completedWith != null));
+    // Only the event already being written went out; the buffered ones were discarded
+    assertEquals(1, stuck.events.size());
+  }
+
+  @Test
+  void reconnectReplaysMissedUpdates() throws Exception {
+    hub.publish(update(1L));
+    hub.publish(update(2L));
+    hub.publish(update(3L));
+
+    RecordingEmitter client = new RecordingEmitter(null);
+    hub.subscribe(client, update -> update.deliveryId() != 2, "1");
+    assertTrue(waitUntil(() -> client.events.size() == 2));
+    assertTrue(client.events.get(1).contains("id:3"));
+  }
+
+  private static DeliveryUpdate update(Long deliveryId) {
+    return new DeliveryUpdate(DeliveryUpdate.Type.STATUS, deliveryId, deliveryId, DeliveryStatus.SCHEDULED,
+        7L, null, false, Instant.now());
+  }
+
+  private static boolean waitUntil(BooleanSupplier condition) throws InterruptedException {
+    for (int i = 0; i < 200 && !condition.getAsBoolean(); i++) {
+      Thread.sleep(10);
+    }
+    return condition.getAsBoolean();
+  }
+
+  // Records the text of each event; with a latch, the first send blocks like a client that stopped reading
+  private static final class RecordingEmitter extends SseEmitter {
+    private final List<String> events = new CopyOnWriteArrayList<>();
+    private final CountDownLatch release;
+    private volatile boolean sending;
+    private volatile Throwable completedWith;
+
+    private RecordingEmitter(CountDownLatch release) {
+      this.release = release;
+    }
+
+    @Override
+    public void send(SseEventBuilder builder) throws IOException {
+      StringBuilder text = new StringBuilder();
+      for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+        if (part.getData() instanceof String s) {
+          text.append(s);
+        }
+      }
+      sending = true;
+      if (release != null) {
+        try {
+          release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException(e);
+        }
+      }
+      events.add(text.toString());
+    }
+
+    @Override
+    public void completeWithError(Throwable ex) {
+      completedWith = ex;
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package com.laundry.lms.service.stream;
+
+import com.laundry.lms.LaundryManagementSystemApplication;
+import com.laundry.lms.dto.DeliveryUpdate;
+import com.laundry.lms.model.DeliveryJob;
+import com.laundry.lms.model.DeliveryStatus;
+import com.laundry.lms.model.LaundryOrder;
+import com.laundry.lms.model.User;
+import com.laundry.lms.model.UserRole;
+import com.laundry.lms.repository.DeliveryJobRepository;
+import com.laundry.lms.repository.LaundryOrderRepository;
+import com.laundry.lms.repository.UserRepository;
+import com.laundry.lms.service.LateDeliveryMonitor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A job the timer wheel never saw (here: saved straight to the table) is
+ * flagged by the periodic sweep, and subscribers get a LATE update for it
+ * through the outbox like a wheel-flagged job.
+ */
+@SpringBootTest(classes = LaundryManagementSystemApplication.class,
+    properties = "spring.datasource.url=jdbc:h2:mem:late-delivery-stream;DB_CLOSE_DELAY=-1")
+@DirtiesContext
+class LateDeliveryStreamTests {
+
+  @Autowired private UserRepository users;
+  @Autowired private LaundryOrderRepository orders;
+  @Autowired private DeliveryJobRepository jobs;
+  @Autowired private LateDeliveryMonitor monitor;
+  @Autowired private DeliveryEventHub hub;
+
+  @Test
+  void sweptJobsReachSubscribersAsLate() throws InterruptedException {
+    User customer = users.save(new User("Late Customer", "late-stream@test.lk", "x", UserRole.CUSTOMER));
+    LaundryOrder order = new LaundryOrder();
+    order.setCustomer(customer);
+    order.setServiceType("Wash & Fold");
+    order.setQuantity(1.0);
+    order.setUnit("kg");
+    order.setPrice(BigDecimal.valueOf(1000));
+    order = orders.save(order);
+    DeliveryJob job = new DeliveryJob();
+    job.setOrder(order);
+    job.setStatus(DeliveryStatus.SCHEDULED);
+    job.setPickupAt(LocalDateTime.now().minusHours(3));
+    job.setDeliveryAt(LocalDateTime.now().minusHours(1));
+    Long jobId = jobs.save(job).getId();
+
+    List<DeliveryUpdate> received = new CopyOnWriteArrayList<>();
+    hub.subscribe(new SseEmitter() {
+      @Override
+      public void send(SseEventBuilder builder) {
+        for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+          if (part.getData() instanceof DeliveryUpdate update) {
+            received.add(update);
+          }
+        }
+      }
+    }, update -> jobId.equals(update.deliveryId()), null);
+
+    assertTrue(monitor.sweep() >= 1);
+    for (int i = 0; i < 500 && !hasLate(received); i++) {
+      Thread.sleep(20);
+    }
+    assertTrue(hasLate(received), "no LATE update for swept job " + jobId + ": " + received);
+  }
+
+  private static boolean hasLate(List<DeliveryUpdate> updates) {
+    return updates.stream().anyMatch(update -> update.type() == DeliveryUpdate.Type.LATE && update.late());
+  }
+}
@@ -0,0 +1,179 @@
+package com.laundry.lms.service.sync;
+
+import com.laundry.lms.LaundryManagementSystemApplication;
+import com.laundry.lms.dto.DeliverySyncRequest;
+import com.laundry.lms.dto.DeliverySyncResponse;
+import com.laundry.lms.model.DeliveryJob;
+import com.laundry.lms.model.DeliveryStatus;
+import com.laundry.lms.model.LaundryOrder;
+import com.laundry.lms.model.User;
+import com.laundry.lms.model.UserRole;
+import com.laundry.lms.repository.DeliveryJobRepository;
+import com.laundry.lms.repository.LaundryOrderRepository;
+import com.laundry.lms.repository.UserRepository;
+import com.laundry.lms.service.DeliveryAssignmentService;
+import com.laundry.lms.service.DeliveryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Driver app sync against a real change log: resends repeat the original
+ * outcome, rejected updates send the job back, reassignment and the batched
+ * auto-assignment reach drivers as deltas, and tokens the server cannot
+ * vouch for get a full sync.
+ */
+@SpringBootTest(classes = LaundryManagementSystemApplication.class, properties = {
+    "spring.datasource.url=jdbc:h2:mem:delivery-sync;DB_CLOSE_DELAY=-1",
+    "delivery.assignment.interval-ms=3600000",
+    "delivery.sync.retention-days=14"})
+@DirtiesContext
+class DeliverySyncServiceTests {
+
+  @Autowired private DeliverySyncService sync;
+  @Autowired private DeliveryService deliveries;
+  @Autowired private DeliveryAssignmentService assignment;
+  @Autowired private DeliveryChangeLog changeLog;
+  @Autowired private UserRepository users;
+  @Autowired private LaundryOrderRepository orders;
+  @Autowired private DeliveryJobRepository jobs;
+
+  @Test
+  void resentUpdateRepeatsTheOriginalOutcome() {
+    User driver = driver();
+    Long jobId = job(driver).getId();
+    DeliverySyncResponse first = sync.sync(driver, new DeliverySyncRequest(null, List.of(
+        update("pick-" + jobId, jobId, DeliveryStatus.PICKED_UP),
+        update("back-" + jobId, jobId, DeliveryStatus.SCHEDULED))));
+    assertTrue(first.results().get(0).applied());
+    assertFalse(first.results().get(1).applied());
+
+    DeliverySyncResponse resent = sync.sync(driver, new DeliverySyncRequest(first.syncToken(), List.of(
+        update("pick-" + jobId, jobId, DeliveryStatus.PICKED_UP),
+        update("back-" + jobId, jobId, DeliveryStatus.SCHEDULED))));
+    DeliverySyncResponse.UpdateResult applied = resent.results().get(0);
+    DeliverySyncResponse.UpdateResult rejected = resent.results().get(1);
+    assertTrue(applied.applied() && applied.duplicate());
+    assertTrue(!rejected.applied() && rejected.duplicate());
+    assertEquals(first.results().get(1).message(), rejected.message());
+    assertEquals(DeliveryStatus.PICKED_UP, jobs.findById(jobId).orElseThrow().getStatus());
+  }
+
+  @Test
+  void rejectedUpdateSendsTheJobBackWithoutAFullSync() {
+    User driver = driver();
+    Long jobId = job(driver).getId();
+    DeliverySyncResponse initial = sync.sync(driver, new DeliverySyncRequest(null, List.of()));
+
+    DeliverySyncResponse response = sync.sync(driver, new DeliverySyncRequest(initial.syncToken(), List.of(
+        update(UUID.randomUUID().toString(), jobId, DeliveryStatus.LATE))));
+    assertFalse(response.results().get(0).applied());
+    assertFalse(response.full());
+    DeliverySyncResponse.Job job = find(response, jobId);
+    assertNotNull(job, "rejected job not sent back");
+    assertEquals(DeliveryStatus.SCHEDULED, job.status());
+  }
+
+  @Test
+  void reassignmentRemovesTheJobFromTheFormerDriver() {
+    User former = driver();
+    User next = driver();
+    Long jobId = job(former).getId();
+    DeliverySyncResponse before = sync.sync(former, new DeliverySyncRequest(null, List.of()));
+    assertNotNull(find(before, jobId));
+
+    deliveries.reassignDelivery(jobId, next.getId(), admin());
+
+    DeliverySyncResponse after = sync.sync(former, new DeliverySyncRequest(before.syncToken(), List.of()));
+    assertFalse(after.full());
+    assertEquals(List.of(jobId), after.removed());
+    assertNull(find(after, jobId));
+    assertNotNull(find(sync.sync(next, new DeliverySyncRequest(null, List.of())), jobId));
+  }
+
+  @Test
+  void expiredOrFutureTokenForcesAFullSync() {
+    User driver = driver();
+    job(driver);
+    long committed = changeLog.committed();
+    long now = Instant.now().getEpochSecond();
+
+    String current = committed + "." + now;
+    assertFalse(sync.sync(driver, new DeliverySyncRequest(current, List.of())).full());
+
+    String expired = committed + "." + Instant.now().minus(Duration.ofDays(15)).getEpochSecond();
+    DeliverySyncResponse afterExpiry = sync.sync(driver, new DeliverySyncRequest(expired, List.of()));
+    assertTrue(afterExpiry.full());
+    assertEquals(1, afterExpiry.jobs().size());
+
+    // Issued by a database that has since been reset
+    String future = (committed + 1000) + "." + now;
+    assertTrue(sync.sync(driver, new DeliverySyncRequest(future, List.of())).full());
+  }
+
+  @Test
+  void batchedAutoAssignmentReachesTheDriverAsADelta() {
+    driver();
+    Long jobId = job(null).getId();
+    long before = changeLog.committed();
+
+    assertTrue(assignment.assignPending(null) >= 1);
+
+    DeliveryJob assigned = jobs.findById(jobId).orElseThrow();
+    assertNotNull(assigned.getAssignedTo());
+    assertTrue(assigned.getChangeSeq() > before, "change_seq not bumped: " + assigned.getChangeSeq());
+    User driver = users.findById(assigned.getAssignedTo().getId()).orElseThrow();
+    String token = before + "." + Instant.now().getEpochSecond();
+    assertNotNull(find(sync.sync(driver, new DeliverySyncRequest(token, List.of())), jobId));
+  }
+
+  private User driver() {
+    String name = "Sync Driver " + UUID.randomUUID();
+    return users.save(new User(name, name.replace(' ', '-') + "@test.lk", "x", UserRole.DELIVERY_STAFF));
+  }
+
+  private User admin() {
+    String name = "Sync Admin " + UUID.randomUUID();
+    return users.save(new User(name, name.replace(' ', '-') + "@test.lk", "x", UserRole.ADMIN));
+  }
+
+  private DeliveryJob job(User driver) {
+    String name = "Sync Customer " + UUID.randomUUID();
+    User customer = users.save(new User(name, name.replace(' ', '-') + "@test.lk", "x", UserRole.CUSTOMER));
+    LaundryOrder order = new LaundryOrder();
+    order.setCustomer(customer);
+    order.setServiceType("Wash & Fold");
+    order.setQuantity(1.0);
+    order.setUnit("kg");
+    order.setPrice(BigDecimal.valueOf(1000));
+    DeliveryJob job = new DeliveryJob();
+    job.setOrder(orders.save(order));
+    job.setAssignedTo(driver);
+    job.setStatus(DeliveryStatus.SCHEDULED);
+    job.setPickupAt(LocalDateTime.now().plusHours(1));
+    job.setDeliveryAt(LocalDateTime.now().plusHours(4));
+    return jobs.save(job);
+  }
+
+  private static DeliverySyncRequest.QueuedUpdate update(String clientUpdateId, Long jobId, DeliveryStatus status) {
+    return new DeliverySyncRequest.QueuedUpdate(clientUpdateId, jobId, status, Instant.now());
+  }
+
+  private static DeliverySyncResponse.Job find(DeliverySyncResponse response, Long jobId) {
+    return response.jobs().stream().filter(job -> job.id().equals(jobId)).findFirst().orElse(null);
+  }
+}
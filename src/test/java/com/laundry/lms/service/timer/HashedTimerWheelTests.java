@@ -0,0 +1,113 @@
+package com.laundry.lms.service.timer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Timer wheel driven by hand: 10 ms ticks on a 4-bucket wheel, with the
+ * clock moved explicitly so every case is deterministic.
+ */
+class HashedTimerWheelTests {
+
+  private static final long START = 1_000_000;
+
+  private final AtomicLong clock = new AtomicLong(START);
+  private final List<String> fired = new ArrayList<>();
+  private HashedTimerWheel<String> wheel;
+
+  @BeforeEach
+  void startWheel() {
+    wheel = new HashedTimerWheel<>(10, 4, fired::add, clock::get);
+    wheel.start();
+  }
+
+  @Test
+  void firesOnceTheDeadlineHasPassed() {
+    wheel.schedule("a", START + 25);
+    at(20);
+    assertTrue(fired.isEmpty());
+    at(30);
+    assertEquals(List.of("a"), fired);
+    at(100);
+    assertEquals(List.of("a"), fired);
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  void rescheduleReplacesTheEarlierDeadline() {
+    wheel.schedule("a", START + 20);
+    at(10);
+    wheel.schedule("a", START + 60);
+    assertEquals(1, wheel.size());
+    at(40);
+    assertTrue(fired.isEmpty(), "fired at the replaced deadline");
+    at(60);
+    assertEquals(List.of("a"), fired);
+  }
+
+  @Test
+  void rescheduleToAnEarlierDeadlineFiresThen() {
+    wheel.schedule("a", START + 200);
+    wheel.schedule("a", START + 30);
+    at(30);
+    assertEquals(List.of("a"), fired);
+    at(300);
+    assertEquals(List.of("a"), fired);
+  }
+
+  @Test
+  void cancelledKeyNeverFires() {
+    wheel.schedule("a", START + 20);
+    wheel.schedule("b", START + 20);
+    at(10);
+    wheel.cancel("a");
+    at(100);
+    assertEquals(List.of("b"), fired);
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  void deadlineBeyondOneTurnWaitsForItsRound() {
+    // Tick 10 shares bucket 2 with ticks 2 and 6
+    wheel.schedule("a", START + 100);
+    for (long millis = 10; millis < 100; millis += 10) {
+      at(millis);
+      assertTrue(fired.isEmpty(), "fired early at " + millis + " ms");
+    }
+    at(100);
+    assertEquals(List.of("a"), fired);
+  }
+
+  @Test
+  void stalledTickerCatchesUpInDeadlineOrder() {
+    wheel.schedule("late", START + 70);
+    wheel.schedule("early", START + 30);
+    wheel.schedule("later", START + 200);
+    at(0);
+    // One advance after a long stall covers every tick that was missed
+    at(150);
+    assertEquals(List.of("early", "late"), fired);
+    at(200);
+    assertEquals(List.of("early", "late", "later"), fired);
+  }
+
+  @Test
+  void pastDeadlineFiresOnTheNextTick() {
+    at(50);
+    wheel.schedule("a", START + 5);
+    at(60);
+    assertEquals(List.of("a"), fired);
+  }
+
+  private void at(long millisSinceStart) {
+    clock.set(START + millisSinceStart);
+    wheel.advance();
+  }
+}